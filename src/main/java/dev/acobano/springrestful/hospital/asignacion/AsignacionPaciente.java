@@ -0,0 +1,20 @@
+package dev.acobano.springrestful.hospital.asignacion;
+
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.util.Objects;
+
+/**
+ * Médico asignado a un paciente y gravedad con la que cuenta en su carga de trabajo.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record AsignacionPaciente(Long medicoId, Gravedad gravedad)
+{
+    public static AsignacionPaciente desde(Paciente paciente)
+    {
+        return new AsignacionPaciente(Objects.isNull(paciente.getMedicoAsignado())
+                ? null
+                : paciente.getMedicoAsignado().getId(), paciente.getGravedad());
+    }
+}
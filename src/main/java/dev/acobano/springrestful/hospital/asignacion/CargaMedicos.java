@@ -0,0 +1,281 @@
+package dev.acobano.springrestful.hospital.asignacion;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.repositorios.MedicoRepositorio;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cargas de trabajo en memoria de los médicos, usadas para asignar automáticamente a cada nuevo
+ * paciente el médico menos cargado de la especialidad solicitada. La carga de un médico es la suma
+ * de los pesos de sus pacientes según su gravedad, de modo que un paciente crítico cuenta más que
+ * uno asintomático.
+ * <>
+ * Se reconstruye desde la BBDD al arrancar la aplicación con una única consulta agrupada y se
+ * mantiene con cada alta, modificación o baja de pacientes y médicos. Cada carga es un LongAdder,
+ * por lo que las altas simultáneas no compiten por un mismo contador; a cambio, dos asignaciones
+ * exactamente simultáneas pueden elegir al mismo médico, ya que la elección y la suma de su peso
+ * no son una única operación atómica.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class CargaMedicos
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    //Peso de cada paciente en la carga de su médico según la gravedad de su afección:
+    private static final Map<Gravedad, Long> PESOS = new EnumMap<>(Map.of(
+            Gravedad.ASINTOMATICA, 1L,
+            Gravedad.LEVE, 2L,
+            Gravedad.MODERADA, 3L,
+            Gravedad.GRAVE, 5L,
+            Gravedad.CRITICA, 8L));
+
+    private final MedicoRepositorio repositorio;
+
+    private final Map<Long, LongAdder> cargas = new ConcurrentHashMap<>();
+
+    //Especialidad vigente de cada médico y médicos de cada especialidad, para elegir sin recorrer a todos:
+    private final Map<Long, Especialidad> especialidades = new ConcurrentHashMap<>();
+    private final Map<Especialidad, Set<Long>> plantillas = new EnumMap<>(Especialidad.class);
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public CargaMedicos(MedicoRepositorio repositorio)
+    {
+        this.repositorio = repositorio;
+
+        for (Especialidad especialidad : Especialidad.values())
+            this.plantillas.put(especialidad, ConcurrentHashMap.newKeySet());
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que vuelve a calcular las cargas de todos los médicos a partir de sus pacientes
+     * registrados, leyendo solo el número de pacientes de cada médico por gravedad.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir()
+    {
+        log.info("---> reconstruir");
+        this.cargas.keySet().forEach(this::retirarMedico);
+
+        List<CargaPacientes> leidas = this.repositorio.findCargasPacientes();
+
+        if (Objects.nonNull(leidas))
+            for (CargaPacientes c : leidas)
+            {
+                this.registrarMedico(c.medicoId(), c.especialidad());
+
+                if (Objects.nonNull(c.gravedad()))
+                    this.cargas.get(c.medicoId()).add(peso(c.gravedad()) * c.pacientes());
+            }
+
+        log.info("<--- reconstruir: {} médicos", this.cargas.size());
+    }
+
+    /**
+     * Método que da de alta a un médico con carga nula o, si ya estaba registrado, actualiza
+     * su especialidad conservando su carga.
+     *
+     * @param medicoId Número identificador del médico.
+     * @param especialidad Especialidad del médico.
+     */
+    public void registrarMedico(Long medicoId, Especialidad especialidad)
+    {
+        if (Objects.isNull(medicoId))
+            return;
+
+        this.cargas.computeIfAbsent(medicoId, id -> new LongAdder());
+        Especialidad anterior = Objects.isNull(especialidad)
+                ? this.especialidades.remove(medicoId)
+                : this.especialidades.put(medicoId, especialidad);
+
+        if (Objects.nonNull(anterior) && anterior != especialidad)
+            this.plantillas.get(anterior).remove(medicoId);
+
+        if (Objects.nonNull(especialidad))
+            this.plantillas.get(especialidad).add(medicoId);
+    }
+
+    /**
+     * Método que retira a un médico de las asignaciones automáticas, p. ej. al eliminarlo.
+     *
+     * @param medicoId Número identificador del médico.
+     */
+    public void retirarMedico(Long medicoId)
+    {
+        Especialidad especialidad = this.especialidades.remove(medicoId);
+
+        if (Objects.nonNull(especialidad))
+            this.plantillas.get(especialidad).remove(medicoId);
+
+        this.cargas.remove(medicoId);
+    }
+
+    /**
+     * Método que elige al médico menos cargado de la especialidad introducida y le suma el peso del
+     * nuevo paciente en ese mismo momento, para que las siguientes asignaciones ya lo tengan en
+     * cuenta. Si la transacción en curso se deshace, el peso se le vuelve a restar.
+     *
+     * @param especialidad Especialidad del médico a elegir, o null para elegir entre todos.
+     * @param gravedad Gravedad del paciente a asignar.
+     * @return Objeto Optional con el ID del médico elegido, o vacío si no hay ninguno disponible.
+     */
+    public Optional<Long> elegirMedico(Especialidad especialidad, Gravedad gravedad)
+    {
+        Collection<Long> candidatos = Objects.isNull(especialidad)
+                ? this.cargas.keySet()
+                : this.plantillas.get(especialidad);
+        Long elegido = null;
+        long menorCarga = Long.MAX_VALUE;
+
+        for (Long medicoId : candidatos)
+        {
+            LongAdder carga = this.cargas.get(medicoId);
+
+            if (Objects.isNull(carga))
+                continue;
+
+            //A igualdad de carga se elige al médico más antiguo, el de menor ID:
+            long valor = carga.sum();
+
+            if (valor < menorCarga || (valor == menorCarga && medicoId < elegido))
+            {
+                elegido = medicoId;
+                menorCarga = valor;
+            }
+        }
+
+        if (Objects.isNull(elegido))
+            return Optional.empty();
+
+        Long medicoId = elegido;
+        this.sumar(medicoId, gravedad);
+        this.deshacerSiNoSeConfirma(() -> this.restar(medicoId, gravedad));
+        return Optional.of(medicoId);
+    }
+
+    /**
+     * Método que suma a la carga de un médico el peso de un paciente de la gravedad introducida.
+     *
+     * @param medicoId Número identificador del médico, o null si el paciente no tiene médico.
+     * @param gravedad Gravedad del paciente.
+     */
+    public void sumar(Long medicoId, Gravedad gravedad)
+    {
+        Optional.ofNullable(medicoId).map(this.cargas::get).ifPresent(carga -> carga.add(peso(gravedad)));
+    }
+
+    /**
+     * Método que resta de la carga de un médico el peso de un paciente de la gravedad introducida.
+     *
+     * @param medicoId Número identificador del médico, o null si el paciente no tenía médico.
+     * @param gravedad Gravedad del paciente.
+     */
+    public void restar(Long medicoId, Gravedad gravedad)
+    {
+        Optional.ofNullable(medicoId).map(this.cargas::get).ifPresent(carga -> carga.add(-peso(gravedad)));
+    }
+
+    /**
+     * Método que traslada el peso de un paciente de su asignación anterior a la nueva, p. ej. al
+     * cambiarle de médico o de gravedad.
+     *
+     * @param anterior Médico y gravedad anteriores del paciente, o null si es un paciente nuevo.
+     * @param nueva Médico y gravedad actuales del paciente, o null si se ha eliminado.
+     */
+    public void mover(AsignacionPaciente anterior, AsignacionPaciente nueva)
+    {
+        if (Objects.equals(anterior, nueva))
+            return;
+
+        if (Objects.nonNull(anterior))
+            this.restar(anterior.medicoId(), anterior.gravedad());
+
+        if (Objects.nonNull(nueva))
+            this.sumar(nueva.medicoId(), nueva.gravedad());
+    }
+
+    /**
+     * Método que devuelve la carga actual del médico cuyo ID se introduce.
+     *
+     * @param medicoId Número identificador del médico.
+     * @return Objeto Optional con la carga del médico, o vacío si no está registrado.
+     */
+    public Optional<Long> carga(Long medicoId)
+    {
+        return Optional.ofNullable(this.cargas.get(medicoId)).map(LongAdder::sum);
+    }
+
+    /**
+     * Método que ejecuta una modificación de las cargas cuando la transacción en curso se confirme,
+     * de forma que los cambios que se deshagan nunca lleguen a contarse.
+     *
+     * @param accion Modificación de las cargas a ejecutar.
+     */
+    public void trasConfirmar(Runnable accion)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    accion.run();
+                }
+            });
+        else
+            accion.run();
+    }
+
+    private void deshacerSiNoSeConfirma(Runnable compensacion)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion(int estado)
+                {
+                    if (estado != STATUS_COMMITTED)
+                        compensacion.run();
+                }
+            });
+    }
+
+    //Los pacientes sin gravedad registrada cuentan como asintomáticos, igual que en la cola de triaje:
+    private static long peso(Gravedad gravedad)
+    {
+        return PESOS.get(Objects.isNull(gravedad) ? Gravedad.ASINTOMATICA : gravedad);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.acobano.springrestful.hospital.asignacion;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+
+/**
+ * Número de pacientes de una misma gravedad asignados a un médico, tal y como los agrupa la
+ * consulta con la que se reconstruyen las cargas de trabajo. Los médicos sin pacientes aparecen
+ * una vez con gravedad nula y ningún paciente.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record CargaPacientes(Long medicoId,
+                             Especialidad especialidad,
+                             Gravedad gravedad,
+                             Long pacientes)
+{
+}
@@ -0,0 +1,148 @@
+package dev.acobano.springrestful.hospital.campos;
+
+import dev.acobano.springrestful.hospital.excepciones.CamposInvalidosExcepcion;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Clase que representa los campos de un DTO de salida solicitados en el parámetro 'fields' de una
+ * petición GET (p. ej. '?fields=nombre,gravedad'). Los mapeadores la consultan para no formatear ni
+ * contar lo que no se ha pedido, y 'FiltroCampos' la usa para no serializarlo en la respuesta.
+ * <>
+ * El campo 'id' se incluye siempre, para que el cliente pueda relacionar cada elemento con su recurso.
+ * <>
+ * @author Álvaro Cobano
+ */
+public final class CamposSolicitados
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    public static final String PARAMETRO = "fields";
+    public static final CamposSolicitados TODOS = new CamposSolicitados(null, null);
+
+    private static final String CAMPO_ID = "id";
+
+    //Campos de cada DTO de salida, leídos por reflexión una sola vez por clase:
+    private static final Map<Class<?>, Set<String>> CAMPOS_POR_TIPO = new ConcurrentHashMap<>();
+
+    private final Class<?> tipo;
+    private final Set<String> nombres;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    private CamposSolicitados(Class<?> tipo, Set<String> nombres)
+    {
+        this.tipo = tipo;
+        this.nombres = nombres;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que interpreta el valor del parámetro 'fields' para el DTO de salida introducido.
+     *
+     * @param fields Nombres de los campos separados por comas, o null si no se ha enviado el parámetro.
+     * @param tipo Clase del DTO de salida del endpoint.
+     * @return Campos solicitados, o 'TODOS' si el parámetro no se ha enviado o está vacío.
+     * @throws CamposInvalidosExcepcion Si algún nombre no corresponde a un campo del DTO de salida.
+     */
+    public static CamposSolicitados de(String fields, Class<?> tipo)
+    {
+        if (Objects.isNull(fields) || fields.isBlank())
+            return TODOS;
+
+        Set<String> disponibles = camposDe(tipo);
+        Set<String> nombres = new LinkedHashSet<>();
+
+        if (disponibles.contains(CAMPO_ID))
+            nombres.add(CAMPO_ID);
+
+        for (String campo : fields.split(","))
+        {
+            String nombre = campo.trim();
+
+            if (nombre.isEmpty())
+                continue;
+
+            if (!disponibles.contains(nombre))
+                throw new CamposInvalidosExcepcion(String.format(
+                        "El campo '%s' no existe en '%s'. Campos disponibles: %s",
+                        nombre, tipo.getSimpleName(), String.join(", ", disponibles)));
+
+            nombres.add(nombre);
+        }
+
+        return new CamposSolicitados(tipo, Set.copyOf(nombres));
+    }
+
+    /**
+     * Método que indica si el campo introducido debe rellenarse y enviarse en la respuesta.
+     *
+     * @param campo Nombre del campo del DTO de salida.
+     * @return true si se han solicitado todos los campos o el campo está entre los solicitados.
+     */
+    public boolean incluye(String campo)
+    {
+        return Objects.isNull(this.nombres) || this.nombres.contains(campo);
+    }
+
+    /**
+     * Método que indica si el campo introducido del objeto introducido debe omitirse al serializarlo,
+     * lo que solo ocurre con los objetos de la clase del DTO para la que se interpretó el parámetro.
+     *
+     * @param objeto Objeto que se está serializando.
+     * @param campo Nombre del campo del objeto.
+     * @return true si el campo no se ha solicitado.
+     */
+    public boolean omite(Object objeto, String campo)
+    {
+        return Objects.nonNull(this.tipo) && this.tipo.equals(objeto.getClass()) && !this.incluye(campo);
+    }
+
+    /**
+     * Método que obtiene la ETag de un recurso en la versión introducida tal y como se envía con
+     * estos campos: la misma versión con otros campos es otra representación y no debe validarse
+     * con la ETag de la completa. Los campos se ordenan para que su orden en 'fields' no importe.
+     *
+     * @param version Versión actual del recurso.
+     * @return La versión si se envían todos los campos, o la versión seguida de un resumen de los campos.
+     */
+    public String etiqueta(String version)
+    {
+        if (this.esCompleto())
+            return version;
+
+        String campos = this.nombres.stream().sorted().collect(Collectors.joining(","));
+        return version + "-" + Integer.toHexString(campos.hashCode());
+    }
+
+    public boolean esCompleto()
+    {
+        return Objects.isNull(this.nombres);
+    }
+
+    private static Set<String> camposDe(Class<?> tipo)
+    {
+        return CAMPOS_POR_TIPO.computeIfAbsent(tipo, t -> Arrays.stream(t.getDeclaredFields())
+                .filter(f -> !Modifier.isStatic(f.getModifiers()))
+                .map(Field::getName)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+}
@@ -0,0 +1,47 @@
+package dev.acobano.springrestful.hospital.campos;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * Proveedor de filtros de Jackson que acompaña a la serialización de una respuesta con los campos
+ * solicitados en el parámetro 'fields'. No filtra por sí mismo: las propiedades de los DTOs de salida
+ * registradas por 'ModuloCampos' lo consultan para saber si deben escribirse, de forma que los DTOs
+ * no necesitan la anotación '@JsonFilter' y se serializan completos cuando no se usa.
+ * <>
+ * @author Álvaro Cobano
+ */
+public class FiltroCampos extends SimpleFilterProvider
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CamposSolicitados campos;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    public FiltroCampos(CamposSolicitados campos)
+    {
+        super();
+        this.setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+        this.campos = campos;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    public CamposSolicitados getCampos()
+    {
+        return this.campos;
+    }
+}
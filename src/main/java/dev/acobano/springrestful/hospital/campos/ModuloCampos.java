@@ -0,0 +1,101 @@
+package dev.acobano.springrestful.hospital.campos;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import dev.acobano.springrestful.hospital.dto.salida.ApiErrorResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.ValidacionErrorResponseDTO;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Módulo de Jackson, registrado por Spring Boot en el ObjectMapper de la aplicación, que permite
+ * omitir al serializar los campos de los DTOs de salida que no se han solicitado en el parámetro
+ * 'fields'. Cada propiedad comprueba si la serialización lleva un 'FiltroCampos' y, solo en ese caso,
+ * si su campo está entre los solicitados; sin él, los DTOs se escriben completos como siempre.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+public class ModuloCampos extends SimpleModule
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String PAQUETE_DTOS_SALIDA = ApiErrorResponseDTO.class.getPackageName();
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    public ModuloCampos()
+    {
+        super("ModuloCampos");
+        this.setSerializerModifier(new BeanSerializerModifier()
+        {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                             BeanDescription descripcion,
+                                                             List<BeanPropertyWriter> propiedades)
+            {
+                if (!esFiltrable(descripcion.getBeanClass()))
+                    return propiedades;
+
+                List<BeanPropertyWriter> filtrables = new ArrayList<>(propiedades.size());
+                propiedades.forEach(p -> filtrables.add(new PropiedadFiltrable(p)));
+                return filtrables;
+            }
+        });
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que indica si los campos de la clase introducida pueden seleccionarse con 'fields': los
+     * DTOs de salida, salvo los de error, que se devuelven siempre completos.
+     *
+     * @param tipo Clase del objeto a serializar.
+     * @return true si es un DTO de salida que admite la selección de campos.
+     */
+    public static boolean esFiltrable(Class<?> tipo)
+    {
+        return PAQUETE_DTOS_SALIDA.equals(tipo.getPackageName())
+                && !ApiErrorResponseDTO.class.equals(tipo)
+                && !ValidacionErrorResponseDTO.class.equals(tipo);
+    }
+
+    //Propiedad que se salta a sí misma cuando la serialización en curso no la ha solicitado:
+    private static class PropiedadFiltrable extends BeanPropertyWriter
+    {
+        private static final long serialVersionUID = 1L;
+
+        PropiedadFiltrable(BeanPropertyWriter base)
+        {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator generador, SerializerProvider proveedor) throws Exception
+        {
+            if (proveedor.getFilterProvider() instanceof FiltroCampos filtro && filtro.getCampos().omite(bean, this.getName()))
+                return;
+
+            super.serializeAsField(bean, generador, proveedor);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.acobano.springrestful.hospital.campos;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Clase con anotación @RestControllerAdvice que aplica el parámetro 'fields' a las respuestas JSON de
+ * todos los endpoints GET: si el body es un DTO de salida o una lista de ellos, se serializa únicamente
+ * con los campos solicitados. Los endpoints principales interpretan además el parámetro antes de
+ * mapear, para no formatear ni contar lo que después no se va a enviar.
+ * <>
+ * @author Álvaro Cobano
+ */
+@RestControllerAdvice
+public class SeleccionCamposRespuesta extends AbstractMappingJacksonResponseBodyAdvice
+{
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que añade a la serialización del body el filtro con los campos solicitados.
+     *
+     * @throws dev.acobano.springrestful.hospital.excepciones.CamposInvalidosExcepcion Si algún campo
+     *         solicitado no existe en el DTO de salida.
+     */
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue contenedor,
+                                           MediaType tipoContenido,
+                                           MethodParameter metodo,
+                                           ServerHttpRequest peticion,
+                                           ServerHttpResponse respuesta)
+    {
+        if (!HttpMethod.GET.equals(peticion.getMethod()) || !(peticion instanceof ServletServerHttpRequest servlet))
+            return;
+
+        String fields = servlet.getServletRequest().getParameter(CamposSolicitados.PARAMETRO);
+        Class<?> tipo = this.tipoDeElemento(contenedor.getValue());
+
+        if (Objects.isNull(fields) || Objects.isNull(tipo) || !ModuloCampos.esFiltrable(tipo))
+            return;
+
+        CamposSolicitados campos = CamposSolicitados.de(fields, tipo);
+
+        if (!campos.esCompleto())
+            contenedor.setFilters(new FiltroCampos(campos));
+    }
+
+    //Clase del DTO a filtrar: la del propio body o, en los listados, la de sus elementos:
+    private Class<?> tipoDeElemento(Object body)
+    {
+        if (body instanceof Collection<?> coleccion)
+            return coleccion.stream().filter(Objects::nonNull).findFirst().map(Object::getClass).orElse(null);
+
+        return Objects.isNull(body) ? null : body.getClass();
+    }
+}
@@ -0,0 +1,107 @@
+package dev.acobano.springrestful.hospital.concurrencia;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ejecutor de operaciones de lectura, modificación y escritura en una única transacción que se
+ * repite desde el principio cuando choca con otra petición simultánea: una versión obsoleta al
+ * confirmar (bloqueo optimista) o una franja de agenda que no se ha podido bloquear a tiempo.
+ * Cada reintento vuelve a leer los datos ya confirmados por la otra petición, por lo que no se
+ * pierde ninguna de las dos actualizaciones.
+ * <>
+ * El número de intentos está acotado; agotados todos, el conflicto se propaga y se responde con
+ * un 409. Entre intentos se espera un tiempo aleatorio creciente para que las peticiones que han
+ * chocado no vuelvan a coincidir.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class ReintentosOptimistas
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private final TransactionTemplate transaccion;
+    private final int maximoIntentos;
+    private final Duration espera;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public ReintentosOptimistas(PlatformTransactionManager gestorTransacciones,
+                                @Value("${hospital.concurrencia.reintentos.maximo:3}") int maximoIntentos,
+                                @Value("${hospital.concurrencia.reintentos.espera:PT0.02S}") Duration espera)
+    {
+        this.transaccion = new TransactionTemplate(gestorTransacciones);
+        this.maximoIntentos = Math.max(1, maximoIntentos);
+        this.espera = espera;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que ejecuta la operación introducida en una transacción nueva, repitiéndola entera
+     * si falla por un conflicto de concurrencia. Si ya hay una transacción en curso, la operación
+     * se ejecuta una sola vez dentro de ella, ya que no puede repetirse sin deshacerla entera.
+     *
+     * @param operacion Operación a ejecutar; debe leer los datos que modifica dentro de ella.
+     * @return Resultado de la operación.
+     * @throws ConcurrencyFailureException Si la operación sigue chocando tras el último intento.
+     */
+    public <T> T ejecutar(Supplier<T> operacion)
+    {
+        if (TransactionSynchronizationManager.isActualTransactionActive())
+            return operacion.get();
+
+        for (int intento = 1; ; intento++)
+        {
+            try
+            {
+                return this.transaccion.execute(estado -> operacion.get());
+            }
+            catch (ConcurrencyFailureException e)
+            {
+                if (intento >= this.maximoIntentos)
+                    throw e;
+
+                log.warn("---> Conflicto de concurrencia en el intento {} de {}: {}",
+                        intento, this.maximoIntentos, e.getClass().getSimpleName());
+                this.esperar(intento, e);
+            }
+        }
+    }
+
+    private void esperar(int intento, ConcurrencyFailureException conflicto)
+    {
+        try
+        {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(this.espera.toMillis() * intento + 1));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw conflicto;
+        }
+    }
+}
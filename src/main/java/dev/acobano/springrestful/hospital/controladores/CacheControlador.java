@@ -0,0 +1,85 @@
+package dev.acobano.springrestful.hospital.controladores;
+
+import dev.acobano.springrestful.hospital.dto.salida.EstadisticasCacheResponseDTO;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICacheServicio;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Clase de la capa de controlador encargada de exponer el estado de la caché
+ * de segundo nivel que comparten las entidades de referencia de la aplicación Spring.
+ * <>
+ * @author Álvaro Cobano
+ */
+@RestController
+@RequestMapping("hospital/api/cache")
+@Tag(
+        name = "CacheControlador",
+        description = "Clase de la capa de controlador encargada de exponer el estado de la caché " +
+                "de segundo nivel que comparten las entidades de referencia de la aplicación Spring."
+)
+@Slf4j
+public class CacheControlador
+{
+                                            // *******************
+                                            // ***  ATRIBUTOS  ***
+                                            // *******************
+
+    @Autowired
+    private ICacheServicio servicio;
+
+
+
+                                            // *****************
+                                            // ***  MÉTODOS  ***
+                                            // *****************
+
+    /**
+     * Método que contiene el endpoint que devuelve los aciertos, fallos e inserciones
+     * acumulados por cada región de la caché de segundo nivel.
+     *
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Consultar estadísticas de la caché",
+            description = "Endpoint que devuelve los aciertos, fallos e inserciones acumulados " +
+                    "por cada región de la caché de segundo nivel desde el arranque de la aplicación."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Estadísticas de la caché obtenidas con éxito",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = EstadisticasCacheResponseDTO.class))
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/estadisticas",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<EstadisticasCacheResponseDTO>> obtenerEstadisticas()
+    {
+        log.info("---> obtenerEstadisticas");
+        List<EstadisticasCacheResponseDTO> listaDto = this.servicio.leerEstadisticasRegiones();
+        log.info("<--- obtenerEstadisticas");
+        return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+    }
+}
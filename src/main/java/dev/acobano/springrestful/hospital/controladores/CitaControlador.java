@@ -1,14 +1,38 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPutRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.PlanificacionRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SerieCitasRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SolicitudCitaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.ApiErrorResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.LoteResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.PlanificacionResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.SerieCitasResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.ValidacionErrorResponseDTO;
 import dev.acobano.springrestful.hospital.excepciones.CitaNoEncontradaExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.PacienteNoEncontradoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaNoEncontradaExcepcion;
+import dev.acobano.springrestful.hospital.exportacion.EscritorCsv;
+import dev.acobano.springrestful.hospital.exportacion.EscritorNdjson;
+import dev.acobano.springrestful.hospital.lotes.ProcesadorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.paginacion.CabecerasPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion.CursorFecha;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds.Seleccion;
+import dev.acobano.springrestful.hospital.planificacion.ResultadoPlanificacion;
+import dev.acobano.springrestful.hospital.planificacion.SolicitudCita;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ISerieCitasServicio;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -19,12 +43,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -36,7 +70,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Clase de la capa de controlador encargada de manipular los endpoints de las llamadas HTTP
@@ -58,12 +95,35 @@ public class CitaControlador
                                             // ***  ATRIBUTOS  ***
                                             // *******************
 
+    //Número de citas que se leen, convierten y envían al cliente en cada lote de la exportación:
+    private static final int TAMANIO_LOTE_EXPORTACION = 500;
+
+    private static final String[] COLUMNAS_EXPORTACION = {
+            "id", "paciente", "gravedad", "medico", "especialidad",
+            "numSala", "fechaCita", "horaEntrada", "horaSalida"
+    };
+
     @Autowired
     private ICitaServicio servicio;
 
     @Autowired
     private ICitaMapeador mapeador;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IPlanificacionServicio planificacionServicio;
+
+    @Autowired
+    private ISerieCitasServicio serieServicio;
+
+    @Autowired
+    private ProcesadorLotes procesadorLotes;
+
+    @Autowired
+    private SeleccionPorIds seleccionPorIds;
+
 
 
                                             // *****************
@@ -75,6 +135,8 @@ public class CitaControlador
      * cuyo número identificador coincida con el introducido como parámetro de entrada.
      *
      * @param citaId El número identificador de la cita a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @param peticion Petición HTTP, de la que se lee la cabecera 'If-None-Match'.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
@@ -91,6 +153,11 @@ public class CitaControlador
                             schema = @Schema(implementation = CitaResponseDTO.class)
                     )}
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "La cita no ha cambiado desde la versión indicada en 'If-None-Match'",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "204",
                     description = "No existe ninguna cita en el sistema con el ID introducido",
@@ -110,29 +177,56 @@ public class CitaControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long citaId
+            Long citaId,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "paciente,fechaCita"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields,
+            WebRequest peticion
     ) {
         log.info("---> obtenerCita");
-        Optional<Cita> optCita = this.servicio.buscarCita(citaId);
+        CamposSolicitados campos = CamposSolicitados.de(fields, CitaResponseDTO.class);
+        //Comparamos antes la versión con la de 'If-None-Match', sin cargar la entidad ni formatear sus datos:
+        Optional<String> optVersion = this.servicio.buscarVersionCita(citaId);
+
+        if (!optVersion.isPresent())
+            throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema con el ID introducido");
+
+        if (peticion.checkNotModified(campos.etiqueta(optVersion.get())))
+        {
+            log.info("<--- obtenerCita: sin cambios");
+            return null;
+        }
+
+        Optional<CitaResumen> optCita = this.servicio.buscarResumenCita(citaId);
         
         if (!optCita.isPresent())
             throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema con el ID introducido");
         else
         {
-            CitaResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(optCita.get());
+            CitaResponseDTO dtoSalida = this.mapeador.convertirResumenAResponseDto(optCita.get(), campos);
             log.info("<--- obtenerCita");
-            return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+            return ResponseEntity.status(HttpStatus.OK).eTag(campos.etiqueta(optVersion.get())).body(dtoSalida);
         }
     }
 
     /**
-     * Método que desarrolla un endpoint que devuelve en formato de lista todas las citas registradas en el sistema.
+     * Método que desarrolla un endpoint que devuelve en formato de lista paginada las citas registradas en el
+     * sistema. Los metadatos de la paginación se devuelven en las cabeceras 'X-*' de la respuesta.
      *
+     * @param cursor Cursor opcional para paginar por clave en lugar de por número de página.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
             summary = "Obtener lista de citas",
-            description = "Endpoint que devuelve en formato de lista a todas las citas registradas en el sistema."
+            description = "Endpoint que devuelve en formato de lista paginada las citas registradas en el sistema. " +
+                    "Admite paginación por número de página ('page', 'size', 'sort') o por cursor sobre la clave " +
+                    "(fechaCita, id), cuyo coste no depende de la profundidad de la página."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -153,25 +247,279 @@ public class CitaControlador
             )
     })
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<CitaResponseDTO>> listarCitas()
-    {
+    public ResponseEntity<List<CitaResponseDTO>> listarCitas(
+            @Parameter(
+                    description = "Cursor opaco recibido en la cabecera 'X-Siguiente-Cursor' de la página anterior. " +
+                            "Si se envía, aunque sea vacío, se pagina por clave en lugar de por número de página"
+            )
+            @RequestParam(required = false)
+            String cursor,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = "id")
+            Pageable pageable,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "paciente,fechaCita"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
         log.info("---> listarCitas");
-        List<Cita> listaCitas = this.servicio.leerListaCitas();
-        
+        CamposSolicitados campos = CamposSolicitados.de(fields, CitaResponseDTO.class);
+        List<CitaResumen> listaCitas;
+        HttpHeaders cabeceras;
+
+        if (Objects.isNull(cursor))
+        {
+            Page<CitaResumen> pagina = this.servicio.leerPaginaCitas(pageable);
+            listaCitas = pagina.getContent();
+            cabeceras = CabecerasPaginacion.dePagina(pagina);
+        }
+        else
+        {
+            //En modo cursor el orden es siempre (fechaCita, id), por lo que se ignora el parámetro 'sort':
+            CursorFecha clave = CursorPaginacion.decodificarFechaId(cursor);
+            Slice<CitaResumen> fragmento = Objects.isNull(clave)
+                    ? this.servicio.leerCitasDesdeCursor(null, null, pageable.getPageSize())
+                    : this.servicio.leerCitasDesdeCursor(clave.fecha(), clave.id(), pageable.getPageSize());
+            listaCitas = fragmento.getContent();
+
+            String siguienteCursor = null;
+
+            if (!listaCitas.isEmpty())
+            {
+                CitaResumen ultima = listaCitas.get(listaCitas.size() - 1);
+                siguienteCursor = CursorPaginacion.codificarFechaId(ultima.getFechaCita(), ultima.getId());
+            }
+
+            cabeceras = CabecerasPaginacion.deFragmento(fragmento, siguienteCursor);
+        }
+
+
         if (listaCitas.isEmpty())
             throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema para mostrar");
         else
         {
             List<CitaResponseDTO> listaDto = new ArrayList<>(listaCitas.size());
 
-            for(Cita c : listaCitas)
-                listaDto.add(this.mapeador.convertirEntidadAResponseDto(c));
+            for(CitaResumen c : listaCitas)
+                listaDto.add(this.mapeador.convertirResumenAResponseDto(c, campos));
 
             log.info("<--- listarCitas");
-            return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+            return ResponseEntity.status(HttpStatus.OK).headers(cabeceras).body(listaDto);
         }
     }
 
+    /**
+     * Método que desarrolla un endpoint que devuelve varias citas a partir de su lista de IDs, leídas
+     * todas con una única consulta. Se devuelven en el orden en que se pidieron, y los IDs que no
+     * corresponden a ninguna cita se indican en la cabecera 'X-Ids-No-Encontrados' de la respuesta.
+     *
+     * @param ids Lista de números identificadores de las citas a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar citas por lista de IDs",
+            description = "Endpoint que devuelve las citas cuyos números identificadores se indican en el " +
+                    "parámetro 'ids', en el mismo orden y con una única consulta a la BBDD. Los IDs que no " +
+                    "corresponden a ninguna cita se indican en la cabecera 'X-Ids-No-Encontrados'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Citas encontradas en el sistema con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = CitaResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Ninguno de los IDs introducidos corresponde a una cita del sistema",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista de IDs vacía o con más IDs de los permitidos en una sola petición",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            params = "ids",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<CitaResponseDTO>> listarCitasPorIds(
+            @Parameter(
+                    description = "Números identificadores de las citas a buscar, separados por comas",
+                    example = "1,2,3"
+            )
+            @RequestParam("ids")
+            List<Long> ids,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "paciente,fechaCita"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarCitasPorIds");
+        CamposSolicitados campos = CamposSolicitados.de(fields, CitaResponseDTO.class);
+        //Se descartan los IDs repetidos y se buscan todos a la vez, colocándolos después en el orden solicitado:
+        List<Long> idsSolicitados = this.seleccionPorIds.normalizar(ids);
+        Seleccion<CitaResumen> seleccion = this.seleccionPorIds.ordenar(
+                idsSolicitados, this.servicio.buscarResumenesCitas(idsSolicitados), CitaResumen::getId);
+
+        if (seleccion.encontrados().isEmpty())
+            throw new CitaNoEncontradaExcepcion("Ninguno de los IDs introducidos corresponde a una cita del sistema");
+
+        List<CitaResponseDTO> listaDto = new ArrayList<>(seleccion.encontrados().size());
+
+        for (CitaResumen c : seleccion.encontrados())
+            listaDto.add(this.mapeador.convertirResumenAResponseDto(c, campos));
+
+        log.info("<--- listarCitasPorIds");
+        return ResponseEntity.status(HttpStatus.OK).headers(seleccion.cabeceras()).body(listaDto);
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve todas las citas registradas en el sistema en formato NDJSON,
+     * un objeto JSON por línea. Se leen de la BBDD mediante un cursor y se escriben en la respuesta lote a
+     * lote, por lo que el cliente recibe los primeros elementos sin esperar a que se lea el listado completo.
+     *
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se escribe progresivamente el listado.
+     */
+    @Operation(
+            summary = "Obtener lista de citas en NDJSON",
+            description = "Endpoint que devuelve todas las citas registradas en el sistema en formato NDJSON " +
+                    "(un objeto JSON por línea) cuando se solicita con 'Accept: application/x-ndjson'. No se pagina: " +
+                    "el listado se transmite progresivamente a medida que se lee de la BBDD."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Listado de citas transmitido con éxito",
+                    content = { @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = CitaResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna cita en el sistema para mostrar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarCitasNdjson(
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "paciente,fechaCita"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarCitasNdjson");
+        CamposSolicitados campos = CamposSolicitados.de(fields, CitaResponseDTO.class);
+        if (!this.servicio.existenCitas())
+            throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema para mostrar");
+
+        //El body se escribe fuera del hilo de la petición, dentro de la transacción de solo lectura del servicio:
+        StreamingResponseBody cuerpo = salida -> {
+            EscritorNdjson ndjson = new EscritorNdjson(salida, this.objectMapper, campos);
+
+            this.servicio.procesarResumenesCitasPorLotes(TAMANIO_LOTE_EXPORTACION, lote -> {
+                for (CitaResumen c : lote)
+                    ndjson.escribir(this.mapeador.convertirResumenAResponseDto(c, campos));
+
+                ndjson.vaciar();
+            });
+        };
+
+        log.info("<--- listarCitasNdjson");
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    /**
+     * Método que desarrolla un endpoint que exporta en formato CSV todas las citas registradas en el sistema.
+     * Las filas se leen de la BBDD mediante un cursor y se escriben en la respuesta lote a lote, por lo que
+     * la memoria empleada no depende del número de citas exportadas.
+     *
+     * @return Objeto de la clase ResponseEntity en cuyo body se escribe progresivamente el fichero CSV.
+     */
+    @Operation(
+            summary = "Exportar citas en CSV",
+            description = "Endpoint que exporta en formato CSV todas las citas registradas en el sistema. " +
+                    "El fichero se transmite progresivamente a medida que se leen las citas de la BBDD."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Fichero CSV de citas generado con éxito",
+                    content = { @Content(mediaType = EscritorCsv.MEDIA_TYPE_CSV) }
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna cita en el sistema para exportar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/exportacion",
+            produces = EscritorCsv.MEDIA_TYPE_CSV
+    )
+    public ResponseEntity<StreamingResponseBody> exportarCitas()
+    {
+        log.info("---> exportarCitas");
+        if (!this.servicio.existenCitas())
+            throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema para exportar");
+
+        //El body se escribe fuera del hilo de la petición, dentro de la transacción de solo lectura del servicio:
+        StreamingResponseBody cuerpo = salida -> {
+            EscritorCsv csv = new EscritorCsv(salida);
+            csv.escribirFila((Object[]) COLUMNAS_EXPORTACION);
+
+            this.servicio.procesarCitasPorLotes(TAMANIO_LOTE_EXPORTACION, lote -> {
+                for (Cita c : lote)
+                {
+                    CitaResponseDTO dto = this.mapeador.convertirEntidadAResponseDto(c);
+                    csv.escribirFila(dto.getId(), dto.getPaciente(), dto.getGravedad(), dto.getMedico(),
+                            dto.getEspecialidad(), dto.getNumSala(), dto.getFechaCita(),
+                            dto.getHoraEntrada(), dto.getHoraSalida());
+                }
+
+                csv.vaciar();
+            });
+
+            csv.vaciar();
+        };
+
+        log.info("<--- exportarCitas");
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(EscritorCsv.MEDIA_TYPE_CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("citas.csv").build().toString())
+                .body(cuerpo);
+    }
+
     /**
      * Método que define el endpoint que guarda en el sistema los datos de la nueva
      * cita expuestos en el DTO introducido en el body del request HTTP.
@@ -200,6 +548,14 @@ public class CitaControlador
                             mediaType = "application/json",
                             schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
                     )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "La sala o el médico del paciente ya tienen otra cita en parte de la franja horaria indicada",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
             )
     })
     @PostMapping(
@@ -228,6 +584,373 @@ public class CitaControlador
         return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
     }
 
+    /**
+     * Método que define el endpoint que guarda en el sistema un lote de citas, recibido como array JSON
+     * o en formato NDJSON (un cita por línea). Cada elemento se valida por separado, y las válidos se
+     * guardan por tramos, cada uno en su propia transacción con los INSERT agrupados en lotes JDBC.
+     * Los pacientes y las salas de todo el lote se leen con una consulta por tipo, y las citas que chocan con otra de su sala o de su médico, incluidas las anteriores del mismo lote, se rechazan una a una.
+     *
+     * @param dtosEntrada Lista de DTOs de entrada con los datos de las citas a guardar en el sistema.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Guardar lote de citas",
+            description = "Endpoint que guarda en el sistema un lote de citas, recibido como array JSON o en formato " +
+                    "NDJSON (un cita por línea). Cada elemento se valida por separado, y las válidos se guardan " +
+                    "por tramos, cada uno en su propia transacción con los INSERT agrupados en lotes JDBC."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Lote procesado: el resultado indica el ID de cada cita guardado, o los motivos " +
+                            "por los que se ha rechazado si alguna cita no es válida, su paciente o su sala no existen, o su franja está ocupada",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LoteResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lote vacío o con más elementos de los permitidos en una sola petición",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @PostMapping(
+            value = "/lote",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<LoteResponseDTO> guardarLoteCitas(
+            @Parameter(
+                    description = "Lista de DTOs de entrada con los datos de las citas a guardar en el sistema",
+                    array = @ArraySchema(schema = @Schema(implementation = CitaPostRequestDTO.class))
+            )
+            @RequestBody
+            List<CitaPostRequestDTO> dtosEntrada
+    ) {
+        log.info("---> guardarLoteCitas");
+
+        //Validamos, traducimos y guardamos el lote por tramos, sin que un elemento rechazado impida guardar los demás:
+        LoteResponseDTO dtoSalida = this.procesadorLotes.procesar(dtosEntrada,
+                this.mapeador::convertirPostRequestDtoAEntidadDeLote,
+                (dtos, citas) -> this.servicio.guardarCitasEnLote(citas),
+                Cita::getId);
+
+        log.info("<--- guardarLoteCitas");
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
+    }
+
+    /**
+     * Método que define el endpoint que programa automáticamente un lote de citas, buscando para
+     * cada solicitud una sala y una franja libres dentro de su rango de días sin solapar ninguna
+     * sala ni la agenda del médico del paciente. Los pacientes más graves eligen hueco primero.
+     *
+     * @param dtoEntrada DTO de entrada con el lote de solicitudes de cita.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Programar automáticamente un lote de citas",
+            description = "Endpoint que programa automáticamente un lote de citas, buscando para cada solicitud " +
+                    "una sala y una franja libres dentro de su rango de días sin solapar ninguna sala ni la agenda " +
+                    "del médico del paciente. Los pacientes más graves eligen hueco primero."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Citas programadas; las solicitudes sin hueco se devuelven aparte",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = PlanificacionResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Datos del DTO de entrada mal validados, o rango de días o duración fuera de los límites",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Alguna solicitud hace referencia a un paciente que no existe en el sistema",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Otra petición ha ocupado alguna de las franjas mientras se planificaba el lote",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @PostMapping(
+            value = "/planificacion",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<PlanificacionResponseDTO> planificarCitas(
+            @Parameter(
+                    description = "DTO de entrada con el lote de solicitudes de cita a programar",
+                    schema = @Schema(implementation = PlanificacionRequestDTO.class)
+            )
+            @Valid @RequestBody
+            PlanificacionRequestDTO dtoEntrada
+    ) {
+        log.info("---> planificarCitas");
+        List<SolicitudCitaRequestDTO> solicitudes = dtoEntrada.getSolicitudes();
+
+        //Traducimos cada solicitud y llamamos a la capa de servicio para programar el lote completo:
+        List<SolicitudCita> lote = solicitudes.stream().map(this.mapeador::convertirSolicitudRequestDto).toList();
+        ResultadoPlanificacion resultado = this.planificacionServicio.planificarCitas(lote);
+
+        PlanificacionResponseDTO dtoSalida = this.mapeador
+                .convertirResultadoPlanificacionAResponseDto(resultado, solicitudes);
+        log.info("<--- planificarCitas");
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
+    }
+
+    /**
+     * Método que define el endpoint que guarda en el sistema una serie de citas periódicas (p. ej. las
+     * sesiones semanales de un tratamiento) con una única fila, en lugar de una cita por sesión.
+     *
+     * @param dtoEntrada DTO de entrada con la regla de repetición y el horario de la serie.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Guardar nueva serie de citas",
+            description = "Endpoint que guarda en el sistema una serie de citas periódicas (p. ej. las sesiones " +
+                    "semanales de un tratamiento) con una única fila, en lugar de una cita por sesión."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Serie de citas insertada con éxito en el sistema",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SerieCitasResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Datos del DTO de entrada mal validados, o fechas u horas de la serie incoherentes",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe en el sistema el paciente o la sala indicados",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Alguna ocurrencia de la serie choca con otra cita de la sala o del médico del paciente",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @PostMapping(
+            value = "/series",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<SerieCitasResponseDTO> guardarSerie(
+            @Parameter(
+                    description = "DTO de entrada con los datos de la serie de citas a guardar en el sistema",
+                    schema = @Schema(implementation = SerieCitasRequestDTO.class)
+            )
+            @Valid @RequestBody
+            SerieCitasRequestDTO dtoEntrada
+    ) {
+        log.info("---> guardarSerie");
+        SerieCitas serie = this.mapeador.convertirSerieRequestDtoAEntidad(dtoEntrada);
+
+        if (Objects.isNull(serie.getPaciente()))
+            throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema con el ID especificado");
+
+        if (Objects.isNull(serie.getSala()))
+            throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema con el ID especificado");
+
+        this.serieServicio.guardarSerie(serie);
+        SerieCitasResponseDTO dtoSalida = this.mapeador.convertirSerieAResponseDto(serie);
+        log.info("<--- guardarSerie");
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
+    }
+
+    /**
+     * Método que recoge un endpoint que devuelve la regla, el horario y las ocurrencias canceladas
+     * de la serie de citas cuyo número identificador sea el introducido como parámetro de entrada.
+     *
+     * @param serieId Número identificador de la serie de citas.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Obtener serie de citas por ID",
+            description = "Endpoint que devuelve la regla, el horario y las ocurrencias canceladas de la serie " +
+                    "de citas cuyo número identificador sea el introducido como parámetro de entrada."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Serie de citas encontrada en el sistema",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SerieCitasResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna serie de citas en el sistema con el ID especificado",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/series/{id}",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<SerieCitasResponseDTO> obtenerSerie(
+            @Parameter(
+                    description = "Número identificador de la serie de citas",
+                    example = "1"
+            )
+            @PathVariable("id") Long serieId
+    ) {
+        log.info("---> obtenerSerie");
+        SerieCitas serie = this.serieServicio.buscarSerie(serieId).orElseThrow(() ->
+                new CitaNoEncontradaExcepcion("No existe ninguna serie de citas en el sistema con el ID especificado"));
+
+        SerieCitasResponseDTO dtoSalida = this.mapeador.convertirSerieAResponseDto(serie);
+        log.info("<--- obtenerSerie");
+        return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+    }
+
+    /**
+     * Método que define el endpoint que cancela una única ocurrencia de una serie de citas,
+     * anotando su fecha como excepción de la serie sin modificar el resto de ocurrencias.
+     *
+     * @param serieId Número identificador de la serie de citas.
+     * @param fecha Fecha de la ocurrencia a cancelar.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Cancelar una ocurrencia de una serie de citas",
+            description = "Endpoint que cancela una única ocurrencia de una serie de citas, anotando su fecha " +
+                    "como excepción de la serie sin modificar el resto de ocurrencias."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Ocurrencia cancelada; se devuelve la serie actualizada",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SerieCitasResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "La serie no tiene ninguna ocurrencia pendiente en la fecha indicada",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna serie de citas en el sistema con el ID especificado",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @DeleteMapping(
+            value = "/series/{id}/ocurrencias",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<SerieCitasResponseDTO> cancelarOcurrencia(
+            @Parameter(
+                    description = "Número identificador de la serie de citas",
+                    example = "1"
+            )
+            @PathVariable("id") Long serieId,
+            @Parameter(
+                    description = "Fecha de la ocurrencia a cancelar en formato 'dd/MM/yyyy'",
+                    example = "14/04/2025"
+            )
+            @RequestParam("fecha") @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate fecha
+    ) {
+        log.info("---> cancelarOcurrencia");
+        SerieCitas serie = this.serieServicio.buscarSerie(serieId).orElseThrow(() ->
+                new CitaNoEncontradaExcepcion("No existe ninguna serie de citas en el sistema con el ID especificado"));
+
+        this.serieServicio.cancelarOcurrencia(serie, fecha);
+        SerieCitasResponseDTO dtoSalida = this.mapeador.convertirSerieAResponseDto(serie);
+        log.info("<--- cancelarOcurrencia");
+        return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+    }
+
+    /**
+     * Método que define el endpoint que elimina del sistema una serie de citas completa,
+     * con todas sus ocurrencias pasadas y futuras.
+     *
+     * @param serieId Número identificador de la serie de citas a eliminar.
+     * @return Objeto de la clase ResponseEntity.
+     */
+    @Operation(
+            summary = "Eliminar serie de citas por ID",
+            description = "Endpoint que elimina del sistema una serie de citas completa, " +
+                    "con todas sus ocurrencias pasadas y futuras."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Serie de citas eliminada exitosamente del sistema",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna serie de citas en el sistema con el ID especificado",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @DeleteMapping(value = "/series/{id}")
+    public ResponseEntity<Void> eliminarSerie(
+            @Parameter(
+                    description = "Número identificador de la serie de citas que se desea eliminar del sistema",
+                    example = "1"
+            )
+            @PathVariable("id") Long serieId
+    ) {
+        log.info("---> eliminarSerie");
+        SerieCitas serie = this.serieServicio.buscarSerie(serieId).orElseThrow(() ->
+                new CitaNoEncontradaExcepcion("No existe ninguna serie de citas en el sistema con el ID especificado"));
+
+        this.serieServicio.eliminarSerie(serie);
+        log.info("<--- eliminarSerie");
+        return ResponseEntity.status(HttpStatus.OK).build();
+    }
+
     /**
      * Método para generar un endpoint que permite actualizar algunos o todos los datos preexistentes de
      * una determinada cita cuyo número identificador sea el introducido como parámetro de entrada.
@@ -265,6 +988,15 @@ public class CitaControlador
                             mediaType = "application/json",
                             schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
                     )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "La sala o el médico del paciente ya tienen otra cita en parte de la franja horaria indicada, " +
+                            "o la cita sigue modificándose a la vez desde otra petición tras varios reintentos",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
             )
     })
     @PutMapping(
@@ -287,17 +1019,16 @@ public class CitaControlador
             Long citaId
     ){
         log.info("---> actualizarCita");
-        Optional<Cita> optCita = this.servicio.buscarCita(citaId);
+
+        //El servicio lee la cita, le aplica los datos del DTO y la guarda, repitiéndolo si otra petición la modifica a la vez:
+        Optional<Cita> optCita = this.servicio.actualizarCita(citaId,
+                cita -> this.mapeador.convertirPutRequestDtoAEntidad(cita, dtoEntrada));
         
         if (!optCita.isPresent())
             throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema con el ID especificado");
         else
         {
-            //Mapeamos los datos existentes en el DTO dentro de la entidad encontrada:
-            Cita actualizada = this.mapeador.convertirPutRequestDtoAEntidad(optCita.get(), dtoEntrada);
-
-            //Llamamos a la capa de servicio para guardar los nuevos datos:
-            this.servicio.guardarCita(actualizada);
+            Cita actualizada = optCita.get();
 
             //Mapeamos dichos datos actualizados en su correspondiente DTO de salida:
             CitaResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(actualizada);
@@ -383,9 +1114,7 @@ public class CitaControlador
     public ResponseEntity<Void> eliminarListaCitas()
     {
         log.info("---> eliminarListaCitas");
-        List<Cita> listaCitas = this.servicio.leerListaCitas();
-
-        if (listaCitas.isEmpty())
+        if (!this.servicio.existenCitas())
             throw new CitaNoEncontradaExcepcion("No existe ninguna cita en el sistema para eliminar");
         else
         {
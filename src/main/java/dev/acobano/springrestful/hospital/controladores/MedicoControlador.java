@@ -1,15 +1,31 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.ApiErrorResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.HuecoResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.LoteResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.MedicoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteMedicoDTO;
 import dev.acobano.springrestful.hospital.dto.salida.ValidacionErrorResponseDTO;
 import dev.acobano.springrestful.hospital.excepciones.MedicoNoEncontradoExcepcion;
+import dev.acobano.springrestful.hospital.exportacion.EscritorNdjson;
+import dev.acobano.springrestful.hospital.lotes.ProcesadorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IMedicoMapeador;
+import dev.acobano.springrestful.hospital.mapeadores.interfaces.ISalaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
+import dev.acobano.springrestful.hospital.paginacion.CabecerasPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds.Seleccion;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IMedicoServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,6 +37,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -28,7 +45,14 @@ import java.util.Optional;
 
 import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,6 +66,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Clase de la capa de controlador encargada de manipular los endpoints de las llamadas HTTP
@@ -63,12 +89,33 @@ public class MedicoControlador
                                         // ***  ATRIBUTOS  ***
                                         // *******************
 
+    //Número de médicos que se leen, convierten y envían al cliente en cada lote del listado NDJSON:
+    private static final int TAMANIO_LOTE_NDJSON = 500;
+
     @Autowired
     private IMedicoServicio servicio;
 
     @Autowired
     private IMedicoMapeador mapeador;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IPacienteServicio pacienteServicio;
+
+    @Autowired
+    private IPlanificacionServicio planificacionServicio;
+
+    @Autowired
+    private ISalaMapeador salaMapeador;
+
+    @Autowired
+    private ProcesadorLotes procesadorLotes;
+
+    @Autowired
+    private SeleccionPorIds seleccionPorIds;
+
 
 
                                         // *****************
@@ -80,6 +127,8 @@ public class MedicoControlador
      * cuyo número identificador coincida con el introducido como parámetro de entrada.
      *
      * @param medicoId Número identificador del médico a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @param peticion Petición HTTP, de la que se lee la cabecera 'If-None-Match'.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
@@ -96,6 +145,11 @@ public class MedicoControlador
                             schema = @Schema(implementation = MedicoResponseDTO.class)
                     )}
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "El médico no ha cambiado desde la versión indicada en 'If-None-Match'",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "204",
                     description = "No existe ningún médico con el ID introducido",
@@ -112,9 +166,30 @@ public class MedicoControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long medicoId
+            Long medicoId,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,especialidad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields,
+            WebRequest peticion
     ) {
         log.info("---> obtenerMedico");
+        CamposSolicitados campos = CamposSolicitados.de(fields, MedicoResponseDTO.class);
+        //Comparamos antes la versión con la de 'If-None-Match', sin cargar la entidad ni formatear sus datos:
+        Optional<String> optVersion = this.servicio.buscarVersionMedico(medicoId);
+
+        if (!optVersion.isPresent())
+            throw new MedicoNoEncontradoExcepcion("No existe ningún médico con el ID introducido");
+
+        if (peticion.checkNotModified(campos.etiqueta(optVersion.get())))
+        {
+            log.info("<--- obtenerMedico: sin cambios");
+            return null;
+        }
+
         //Llamamos a la capa de servicio para ver si existe algún médico con el ID especificado:
         Optional<Medico> optMedico = this.servicio.buscarMedico(medicoId);
         
@@ -123,24 +198,29 @@ public class MedicoControlador
         else
         {
             //En caso afirmativo, lo devolvemos al body del response mapeado en su DTO de salida:
-            MedicoResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(optMedico.get());
+            MedicoResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(optMedico.get(), campos);
             log.info("<--- obtenerMedico");
-            return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+            return ResponseEntity.status(HttpStatus.OK).eTag(campos.etiqueta(optVersion.get())).body(dtoSalida);
         }
     }
 
 
     /**
-     * Método que desarrolla un endpoint que devuelve en formato de lista
-     * a todos los médicos registrados en el sistema.
+     * Método que desarrolla un endpoint que devuelve en formato de lista paginada los médicos registrados en
+     * el sistema. Los metadatos de la paginación se devuelven en las cabeceras 'X-*' de la respuesta.
      *
      * @param nombre Parámetro opcional para buscar por un nombre específico.
      * @param especialidad Parámetro opcional para buscar por una especialidad específica.
+     * @param cursor Cursor opcional para paginar por clave en lugar de por número de página.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
             summary = "Obtener lista de médicos",
-            description = "Endpoint que devuelve en formato de lista a todos los médicos registrados en el sistema."
+            description = "Endpoint que devuelve en formato de lista paginada los médicos registrados en el sistema. " +
+                    "Admite paginación por número de página ('page', 'size', 'sort') o, sin filtros, por cursor " +
+                    "sobre el ID, cuyo coste no depende de la profundidad de la página."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -177,41 +257,214 @@ public class MedicoControlador
                     message = "El dato introducido en el parámetro 'Especialidad' no cumple con las reglas de validación."
             )
             @RequestParam(required = false)
-            String especialidad
+            String especialidad,
+            @Parameter(
+                    description = "Cursor opaco recibido en la cabecera 'X-Siguiente-Cursor' de la página anterior. " +
+                            "Si se envía, aunque sea vacío, se pagina por clave en lugar de por número de página"
+            )
+            @RequestParam(required = false)
+            String cursor,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = "id")
+            Pageable pageable,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,especialidad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
     ) {
         log.info("---> listarMedicos");
-        List<Medico> listaMedicos;
+        CamposSolicitados campos = CamposSolicitados.de(fields, MedicoResponseDTO.class);
+        Page<MedicoResumen> pagina = null;
+        Slice<MedicoResumen> fragmento = null;
 
         //Llamamos a los diferentes filtros de la capa de servicio según los parámetros de entrada recibidos:
         if (!Objects.isNull(nombre) && !Objects.isNull(especialidad))
-            listaMedicos = this.servicio.filtrarMedicosPorNombreYEspecialidad(nombre, especialidad);
+            pagina = this.servicio.filtrarMedicosPorNombreYEspecialidad(nombre, especialidad, pageable);
         else if (!Objects.isNull(nombre))
-            listaMedicos = this.servicio.filtrarMedicosPorNombre(nombre);
+            pagina = this.servicio.filtrarMedicosPorNombre(nombre, pageable);
         else if (!Objects.isNull(especialidad))
-            listaMedicos = this.servicio.filtrarMedicosPorEspecialidad(especialidad);
+            pagina = this.servicio.filtrarMedicosPorEspecialidad(especialidad, pageable);
+        else if (!Objects.isNull(cursor))
+            fragmento = this.servicio.leerMedicosDesdeCursor(
+                    CursorPaginacion.decodificarId(cursor), pageable.getPageSize());
         else
-            listaMedicos = this.servicio.leerListaMedicos();
+            pagina = this.servicio.leerPaginaMedicos(pageable);
+
+        List<MedicoResumen> listaMedicos = Objects.isNull(pagina) ? fragmento.getContent() : pagina.getContent();
         
         if (listaMedicos.isEmpty())
             throw new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema para mostrar");
         else
         {
-            //Mapeamos la lista de entidades Médico a sus correspondientes DTOs de salida:
+            //Cada proyección ya incluye su número de pacientes, calculado en la misma SELECT del listado:
             List<MedicoResponseDTO> listaDto = new ArrayList<>(listaMedicos.size());
 
-            for (Medico medico : listaMedicos)
-                listaDto.add(this.mapeador.convertirEntidadAResponseDto(medico));
+            for (MedicoResumen m : listaMedicos)
+                listaDto.add(this.mapeador.convertirResumenAResponseDto(m, campos));
+
+            HttpHeaders cabeceras = Objects.isNull(pagina)
+                    ? CabecerasPaginacion.deFragmento(fragmento,
+                            CursorPaginacion.codificarId(listaMedicos.get(listaMedicos.size() - 1).getId()))
+                    : CabecerasPaginacion.dePagina(pagina);
 
             log.info("<--- listarMedicos");
-            return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+            return ResponseEntity.status(HttpStatus.OK).headers(cabeceras).body(listaDto);
         }
     }
 
+    /**
+     * Método que desarrolla un endpoint que devuelve varios médicos a partir de su lista de IDs, leídos
+     * todos con una única consulta. Se devuelven en el orden en que se pidieron, y los IDs que no
+     * corresponden a ningún médico se indican en la cabecera 'X-Ids-No-Encontrados' de la respuesta.
+     *
+     * @param ids Lista de números identificadores de los médicos a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar médicos por lista de IDs",
+            description = "Endpoint que devuelve los médicos cuyos números identificadores se indican en el " +
+                    "parámetro 'ids', en el mismo orden y con una única consulta a la BBDD. Los IDs que no " +
+                    "corresponden a ningún médico se indican en la cabecera 'X-Ids-No-Encontrados'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Médicos encontrados en el sistema con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = MedicoResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Ninguno de los IDs introducidos corresponde a un médico del sistema",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista de IDs vacía o con más IDs de los permitidos en una sola petición",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            params = "ids",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<MedicoResponseDTO>> listarMedicosPorIds(
+            @Parameter(
+                    description = "Números identificadores de los médicos a buscar, separados por comas",
+                    example = "1,2,3"
+            )
+            @RequestParam("ids")
+            List<Long> ids,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,especialidad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarMedicosPorIds");
+        CamposSolicitados campos = CamposSolicitados.de(fields, MedicoResponseDTO.class);
+        //Se descartan los IDs repetidos y se buscan todos a la vez, colocándolos después en el orden solicitado:
+        List<Long> idsSolicitados = this.seleccionPorIds.normalizar(ids);
+        Seleccion<MedicoResumen> seleccion = this.seleccionPorIds.ordenar(
+                idsSolicitados, this.servicio.buscarResumenesMedicos(idsSolicitados), MedicoResumen::getId);
+
+        if (seleccion.encontrados().isEmpty())
+            throw new MedicoNoEncontradoExcepcion("Ninguno de los IDs introducidos corresponde a un médico del sistema");
+
+        List<MedicoResponseDTO> listaDto = new ArrayList<>(seleccion.encontrados().size());
+
+        for (MedicoResumen m : seleccion.encontrados())
+            listaDto.add(this.mapeador.convertirResumenAResponseDto(m, campos));
+
+        log.info("<--- listarMedicosPorIds");
+        return ResponseEntity.status(HttpStatus.OK).headers(seleccion.cabeceras()).body(listaDto);
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve todos los médicos registrados en el sistema en formato NDJSON,
+     * un objeto JSON por línea. Se leen de la BBDD mediante un cursor y se escriben en la respuesta lote a
+     * lote, por lo que el cliente recibe los primeros elementos sin esperar a que se lea el listado completo.
+     *
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se escribe progresivamente el listado.
+     */
+    @Operation(
+            summary = "Obtener lista de médicos en NDJSON",
+            description = "Endpoint que devuelve todos los médicos registrados en el sistema en formato NDJSON " +
+                    "(un objeto JSON por línea) cuando se solicita con 'Accept: application/x-ndjson'. No se pagina: " +
+                    "el listado se transmite progresivamente a medida que se lee de la BBDD."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Listado de médicos transmitido con éxito",
+                    content = { @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = MedicoResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ningún médico en el sistema para mostrar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarMedicosNdjson(
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,especialidad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarMedicosNdjson");
+        CamposSolicitados campos = CamposSolicitados.de(fields, MedicoResponseDTO.class);
+        if (!this.servicio.existenMedicos())
+            throw new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema para mostrar");
+
+        //El body se escribe fuera del hilo de la petición, dentro de la transacción de solo lectura del servicio:
+        StreamingResponseBody cuerpo = salida -> {
+            EscritorNdjson ndjson = new EscritorNdjson(salida, this.objectMapper, campos);
+
+            this.servicio.procesarResumenesMedicosPorLotes(TAMANIO_LOTE_NDJSON, lote -> {
+                for (MedicoResumen m : lote)
+                    ndjson.escribir(this.mapeador.convertirResumenAResponseDto(m, campos));
+
+                ndjson.vaciar();
+            });
+        };
+
+        log.info("<--- listarMedicosNdjson");
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
     /**
      * Método que recoge un endpoint que devuelve una lista de DTOs con datos de todos los pacientes asignados
      * al médico cuyo número identificador sea el introducido como parámetro de entrada.
      *
      * @param medicoId Número identificador del médico cuyos pacientes se desee listar.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(summary = "Obtener pacientes asignados a un médico",
@@ -245,7 +498,10 @@ public class MedicoControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long medicoId
+            Long medicoId,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = "id")
+            Pageable pageable
     ) {
         log.info("---> obtenerPacientesPorMedico");
         //Llamamos al servicio para localizar al médico dentro del sistema:
@@ -255,11 +511,110 @@ public class MedicoControlador
             throw new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema con el ID especificado");
         else
         {
-            //En caso de existir, mapeamos a su DTO los pacientes asignados a ese médico:
-            List<PacienteMedicoDTO> listaDto =
-                    this.mapeador.convertirPacientesAsignadosADto(optMedico.get());
+            //En caso de existir, mapeamos a su DTO la página solicitada de los pacientes asignados a ese médico:
+            Page<Paciente> pagina = this.pacienteServicio.leerPacientesPorMedico(medicoId, pageable);
+            List<PacienteMedicoDTO> listaDto = this.mapeador.convertirListaPacientesADto(pagina.getContent());
             
             log.info("<--- obtenerPacientesPorMedico");
+            return ResponseEntity.status(HttpStatus.OK)
+                    .headers(CabecerasPaginacion.dePagina(pagina))
+                    .body(listaDto);
+        }
+    }
+
+    /**
+     * Método que contiene el endpoint que busca los huecos más tempranos en los que el médico cuyo número
+     * identificador se introduce está libre y, a la vez, alguna sala del sistema está disponible.
+     *
+     * @param medicoId Número identificador del médico.
+     * @param fecha Primer día en el que se buscan huecos.
+     * @param duracion Duración mínima del hueco en minutos.
+     * @param dias Número de días, a partir de 'fecha', en los que se buscan huecos.
+     * @param limite Número máximo de huecos a devolver.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar huecos libres para un médico",
+            description = "Endpoint que busca los huecos más tempranos en los que el médico cuyo número " +
+                    "identificador se introduce está libre y, a la vez, alguna sala del sistema está disponible. " +
+                    "El médico se considera ocupado durante las citas de todos sus pacientes asignados."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lista de huecos libres retornada con éxito (vacía si no hay ninguno en el horizonte)",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = HuecoResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ningún médico en el sistema con el ID especificado",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Fecha, duración, número de días o límite fuera de rango",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/{id}/huecos",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<HuecoResponseDTO>> buscarHuecosMedico(
+            @Parameter(
+                    description = "El número identificador del médico a buscar en el sistema",
+                    example = "1"
+            )
+            @PathVariable("id")
+            Long medicoId,
+            @Parameter(
+                    description = "Primer día en el que se buscan huecos, en formato 'dd/MM/yyyy'",
+                    example = "05/12/2018"
+            )
+            @RequestParam("fecha") @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate fecha,
+            @Parameter(
+                    description = "Duración mínima del hueco en minutos",
+                    example = "30"
+            )
+            @RequestParam("duracion")
+            int duracion,
+            @Parameter(
+                    description = "Número de días, a partir de 'fecha', en los que se buscan huecos",
+                    example = "14"
+            )
+            @RequestParam(value = "dias", defaultValue = "1")
+            int dias,
+            @Parameter(
+                    description = "Número máximo de huecos a devolver",
+                    example = "10"
+            )
+            @RequestParam(value = "limite", defaultValue = "10")
+            int limite
+    ) {
+        log.info("---> buscarHuecosMedico");
+
+        //El médico se lee de la caché de segundo nivel; solo comprobamos que exista:
+        if (!this.servicio.buscarMedico(medicoId).isPresent())
+            throw new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema con el ID especificado");
+        else
+        {
+            List<Hueco> huecos = this.planificacionServicio.buscarHuecosMedico(medicoId, fecha, dias, duracion, limite);
+            List<HuecoResponseDTO> listaDto = new ArrayList<>(huecos.size());
+
+            for (Hueco h : huecos)
+                listaDto.add(this.salaMapeador.convertirHuecoAResponseDto(h));
+
+            log.info("<--- buscarHuecosMedico");
             return ResponseEntity.status(HttpStatus.OK).body(listaDto);
         }
     }
@@ -318,6 +673,65 @@ public class MedicoControlador
         return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
     }
 
+    /**
+     * Método que define el endpoint que guarda en el sistema un lote de médicos, recibido como array JSON
+     * o en formato NDJSON (un médico por línea). Cada elemento se valida por separado, y los válidos se
+     * guardan por tramos, cada uno en su propia transacción con los INSERT agrupados en lotes JDBC.
+     * Los DNIs de todo el lote se comprueban con una única consulta.
+     *
+     * @param dtosEntrada Lista de DTOs de entrada con los datos de los médicos a guardar en el sistema.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Guardar lote de médicos",
+            description = "Endpoint que guarda en el sistema un lote de médicos, recibido como array JSON o en formato " +
+                    "NDJSON (un médico por línea). Cada elemento se valida por separado, y los válidos se guardan " +
+                    "por tramos, cada uno en su propia transacción con los INSERT agrupados en lotes JDBC."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Lote procesado: el resultado indica el ID de cada médico guardado, o los motivos " +
+                            "por los que se ha rechazado si algún médico no es válido o su DNI ya está registrado o repetido",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LoteResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lote vacío o con más elementos de los permitidos en una sola petición",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @PostMapping(
+            value = "/lote",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<LoteResponseDTO> guardarLoteMedicos(
+            @Parameter(
+                    description = "Lista de DTOs de entrada con los datos de los médicos a guardar en el sistema",
+                    array = @ArraySchema(schema = @Schema(implementation = MedicoPostRequestDTO.class))
+            )
+            @RequestBody
+            List<MedicoPostRequestDTO> dtosEntrada
+    ) {
+        log.info("---> guardarLoteMedicos");
+
+        //Validamos, traducimos y guardamos el lote por tramos, sin que un elemento rechazado impida guardar los demás:
+        LoteResponseDTO dtoSalida = this.procesadorLotes.procesar(dtosEntrada,
+                this.mapeador::convertirPostRequestDtoAEntidad,
+                (dtos, medicos) -> this.servicio.guardarMedicosEnLote(medicos),
+                Medico::getId);
+
+        log.info("<--- guardarLoteMedicos");
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
+    }
+
     /**
      * Método para generar un endpoint que permite actualizar algunos o todos los datos preexistentes de
      * un determinado médico cuyo número identificador sea el introducido como parámetro de entrada.
@@ -353,6 +767,14 @@ public class MedicoControlador
                             mediaType = "application/json",
                             schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
                     )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "El médico sigue modificándose a la vez desde otra petición tras varios reintentos",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
             )
     })
     @PutMapping(
@@ -376,18 +798,15 @@ public class MedicoControlador
     ){
         log.info("---> actualizarMedico");
 
-        //Buscamos en el servicio si el médico con ID especificado existe:
-        Optional<Medico> optMedico = this.servicio.buscarMedico(medicoId);
+        //El servicio busca al médico, le aplica los datos del DTO y lo guarda, repitiéndolo si hay escrituras simultáneas:
+        Optional<Medico> optMedico = this.servicio.actualizarMedico(medicoId,
+                medico -> this.mapeador.convertirPutRequestDtoAEntidad(medico, dtoEntrada));
         
         if (!optMedico.isPresent())
             throw new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema con el ID especificado");
         else
         {
-            //Recogemos la entidad actualizada empleando el mapeador:
-            Medico actualizado = this.mapeador.convertirPutRequestDtoAEntidad(optMedico.get(), dtoEntrada);
-
-            //Guardamos la entidad actualizada en el repositorio:
-            this.servicio.guardarMedico(actualizado);
+            Medico actualizado = optMedico.get();
 
             //Devolvemos el DTO de la entidad actualizada:
             MedicoResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(actualizado);
@@ -472,10 +891,8 @@ public class MedicoControlador
     public ResponseEntity<Void> eliminarListaMedicos()
     {
         log.info("---> eliminarListaMedicos");
-        //Buscamos en el sistema la lista de todos los médicos existentes:
-        List<Medico> listaMedicos = this.servicio.leerListaMedicos();
-
-        if (listaMedicos.isEmpty())
+        //Comprobamos si existe algún médico en el sistema sin cargar la lista completa:
+        if (!this.servicio.existenMedicos())
             throw new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema para eliminar");
         else
         {
@@ -1,14 +1,27 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.*;
 import dev.acobano.springrestful.hospital.excepciones.PacienteNoEncontradoExcepcion;
+import dev.acobano.springrestful.hospital.exportacion.EscritorCsv;
+import dev.acobano.springrestful.hospital.exportacion.EscritorNdjson;
+import dev.acobano.springrestful.hospital.lotes.ProcesadorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IPacienteMapeador;
-import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.paginacion.CabecerasPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds.Seleccion;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -19,14 +32,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -40,6 +63,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Clase de la capa de controlador encargada de manipular los endpoints de las llamadas HTTP
@@ -62,15 +87,35 @@ public class PacienteControlador
                                         // ***  ATRIBUTOS  ***
                                         // *******************
 
+    //Número de pacientes que se leen, convierten y envían al cliente en cada lote de la exportación:
+    private static final int TAMANIO_LOTE_EXPORTACION = 500;
+
+    private static final String[] COLUMNAS_EXPORTACION = {
+            "id", "nombre", "apellidos", "dni", "genero", "direccion", "email", "telefono", "fechaNacimiento",
+            "fechaIngreso", "medicoAsignado", "areaTratamiento", "gravedad", "citasRegistradas"
+    };
+
     @Autowired
     private IPacienteServicio servicio;
 
     @Autowired
     private IPacienteMapeador mapeador;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private ICitaMapeador citaMapeador;
 
+    @Autowired
+    private ICitaServicio citaServicio;
+
+    @Autowired
+    private ProcesadorLotes procesadorLotes;
+
+    @Autowired
+    private SeleccionPorIds seleccionPorIds;
+
 
 
                                         // *****************
@@ -82,6 +127,8 @@ public class PacienteControlador
      * cuyo número identificador coincida con el introducido como parámetro de entrada.
      *
      * @param pacienteId Número identificador del paciente a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @param peticion Petición HTTP, de la que se lee la cabecera 'If-None-Match'.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
@@ -98,6 +145,11 @@ public class PacienteControlador
                             schema = @Schema(implementation = PacienteResponseDTO.class)
                     )}
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "El paciente no ha cambiado desde la versión indicada en 'If-None-Match'",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "204",
                     description = "No existe ningún paciente en el sistema con el ID introducido",
@@ -114,9 +166,30 @@ public class PacienteControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long pacienteId
+            Long pacienteId,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,gravedad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields,
+            WebRequest peticion
     ) {
         log.info("---> obtenerPaciente");
+        CamposSolicitados campos = CamposSolicitados.de(fields, PacienteResponseDTO.class);
+        //Comparamos antes la versión con la de 'If-None-Match', sin cargar la entidad ni formatear sus datos:
+        Optional<String> optVersion = this.servicio.buscarVersionPaciente(pacienteId);
+
+        if (!optVersion.isPresent())
+            throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema con el ID especificado");
+
+        if (peticion.checkNotModified(campos.etiqueta(optVersion.get())))
+        {
+            log.info("<--- obtenerPaciente: sin cambios");
+            return null;
+        }
+
         //Buscamos en la capa de servicio un posible paciente con el ID del parámetro de entrada:
         Optional<Paciente> optionalPaciente = this.servicio.buscarPaciente(pacienteId);
         
@@ -125,22 +198,27 @@ public class PacienteControlador
         else
         {
             //En caso de encontrarse, enviamos sus datos en su DTO de salida:
-            PacienteResponseDTO dto = this.mapeador.convertirEntidadAResponseDto(optionalPaciente.get());
+            PacienteResponseDTO dto = this.mapeador.convertirEntidadAResponseDto(optionalPaciente.get(), campos);
             log.info("<--- obtenerPaciente");
-            return ResponseEntity.status(HttpStatus.OK).body(dto);
+            return ResponseEntity.status(HttpStatus.OK).eTag(campos.etiqueta(optVersion.get())).body(dto);
         }
     }
 
     /**
-     * Método que desarrolla un endpoint que devuelve en formato de lista
-     * a todos los pacientes registrados en el sistema.
+     * Método que desarrolla un endpoint que devuelve en formato de lista paginada los pacientes registrados en
+     * el sistema. Los metadatos de la paginación se devuelven en las cabeceras 'X-*' de la respuesta.
      *
      * @param gravedad Parámetro opcional para buscar pacientes por una determinada gravedad de afección.
+     * @param cursor Cursor opcional para paginar por clave en lugar de por número de página.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
             summary = "Obtener lista de pacientes",
-            description = "Endpoint que devuelve en formato de lista a todos los pacientes registrados en el sistema."
+            description = "Endpoint que devuelve en formato de lista paginada los pacientes registrados en el sistema. " +
+                    "Admite paginación por número de página ('page', 'size', 'sort') o, sin filtro de gravedad, " +
+                    "por cursor sobre el ID, cuyo coste no depende de la profundidad de la página."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -171,43 +249,512 @@ public class PacienteControlador
                     message = "El dato introducido en el parámetro 'Gravedad' no cumple con las reglas de validación."
             )
             @RequestParam(required = false)
-            String gravedad
+            String gravedad,
+            @Parameter(
+                    description = "Cursor opaco recibido en la cabecera 'X-Siguiente-Cursor' de la página anterior. " +
+                            "Si se envía, aunque sea vacío, se pagina por clave en lugar de por número de página"
+            )
+            @RequestParam(required = false)
+            String cursor,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = "id")
+            Pageable pageable,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,gravedad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
     ) {
         log.info("---> listarPacientes");
-        List<Paciente> listaPacientes;
+        CamposSolicitados campos = CamposSolicitados.de(fields, PacienteResponseDTO.class);
+        List<PacienteResumen> listaPacientes;
+        HttpHeaders cabeceras;
 
         //Filtramos la lista de pacientes en función de la presencia o no de la cadena de parámetro de entrada:
-        if (Objects.isNull(gravedad))
-            listaPacientes = this.servicio.leerListaPacientes();
+        if (!Objects.isNull(gravedad))
+        {
+            Page<PacienteResumen> pagina = this.servicio.filtrarPacientesPorGravedad(gravedad, pageable);
+            listaPacientes = pagina.getContent();
+            cabeceras = CabecerasPaginacion.dePagina(pagina);
+        }
+        else if (!Objects.isNull(cursor))
+        {
+            Slice<PacienteResumen> fragmento = this.servicio.leerPacientesDesdeCursor(
+                    CursorPaginacion.decodificarId(cursor), pageable.getPageSize());
+            listaPacientes = fragmento.getContent();
+            cabeceras = CabecerasPaginacion.deFragmento(fragmento, listaPacientes.isEmpty()
+                    ? null
+                    : CursorPaginacion.codificarId(listaPacientes.get(listaPacientes.size() - 1).getId()));
+        }
         else
-            listaPacientes = this.servicio.filtrarPacientesPorGravedad(gravedad);
+        {
+            Page<PacienteResumen> pagina = this.servicio.leerPaginaPacientes(pageable);
+            listaPacientes = pagina.getContent();
+            cabeceras = CabecerasPaginacion.dePagina(pagina);
+        }
         
         if (listaPacientes.isEmpty())
             throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema para mostrar");
         else
         {
-            //Mapeamos toda la lista de entidades a sus correspondientes DTO de salida:
+            //Cada proyección ya incluye su número de citas, calculado en la misma SELECT del listado:
             List<PacienteResponseDTO> listaDto = new ArrayList<>(listaPacientes.size());
 
-            for (Paciente p : listaPacientes)
-                listaDto.add(this.mapeador.convertirEntidadAResponseDto(p));
+            for (PacienteResumen p : listaPacientes)
+                listaDto.add(this.mapeador.convertirResumenAResponseDto(p, campos));
 
             log.info("<--- listarPacientes");
+            return ResponseEntity.status(HttpStatus.OK).headers(cabeceras).body(listaDto);
+        }
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve varios pacientes a partir de su lista de IDs, leídos
+     * todos con una única consulta. Se devuelven en el orden en que se pidieron, y los IDs que no
+     * corresponden a ningún paciente se indican en la cabecera 'X-Ids-No-Encontrados' de la respuesta.
+     *
+     * @param ids Lista de números identificadores de los pacientes a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar pacientes por lista de IDs",
+            description = "Endpoint que devuelve los pacientes cuyos números identificadores se indican en el " +
+                    "parámetro 'ids', en el mismo orden y con una única consulta a la BBDD. Los IDs que no " +
+                    "corresponden a ningún paciente se indican en la cabecera 'X-Ids-No-Encontrados'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Pacientes encontrados en el sistema con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = PacienteResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Ninguno de los IDs introducidos corresponde a un paciente del sistema",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista de IDs vacía o con más IDs de los permitidos en una sola petición",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            params = "ids",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<PacienteResponseDTO>> listarPacientesPorIds(
+            @Parameter(
+                    description = "Números identificadores de los pacientes a buscar, separados por comas",
+                    example = "1,2,3"
+            )
+            @RequestParam("ids")
+            List<Long> ids,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,gravedad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarPacientesPorIds");
+        CamposSolicitados campos = CamposSolicitados.de(fields, PacienteResponseDTO.class);
+        //Se descartan los IDs repetidos y se buscan todos a la vez, colocándolos después en el orden solicitado:
+        List<Long> idsSolicitados = this.seleccionPorIds.normalizar(ids);
+        Seleccion<PacienteResumen> seleccion = this.seleccionPorIds.ordenar(
+                idsSolicitados, this.servicio.buscarResumenesPacientes(idsSolicitados), PacienteResumen::getId);
+
+        if (seleccion.encontrados().isEmpty())
+            throw new PacienteNoEncontradoExcepcion("Ninguno de los IDs introducidos corresponde a un paciente del sistema");
+
+        List<PacienteResponseDTO> listaDto = new ArrayList<>(seleccion.encontrados().size());
+
+        for (PacienteResumen p : seleccion.encontrados())
+            listaDto.add(this.mapeador.convertirResumenAResponseDto(p, campos));
+
+        log.info("<--- listarPacientesPorIds");
+        return ResponseEntity.status(HttpStatus.OK).headers(seleccion.cabeceras()).body(listaDto);
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve todos los pacientes registrados en el sistema en formato NDJSON,
+     * un objeto JSON por línea. Se leen de la BBDD mediante un cursor y se escriben en la respuesta lote a
+     * lote, por lo que el cliente recibe los primeros elementos sin esperar a que se lea el listado completo.
+     *
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se escribe progresivamente el listado.
+     */
+    @Operation(
+            summary = "Obtener lista de pacientes en NDJSON",
+            description = "Endpoint que devuelve todos los pacientes registrados en el sistema en formato NDJSON " +
+                    "(un objeto JSON por línea) cuando se solicita con 'Accept: application/x-ndjson'. No se pagina: " +
+                    "el listado se transmite progresivamente a medida que se lee de la BBDD."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Listado de pacientes transmitido con éxito",
+                    content = { @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = PacienteResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ningún paciente en el sistema para mostrar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarPacientesNdjson(
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "nombre,gravedad"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarPacientesNdjson");
+        CamposSolicitados campos = CamposSolicitados.de(fields, PacienteResponseDTO.class);
+        if (!this.servicio.existenPacientes())
+            throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema para mostrar");
+
+        //El body se escribe fuera del hilo de la petición, dentro de la transacción de solo lectura del servicio:
+        StreamingResponseBody cuerpo = salida -> {
+            EscritorNdjson ndjson = new EscritorNdjson(salida, this.objectMapper, campos);
+
+            this.servicio.procesarResumenesPacientesPorLotes(TAMANIO_LOTE_EXPORTACION, lote -> {
+                for (PacienteResumen p : lote)
+                    ndjson.escribir(this.mapeador.convertirResumenAResponseDto(p, campos));
+
+                ndjson.vaciar();
+            });
+        };
+
+        log.info("<--- listarPacientesNdjson");
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve los pacientes más urgentes del sistema,
+     * ordenados por la gravedad de su afección (de CRITICA a ASINTOMATICA) y, a igualdad de
+     * gravedad, por su fecha de ingreso.
+     *
+     * @param limite Número máximo de pacientes a devolver.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Obtener pacientes por orden de triaje",
+            description = "Endpoint que devuelve los pacientes más urgentes del sistema, ordenados por la gravedad " +
+                    "de su afección (de CRITICA a ASINTOMATICA) y, a igualdad de gravedad, por su fecha de ingreso."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lista de pacientes por orden de triaje retornada con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = PacienteResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ningún paciente en el sistema para mostrar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/triaje",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<PacienteResponseDTO>> listarPacientesPorTriaje(
+            @Parameter(
+                    description = "Número máximo de pacientes a devolver",
+                    example = "10"
+            )
+            @Min(value = 1, message = "El parámetro 'limite' debe ser un número positivo.")
+            @RequestParam(defaultValue = "10")
+            int limite
+    ) {
+        log.info("---> listarPacientesPorTriaje");
+        List<Paciente> listaPacientes = this.servicio.leerPacientesPorTriaje(limite);
+
+        if (listaPacientes.isEmpty())
+            throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema para mostrar");
+        else
+        {
+            //Mapeamos la lista ordenada respetando el orden devuelto por la capa de servicio:
+            List<PacienteResponseDTO> listaDto = this.mapeador.convertirListaEntidadesAResponseDto(listaPacientes);
+
+            log.info("<--- listarPacientesPorTriaje");
             return ResponseEntity.status(HttpStatus.OK).body(listaDto);
         }
     }
 
+    /**
+     * Método que desarrolla un endpoint que extrae de la cola de triaje de urgencias al paciente
+     * más urgente para que sea atendido. Varios puestos pueden llamarlo a la vez: cada uno
+     * obtiene un paciente distinto.
+     *
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Atender al siguiente paciente de la cola de triaje",
+            description = "Endpoint que extrae de la cola de triaje de urgencias al paciente más urgente " +
+                    "(de CRITICA a ASINTOMATICA y, a igualdad de gravedad, por fecha de ingreso) para que sea atendido."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Paciente extraído de la cola de triaje con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TriajeResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No hay ningún paciente esperando en la cola de triaje",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/triaje/siguiente",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<TriajeResponseDTO> atenderSiguientePaciente()
+    {
+        log.info("---> atenderSiguientePaciente");
+        Optional<PosicionTriaje> siguiente = this.servicio.atenderSiguientePaciente();
+
+        if (siguiente.isEmpty())
+            throw new PacienteNoEncontradoExcepcion("No hay ningún paciente esperando en la cola de triaje");
+        else
+        {
+            TriajeResponseDTO dtoSalida = this.mapeador.convertirPosicionTriajeAResponseDto(siguiente.get());
+            log.info("<--- atenderSiguientePaciente");
+            return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+        }
+    }
+
+    /**
+     * Método que desarrolla un endpoint que muestra, sin extraerlos, los primeros pacientes
+     * que esperan en la cola de triaje de urgencias junto a su posición.
+     *
+     * @param limite Número máximo de pacientes a devolver.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Consultar la cola de triaje",
+            description = "Endpoint que muestra, sin extraerlos, los primeros pacientes que esperan en la " +
+                    "cola de triaje de urgencias junto a su posición en ella."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Primeros pacientes de la cola de triaje retornados con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TriajeResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No hay ningún paciente esperando en la cola de triaje",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/triaje/cola",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<TriajeResponseDTO>> consultarColaTriaje(
+            @Parameter(
+                    description = "Número máximo de pacientes a devolver",
+                    example = "10"
+            )
+            @Min(value = 1, message = "El parámetro 'limite' debe ser un número positivo.")
+            @RequestParam(defaultValue = "10")
+            int limite
+    ) {
+        log.info("---> consultarColaTriaje");
+        List<PosicionTriaje> primeros = this.servicio.consultarColaTriaje(limite);
+
+        if (primeros.isEmpty())
+            throw new PacienteNoEncontradoExcepcion("No hay ningún paciente esperando en la cola de triaje");
+        else
+        {
+            List<TriajeResponseDTO> listaDto = new ArrayList<>(primeros.size());
+
+            for (PosicionTriaje p : primeros)
+                listaDto.add(this.mapeador.convertirPosicionTriajeAResponseDto(p));
+
+            log.info("<--- consultarColaTriaje");
+            return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+        }
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve la posición en la cola de triaje de urgencias
+     * del paciente cuyo número identificador se introduce por parámetro.
+     *
+     * @param pacienteId Número identificador del paciente.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Consultar la posición de un paciente en la cola de triaje",
+            description = "Endpoint que devuelve la posición en la cola de triaje de urgencias del paciente " +
+                    "cuyo número identificador sea el introducido como parámetro de entrada."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Posición del paciente en la cola de triaje retornada con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TriajeResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "El paciente con el ID especificado no está esperando en la cola de triaje",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/{id}/triaje",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<TriajeResponseDTO> consultarPosicionTriaje(
+            @Parameter(
+                    description = "El número identificador del paciente cuya posición se desea consultar",
+                    example = "1"
+            )
+            @PathVariable("id")
+            Long pacienteId
+    ) {
+        log.info("---> consultarPosicionTriaje");
+        Optional<PosicionTriaje> posicion = this.servicio.consultarPosicionTriaje(pacienteId);
+
+        if (posicion.isEmpty())
+            throw new PacienteNoEncontradoExcepcion("El paciente con el ID especificado no está esperando en la cola de triaje");
+        else
+        {
+            TriajeResponseDTO dtoSalida = this.mapeador.convertirPosicionTriajeAResponseDto(posicion.get());
+            log.info("<--- consultarPosicionTriaje");
+            return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+        }
+    }
+
+    /**
+     * Método que desarrolla un endpoint que exporta en formato CSV todos los pacientes registrados en el sistema.
+     * Los pacientes se leen de la BBDD mediante un cursor y se escriben en la respuesta lote a lote, contando
+     * las citas de cada lote con una única consulta agregada.
+     *
+     * @return Objeto de la clase ResponseEntity en cuyo body se escribe progresivamente el fichero CSV.
+     */
+    @Operation(
+            summary = "Exportar pacientes en CSV",
+            description = "Endpoint que exporta en formato CSV todos los pacientes registrados en el sistema. " +
+                    "El fichero se transmite progresivamente a medida que se leen los pacientes de la BBDD."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Fichero CSV de pacientes generado con éxito",
+                    content = { @Content(mediaType = EscritorCsv.MEDIA_TYPE_CSV) }
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ningún paciente en el sistema para exportar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/exportacion",
+            produces = EscritorCsv.MEDIA_TYPE_CSV
+    )
+    public ResponseEntity<StreamingResponseBody> exportarPacientes()
+    {
+        log.info("---> exportarPacientes");
+        if (!this.servicio.existenPacientes())
+            throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema para exportar");
+
+        //El body se escribe fuera del hilo de la petición, dentro de la transacción de solo lectura del servicio:
+        StreamingResponseBody cuerpo = salida -> {
+            EscritorCsv csv = new EscritorCsv(salida);
+            csv.escribirFila((Object[]) COLUMNAS_EXPORTACION);
+
+            this.servicio.procesarPacientesPorLotes(TAMANIO_LOTE_EXPORTACION, lote -> {
+                for (PacienteResponseDTO dto : this.mapeador.convertirListaEntidadesAResponseDto(lote))
+                    csv.escribirFila(dto.getId(), dto.getNombre(), dto.getApellidos(), dto.getDni(),
+                            dto.getGenero(), dto.getDireccion(), dto.getEmail(), dto.getTelefono(),
+                            dto.getFechaNacimiento(), dto.getFechaIngreso(), dto.getMedicoAsignado(),
+                            dto.getAreaTratamiento(), dto.getGravedad(), dto.getCitasRegistradas());
+
+                csv.vaciar();
+            });
+
+            csv.vaciar();
+        };
+
+        log.info("<--- exportarPacientes");
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(EscritorCsv.MEDIA_TYPE_CSV))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("pacientes.csv").build().toString())
+                .body(cuerpo);
+    }
+
     /**
      * Método que recoge un endpoint que devuelve una lista de DTOs con datos de todas los citas asignados
      * al paciente cuyo número identificador sea el introducido como parámetro de entrada.
      *
      * @param pacienteId Número identificador del paciente cuyas citas se desea buscar en el sistema.
+     * @param desde Primer día del rango a listar, o null para listar solo las citas guardadas.
+     * @param hasta Último día del rango a listar.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
             summary = "Obtener citas asignadas a un paciente",
             description = "Endpoint que devuelve una lista de DTOs con datos de todas los citas asignadas " +
-                    "al paciente cuyo número identificador sea el introducido como parámetro de entrada."
+                    "al paciente cuyo número identificador sea el introducido como parámetro de entrada. " +
+                    "Con 'desde' y 'hasta' se listan las citas de ese rango junto a las ocurrencias de las series de citas."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -237,7 +784,22 @@ public class PacienteControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long pacienteId
+            Long pacienteId,
+            @Parameter(
+                    description = "Primer día (dd/MM/yyyy) del rango a listar; con él se incluyen las ocurrencias de las series de citas",
+                    example = "01/03/2025"
+            )
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate desde,
+            @Parameter(
+                    description = "Último día (dd/MM/yyyy) del rango a listar, obligatorio si se indica 'desde'",
+                    example = "31/03/2025"
+            )
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate hasta,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = {"fechaCita", "id"})
+            Pageable pageable
     ) {
         log.info("---> obtenerCitasPorPaciente");
         //Buscamos en la capa de servicio el paciente con ID especificado:
@@ -247,21 +809,28 @@ public class PacienteControlador
             throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema con el ID especificado");
         else
         {
-            //En caso de existir, mapeamos las citas asignadas a dicho paciente:
-            List<Cita> listaCitas = optPaciente.get().getCitasAsignadas();
+            //En caso de existir, mapeamos únicamente la página solicitada de las citas asignadas a dicho paciente:
+            //Con un rango de días, las ocurrencias de las series se expanden solo dentro de él y se mezclan con las citas:
+            Page<CitaResumen> pagina = Objects.isNull(desde) && Objects.isNull(hasta)
+                    ? this.citaServicio.leerCitasPorPaciente(pacienteId, pageable)
+                    : this.citaServicio.leerCitasPorPacienteEntre(pacienteId, desde, hasta, pageable);
+            List<CitaResumen> listaCitas = pagina.getContent();
             List<CitaResponseDTO> listaDto = new ArrayList<>(listaCitas.size());
 
-            for(Cita c : listaCitas)
-                listaDto.add(this.citaMapeador.convertirEntidadAResponseDto(c));
+            for(CitaResumen c : listaCitas)
+                listaDto.add(this.citaMapeador.convertirResumenAResponseDto(c));
 
             log.info("<--- obtenerCitasPorPaciente");
-            return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .headers(CabecerasPaginacion.dePagina(pagina))
+                    .body(listaDto);
         }
     }
 
     /**
      * Método que define el endpoint que guarda en el sistema los datos del nuevo
-     * paciente expuestos en el DTO introducido en el body del request HTTP.
+     * paciente expuestos en el DTO introducido en el body del request HTTP. Si no
+     * se indica su médico, se le asigna el menos cargado de la especialidad solicitada.
      *
      * @param dtoEntrada DTO de entrada con los datos del paciente a guardar en el sistema.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
@@ -269,7 +838,9 @@ public class PacienteControlador
     @Operation(
             summary = "Guardar nuevo paciente",
             description = "Endpoint que guarda en el sistema los datos del nuevo médico " +
-                    "expuestos en el DTO introducido en el body del request HTTP."
+                    "expuestos en el DTO introducido en el body del request HTTP. Si no se indica " +
+                    "'medicoId', se le asigna el médico con menos carga de trabajo de la especialidad " +
+                    "solicitada, ponderada según la gravedad de sus pacientes."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -280,6 +851,14 @@ public class PacienteControlador
                             schema = @Schema(implementation = PacienteResponseDTO.class)
                     )}
             ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ningún médico de la especialidad solicitada al que asignar el paciente",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Datos del DTO de entrada mal validados",
@@ -306,8 +885,12 @@ public class PacienteControlador
         //Extraemos los datos del DTO de entrada y los guardamos en una nueva entidad Paciente:
         Paciente pacienteAGuardar = this.mapeador.convertirPostRequestDtoAEntidad(dtoEntrada);
 
-        //Llamamos a la capa de servicio para guardar la entidad en el sistema:
-        this.servicio.guardarPaciente(pacienteAGuardar);
+        //Llamamos a la capa de servicio para guardar la entidad en el sistema, eligiendo su médico si no se indica:
+        if (Objects.isNull(dtoEntrada.getMedicoId()))
+            this.servicio.guardarPacienteConMedicoAutomatico(pacienteAGuardar,
+                    Objects.isNull(dtoEntrada.getEspecialidad()) ? null : Especialidad.valueOf(dtoEntrada.getEspecialidad()));
+        else
+            this.servicio.guardarPaciente(pacienteAGuardar);
 
         //Devolvemos los datos de la entidad guardada remapeados a su DTO de salida:
         PacienteResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(pacienteAGuardar);
@@ -315,6 +898,67 @@ public class PacienteControlador
         return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
     }
 
+    /**
+     * Método que define el endpoint que guarda en el sistema un lote de pacientes, recibido como array JSON
+     * o en formato NDJSON (un paciente por línea). Cada elemento se valida por separado, y los válidos se
+     * guardan por tramos, cada uno en su propia transacción con los INSERT agrupados en lotes JDBC.
+     * Los DNIs y los médicos de todo el lote se comprueban con una consulta por tipo, y a los pacientes sin médico se les asigna el menos cargado de su especialidad, igual que en el alta individual.
+     *
+     * @param dtosEntrada Lista de DTOs de entrada con los datos de los pacientes a guardar en el sistema.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Guardar lote de pacientes",
+            description = "Endpoint que guarda en el sistema un lote de pacientes, recibido como array JSON o en formato " +
+                    "NDJSON (un paciente por línea). Cada elemento se valida por separado, y los válidos se guardan " +
+                    "por tramos, cada uno en su propia transacción con los INSERT agrupados en lotes JDBC."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Lote procesado: el resultado indica el ID de cada paciente guardado, o los motivos " +
+                            "por los que se ha rechazado si algún paciente no es válido, su DNI ya está registrado o repetido, o su médico no existe",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = LoteResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lote vacío o con más elementos de los permitidos en una sola petición",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @PostMapping(
+            value = "/lote",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<LoteResponseDTO> guardarLotePacientes(
+            @Parameter(
+                    description = "Lista de DTOs de entrada con los datos de los pacientes a guardar en el sistema",
+                    array = @ArraySchema(schema = @Schema(implementation = PacientePostRequestDTO.class))
+            )
+            @RequestBody
+            List<PacientePostRequestDTO> dtosEntrada
+    ) {
+        log.info("---> guardarLotePacientes");
+
+        //Validamos, traducimos y guardamos el lote por tramos, sin que un elemento rechazado impida guardar los demás:
+        LoteResponseDTO dtoSalida = this.procesadorLotes.procesar(dtosEntrada,
+                this.mapeador::convertirPostRequestDtoAEntidadDeLote,
+                (dtos, pacientes) -> this.servicio.guardarPacientesEnLote(pacientes, dtos.stream()
+                        .map(d -> Objects.isNull(d.getEspecialidad()) ? null : Especialidad.valueOf(d.getEspecialidad()))
+                        .toList()),
+                Paciente::getId);
+
+        log.info("<--- guardarLotePacientes");
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtoSalida);
+    }
+
     /**
      * Método para generar un endpoint que permite actualizar algunos o todos los datos preexistentes de
      * un determinado paciente cuyo número identificador sea el introducido como parámetro de entrada.
@@ -352,6 +996,15 @@ public class PacienteControlador
                             mediaType = "application/json",
                             schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
                     )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Alguna cita futura del paciente coincide con otra cita del nuevo médico asignado, " +
+                            "o el paciente sigue modificándose a la vez desde otra petición tras varios reintentos",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
             )
     })
     @PutMapping(
@@ -375,18 +1028,15 @@ public class PacienteControlador
     ){
         log.info("---> actualizarPaciente");
 
-        //Buscamos en el sistema a través del servicio si el paciente con ID especificado existe:
-        Optional<Paciente> optPaciente = this.servicio.buscarPaciente(pacienteId);
+        //El servicio busca al paciente, le aplica los datos del DTO y lo guarda, repitiéndolo si hay escrituras simultáneas:
+        Optional<Paciente> optPaciente = this.servicio.actualizarPaciente(pacienteId,
+                paciente -> this.mapeador.convertirPutRequestDtoAEntidad(paciente, dtoEntrada));
         
         if (!optPaciente.isPresent())
             throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema con el ID especificado");
         else
         {
-            //Mapeamos los datos obtenidos del DTO de entrada en la entidad encontrada:
-            Paciente actualizado = this.mapeador.convertirPutRequestDtoAEntidad(optPaciente.get(), dtoEntrada);
-
-            //Llamamos a la capa de servicio para guardar el paciente ya actualizado:
-            this.servicio.guardarPaciente(actualizado);
+            Paciente actualizado = optPaciente.get();
 
             //Mapeamos nuevamente la entidad actualizada en su correspondiente DTO de salida:
             PacienteResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(actualizado);
@@ -478,9 +1128,7 @@ public class PacienteControlador
         log.info("---> eliminarListaPacientes");
 
         //Corroboramos primero si existen pacientes en el sistema:
-        List<Paciente> listaPacientes = this.servicio.leerListaPacientes();
-
-        if (listaPacientes.isEmpty())
+        if (!this.servicio.existenPacientes())
             throw new PacienteNoEncontradoExcepcion("No existe ningún paciente en el sistema para eliminar");
         else
         {
@@ -1,12 +1,23 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.SalaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.*;
 import dev.acobano.springrestful.hospital.excepciones.SalaNoEncontradaExcepcion;
+import dev.acobano.springrestful.hospital.exportacion.EscritorNdjson;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ISalaMapeador;
-import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.paginacion.CabecerasPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds.Seleccion;
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ISalaServicio;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,12 +29,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -35,7 +56,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Clase de la capa de controlador encargada de manipular los endpoints de las llamadas HTTP
@@ -57,15 +81,30 @@ public class SalaControlador
                                             // ***  ATRIBUTOS  ***
                                             // *******************
 
+    //Número de salas que se leen, convierten y envían al cliente en cada lote del listado NDJSON:
+    private static final int TAMANIO_LOTE_NDJSON = 500;
+
     @Autowired
     private ISalaServicio servicio;
 
     @Autowired
     private ISalaMapeador mapeador;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private ICitaMapeador citaMapeador;
 
+    @Autowired
+    private ICitaServicio citaServicio;
+
+    @Autowired
+    private IPlanificacionServicio planificacionServicio;
+
+    @Autowired
+    private SeleccionPorIds seleccionPorIds;
+
 
 
                                             // *****************
@@ -77,6 +116,8 @@ public class SalaControlador
      * cuyo número identificador coincida con el introducido como parámetro de entrada.
      *
      * @param salaId Número identificador de la sala a buscar en el sistema
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @param peticion Petición HTTP, de la que se lee la cabecera 'If-None-Match'.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
@@ -93,6 +134,11 @@ public class SalaControlador
                             schema = @Schema(implementation = SalaResponseDTO.class)
                     )}
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "La sala no ha cambiado desde la versión indicada en 'If-None-Match'",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "204",
                     description = "No existe ninguna sala en el sistema con el ID introducido",
@@ -109,9 +155,30 @@ public class SalaControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long salaId
+            Long salaId,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "numSala"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields,
+            WebRequest peticion
     ) {
         log.info("---> obtenerSala");
+        CamposSolicitados campos = CamposSolicitados.de(fields, SalaResponseDTO.class);
+        //Comparamos antes la versión con la de 'If-None-Match', sin cargar la entidad ni formatear sus datos:
+        Optional<String> optVersion = this.servicio.buscarVersionSala(salaId);
+
+        if (!optVersion.isPresent())
+            throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema con el ID especificado");
+
+        if (peticion.checkNotModified(campos.etiqueta(optVersion.get())))
+        {
+            log.info("<--- obtenerSala: sin cambios");
+            return null;
+        }
+
         //Buscamos la sala con el ID de entrada dentro de la capa de servicio:
         Optional<Sala> optSala = this.servicio.buscarSala(salaId);
         
@@ -120,21 +187,26 @@ public class SalaControlador
         else
         {
             //Mapeamos los datos de dicha sala a su DTO de salida:
-            SalaResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(optSala.get());
+            SalaResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(optSala.get(), campos);
             log.info("<--- obtenerSala");
-            return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+            return ResponseEntity.status(HttpStatus.OK).eTag(campos.etiqueta(optVersion.get())).body(dtoSalida);
         }
     }
 
     /**
-     * Método que desarrolla un endpoint que devuelve en formato de lista
-     * a todos las salas registradas en el sistema.
+     * Método que desarrolla un endpoint que devuelve en formato de lista paginada las salas registradas en el
+     * sistema. Los metadatos de la paginación se devuelven en las cabeceras 'X-*' de la respuesta.
      *
+     * @param cursor Cursor opcional para paginar por clave en lugar de por número de página.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
             summary = "Obtener lista de salas",
-            description = "Endpoint que devuelve en formato de lista a todos las salas registradas en el sistema."
+            description = "Endpoint que devuelve en formato de lista paginada las salas registradas en el sistema. " +
+                    "Admite paginación por número de página ('page', 'size', 'sort') o por cursor sobre el ID, " +
+                    "cuyo coste no depende de la profundidad de la página."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -155,38 +227,217 @@ public class SalaControlador
             )
     })
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<SalaResponseDTO>> listarSalas()
-    {
+    public ResponseEntity<List<SalaResponseDTO>> listarSalas(
+            @Parameter(
+                    description = "Cursor opaco recibido en la cabecera 'X-Siguiente-Cursor' de la página anterior. " +
+                            "Si se envía, aunque sea vacío, se pagina por clave en lugar de por número de página"
+            )
+            @RequestParam(required = false)
+            String cursor,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = "id")
+            Pageable pageable,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "numSala"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
         log.info("---> listarSalas");
-        //Traemos en formato lista todas las salas registradas en el sistema:
-        List<Sala> listaSalas = this.servicio.leerListaSalas();
-        
+        CamposSolicitados campos = CamposSolicitados.de(fields, SalaResponseDTO.class);
+        List<Sala> listaSalas;
+        HttpHeaders cabeceras;
+
+        //Traemos únicamente la página de salas solicitada, por número de página o a partir del cursor:
+        if (Objects.isNull(cursor))
+        {
+            Page<Sala> pagina = this.servicio.leerPaginaSalas(pageable);
+            listaSalas = pagina.getContent();
+            cabeceras = CabecerasPaginacion.dePagina(pagina);
+        }
+        else
+        {
+            Slice<Sala> fragmento = this.servicio.leerSalasDesdeCursor(
+                    CursorPaginacion.decodificarId(cursor), pageable.getPageSize());
+            listaSalas = fragmento.getContent();
+            cabeceras = CabecerasPaginacion.deFragmento(fragmento, listaSalas.isEmpty()
+                    ? null
+                    : CursorPaginacion.codificarId(listaSalas.get(listaSalas.size() - 1).getId()));
+        }
+
+
         if (listaSalas.isEmpty())
             throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema para mostrar");
         else
         {
-            //Las mapeamos todas a su respectivo DTO de salida:
-            List<SalaResponseDTO> listaDto = new ArrayList<>(listaSalas.size());
-
-            for (Sala s : listaSalas)
-                listaDto.add(this.mapeador.convertirEntidadAResponseDto(s));
+            //Las mapeamos todas a su respectivo DTO de salida contando sus citas en una sola consulta:
+            List<SalaResponseDTO> listaDto = this.mapeador.convertirListaEntidadesAResponseDto(listaSalas, campos);
 
             log.info("<--- listarSalas");
-            return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+            return ResponseEntity.status(HttpStatus.OK).headers(cabeceras).body(listaDto);
         }
     }
 
+    /**
+     * Método que desarrolla un endpoint que devuelve varias salas a partir de su lista de IDs, leídas
+     * todas con una única consulta. Se devuelven en el orden en que se pidieron, y los IDs que no
+     * corresponden a ninguna sala se indican en la cabecera 'X-Ids-No-Encontrados' de la respuesta.
+     *
+     * @param ids Lista de números identificadores de las salas a buscar en el sistema.
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar salas por lista de IDs",
+            description = "Endpoint que devuelve las salas cuyos números identificadores se indican en el " +
+                    "parámetro 'ids', en el mismo orden y con una única consulta a la BBDD. Los IDs que no " +
+                    "corresponden a ninguna sala se indican en la cabecera 'X-Ids-No-Encontrados'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Salas encontradas en el sistema con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = SalaResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Ninguno de los IDs introducidos corresponde a una sala del sistema",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista de IDs vacía o con más IDs de los permitidos en una sola petición",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            params = "ids",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<SalaResponseDTO>> listarSalasPorIds(
+            @Parameter(
+                    description = "Números identificadores de las salas a buscar, separados por comas",
+                    example = "1,2,3"
+            )
+            @RequestParam("ids")
+            List<Long> ids,
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "numSala"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarSalasPorIds");
+        CamposSolicitados campos = CamposSolicitados.de(fields, SalaResponseDTO.class);
+        //Se descartan los IDs repetidos y se buscan todos a la vez, colocándolos después en el orden solicitado:
+        List<Long> idsSolicitados = this.seleccionPorIds.normalizar(ids);
+        Seleccion<Sala> seleccion = this.seleccionPorIds.ordenar(
+                idsSolicitados, this.servicio.buscarSalas(idsSolicitados), Sala::getId);
+
+        if (seleccion.encontrados().isEmpty())
+            throw new SalaNoEncontradaExcepcion("Ninguno de los IDs introducidos corresponde a una sala del sistema");
+
+        //Las mapeamos todas a su respectivo DTO de salida contando sus citas en una sola consulta:
+        List<SalaResponseDTO> listaDto = this.mapeador.convertirListaEntidadesAResponseDto(seleccion.encontrados(), campos);
+
+        log.info("<--- listarSalasPorIds");
+        return ResponseEntity.status(HttpStatus.OK).headers(seleccion.cabeceras()).body(listaDto);
+    }
+
+    /**
+     * Método que desarrolla un endpoint que devuelve todas las salas registradas en el sistema en formato NDJSON,
+     * un objeto JSON por línea. Se leen de la BBDD mediante un cursor y se escriben en la respuesta lote a
+     * lote, por lo que el cliente recibe los primeros elementos sin esperar a que se lea el listado completo.
+     *
+     * @param fields Campos del DTO de salida a devolver, separados por comas; si no se indica, se devuelven todos.
+     * @return Objeto de la clase ResponseEntity en cuyo body se escribe progresivamente el listado.
+     */
+    @Operation(
+            summary = "Obtener lista de salas en NDJSON",
+            description = "Endpoint que devuelve todas las salas registradas en el sistema en formato NDJSON " +
+                    "(un objeto JSON por línea) cuando se solicita con 'Accept: application/x-ndjson'. No se pagina: " +
+                    "el listado se transmite progresivamente a medida que se lee de la BBDD."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Listado de salas transmitido con éxito",
+                    content = { @Content(
+                            mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = SalaResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna sala en el sistema para mostrar",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> listarSalasNdjson(
+            @Parameter(
+                    description = "Campos a devolver separados por comas (el 'id' se incluye siempre). " +
+                            "Si no se indica, se devuelven todos",
+                    example = "numSala"
+            )
+            @RequestParam(value = CamposSolicitados.PARAMETRO, required = false)
+            String fields
+    ) {
+        log.info("---> listarSalasNdjson");
+        CamposSolicitados campos = CamposSolicitados.de(fields, SalaResponseDTO.class);
+        if (!this.servicio.existenSalas())
+            throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema para mostrar");
+
+        //El body se escribe fuera del hilo de la petición, dentro de la transacción de solo lectura del servicio:
+        StreamingResponseBody cuerpo = salida -> {
+            EscritorNdjson ndjson = new EscritorNdjson(salida, this.objectMapper, campos);
+
+            this.servicio.procesarSalasPorLotes(TAMANIO_LOTE_NDJSON, lote -> {
+                //Las citas asignadas de todo el lote se cuentan con una única consulta agregada:
+                for (SalaResponseDTO dto : this.mapeador.convertirListaEntidadesAResponseDto(lote, campos))
+                    ndjson.escribir(dto);
+
+                ndjson.vaciar();
+            });
+        };
+
+        log.info("<--- listarSalasNdjson");
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+
     /**
      * Método que recoge un endpoint que devuelve una lista de DTOs con datos de todas las citas asignados
      * a la sala cuyo número identificador sea el introducido como parámetro de entrada.
      *
      * @param salaId Número identificador de la sala cuyas citas se desee listar.
+     * @param desde Primer día del rango a listar, o null para listar solo las citas guardadas.
+     * @param hasta Último día del rango a listar.
+     * @param pageable Objeto con el número, tamaño y ordenación de la página solicitada.
      * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
      */
     @Operation(
             summary = "Obtener citas asignadas a una sala",
             description = "Endpoint que devuelve una lista de DTOs con datos de todos las citas asignadas " +
-                    "a la sala cuyo número identificador sea el introducido como parámetro de entrada."
+                    "a la sala cuyo número identificador sea el introducido como parámetro de entrada. " +
+                    "Con 'desde' y 'hasta' se listan las citas de ese rango junto a las ocurrencias de las series de citas."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -216,7 +467,22 @@ public class SalaControlador
                     example = "1"
             )
             @PathVariable("id")
-            Long salaId
+            Long salaId,
+            @Parameter(
+                    description = "Primer día (dd/MM/yyyy) del rango a listar; con él se incluyen las ocurrencias de las series de citas",
+                    example = "01/03/2025"
+            )
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate desde,
+            @Parameter(
+                    description = "Último día (dd/MM/yyyy) del rango a listar, obligatorio si se indica 'desde'",
+                    example = "31/03/2025"
+            )
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate hasta,
+            @ParameterObject
+            @PageableDefault(size = 20, sort = {"fechaCita", "id"})
+            Pageable pageable
     ) {
         log.info("---> obtenerCitasPorSala");
         //Buscamos en el servicio si la sala con el ID de entrada se encuentra en el sistema:
@@ -226,19 +492,247 @@ public class SalaControlador
             throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema con el ID especificado");
         else
         {
-            //Recogemos todas las citas de la sala encontrada:
-            List<Cita> listaCitas = optSala.get().getCitasAsignadas();
+            //Recogemos únicamente la página solicitada de las citas de la sala encontrada:
+            //Con un rango de días, las ocurrencias de las series se expanden solo dentro de él y se mezclan con las citas:
+            Page<CitaResumen> pagina = Objects.isNull(desde) && Objects.isNull(hasta)
+                    ? this.citaServicio.leerCitasPorSala(salaId, pageable)
+                    : this.citaServicio.leerCitasPorSalaEntre(salaId, desde, hasta, pageable);
+            List<CitaResumen> listaCitas = pagina.getContent();
             List<CitaResponseDTO> listaDto = new ArrayList<>(listaCitas.size());
 
-            //Mapeamos las citas a su respectivo DTO de salida:
-            for (Cita c : listaCitas)
-                listaDto.add(this.citaMapeador.convertirEntidadAResponseDto(c));
+            //Mapeamos las proyecciones de las citas a su respectivo DTO de salida:
+            for (CitaResumen c : listaCitas)
+                listaDto.add(this.citaMapeador.convertirResumenAResponseDto(c));
 
             log.info("<--- obtenerCitasPorSala");
-            return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .headers(CabecerasPaginacion.dePagina(pagina))
+                    .body(listaDto);
         }
     }
 
+    /**
+     * Método que contiene el endpoint que busca los huecos libres más tempranos de todas las salas del sistema
+     * a partir de una fecha, con una duración mínima y dentro del horario de apertura del hospital.
+     *
+     * @param fecha Primer día en el que se buscan huecos.
+     * @param duracion Duración mínima del hueco en minutos.
+     * @param dias Número de días, a partir de 'fecha', en los que se buscan huecos.
+     * @param limite Número máximo de huecos a devolver.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar huecos libres en las salas",
+            description = "Endpoint que busca los huecos libres más tempranos de todas las salas del sistema " +
+                    "a partir de una fecha, con una duración mínima y dentro del horario de apertura del hospital. " +
+                    "Se devuelven ordenados por día, hora de inicio y número de sala."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lista de huecos libres retornada con éxito (vacía si no hay ninguno en el horizonte)",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = HuecoResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Fecha, duración, número de días o límite fuera de rango",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/huecos",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<HuecoResponseDTO>> buscarHuecos(
+            @Parameter(
+                    description = "Primer día en el que se buscan huecos, en formato 'dd/MM/yyyy'",
+                    example = "05/12/2018"
+            )
+            @RequestParam("fecha") @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate fecha,
+            @Parameter(
+                    description = "Duración mínima del hueco en minutos",
+                    example = "30"
+            )
+            @RequestParam("duracion")
+            int duracion,
+            @Parameter(
+                    description = "Número de días, a partir de 'fecha', en los que se buscan huecos",
+                    example = "14"
+            )
+            @RequestParam(value = "dias", defaultValue = "1")
+            int dias,
+            @Parameter(
+                    description = "Número máximo de huecos a devolver",
+                    example = "10"
+            )
+            @RequestParam(value = "limite", defaultValue = "10")
+            int limite
+    ) {
+        log.info("---> buscarHuecos");
+        List<Hueco> huecos = this.planificacionServicio.buscarHuecosSalas(fecha, dias, duracion, limite);
+        List<HuecoResponseDTO> listaDto = new ArrayList<>(huecos.size());
+
+        for (Hueco h : huecos)
+            listaDto.add(this.mapeador.convertirHuecoAResponseDto(h));
+
+        log.info("<--- buscarHuecos");
+        return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+    }
+
+    /**
+     * Método que contiene el endpoint que devuelve las salas libres durante un intervalo de un día,
+     * o en un minuto concreto si no se indica la hora de fin.
+     *
+     * @param fecha Día a consultar.
+     * @param desde Hora de inicio del intervalo.
+     * @param hasta Hora de fin del intervalo; por defecto, un minuto después de 'desde'.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Buscar salas libres en un intervalo",
+            description = "Endpoint que devuelve las salas libres durante un intervalo de un día, o en un minuto " +
+                    "concreto si no se indica la hora de fin. Se responde con el mapa de ocupación por minutos " +
+                    "de cada sala, con precisión de minutos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lista de salas libres retornada con éxito (vacía si no hay ninguna)",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = HuecoResponseDTO.class))
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Fecha u horas mal formadas, o intervalo vacío",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/libres",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<List<HuecoResponseDTO>> buscarSalasLibres(
+            @Parameter(
+                    description = "Día a consultar, en formato 'dd/MM/yyyy'",
+                    example = "05/12/2018"
+            )
+            @RequestParam("fecha") @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate fecha,
+            @Parameter(
+                    description = "Hora de inicio del intervalo, en formato 'HH:mm'",
+                    example = "16:00"
+            )
+            @RequestParam("desde") @DateTimeFormat(pattern = "HH:mm")
+            LocalTime desde,
+            @Parameter(
+                    description = "Hora de fin del intervalo, en formato 'HH:mm'; por defecto, un minuto después de 'desde'",
+                    example = "16:30"
+            )
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(pattern = "HH:mm")
+            LocalTime hasta
+    ) {
+        log.info("---> buscarSalasLibres");
+        List<Hueco> libres = this.planificacionServicio.buscarSalasLibres(fecha, desde, finDelIntervalo(desde, hasta));
+        List<HuecoResponseDTO> listaDto = new ArrayList<>(libres.size());
+
+        for (Hueco h : libres)
+            listaDto.add(this.mapeador.convertirHuecoAResponseDto(h));
+
+        log.info("<--- buscarSalasLibres");
+        return ResponseEntity.status(HttpStatus.OK).body(listaDto);
+    }
+
+    /**
+     * Método que contiene el endpoint que indica si una sala está libre durante un intervalo de un día.
+     *
+     * @param salaId Número identificador de la sala a consultar.
+     * @param fecha Día a consultar.
+     * @param desde Hora de inicio del intervalo.
+     * @param hasta Hora de fin del intervalo; por defecto, un minuto después de 'desde'.
+     * @return Objeto de la clase ResponseEntity en cuyo body se encuentra la respuesta de la llamada HTTP.
+     */
+    @Operation(
+            summary = "Consultar la disponibilidad de una sala",
+            description = "Endpoint que indica si una sala está libre durante un intervalo de un día y cuántos " +
+                    "minutos tiene ocupados ese día. Se responde con el mapa de ocupación por minutos de la sala."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Disponibilidad de la sala retornada con éxito",
+                    content = { @Content (
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = DisponibilidadSalaResponseDTO.class)
+                    )}
+            ),
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "No existe ninguna sala en el sistema con el ID introducido",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Fecha u horas mal formadas, o intervalo vacío",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
+            )
+    })
+    @GetMapping(
+            value = "/{id}/disponibilidad",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<DisponibilidadSalaResponseDTO> consultarDisponibilidad(
+            @Parameter(
+                    description = "El número identificador de la sala a consultar",
+                    example = "1"
+            )
+            @PathVariable("id")
+            Long salaId,
+            @Parameter(
+                    description = "Día a consultar, en formato 'dd/MM/yyyy'",
+                    example = "05/12/2018"
+            )
+            @RequestParam("fecha") @DateTimeFormat(pattern = "dd/MM/yyyy")
+            LocalDate fecha,
+            @Parameter(
+                    description = "Hora de inicio del intervalo, en formato 'HH:mm'",
+                    example = "10:15"
+            )
+            @RequestParam("desde") @DateTimeFormat(pattern = "HH:mm")
+            LocalTime desde,
+            @Parameter(
+                    description = "Hora de fin del intervalo, en formato 'HH:mm'; por defecto, un minuto después de 'desde'",
+                    example = "11:00"
+            )
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(pattern = "HH:mm")
+            LocalTime hasta
+    ) {
+        log.info("---> consultarDisponibilidad");
+        Optional<Disponibilidad> optDisponibilidad = this.planificacionServicio
+                .consultarDisponibilidadSala(salaId, fecha, desde, finDelIntervalo(desde, hasta));
+
+        if (optDisponibilidad.isEmpty())
+            throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema con el ID especificado");
+
+        DisponibilidadSalaResponseDTO dtoSalida = this.mapeador.convertirDisponibilidadAResponseDto(optDisponibilidad.get());
+        log.info("<--- consultarDisponibilidad");
+        return ResponseEntity.status(HttpStatus.OK).body(dtoSalida);
+    }
+
     /**
      * Método que define el endpoint que guarda en el sistema los datos de la nueva
      * sala expuestos en el DTO introducido en el body del request HTTP.
@@ -332,6 +826,14 @@ public class SalaControlador
                             mediaType = "application/json",
                             schema = @Schema(implementation = ValidacionErrorResponseDTO.class)
                     )}
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "La sala sigue modificándose a la vez desde otra petición tras varios reintentos",
+                    content = { @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ApiErrorResponseDTO.class)
+                    )}
             )
     })
     @PutMapping(
@@ -354,18 +856,15 @@ public class SalaControlador
             Long salaId
     ) {
         log.info("---> actualizarSala");
-        Optional<Sala> optSala = this.servicio.buscarSala(salaId);
+
+        //El servicio lee la sala, le asigna el nuevo número y la guarda, repitiéndolo si otra petición la modifica a la vez:
+        Optional<Sala> optSala = this.servicio.actualizarSala(salaId, sala -> sala.setNumero(dtoEntrada.getNumSala()));
         
         if (!optSala.isPresent())
             throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema con el ID especificado");
         else
         {
-            //Mapeamos los datos del DTO de entrada en una entidad actualizada:
             Sala actualizada = optSala.get();
-            actualizada.setNumero(dtoEntrada.getNumSala());
-
-            //Llamamos a la capa de servicio para guardar la entidad a actualizar:
-            this.servicio.guardarSala(actualizada);
 
             //Mapeamos nuevamente la entidad hacia su correspondiente DTO de salida:
             SalaResponseDTO dtoSalida = this.mapeador.convertirEntidadAResponseDto(actualizada);
@@ -455,9 +954,7 @@ public class SalaControlador
     {
         log.info("---> eliminarListaSalas");
         //Buscamos en primer lugar si existen salas para eliminar en el sistema:
-        List<Sala> listaSalas = this.servicio.leerListaSalas();
-
-        if (listaSalas.isEmpty())
+        if (!this.servicio.existenSalas())
             throw new SalaNoEncontradaExcepcion("No existe ninguna sala en el sistema para eliminar");
         else
         {
@@ -467,4 +964,14 @@ public class SalaControlador
             return ResponseEntity.status(HttpStatus.OK).build();
         }
     }
+
+    //Sin hora de fin se consulta solo el minuto de 'desde'; el último minuto del día termina a las 23:59:59:
+    private static LocalTime finDelIntervalo(LocalTime desde, LocalTime hasta)
+    {
+        if (Objects.nonNull(hasta))
+            return hasta;
+
+        LocalTime siguiente = desde.plusMinutes(1);
+        return siguiente.isAfter(desde) ? siguiente : LocalTime.MAX;
+    }
 }
@@ -6,7 +6,6 @@ import dev.acobano.springrestful.hospital.validacion.anotaciones.Dni;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -190,15 +189,33 @@ public class PacientePostRequestDTO
 
     /**
      * El número identificador del médico asignado al paciente a ingresar en el sistema.
+     * Si no se indica, se le asigna el médico menos cargado de la especialidad solicitada.
      */
     @Schema(
             name = "medicoId",
-            description = "Número identificador del médico asignado al paciente a ingresar en el sistema",
+            description = "Número identificador del médico asignado al paciente a ingresar en el sistema. " +
+                    "Si no se indica, se le asigna el médico con menos carga de trabajo de la especialidad solicitada",
             example = "1"
     )
-    @NotNull(message = "Todo paciente debe tener asignado un médico mediante su número identificador.")
     private Long medicoId;
 
+    /**
+     * La especialidad del médico que se asignará automáticamente al paciente si no se indica 'medicoId'.
+     */
+    @Schema(
+            name = "especialidad",
+            description = "Especialidad del médico a asignar automáticamente al paciente si no se indica " +
+                    "'medicoId'. Si tampoco se indica, se elige entre todos los médicos",
+            example = "CARDIOLOGIA",
+            allowableValues = {"CARDIOLOGIA", "CIRUGIA", "DERMATOLOGIA", "GINECOLOGIA", "OFTALMOLOGIA",
+                    "ONCOLOGIA", "PEDIATRIA", "PSIQUIATRIA", "TRAUMATOLOGIA"}
+    )
+    @Pattern(
+            regexp = "(CARDIOLOGIA|CIRUGIA|DERMATOLOGIA|GINECOLOGIA|OFTALMOLOGIA|ONCOLOGIA|PEDIATRIA|PSIQUIATRIA|TRAUMATOLOGIA)$",
+            message = "El dato introducido en el campo 'Especialidad' no cumple con las reglas de validación."
+    )
+    private String especialidad;
+
     /**
      * La gravedad de la afección del paciente a ingresar en el sistema.
      */
@@ -0,0 +1,43 @@
+package dev.acobano.springrestful.hospital.dto.entrada;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de entrada para llamadas HTTP de tipo POST con el lote de solicitudes de cita
+ * que el sistema debe programar automáticamente.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "PlanificacionRequestDTO",
+        description = "DTO de entrada para llamadas HTTP de tipo POST con el lote de solicitudes de cita " +
+                "que el sistema debe programar automáticamente."
+)
+public class PlanificacionRequestDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El listado de solicitudes de cita a programar.
+     */
+    @ArraySchema(
+            arraySchema = @Schema(name = "solicitudes", description = "Listado de solicitudes de cita a programar"),
+            schema = @Schema(implementation = SolicitudCitaRequestDTO.class)
+    )
+    @NotEmpty(message = "El lote debe contener al menos una solicitud de cita.")
+    private List<@Valid SolicitudCitaRequestDTO> solicitudes;
+}
@@ -0,0 +1,117 @@
+package dev.acobano.springrestful.hospital.dto.entrada;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de entrada para llamadas HTTP de tipo POST en cuyo interior residen todos los datos
+ * necesarios para guardar una nueva serie de citas periódicas en el sistema.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(value = JsonInclude.Include.NON_DEFAULT)
+@Schema(
+        title = "SerieCitasRequestDTO",
+        description = "DTO de entrada para llamadas HTTP de tipo POST en cuyo interior residen todos " +
+                "los datos necesarios para guardar una nueva serie de citas periódicas en el sistema."
+)
+public class SerieCitasRequestDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El número identificador del paciente que recibirá las citas de la serie.
+     */
+    @Schema(
+            name = "pacienteId",
+            description = "Número identificador del paciente que recibirá las citas de la serie",
+            example = "1"
+    )
+    @NotNull(message = "Toda serie de citas debe tener asignado un paciente mediante su número identificador.")
+    private Long pacienteId;
+
+    /**
+     * El número identificador de la sala en la que se realizarán las citas de la serie.
+     */
+    @Schema(
+            name = "salaId",
+            description = "Número identificador de la sala en la que se realizarán las citas de la serie",
+            example = "1"
+    )
+    @NotNull(message = "Toda serie de citas debe tener asignada una sala mediante su número identificador.")
+    private Long salaId;
+
+    /**
+     * La fecha de la primera cita de la serie en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fechaInicio",
+            description = "Fecha de la primera cita de la serie en formato 'dd/MM/yyyy'",
+            example = "03/03/2025"
+    )
+    @NotBlank(message = "El campo 'fechaInicio' no puede estar vacío.")
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private String fechaInicio;
+
+    /**
+     * La última fecha en la que puede haber una cita de la serie en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fechaFin",
+            description = "Última fecha en la que puede haber una cita de la serie en formato 'dd/MM/yyyy'",
+            example = "30/06/2025"
+    )
+    @NotBlank(message = "El campo 'fechaFin' no puede estar vacío.")
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private String fechaFin;
+
+    /**
+     * El número de días entre dos citas consecutivas de la serie (7 para una cita semanal).
+     */
+    @Schema(
+            name = "intervaloDias",
+            description = "Número de días entre dos citas consecutivas de la serie (7 para una cita semanal)",
+            example = "7"
+    )
+    @NotNull(message = "El campo 'intervaloDias' no puede estar vacío.")
+    @Positive(message = "El intervalo de días entre las citas de la serie debe ser positivo.")
+    private Integer intervaloDias;
+
+    /**
+     * La hora de inicio de cada cita de la serie en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaEntrada",
+            description = "Hora de inicio de cada cita de la serie en formato 'HH:mm:ss'",
+            example = "09:00:00"
+    )
+    @NotBlank(message = "El campo 'horaEntrada' no puede estar vacío.")
+    @JsonFormat(pattern = "HH:mm:ss")
+    private String horaEntrada;
+
+    /**
+     * La hora de finalización de cada cita de la serie en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaSalida",
+            description = "Hora de finalización de cada cita de la serie en formato 'HH:mm:ss'",
+            example = "10:30:00"
+    )
+    @NotBlank(message = "El campo 'horaSalida' no puede estar vacío.")
+    @JsonFormat(pattern = "HH:mm:ss")
+    private String horaSalida;
+}
@@ -0,0 +1,79 @@
+package dev.acobano.springrestful.hospital.dto.entrada;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de entrada con cada una de las solicitudes de un lote de citas a programar automáticamente:
+ * el paciente, el rango de días en el que puede acudir y la duración de la cita.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "SolicitudCitaRequestDTO",
+        description = "DTO de entrada con cada una de las solicitudes de un lote de citas a programar " +
+                "automáticamente: el paciente, el rango de días en el que puede acudir y la duración de la cita."
+)
+public class SolicitudCitaRequestDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El número identificador del paciente que solicita la cita.
+     */
+    @Schema(
+            name = "pacienteId",
+            description = "Número identificador del paciente que solicita la cita",
+            example = "1"
+    )
+    @NotNull(message = "Toda solicitud de cita debe indicar el número identificador de su paciente.")
+    private Long pacienteId;
+
+    /**
+     * El primer día en el que el paciente puede acudir a la cita, en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fechaDesde",
+            description = "Primer día en el que el paciente puede acudir a la cita, en formato 'dd/MM/yyyy'",
+            example = "10/03/2025"
+    )
+    @NotNull(message = "El campo 'fechaDesde' no puede estar vacío.")
+    @Pattern(regexp = "\\d{2}/\\d{2}/\\d{4}", message = "El campo 'fechaDesde' debe tener el formato 'dd/MM/yyyy'.")
+    private String fechaDesde;
+
+    /**
+     * El último día en el que el paciente puede acudir a la cita, en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fechaHasta",
+            description = "Último día en el que el paciente puede acudir a la cita, en formato 'dd/MM/yyyy'",
+            example = "14/03/2025"
+    )
+    @NotNull(message = "El campo 'fechaHasta' no puede estar vacío.")
+    @Pattern(regexp = "\\d{2}/\\d{2}/\\d{4}", message = "El campo 'fechaHasta' debe tener el formato 'dd/MM/yyyy'.")
+    private String fechaHasta;
+
+    /**
+     * La duración de la cita en minutos.
+     */
+    @Schema(
+            name = "duracion",
+            description = "Duración de la cita en minutos",
+            example = "30"
+    )
+    @NotNull(message = "El campo 'duracion' no puede estar vacío.")
+    @Positive(message = "El campo 'duracion' debe ser un número de minutos mayor que cero.")
+    private Integer duracion;
+}
@@ -38,6 +38,16 @@ public class CitaResponseDTO
     )
     private Long id;
 
+    /**
+     * El número identificador de la serie de citas a la que pertenece la cita, si es una de sus ocurrencias.
+     */
+    @Schema(
+            name = "serieId",
+            description = "Número identificador de la serie de citas a la que pertenece la cita, si es una de sus ocurrencias",
+            example = "1"
+    )
+    private Long serieId;
+
     /**
      * El nombre completo del médico que dirigirá la cita consultada en el sistema.
      */
@@ -0,0 +1,90 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida en el que se mostrará si una sala está libre durante un intervalo de un día,
+ * junto al total de minutos que tiene ocupados ese día.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "DisponibilidadSalaResponseDTO",
+        description = "DTO de salida en el que se mostrará si una sala está libre durante un intervalo " +
+                "de un día, junto al total de minutos que tiene ocupados ese día."
+)
+public class DisponibilidadSalaResponseDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El número identificador de la sala consultada.
+     */
+    @Schema(
+            name = "salaId",
+            description = "Número identificador de la sala consultada",
+            example = "1"
+    )
+    private Long salaId;
+
+    /**
+     * La fecha consultada en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fecha",
+            description = "Fecha consultada en formato 'dd/MM/yyyy'",
+            example = "05/12/2018"
+    )
+    private String fecha;
+
+    /**
+     * La hora de inicio del intervalo consultado en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaInicio",
+            description = "Hora de inicio del intervalo consultado en formato 'HH:mm:ss'",
+            example = "10:15:00"
+    )
+    private String horaInicio;
+
+    /**
+     * La hora de fin del intervalo consultado en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaFin",
+            description = "Hora de fin del intervalo consultado en formato 'HH:mm:ss'",
+            example = "11:00:00"
+    )
+    private String horaFin;
+
+    /**
+     * Indica si la sala está libre durante todo el intervalo.
+     */
+    @Schema(
+            name = "libre",
+            description = "Indica si la sala está libre durante todo el intervalo",
+            example = "true"
+    )
+    private boolean libre;
+
+    /**
+     * El total de minutos que la sala tiene ocupados ese día.
+     */
+    @Schema(
+            name = "minutosOcupados",
+            description = "Total de minutos que la sala tiene ocupados ese día",
+            example = "90"
+    )
+    private int minutosOcupados;
+}
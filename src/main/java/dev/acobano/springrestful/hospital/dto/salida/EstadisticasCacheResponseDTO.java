@@ -0,0 +1,70 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida en el que se muestran las estadísticas de aciertos y fallos acumuladas
+ * por una región de la caché de segundo nivel de Hibernate desde el arranque de la aplicación.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        name = "EstadisticasCacheResponseDTO",
+        description = "DTO de salida con las estadísticas de aciertos y fallos acumuladas " +
+                "por una región de la caché de segundo nivel desde el arranque de la aplicación."
+)
+public class EstadisticasCacheResponseDTO
+{
+                                    // *******************
+                                    // ***  ATRIBUTOS  ***
+                                    // *******************
+
+    /**
+     * El nombre de la región de la caché consultada.
+     */
+    @Schema(
+            name = "region",
+            description = "Nombre de la región de la caché",
+            example = "medicos"
+    )
+    private String region;
+
+    /**
+     * El número de lecturas que se han resuelto desde la caché sin acudir a la base de datos.
+     */
+    @Schema(
+            name = "aciertos",
+            description = "Número de lecturas resueltas desde la caché",
+            example = "120"
+    )
+    private long aciertos;
+
+    /**
+     * El número de lecturas que no han encontrado la entrada en la caché.
+     */
+    @Schema(
+            name = "fallos",
+            description = "Número de lecturas que no encontraron la entrada en la caché",
+            example = "4"
+    )
+    private long fallos;
+
+    /**
+     * El número de entradas que se han guardado en la región.
+     */
+    @Schema(
+            name = "inserciones",
+            description = "Número de entradas guardadas en la región",
+            example = "4"
+    )
+    private long inserciones;
+}
@@ -0,0 +1,80 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida en el que se mostrarán los datos de un hueco libre de una sala
+ * encontrado por las búsquedas de disponibilidad del sistema.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "HuecoResponseDTO",
+        description = "DTO de salida en el que se mostrarán los datos de un hueco libre de una sala " +
+                "encontrado por las búsquedas de disponibilidad del sistema."
+)
+public class HuecoResponseDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El número identificador de la sala libre.
+     */
+    @Schema(
+            name = "salaId",
+            description = "Número identificador de la sala libre",
+            example = "1"
+    )
+    private Long salaId;
+
+    /**
+     * El número interno de la sala libre.
+     */
+    @Schema(
+            name = "numSala",
+            description = "Número interno de la sala libre",
+            example = "101"
+    )
+    private int numSala;
+
+    /**
+     * La fecha del hueco en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fecha",
+            description = "Fecha del hueco en formato 'dd/MM/yyyy'",
+            example = "05/12/2018"
+    )
+    private String fecha;
+
+    /**
+     * La primera hora libre del hueco en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaInicio",
+            description = "Primera hora libre del hueco en formato 'HH:mm:ss'",
+            example = "16:15:00"
+    )
+    private String horaInicio;
+
+    /**
+     * La hora a la que termina el hueco en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaFin",
+            description = "Hora a la que termina el hueco en formato 'HH:mm:ss'",
+            example = "18:00:00"
+    )
+    private String horaFin;
+}
@@ -0,0 +1,59 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida con el resultado de un alta por lotes: cuántos elementos se han recibido, guardado
+ * y rechazado, y el resultado de cada uno en el mismo orden en que se enviaron.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "LoteResponseDTO",
+        description = "DTO de salida con el resultado de un alta por lotes: cuántos elementos se han recibido, " +
+                "guardado y rechazado, y el resultado de cada uno en el mismo orden en que se enviaron."
+)
+public class LoteResponseDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El número de elementos recibidos en el body de la petición.
+     */
+    @Schema(name = "recibidos", description = "Número de elementos recibidos en el body de la petición", example = "3")
+    private int recibidos;
+
+    /**
+     * El número de elementos guardados en el sistema.
+     */
+    @Schema(name = "guardados", description = "Número de elementos guardados en el sistema", example = "2")
+    private int guardados;
+
+    /**
+     * El número de elementos rechazados.
+     */
+    @Schema(name = "rechazados", description = "Número de elementos rechazados", example = "1")
+    private int rechazados;
+
+    /**
+     * El resultado de cada elemento recibido, en el mismo orden.
+     */
+    @ArraySchema(
+            arraySchema = @Schema(name = "resultados", description = "Resultado de cada elemento recibido, en el mismo orden"),
+            schema = @Schema(implementation = ResultadoLoteDTO.class)
+    )
+    private List<ResultadoLoteDTO> resultados;
+}
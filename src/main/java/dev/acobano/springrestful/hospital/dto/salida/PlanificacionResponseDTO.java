@@ -0,0 +1,51 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import dev.acobano.springrestful.hospital.dto.entrada.SolicitudCitaRequestDTO;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida con el resultado de programar automáticamente un lote de citas: las citas
+ * guardadas y las solicitudes para las que no quedaba ningún hueco en su rango de días.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "PlanificacionResponseDTO",
+        description = "DTO de salida con el resultado de programar automáticamente un lote de citas: las citas " +
+                "guardadas y las solicitudes para las que no quedaba ningún hueco en su rango de días."
+)
+public class PlanificacionResponseDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * Las citas guardadas en el sistema.
+     */
+    @ArraySchema(
+            arraySchema = @Schema(name = "asignadas", description = "Citas guardadas en el sistema"),
+            schema = @Schema(implementation = CitaResponseDTO.class)
+    )
+    private List<CitaResponseDTO> asignadas;
+
+    /**
+     * Las solicitudes que no se han podido programar, tal y como se recibieron.
+     */
+    @ArraySchema(
+            arraySchema = @Schema(name = "sinAsignar", description = "Solicitudes que no se han podido programar, tal y como se recibieron"),
+            schema = @Schema(implementation = SolicitudCitaRequestDTO.class)
+    )
+    private List<SolicitudCitaRequestDTO> sinAsignar;
+}
@@ -0,0 +1,52 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida con el resultado de un elemento de un alta por lotes: el ID con el que se ha
+ * guardado o, si se ha rechazado, los motivos del rechazo.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(
+        title = "ResultadoLoteDTO",
+        description = "DTO de salida con el resultado de un elemento de un alta por lotes: el ID con el que " +
+                "se ha guardado o, si se ha rechazado, los motivos del rechazo."
+)
+public class ResultadoLoteDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * La posición del elemento en el body de la petición, empezando por 0.
+     */
+    @Schema(name = "indice", description = "Posición del elemento en el body de la petición, empezando por 0", example = "0")
+    private int indice;
+
+    /**
+     * El número identificador con el que se ha guardado el elemento, o null si se ha rechazado.
+     */
+    @Schema(name = "id", description = "Número identificador con el que se ha guardado el elemento", example = "1")
+    private Long id;
+
+    /**
+     * Los motivos por los que se ha rechazado el elemento, o null si se ha guardado.
+     */
+    @Schema(name = "errores", description = "Motivos por los que se ha rechazado el elemento",
+            example = "[\"salaId: Toda cita debe tener asignada una sala mediante su número identificador.\"]")
+    private List<String> errores;
+}
@@ -0,0 +1,131 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida en el que se mostrarán la regla de repetición, el horario y las
+ * ocurrencias canceladas de una serie de citas periódicas registrada en el sistema.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "SerieCitasResponseDTO",
+        description = "DTO de salida en el que se mostrarán la regla de repetición, el horario y las " +
+                "ocurrencias canceladas de una serie de citas periódicas registrada en el sistema."
+)
+public class SerieCitasResponseDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * El número identificador de la serie de citas.
+     */
+    @Schema(
+            name = "id",
+            description = "Número identificador de la serie de citas",
+            example = "1"
+    )
+    private Long id;
+
+    /**
+     * El nombre completo del médico que dirigirá las citas de la serie.
+     */
+    @Schema(
+            name = "medico",
+            description = "Nombre completo del médico que dirigirá las citas de la serie",
+            example = "Daniel Ferrero Portillo"
+    )
+    private String medico;
+
+    /**
+     * El nombre completo del paciente que recibirá las citas de la serie.
+     */
+    @Schema(
+            name = "paciente",
+            description = "Nombre completo del paciente que recibirá las citas de la serie",
+            example = "Julia Valero Arjona"
+    )
+    private String paciente;
+
+    /**
+     * El número interno de la sala donde se realizarán las citas de la serie.
+     */
+    @Schema(
+            name = "numSala",
+            description = "Número interno de la sala donde se realizarán las citas de la serie",
+            example = "101"
+    )
+    private int numSala;
+
+    /**
+     * La fecha de la primera cita de la serie en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fechaInicio",
+            description = "Fecha de la primera cita de la serie en formato 'dd/MM/yyyy'",
+            example = "03/03/2025"
+    )
+    private String fechaInicio;
+
+    /**
+     * La última fecha en la que puede haber una cita de la serie en formato 'dd/MM/yyyy'
+     */
+    @Schema(
+            name = "fechaFin",
+            description = "Última fecha en la que puede haber una cita de la serie en formato 'dd/MM/yyyy'",
+            example = "30/06/2025"
+    )
+    private String fechaFin;
+
+    /**
+     * El número de días entre dos citas consecutivas de la serie.
+     */
+    @Schema(
+            name = "intervaloDias",
+            description = "Número de días entre dos citas consecutivas de la serie",
+            example = "7"
+    )
+    private int intervaloDias;
+
+    /**
+     * La hora de inicio de cada cita de la serie en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaEntrada",
+            description = "Hora de inicio de cada cita de la serie en formato 'HH:mm:ss'",
+            example = "09:00:00"
+    )
+    private String horaEntrada;
+
+    /**
+     * La hora de finalización de cada cita de la serie en formato 'HH:mm:ss'
+     */
+    @Schema(
+            name = "horaSalida",
+            description = "Hora de finalización de cada cita de la serie en formato 'HH:mm:ss'",
+            example = "10:30:00"
+    )
+    private String horaSalida;
+
+    /**
+     * Las fechas canceladas de la serie en formato 'dd/MM/yyyy', en orden cronológico.
+     */
+    @Schema(
+            name = "excepciones",
+            description = "Fechas canceladas de la serie en formato 'dd/MM/yyyy', en orden cronológico",
+            example = "[\"14/04/2025\"]"
+    )
+    private List<String> excepciones;
+}
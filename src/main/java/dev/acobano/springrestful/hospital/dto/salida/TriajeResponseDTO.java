@@ -0,0 +1,91 @@
+package dev.acobano.springrestful.hospital.dto.salida;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO de salida en el que se mostrarán los datos de un paciente de la cola de
+ * triaje de urgencias junto a su posición en ella.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Getter @Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(
+        title = "TriajeResponseDTO",
+        description = "DTO de salida en el que se mostrarán los datos de un paciente de la cola de " +
+                "triaje de urgencias junto a su posición en ella."
+)
+public class TriajeResponseDTO
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    /**
+     * Posición del paciente en la cola de triaje, empezando por 1.
+     */
+    @Schema(
+            name = "posicion",
+            description = "Posición del paciente en la cola de triaje, empezando por 1",
+            example = "3"
+    )
+    private int posicion;
+
+    /**
+     * El número identificador del paciente en espera.
+     */
+    @Schema(
+            name = "pacienteId",
+            description = "Número identificador del paciente en espera",
+            example = "1"
+    )
+    private Long pacienteId;
+
+    /**
+     * Nombre del paciente en espera.
+     */
+    @Schema(
+            name = "nombre",
+            description = "Nombre del paciente en espera",
+            example = "Manuel"
+    )
+    private String nombre;
+
+    /**
+     * Apellidos del paciente en espera.
+     */
+    @Schema(
+            name = "apellidos",
+            description = "Apellidos del paciente en espera",
+            example = "Arjona Gutiérrez"
+    )
+    private String apellidos;
+
+    /**
+     * Gravedad de la afección del paciente en espera.
+     */
+    @Schema(
+            name = "gravedad",
+            description = "Gravedad de la afección del paciente en espera",
+            example = "GRAVE",
+            allowableValues = {"ASINTOMATICA", "LEVE", "MODERADA", "GRAVE", "CRITICA"}
+    )
+    private String gravedad;
+
+    /**
+     * Fecha de ingreso en el hospital del paciente bajo formato 'dd/MM/YYYY HH:mm:ss'
+     */
+    @Schema(
+            name = "fechaIngreso",
+            description = "Fecha de ingreso en el hospital del paciente bajo formato 'dd/MM/YYYY HH:mm:ss'",
+            example = "06/10/2012 20:45:30"
+    )
+    private String fechaIngreso;
+}
@@ -0,0 +1,21 @@
+package dev.acobano.springrestful.hospital.excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase heredada de RuntimeException que se encargará de controlar y lanzar un
+ * aviso al manejador de excepciones en caso de recibir en el parámetro 'fields'
+ * algún campo que no exista en el DTO de salida del endpoint consultado.
+ * <>
+ * @author Álvaro Cobano
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CamposInvalidosExcepcion extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public CamposInvalidosExcepcion(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.acobano.springrestful.hospital.excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase heredada de RuntimeException que se encargará de controlar y lanzar un
+ * aviso al manejador de excepciones en caso de recibir un cursor de paginación
+ * que no haya sido generado por el sistema o cuyo contenido esté corrupto.
+ * <>
+ * @author Álvaro Cobano
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CursorInvalidoExcepcion extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public CursorInvalidoExcepcion(String mensaje) {
+        super(mensaje);
+    }
+}
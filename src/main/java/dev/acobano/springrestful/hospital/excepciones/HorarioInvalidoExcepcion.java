@@ -0,0 +1,21 @@
+package dev.acobano.springrestful.hospital.excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase heredada de RuntimeException que se encargará de controlar y lanzar un
+ * aviso al manejador de excepciones en caso de recibir una franja horaria cuya
+ * hora de salida no sea posterior a su hora de entrada.
+ * <>
+ * @author Álvaro Cobano
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class HorarioInvalidoExcepcion extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public HorarioInvalidoExcepcion(String mensaje) {
+        super(mensaje);
+    }
+}
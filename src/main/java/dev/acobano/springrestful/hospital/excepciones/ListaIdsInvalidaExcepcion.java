@@ -0,0 +1,21 @@
+package dev.acobano.springrestful.hospital.excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase heredada de RuntimeException que se encargará de controlar y lanzar un
+ * aviso al manejador de excepciones en caso de recibir una lista de IDs a buscar
+ * que esté vacía o que supere el número máximo de IDs permitido por petición.
+ * <>
+ * @author Álvaro Cobano
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ListaIdsInvalidaExcepcion extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public ListaIdsInvalidaExcepcion(String mensaje) {
+        super(mensaje);
+    }
+}
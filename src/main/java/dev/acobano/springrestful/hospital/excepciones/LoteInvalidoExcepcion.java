@@ -0,0 +1,21 @@
+package dev.acobano.springrestful.hospital.excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase heredada de RuntimeException que se encargará de controlar y lanzar un
+ * aviso al manejador de excepciones en caso de recibir un alta por lotes vacía
+ * o con más elementos de los que el sistema admite en una sola petición.
+ * <>
+ * @author Álvaro Cobano
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class LoteInvalidoExcepcion extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public LoteInvalidoExcepcion(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -4,6 +4,9 @@ import dev.acobano.springrestful.hospital.dto.salida.ApiErrorResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.ValidacionErrorResponseDTO;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,6 +14,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -60,6 +64,41 @@ public class ManejadorExcepciones
         return manejarBadRequest(errores);
     }
 
+    @ExceptionHandler(PropertyReferenceException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarPropertyReferenceException(PropertyReferenceException e)
+    {
+        log.error("---> EXCEPCIÓN PropertyReferenceException CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(e);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarArgumentTypeMismatchException(MethodArgumentTypeMismatchException e)
+    {
+        log.error("---> EXCEPCIÓN MethodArgumentTypeMismatchException CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(new IllegalArgumentException(
+                String.format("Valor no válido para el parámetro '%s': %s", e.getName(), e.getValue())));
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ApiErrorResponseDTO> manejarDataIntegrityViolationException(DataIntegrityViolationException e)
+    {
+        log.error("---> EXCEPCIÓN DataIntegrityViolationException CAPTURADA POR EL MANEJADOR");
+        //No devolvemos el mensaje original para no exponer la sentencia SQL ni el esquema de la BBDD:
+        return manejarConflict("Los datos enviados violan una restricción de la base de datos (p. ej. un DNI duplicado)");
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ApiErrorResponseDTO> manejarConcurrencyFailureException(ConcurrencyFailureException e)
+    {
+        log.error("---> EXCEPCIÓN ConcurrencyFailureException CAPTURADA POR EL MANEJADOR");
+        //Solo llega aquí si el conflicto persiste tras agotar los reintentos automáticos:
+        return manejarConflict("Otra petición ha modificado los mismos datos a la vez; vuelva a intentarlo");
+    }
+
 
                     /* *********************************************************** */
                     /* ***  MÉTODOS MANEJADORES DE EXCEPCIONES PERSONALIZADAS  *** */
@@ -97,6 +136,62 @@ public class ManejadorExcepciones
         return manejarNoContent(e);
     }
 
+    @ExceptionHandler(CursorInvalidoExcepcion.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarCursorInvalidoExcepcion(CursorInvalidoExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN CursorInvalidoExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(e);
+    }
+
+    @ExceptionHandler(LoteInvalidoExcepcion.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarLoteInvalidoExcepcion(LoteInvalidoExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN LoteInvalidoExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(e);
+    }
+
+    @ExceptionHandler(ListaIdsInvalidaExcepcion.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarListaIdsInvalidaExcepcion(ListaIdsInvalidaExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN ListaIdsInvalidaExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(e);
+    }
+
+    @ExceptionHandler(CamposInvalidosExcepcion.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarCamposInvalidosExcepcion(CamposInvalidosExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN CamposInvalidosExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(e);
+    }
+
+    @ExceptionHandler(HorarioInvalidoExcepcion.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ApiErrorResponseDTO> manejarHorarioInvalidoExcepcion(HorarioInvalidoExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN HorarioInvalidoExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarBadRequest(e);
+    }
+
+    @ExceptionHandler(SalaOcupadaExcepcion.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ApiErrorResponseDTO> manejarSalaOcupadaExcepcion(SalaOcupadaExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN SalaOcupadaExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarConflict(e.getMessage());
+    }
+
+    @ExceptionHandler(MedicoOcupadoExcepcion.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ApiErrorResponseDTO> manejarMedicoOcupadoExcepcion(MedicoOcupadoExcepcion e)
+    {
+        log.error("---> EXCEPCIÓN MedicoOcupadoExcepcion CAPTURADA POR EL MANEJADOR");
+        return manejarConflict(e.getMessage());
+    }
+
 
                     /* ******************************************************************* */
                     /* ***  MÉTODOS MANEJADORES DE LOS ESTADOS DE LAS RESPUESTAS HTTP  *** */
@@ -113,6 +208,18 @@ public class ManejadorExcepciones
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(respuesta);
     }
 
+    public ResponseEntity<ApiErrorResponseDTO> manejarBadRequest(Exception e)
+    {
+        ApiErrorResponseDTO respuesta = new ApiErrorResponseDTO(HttpStatus.BAD_REQUEST, e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(respuesta);
+    }
+
+    public ResponseEntity<ApiErrorResponseDTO> manejarConflict(String mensaje)
+    {
+        ApiErrorResponseDTO respuesta = new ApiErrorResponseDTO(HttpStatus.CONFLICT, mensaje);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(respuesta);
+    }
+
     public ResponseEntity<ApiErrorResponseDTO> manejarInternalServerError(Exception e)
     {
         ApiErrorResponseDTO respuesta = new ApiErrorResponseDTO(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
@@ -0,0 +1,21 @@
+package dev.acobano.springrestful.hospital.excepciones;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase heredada de RuntimeException que se encargará de controlar y lanzar un
+ * aviso al manejador de excepciones en caso de intentar reservar una cita en una
+ * franja horaria que se solapa con otra cita del mismo médico ese día.
+ * <>
+ * @author Álvaro Cobano
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class MedicoOcupadoExcepcion extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    public MedicoOcupadoExcepcion(String mensaje) {
+        super(mensaje);
+    }
+}
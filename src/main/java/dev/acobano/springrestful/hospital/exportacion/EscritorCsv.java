@@ -0,0 +1,103 @@
+package dev.acobano.springrestful.hospital.exportacion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Clase encargada de escribir filas en formato CSV (RFC 4180) directamente sobre el flujo de salida
+ * de la respuesta HTTP, sin acumular el fichero completo en memoria.
+ * <>
+ * @author Álvaro Cobano
+ */
+public class EscritorCsv
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    public static final String MEDIA_TYPE_CSV = "text/csv";
+
+    private static final char SEPARADOR = ',';
+    private static final String FIN_LINEA = "\r\n";
+
+    private final Writer escritor;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    public EscritorCsv(OutputStream salida)
+    {
+        this.escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que escribe una fila CSV con los campos introducidos, entrecomillando
+     * aquellos que contengan separadores, comillas o saltos de línea.
+     *
+     * @param campos Valores de las columnas de la fila. Los valores nulos se escriben vacíos.
+     */
+    public void escribirFila(Object... campos)
+    {
+        try
+        {
+            for (int i = 0; i < campos.length; i++)
+            {
+                if (i > 0)
+                    this.escritor.write(SEPARADOR);
+
+                this.escritor.write(escapar(campos[i]));
+            }
+
+            this.escritor.write(FIN_LINEA);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Método que envía al cliente las filas pendientes del buffer, de forma que la
+     * respuesta se transmita progresivamente a medida que se procesa cada lote.
+     */
+    public void vaciar()
+    {
+        try
+        {
+            this.escritor.flush();
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String escapar(Object campo)
+    {
+        if (Objects.isNull(campo))
+            return "";
+
+        String valor = campo.toString();
+
+        if (valor.indexOf(SEPARADOR) < 0 && valor.indexOf('"') < 0
+                && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0)
+            return valor;
+
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,95 @@
+package dev.acobano.springrestful.hospital.exportacion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
+import dev.acobano.springrestful.hospital.campos.FiltroCampos;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Clase encargada de escribir objetos en formato NDJSON (un documento JSON por línea) directamente
+ * sobre el flujo de salida de la respuesta HTTP, de forma que el cliente pueda procesar cada elemento
+ * en cuanto lo recibe y el listado completo nunca llegue a acumularse en memoria.
+ * <>
+ * @author Álvaro Cobano
+ */
+public class EscritorNdjson
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final int FIN_LINEA = '\n';
+
+    private final OutputStream salida;
+    private final ObjectWriter escritor;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    public EscritorNdjson(OutputStream salida, ObjectMapper objectMapper)
+    {
+        this(salida, objectMapper, CamposSolicitados.TODOS);
+    }
+
+    public EscritorNdjson(OutputStream salida, ObjectMapper objectMapper, CamposSolicitados campos)
+    {
+        this.salida = new BufferedOutputStream(salida);
+        //Cada línea se escribe solo con los campos solicitados en el parámetro 'fields', si se ha enviado:
+        this.escritor = campos.esCompleto()
+                ? objectMapper.writer()
+                : objectMapper.writer(new FiltroCampos(campos));
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que escribe el objeto introducido serializado en JSON, en una única línea.
+     *
+     * @param objeto Objeto a escribir, normalmente un DTO de salida.
+     */
+    public void escribir(Object objeto)
+    {
+        try
+        {
+            //Jackson no genera saltos de línea sin 'INDENT_OUTPUT', así que cada documento ocupa una sola línea:
+            this.salida.write(this.escritor.writeValueAsBytes(objeto));
+            this.salida.write(FIN_LINEA);
+        }
+        catch (JsonProcessingException ex)
+        {
+            throw new IllegalStateException("No se ha podido serializar el elemento a JSON", ex);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Método que envía al cliente las líneas pendientes del buffer, de forma que la
+     * respuesta se transmita progresivamente a medida que se procesa cada lote.
+     */
+    public void vaciar()
+    {
+        try
+        {
+            this.salida.flush();
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.acobano.springrestful.hospital.exportacion;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Clase de utilidades encargada de recorrer un Stream de resultados de la BBDD en lotes de tamaño fijo,
+ * de forma que un listado completo nunca llegue a materializarse en memoria de una sola vez.
+ * <>
+ * @author Álvaro Cobano
+ */
+public final class RecorridoPorLotes
+{
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    private RecorridoPorLotes() {}
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que consume el Stream introducido agrupando sus elementos en lotes. Tras entregar cada lote
+     * se ejecuta la acción indicada, normalmente el vaciado del contexto de persistencia.
+     *
+     * @param flujo Stream de elementos a recorrer. Se cierra al terminar el recorrido.
+     * @param tamanioLote Número máximo de elementos que se entregan en cada lote.
+     * @param consumidor Función que recibe cada lote de elementos.
+     * @param trasCadaLote Acción que se ejecuta una vez procesado cada lote.
+     * @return Número total de elementos recorridos.
+     */
+    public static <T> long recorrer(Stream<T> flujo,
+                                    int tamanioLote,
+                                    Consumer<List<T>> consumidor,
+                                    Runnable trasCadaLote)
+    {
+        int tamanio = Math.max(1, tamanioLote);
+        long total = 0;
+
+        try (flujo)
+        {
+            Iterator<T> iterador = flujo.iterator();
+            List<T> lote = new ArrayList<>(tamanio);
+
+            while (iterador.hasNext())
+            {
+                lote.add(iterador.next());
+                total++;
+
+                if (lote.size() == tamanio)
+                {
+                    consumidor.accept(lote);
+                    trasCadaLote.run();
+                    lote = new ArrayList<>(tamanio);
+                }
+            }
+
+            if (!lote.isEmpty())
+            {
+                consumidor.accept(lote);
+                trasCadaLote.run();
+            }
+        }
+
+        return total;
+    }
+}
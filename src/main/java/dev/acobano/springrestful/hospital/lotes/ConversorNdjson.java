@@ -0,0 +1,135 @@
+package dev.acobano.springrestful.hospital.lotes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conversor HTTP que permite recibir en formato NDJSON (un documento JSON por línea) los mismos
+ * listados de DTOs que se reciben como array JSON, p. ej. en las altas por lotes. Cada línea se
+ * deserializa con el ObjectMapper de la aplicación, leyendo el body como un flujo de documentos
+ * sucesivos en lugar de como un único árbol JSON.
+ * <>
+ * Solo lee: las respuestas NDJSON se escriben directamente con 'EscritorNdjson'.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+public class ConversorNdjson implements GenericHttpMessageConverter<Collection<?>>
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private final ObjectMapper objectMapper;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public ConversorNdjson(ObjectMapper objectMapper)
+    {
+        this.objectMapper = objectMapper;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    @Override
+    public boolean canRead(Type tipo, Class<?> claseContexto, MediaType mediaType)
+    {
+        return this.esNdjson(mediaType) && this.objectMapper.constructType(tipo).isCollectionLikeType();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clase, MediaType mediaType)
+    {
+        return false;
+    }
+
+    /**
+     * Método que lee todas las líneas del body como elementos del tipo de la colección esperada.
+     * Las líneas en blanco se ignoran, y un array JSON también se acepta como secuencia de elementos.
+     *
+     * @param tipo Tipo genérico del parámetro del controlador, p. ej. List&lt;CitaPostRequestDTO&gt;.
+     * @param claseContexto Clase del controlador.
+     * @param mensaje Petición HTTP recibida.
+     * @return Lista con un elemento por cada línea del body, en el mismo orden.
+     * @throws HttpMessageNotReadableException Si alguna línea no es un documento JSON válido.
+     */
+    @Override
+    public Collection<?> read(Type tipo, Class<?> claseContexto, HttpInputMessage mensaje) throws IOException
+    {
+        JavaType tipoElemento = this.objectMapper.constructType(tipo).getContentType();
+
+        try
+        {
+            return this.objectMapper.readerFor(tipoElemento).readValues(mensaje.getBody()).readAll();
+        }
+        catch (JsonProcessingException ex)
+        {
+            throw new HttpMessageNotReadableException("Línea NDJSON no válida: " + ex.getOriginalMessage(), ex, mensaje);
+        }
+    }
+
+    @Override
+    public Collection<?> read(Class<? extends Collection<?>> clase, HttpInputMessage mensaje)
+    {
+        throw new UnsupportedOperationException("Solo se leen colecciones con su tipo de elemento genérico");
+    }
+
+    @Override
+    public boolean canWrite(Type tipo, Class<?> clase, MediaType mediaType)
+    {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clase, MediaType mediaType)
+    {
+        return false;
+    }
+
+    @Override
+    public void write(Collection<?> coleccion, Type tipo, MediaType mediaType, HttpOutputMessage mensaje)
+    {
+        throw new UnsupportedOperationException("Las respuestas NDJSON se escriben con 'EscritorNdjson'");
+    }
+
+    @Override
+    public void write(Collection<?> coleccion, MediaType mediaType, HttpOutputMessage mensaje)
+    {
+        throw new UnsupportedOperationException("Las respuestas NDJSON se escriben con 'EscritorNdjson'");
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes()
+    {
+        return List.of(MediaType.APPLICATION_NDJSON);
+    }
+
+    //Sin Content-Type no se asume NDJSON: el body se deja a los conversores JSON habituales:
+    private boolean esNdjson(MediaType mediaType)
+    {
+        return Objects.nonNull(mediaType) && MediaType.APPLICATION_NDJSON.includes(mediaType);
+    }
+}
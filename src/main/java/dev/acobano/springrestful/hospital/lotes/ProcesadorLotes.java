@@ -0,0 +1,199 @@
+package dev.acobano.springrestful.hospital.lotes;
+
+import dev.acobano.springrestful.hospital.dto.salida.LoteResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.ResultadoLoteDTO;
+import dev.acobano.springrestful.hospital.excepciones.LoteInvalidoExcepcion;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clase encargada de las altas por lotes: valida todos los DTOs recibidos de una vez, convierte los
+ * válidos a entidades y los entrega a la capa de servicio en tramos de tamaño fijo, cada uno de los
+ * cuales se guarda en su propia transacción con los INSERT agrupados en lotes JDBC.
+ * <>
+ * Un elemento rechazado no impide guardar los demás: el resultado indica, en el orden en que se
+ * recibieron, el ID de cada elemento guardado o los motivos por los que se ha rechazado. Si un
+ * tramo falla al confirmarse (p. ej. por un DNI registrado a la vez por otra petición), se
+ * deshace completo y todos sus elementos se marcan como rechazados.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class ProcesadorLotes
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private final Validator validador;
+    private final int tamanioTramo;
+    private final int elementosMaximos;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public ProcesadorLotes(Validator validador,
+                           @Value("${hospital.lotes.tramo:500}") int tamanioTramo,
+                           @Value("${hospital.lotes.elementos-maximos:10000}") int elementosMaximos)
+    {
+        this.validador = validador;
+        this.tamanioTramo = tamanioTramo;
+        this.elementosMaximos = elementosMaximos;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que valida, convierte y guarda por tramos los DTOs introducidos.
+     *
+     * @param dtos DTOs de entrada recibidos en el body de la petición.
+     * @param conversor Traducción de cada DTO válido a su entidad, sin consultar la BBDD.
+     * @param guardado Llamada transaccional a la capa de servicio que guarda un tramo de entidades
+     *                 (recibiendo también sus DTOs) y devuelve los motivos de rechazo por posición en el tramo.
+     * @param identificador Lectura del ID asignado a cada entidad guardada.
+     * @return DTO de salida con el resultado de cada elemento recibido.
+     * @throws LoteInvalidoExcepcion Si el lote está vacío o supera el número máximo de elementos.
+     */
+    public <D, E> LoteResponseDTO procesar(List<D> dtos,
+                                           Function<D, E> conversor,
+                                           BiFunction<List<D>, List<E>, Map<Integer, String>> guardado,
+                                           Function<E, Long> identificador)
+    {
+        log.info("---> procesarLote de {} elementos", dtos.size());
+
+        if (dtos.isEmpty() || dtos.size() > this.elementosMaximos)
+            throw new LoteInvalidoExcepcion(String.format(
+                    "El número de elementos del lote debe estar entre 1 y %d", this.elementosMaximos));
+
+        List<ResultadoLoteDTO> resultados = new ArrayList<>(dtos.size());
+        List<Integer> validos = new ArrayList<>(dtos.size());
+
+        //Primero se validan todos los elementos, de forma que los inválidos nunca lleguen a abrir una transacción:
+        for (int i = 0; i < dtos.size(); i++)
+        {
+            List<String> errores = this.validar(dtos.get(i));
+            resultados.add(ResultadoLoteDTO.builder().indice(i).errores(errores.isEmpty() ? null : errores).build());
+
+            if (errores.isEmpty())
+                validos.add(i);
+        }
+
+        for (int desde = 0; desde < validos.size(); desde += this.tamanioTramo)
+            this.guardarTramo(validos.subList(desde, Math.min(desde + this.tamanioTramo, validos.size())),
+                    dtos, resultados, conversor, guardado, identificador);
+
+        int guardados = (int) resultados.stream().filter(r -> Objects.nonNull(r.getId())).count();
+        log.info("<--- procesarLote: {} guardados de {}", guardados, dtos.size());
+        return LoteResponseDTO.builder()
+                .recibidos(dtos.size())
+                .guardados(guardados)
+                .rechazados(dtos.size() - guardados)
+                .resultados(resultados)
+                .build();
+    }
+
+    private <D, E> void guardarTramo(List<Integer> indices,
+                                     List<D> dtos,
+                                     List<ResultadoLoteDTO> resultados,
+                                     Function<D, E> conversor,
+                                     BiFunction<List<D>, List<E>, Map<Integer, String>> guardado,
+                                     Function<E, Long> identificador)
+    {
+        List<Integer> convertidos = new ArrayList<>(indices.size());
+        List<D> dtosTramo = new ArrayList<>(indices.size());
+        List<E> entidades = new ArrayList<>(indices.size());
+
+        for (Integer i : indices)
+        {
+            //Un valor que supera la validación pero no se puede interpretar (p. ej. una fecha inexistente) solo rechaza su elemento:
+            try
+            {
+                entidades.add(conversor.apply(dtos.get(i)));
+                dtosTramo.add(dtos.get(i));
+                convertidos.add(i);
+            }
+            catch (RuntimeException ex)
+            {
+                this.rechazar(resultados.get(i), "No se han podido interpretar sus datos: " + ex.getMessage());
+            }
+        }
+
+        if (entidades.isEmpty())
+            return;
+
+        Map<Integer, String> rechazos;
+
+        try
+        {
+            rechazos = guardado.apply(dtosTramo, entidades);
+        }
+        catch (ConcurrencyFailureException ex)
+        {
+            this.rechazarTramo(convertidos, resultados, "Otra petición ha modificado los mismos datos a la vez; vuelva a intentarlo");
+            return;
+        }
+        catch (DataIntegrityViolationException ex)
+        {
+            //No devolvemos el mensaje original para no exponer la sentencia SQL ni el esquema de la BBDD:
+            this.rechazarTramo(convertidos, resultados,
+                    "Los datos enviados violan una restricción de la base de datos (p. ej. un DNI duplicado)");
+            return;
+        }
+
+        for (int j = 0; j < entidades.size(); j++)
+        {
+            ResultadoLoteDTO resultado = resultados.get(convertidos.get(j));
+
+            if (rechazos.containsKey(j))
+                this.rechazar(resultado, rechazos.get(j));
+            else
+                resultado.setId(identificador.apply(entidades.get(j)));
+        }
+    }
+
+    //Mensajes de validación con el campo al que se refieren, ordenados para que la respuesta sea estable:
+    private <D> List<String> validar(D dto)
+    {
+        if (Objects.isNull(dto))
+            return List.of("El elemento no puede ser nulo.");
+
+        return this.validador.validate(dto).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    private void rechazarTramo(List<Integer> indices, List<ResultadoLoteDTO> resultados, String motivo)
+    {
+        log.warn("---> tramo de {} elementos deshecho: {}", indices.size(), motivo);
+
+        for (Integer i : indices)
+            this.rechazar(resultados.get(i), "No se ha guardado ningún elemento de su tramo: " + motivo);
+    }
+
+    private void rechazar(ResultadoLoteDTO resultado, String motivo)
+    {
+        resultado.setErrores(List.of(motivo));
+    }
+}
@@ -1,16 +1,27 @@
 package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPutRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SerieCitasRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SolicitudCitaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.PlanificacionResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.SerieCitasResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IFechaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.planificacion.ResultadoPlanificacion;
+import dev.acobano.springrestful.hospital.planificacion.SolicitudCita;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ISalaServicio;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -86,6 +97,35 @@ public class CitaMapeadorImpl implements ICitaMapeador
         return entidad;
     }
 
+    /**
+     * Método que traduce un DTO de entrada de un alta por lotes a una entidad 'Cita' sin consultar la BBDD:
+     * el paciente y la sala solo llevan su número identificador, y la capa de servicio los resuelve
+     * después para todo el lote con una única consulta por tipo.
+     *
+     * @param dto DTO de entrada de la clase 'CitaPostRequestDTO'.
+     * @return Objeto de la clase 'Cita' con las referencias a su paciente y sala aún sin resolver.
+     */
+    @Override
+    public Cita convertirPostRequestDtoAEntidadDeLote(CitaPostRequestDTO dto)
+    {
+        log.info("---> convertirPostRequestDtoAEntidadDeLote");
+        if (Objects.isNull(dto))
+            return null;
+
+        Cita entidad = new Cita();
+        entidad.setPaciente(Objects.isNull(dto.getPacienteId()) ? null : Paciente.builder().id(dto.getPacienteId()).build());
+        entidad.setSala(Objects.isNull(dto.getSalaId()) ? null : Sala.builder().id(dto.getSalaId()).build());
+        entidad.setFechaCita(this.fechaMapeador
+                .convertirStringALocalDate(dto.getFechaCita().trim()));
+        entidad.setHoraEntrada(this.fechaMapeador
+                .convertirStringALocalTime(dto.getHoraEntrada().trim()));
+        entidad.setHoraSalida(this.fechaMapeador
+                .convertirStringALocalTime(dto.getHoraSalida().trim()));
+
+        log.info("<--- convertirPostRequestDtoAEntidadDeLote");
+        return entidad;
+    }
+
     /**
      * Método que actualiza los datos contenidos en un objeto de la entidad 'Médico'
      * con la información contenida en un DTO de entrada de clase 'CitaPutRequestDTO'.
@@ -141,6 +181,20 @@ public class CitaMapeadorImpl implements ICitaMapeador
      */
     @Override
     public CitaResponseDTO convertirEntidadAResponseDto(Cita entidad)
+    {
+        return this.convertirEntidadAResponseDto(entidad, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que transforma los datos de una entidad de clase 'Cita' en su DTO de salida,
+     * sin formatear la fecha ni las horas que no se hayan solicitado.
+     *
+     * @param entidad Objeto de la clase 'Cita'.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la entidad envueltos en un DTO de salida de clase 'CitaResponseDTO'.
+     */
+    @Override
+    public CitaResponseDTO convertirEntidadAResponseDto(Cita entidad, CamposSolicitados campos)
     {
         log.info("---> convertirEntidadAResponseDto");
 
@@ -149,17 +203,204 @@ public class CitaMapeadorImpl implements ICitaMapeador
 
         CitaResponseDTO dto = new CitaResponseDTO();
         dto.setId(entidad.getId());
-        dto.setMedico(entidad.getPaciente().getMedicoAsignado().getNombre() + " " +
-                      entidad.getPaciente().getMedicoAsignado().getApellidos());
         dto.setPaciente(entidad.getPaciente().getNombre() + " " +
                         entidad.getPaciente().getApellidos());
         dto.setNumSala(entidad.getSala().getNumero());
         dto.setGravedad(entidad.getPaciente().getGravedad().name());
-        dto.setEspecialidad(entidad.getPaciente().getMedicoAsignado().getEspecialidad().name());
-        dto.setFechaCita(this.fechaMapeador.convertirLocalDateAString(entidad.getFechaCita()));
+
+        //Un paciente puede quedar sin médico asignado si se elimina a todos los médicos del sistema:
+        Medico medico = entidad.getPaciente().getMedicoAsignado();
+
+        if (Objects.nonNull(medico))
+        {
+            dto.setMedico(medico.getNombre() + " " + medico.getApellidos());
+            dto.setEspecialidad(medico.getEspecialidad().name());
+        }
+
+
+        if (campos.incluye("fechaCita"))
+            dto.setFechaCita(this.fechaMapeador.convertirLocalDateAString(entidad.getFechaCita()));
+
+        if (campos.incluye("horaEntrada"))
+            dto.setHoraEntrada(this.fechaMapeador.convertirLocalTimeAString(entidad.getHoraEntrada()));
+
+        if (campos.incluye("horaSalida"))
+            dto.setHoraSalida(this.fechaMapeador.convertirLocalTimeAString(entidad.getHoraSalida()));
+
+        log.info("<--- convertirEntidadAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que envuelve dentro de un DTO de salida de clase 'CitaResponseDTO' los datos de una
+     * cita obtenidos directamente de la BBDD mediante la proyección 'CitaResumen'.
+     *
+     * @param resumen Proyección con los datos escalares de la cita.
+     * @return Datos de la proyección envueltos en un DTO de salida de clase 'CitaResponseDTO'.
+     */
+    @Override
+    public CitaResponseDTO convertirResumenAResponseDto(CitaResumen resumen)
+    {
+        return this.convertirResumenAResponseDto(resumen, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que envuelve en un DTO de salida de clase 'CitaResponseDTO' los campos solicitados
+     * de la proyección 'CitaResumen', sin formatear la fecha ni las horas que no se vayan a enviar.
+     *
+     * @param resumen Proyección con los datos escalares de la cita.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la proyección envueltos en un DTO de salida de clase 'CitaResponseDTO'.
+     */
+    @Override
+    public CitaResponseDTO convertirResumenAResponseDto(CitaResumen resumen, CamposSolicitados campos)
+    {
+        log.info("---> convertirResumenAResponseDto");
+
+        if (Objects.isNull(resumen))
+            return null;
+
+        CitaResponseDTO dto = new CitaResponseDTO();
+        dto.setId(resumen.getId());
+        dto.setSerieId(resumen.getSerieId());
+        dto.setPaciente(resumen.getNombrePaciente() + " " + resumen.getApellidosPaciente());
+        dto.setNumSala(resumen.getNumSala());
+        dto.setGravedad(resumen.getGravedad().name());
+
+        //El médico llega vacío si el paciente quedó sin asignar:
+        if (Objects.nonNull(resumen.getNombreMedico()))
+        {
+            dto.setMedico(resumen.getNombreMedico() + " " + resumen.getApellidosMedico());
+            dto.setEspecialidad(resumen.getEspecialidad().name());
+        }
+
+
+        if (campos.incluye("fechaCita"))
+            dto.setFechaCita(this.fechaMapeador.convertirLocalDateAString(resumen.getFechaCita()));
+
+        if (campos.incluye("horaEntrada"))
+            dto.setHoraEntrada(this.fechaMapeador.convertirLocalTimeAString(resumen.getHoraEntrada()));
+
+        if (campos.incluye("horaSalida"))
+            dto.setHoraSalida(this.fechaMapeador.convertirLocalTimeAString(resumen.getHoraSalida()));
+
+        log.info("<--- convertirResumenAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que traduce cada una de las solicitudes de un lote de citas a programar
+     * automáticamente hacia su correspondiente objeto 'SolicitudCita'.
+     *
+     * @param dto Datos del DTO de entrada de la clase 'SolicitudCitaRequestDTO'.
+     * @return Objeto de la clase 'SolicitudCita' con las fechas ya traducidas.
+     */
+    @Override
+    public SolicitudCita convertirSolicitudRequestDto(SolicitudCitaRequestDTO dto)
+    {
+        log.info("---> convertirSolicitudRequestDto");
+
+        if (Objects.isNull(dto))
+            return null;
+
+        SolicitudCita solicitud = new SolicitudCita(
+                dto.getPacienteId(),
+                this.fechaMapeador.convertirStringALocalDate(dto.getFechaDesde().trim()),
+                this.fechaMapeador.convertirStringALocalDate(dto.getFechaHasta().trim()),
+                dto.getDuracion());
+
+        log.info("<--- convertirSolicitudRequestDto");
+        return solicitud;
+    }
+
+    /**
+     * Método que envuelve dentro de un DTO de salida de clase 'PlanificacionResponseDTO' las citas
+     * programadas automáticamente y las solicitudes del lote que se quedaron sin hueco.
+     *
+     * @param resultado Citas guardadas y posiciones en el lote de las solicitudes sin hueco.
+     * @param solicitudes Solicitudes del lote, en el orden en que se recibieron.
+     * @return Resultado de la planificación envuelto en un DTO de salida de clase 'PlanificacionResponseDTO'.
+     */
+    @Override
+    public PlanificacionResponseDTO convertirResultadoPlanificacionAResponseDto(ResultadoPlanificacion resultado,
+                                                                                List<SolicitudCitaRequestDTO> solicitudes)
+    {
+        log.info("---> convertirResultadoPlanificacionAResponseDto");
+
+        if (Objects.isNull(resultado))
+            return null;
+
+        PlanificacionResponseDTO dto = new PlanificacionResponseDTO();
+        dto.setAsignadas(resultado.citas().stream().map(this::convertirEntidadAResponseDto).toList());
+        dto.setSinAsignar(resultado.sinAsignar().stream().map(solicitudes::get).toList());
+        log.info("<--- convertirResultadoPlanificacionAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que traduce los datos envueltos dentro de un DTO de entrada de clase
+     * 'SerieCitasRequestDTO' hacia un nuevo objeto de la entidad 'SerieCitas'.
+     *
+     * @param dto Datos del DTO de entrada de la clase 'SerieCitasRequestDTO'.
+     * @return Objeto de la clase 'SerieCitas' con los datos DTO insertados.
+     */
+    @Override
+    public SerieCitas convertirSerieRequestDtoAEntidad(SerieCitasRequestDTO dto)
+    {
+        log.info("---> convertirSerieRequestDtoAEntidad");
+
+        if (Objects.isNull(dto))
+            return null;
+
+        SerieCitas entidad = new SerieCitas();
+        this.pacienteServicio.buscarPaciente(dto.getPacienteId()).ifPresent(entidad::setPaciente);
+        this.salaServicio.buscarSala(dto.getSalaId()).ifPresent(entidad::setSala);
+        entidad.setFechaInicio(this.fechaMapeador.convertirStringALocalDate(dto.getFechaInicio().trim()));
+        entidad.setFechaFin(this.fechaMapeador.convertirStringALocalDate(dto.getFechaFin().trim()));
+        entidad.setIntervaloDias(dto.getIntervaloDias());
+        entidad.setHoraEntrada(this.fechaMapeador.convertirStringALocalTime(dto.getHoraEntrada().trim()));
+        entidad.setHoraSalida(this.fechaMapeador.convertirStringALocalTime(dto.getHoraSalida().trim()));
+
+        log.info("<--- convertirSerieRequestDtoAEntidad");
+        return entidad;
+    }
+
+    /**
+     * Método que transforma los datos de una entidad de clase 'SerieCitas' y los
+     * envuelve dentro de un DTO de salida de clase 'SerieCitasResponseDTO'.
+     *
+     * @param entidad Objeto de la clase 'SerieCitas'.
+     * @return Datos de la entidad envueltos en un DTO de salida de clase 'SerieCitasResponseDTO'.
+     */
+    @Override
+    public SerieCitasResponseDTO convertirSerieAResponseDto(SerieCitas entidad)
+    {
+        log.info("---> convertirSerieAResponseDto");
+
+        if (Objects.isNull(entidad))
+            return null;
+
+        SerieCitasResponseDTO dto = new SerieCitasResponseDTO();
+        dto.setId(entidad.getId());
+        dto.setPaciente(entidad.getPaciente().getNombre() + " " + entidad.getPaciente().getApellidos());
+        dto.setNumSala(entidad.getSala().getNumero());
+
+        Medico medico = entidad.getPaciente().getMedicoAsignado();
+
+        if (Objects.nonNull(medico))
+            dto.setMedico(medico.getNombre() + " " + medico.getApellidos());
+
+        dto.setFechaInicio(this.fechaMapeador.convertirLocalDateAString(entidad.getFechaInicio()));
+        dto.setFechaFin(this.fechaMapeador.convertirLocalDateAString(entidad.getFechaFin()));
+        dto.setIntervaloDias(entidad.getIntervaloDias());
         dto.setHoraEntrada(this.fechaMapeador.convertirLocalTimeAString(entidad.getHoraEntrada()));
         dto.setHoraSalida(this.fechaMapeador.convertirLocalTimeAString(entidad.getHoraSalida()));
-        log.info("<--- convertirEntidadAResponseDto");
+        dto.setExcepciones(entidad.getExcepciones().stream()
+                .sorted()
+                .map(this.fechaMapeador::convertirLocalDateAString)
+                .toList());
+
+        log.info("<--- convertirSerieAResponseDto");
         return dto;
-    }   
+    }
 }
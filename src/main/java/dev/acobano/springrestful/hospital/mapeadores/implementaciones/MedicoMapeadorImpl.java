@@ -1,5 +1,6 @@
 package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.MedicoResponseDTO;
@@ -9,8 +10,12 @@ import dev.acobano.springrestful.hospital.mapeadores.interfaces.IMedicoMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +38,9 @@ public class MedicoMapeadorImpl implements IMedicoMapeador
     @Autowired
     private IFechaMapeador fechaMapeador;
 
+    @Autowired
+    private IPacienteServicio pacienteServicio;
+
 
 
                                             // *****************
@@ -121,13 +129,121 @@ public class MedicoMapeadorImpl implements IMedicoMapeador
      * @return Datos de la entidad envueltos en un DTO de salida de clase 'MedicoResponseDTO'.
      */
     @Override
-    public MedicoResponseDTO convertirEntidadAResponseDto(Medico entidad) 
+    public MedicoResponseDTO convertirEntidadAResponseDto(Medico entidad)
+    {
+        return this.convertirEntidadAResponseDto(entidad, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que transforma los datos de una entidad de clase 'Médico' en su DTO de salida rellenando
+     * únicamente los campos solicitados, sin contar sus pacientes si no se ha pedido 'pacientesAsignados'.
+     *
+     * @param entidad Objeto de la clase 'Médico'.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la entidad envueltos en un DTO de salida de clase 'MedicoResponseDTO'.
+     */
+    @Override
+    public MedicoResponseDTO convertirEntidadAResponseDto(Medico entidad, CamposSolicitados campos)
     {
         log.info("---> convertirEntidadAResponseDto");
 
         if (Objects.isNull(entidad))
             return null;
-        
+
+        //Contamos las pacientes asignados con una consulta agregada en lugar de inicializar la colección:
+        Map<Long, Long> conteo = Objects.isNull(entidad.getId()) || !campos.incluye("pacientesAsignados")
+                ? Collections.emptyMap()
+                : this.pacienteServicio.contarPacientesPorMedicos(List.of(entidad.getId()));
+        MedicoResponseDTO dto = this.construirResponseDto(entidad, conteo.getOrDefault(entidad.getId(), 0L), campos);
+
+        log.info("<--- convertirEntidadAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que transforma una lista de entidades de clase 'Médico' en sus DTO de salida,
+     * obteniendo los pacientes asignados de todos los médicos con una única consulta agregada.
+     *
+     * @param entidades Lista de objetos de la clase 'Médico', en el orden en que se desean devolver.
+     * @return Lista de DTOs de salida de clase 'MedicoResponseDTO' en el mismo orden que la lista de entrada.
+     */
+    @Override
+    public List<MedicoResponseDTO> convertirListaEntidadesAResponseDto(List<Medico> entidades)
+    {
+        log.info("---> convertirListaEntidadesAResponseDto");
+
+        if (Objects.isNull(entidades))
+            return null;
+
+        List<Long> ids = entidades.stream()
+                .map(Medico::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Long> conteo = this.pacienteServicio.contarPacientesPorMedicos(ids);
+        List<MedicoResponseDTO> listaDto = new ArrayList<>(entidades.size());
+
+        for (Medico e : entidades)
+            listaDto.add(this.construirResponseDto(e, conteo.getOrDefault(e.getId(), 0L), CamposSolicitados.TODOS));
+
+        log.info("<--- convertirListaEntidadesAResponseDto");
+        return listaDto;
+    }
+
+    /**
+     * Método que envuelve dentro de un DTO de salida de clase 'MedicoResponseDTO' los datos de un
+     * médico y su número de pacientes obtenidos directamente de la BBDD mediante la proyección 'MedicoResumen'.
+     *
+     * @param resumen Proyección con los datos del médico.
+     * @return Datos de la proyección envueltos en un DTO de salida de clase 'MedicoResponseDTO'.
+     */
+    @Override
+    public MedicoResponseDTO convertirResumenAResponseDto(MedicoResumen resumen)
+    {
+        return this.convertirResumenAResponseDto(resumen, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que envuelve en un DTO de salida de clase 'MedicoResponseDTO' los campos solicitados
+     * de la proyección 'MedicoResumen', sin formatear las fechas que no se vayan a enviar.
+     *
+     * @param resumen Proyección con los datos del médico.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la proyección envueltos en un DTO de salida de clase 'MedicoResponseDTO'.
+     */
+    @Override
+    public MedicoResponseDTO convertirResumenAResponseDto(MedicoResumen resumen, CamposSolicitados campos)
+    {
+        log.info("---> convertirResumenAResponseDto");
+
+        if (Objects.isNull(resumen))
+            return null;
+
+        MedicoResponseDTO dto = new MedicoResponseDTO();
+        dto.setId(resumen.getId());
+        dto.setNombre(resumen.getNombre());
+        dto.setApellidos(resumen.getApellidos());
+        dto.setDni(resumen.getDni());
+        dto.setEmail(resumen.getEmail());
+        dto.setEspecialidad(resumen.getEspecialidad().name());
+
+        if (campos.incluye("fechaGraduacion"))
+            dto.setFechaGraduacion(this.fechaMapeador
+                    .convertirLocalDateAString(resumen.getFechaGraduacion()));
+
+        if (campos.incluye("fechaIncorporacion"))
+            dto.setFechaIncorporacion(this.fechaMapeador
+                    .convertirLocalDateAString(resumen.getFechaIncorporacion()));
+
+        dto.setPacientesAsignados(Objects.isNull(resumen.getPacientesAsignados())
+                ? 0
+                : resumen.getPacientesAsignados().intValue());
+
+        log.info("<--- convertirResumenAResponseDto");
+        return dto;
+    }
+
+    private MedicoResponseDTO construirResponseDto(Medico entidad, long total, CamposSolicitados campos)
+    {
         MedicoResponseDTO dto = new MedicoResponseDTO();
         
         dto.setId(entidad.getId());
@@ -136,17 +252,17 @@ public class MedicoMapeadorImpl implements IMedicoMapeador
         dto.setDni(entidad.getDni());
         dto.setEmail(entidad.getEmail());
         dto.setEspecialidad(entidad.getEspecialidad().name());
-        dto.setFechaGraduacion(this.fechaMapeador.
-                convertirLocalDateAString(entidad.getFechaGraduacion()));
-        dto.setFechaIncorporacion(this.fechaMapeador
-                .convertirLocalDateAString(entidad.getFechaIncorporacion()));
 
-        if (Objects.isNull(entidad.getPacientesAsignados()) || entidad.getPacientesAsignados().isEmpty())
-            dto.setPacientesAsignados(0);
-        else
-            dto.setPacientesAsignados(entidad.getPacientesAsignados().size());
+        if (campos.incluye("fechaGraduacion"))
+            dto.setFechaGraduacion(this.fechaMapeador.
+                    convertirLocalDateAString(entidad.getFechaGraduacion()));
+
+        if (campos.incluye("fechaIncorporacion"))
+            dto.setFechaIncorporacion(this.fechaMapeador
+                    .convertirLocalDateAString(entidad.getFechaIncorporacion()));
+
+        dto.setPacientesAsignados((int) total);
 
-        log.info("<--- convertirEntidadAResponseDto");
         return dto;
     }
 
@@ -166,9 +282,30 @@ public class MedicoMapeadorImpl implements IMedicoMapeador
         if (Objects.isNull(medico))
             return null;
 
-        List<PacienteMedicoDTO> listaDto = new ArrayList<>(medico.getPacientesAsignados().size());
+        List<PacienteMedicoDTO> listaDto = this.convertirListaPacientesADto(medico.getPacientesAsignados());
+
+        log.info("<--- convertirPacientesAsignadosADto");
+        return listaDto;
+    }
+
+    /**
+     * Método que devuelve como lista de DTOs de salida los datos de la lista de entidades
+     * 'Paciente' que se le pasa como parámetro de entrada, respetando su orden.
+     *
+     * @param pacientes Lista de objetos de la clase 'Paciente' que se desea convertir.
+     * @return Lista de objetos de la clase 'Paciente' envueltos en DTOs de salida de clase 'PacienteMedicoDTO'.
+     */
+    @Override
+    public List<PacienteMedicoDTO> convertirListaPacientesADto(List<Paciente> pacientes)
+    {
+        log.info("---> convertirListaPacientesADto");
+
+        if (Objects.isNull(pacientes))
+            return null;
+
+        List<PacienteMedicoDTO> listaDto = new ArrayList<>(pacientes.size());
         
-        for (Paciente p : medico.getPacientesAsignados())
+        for (Paciente p : pacientes)
         {
             PacienteMedicoDTO dto = new PacienteMedicoDTO();
             
@@ -187,7 +324,7 @@ public class MedicoMapeadorImpl implements IMedicoMapeador
             listaDto.add(dto);
         }
 
-        log.info("<--- convertirPacientesAsignadosADto");
+        log.info("<--- convertirListaPacientesADto");
         return listaDto;
     }
 
@@ -1,15 +1,25 @@
 package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.TriajeResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IFechaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IPacienteMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IMedicoServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import dev.acobano.springrestful.hospital.triaje.EntradaTriaje;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -37,6 +47,9 @@ public class PacienteMapeadorImpl implements IPacienteMapeador
     @Autowired
     private IFechaMapeador fechaMapeador;
 
+    @Autowired
+    private ICitaServicio citaServicio;
+
 
 
                                     // *****************
@@ -58,20 +71,8 @@ public class PacienteMapeadorImpl implements IPacienteMapeador
         if (Objects.isNull(dto))
             return null;
 
-        Paciente entidad = new Paciente();
-        entidad.setNombre(dto.getNombre().trim());
-        entidad.setApellidos(dto.getApellidos().trim());
-        entidad.setDni(dto.getDni().trim());
-        entidad.setEmail((dto.getEmail().trim()));
-        entidad.setDireccion(dto.getDireccion().trim());
-        entidad.setTelefono(dto.getTelefono().trim());
-        entidad.setGenero(this.convertirGenero(dto.getGenero().trim()));
-        entidad.setGravedad(this.convertirGravedad(dto.getGravedad().trim()));
-        entidad.setFechaNacimiento(this.fechaMapeador
-                .convertirStringALocalDateTime(dto.getFechaNacimiento().trim()));
-        entidad.setFechaIngreso(this.fechaMapeador
-                .convertirStringALocalDateTime(dto.getFechaIngreso().trim()));
-                
+        Paciente entidad = this.convertirDatosPostRequestDto(dto);
+
         //En el caso de que exista un médico con el ID especificado,
         //se llamará a la entidad para establecer la relación correspondiente.
         if (!Objects.isNull(dto.getMedicoId()))
@@ -84,6 +85,31 @@ public class PacienteMapeadorImpl implements IPacienteMapeador
         return entidad;
     }
 
+    /**
+     * Método que traduce un DTO de entrada de un alta por lotes a una entidad 'Paciente' sin consultar
+     * la BBDD: el médico asignado solo lleva su número identificador, y la capa de servicio resuelve
+     * después los médicos de todo el lote con una única consulta.
+     *
+     * @param dto DTO de entrada de la clase 'PacientePostRequestDTO'.
+     * @return Objeto de la clase 'Paciente' con la referencia a su médico aún sin resolver.
+     */
+    @Override
+    public Paciente convertirPostRequestDtoAEntidadDeLote(PacientePostRequestDTO dto)
+    {
+        log.info("---> convertirPostRequestDtoAEntidadDeLote");
+
+        if (Objects.isNull(dto))
+            return null;
+
+        Paciente entidad = this.convertirDatosPostRequestDto(dto);
+
+        if (!Objects.isNull(dto.getMedicoId()))
+            entidad.setMedicoAsignado(Medico.builder().id(dto.getMedicoId()).build());
+
+        log.info("<--- convertirPostRequestDtoAEntidadDeLote");
+        return entidad;
+    }
+
     /**
      * Método que actualiza los datos contenidos en un objeto de la entidad 'Paciente'
      * con la información contenida en un DTO de entrada de clase 'PacientePutRequestDTO'.
@@ -152,13 +178,160 @@ public class PacienteMapeadorImpl implements IPacienteMapeador
      * @return Datos de la entidad envueltos en un DTO de salida de clase 'PacienteResponseDTO'.
      */
     @Override
-    public PacienteResponseDTO convertirEntidadAResponseDto(Paciente entidad) 
+    public PacienteResponseDTO convertirEntidadAResponseDto(Paciente entidad)
+    {
+        return this.convertirEntidadAResponseDto(entidad, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que transforma los datos de una entidad de clase 'Paciente' en su DTO de salida rellenando
+     * únicamente los campos solicitados, sin contar sus citas si no se ha pedido 'citasRegistradas'.
+     *
+     * @param entidad Objeto de la clase 'Paciente'.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la entidad envueltos en un DTO de salida de clase 'PacienteResponseDTO'.
+     */
+    @Override
+    public PacienteResponseDTO convertirEntidadAResponseDto(Paciente entidad, CamposSolicitados campos)
     {
         log.info("---> convertirEntidadAResponseDto");
 
         if (Objects.isNull(entidad))
             return null;
 
+        //Contamos las citas registradas con una consulta agregada en lugar de inicializar la colección:
+        Map<Long, Long> conteo = Objects.isNull(entidad.getId()) || !campos.incluye("citasRegistradas")
+                ? Collections.emptyMap()
+                : this.citaServicio.contarCitasPorPacientes(List.of(entidad.getId()));
+        PacienteResponseDTO dto = this.construirResponseDto(entidad, conteo.getOrDefault(entidad.getId(), 0L), campos);
+
+        log.info("<--- convertirEntidadAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que transforma una lista de entidades de clase 'Paciente' en sus DTO de salida,
+     * obteniendo las citas registradas de todos los pacientes con una única consulta agregada.
+     *
+     * @param entidades Lista de objetos de la clase 'Paciente', en el orden en que se desean devolver.
+     * @return Lista de DTOs de salida de clase 'PacienteResponseDTO' en el mismo orden que la lista de entrada.
+     */
+    @Override
+    public List<PacienteResponseDTO> convertirListaEntidadesAResponseDto(List<Paciente> entidades)
+    {
+        log.info("---> convertirListaEntidadesAResponseDto");
+
+        if (Objects.isNull(entidades))
+            return null;
+
+        List<Long> ids = entidades.stream()
+                .map(Paciente::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Long> conteo = this.citaServicio.contarCitasPorPacientes(ids);
+        List<PacienteResponseDTO> listaDto = new ArrayList<>(entidades.size());
+
+        for (Paciente e : entidades)
+            listaDto.add(this.construirResponseDto(e, conteo.getOrDefault(e.getId(), 0L), CamposSolicitados.TODOS));
+
+        log.info("<--- convertirListaEntidadesAResponseDto");
+        return listaDto;
+    }
+
+    /**
+     * Método que envuelve dentro de un DTO de salida de clase 'PacienteResponseDTO' los datos de un
+     * paciente y su número de citas obtenidos directamente de la BBDD mediante la proyección 'PacienteResumen'.
+     *
+     * @param resumen Proyección con los datos del paciente.
+     * @return Datos de la proyección envueltos en un DTO de salida de clase 'PacienteResponseDTO'.
+     */
+    @Override
+    public PacienteResponseDTO convertirResumenAResponseDto(PacienteResumen resumen)
+    {
+        return this.convertirResumenAResponseDto(resumen, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que envuelve en un DTO de salida de clase 'PacienteResponseDTO' los campos solicitados
+     * de la proyección 'PacienteResumen', sin formatear las fechas que no se vayan a enviar.
+     *
+     * @param resumen Proyección con los datos del paciente.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la proyección envueltos en un DTO de salida de clase 'PacienteResponseDTO'.
+     */
+    @Override
+    public PacienteResponseDTO convertirResumenAResponseDto(PacienteResumen resumen, CamposSolicitados campos)
+    {
+        log.info("---> convertirResumenAResponseDto");
+
+        if (Objects.isNull(resumen))
+            return null;
+
+        PacienteResponseDTO dto = new PacienteResponseDTO();
+        dto.setId(resumen.getId());
+        dto.setNombre(resumen.getNombre());
+        dto.setApellidos(resumen.getApellidos());
+        dto.setDni(resumen.getDni());
+        dto.setEmail(resumen.getEmail());
+        dto.setDireccion(resumen.getDireccion());
+        dto.setTelefono(resumen.getTelefono());
+        dto.setGenero(resumen.getGenero().name());
+
+        if (campos.incluye("fechaNacimiento"))
+            dto.setFechaNacimiento(this.fechaMapeador
+                    .convertirLocalDateTimeAString(resumen.getFechaNacimiento()));
+
+        if (campos.incluye("fechaIngreso"))
+            dto.setFechaIngreso(this.fechaMapeador
+                    .convertirLocalDateTimeAString(resumen.getFechaIngreso()));
+
+        dto.setGravedad(resumen.getGravedad().name());
+
+        if (Objects.nonNull(resumen.getNombreMedico()))
+        {
+            dto.setMedicoAsignado(resumen.getNombreMedico() + " " + resumen.getApellidosMedico());
+            dto.setAreaTratamiento(resumen.getEspecialidad().name());
+        }
+
+        dto.setCitasRegistradas(Objects.isNull(resumen.getCitasRegistradas())
+                ? 0
+                : resumen.getCitasRegistradas().intValue());
+
+        log.info("<--- convertirResumenAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que traduce un paciente de la cola de triaje y su posición a su DTO de salida,
+     * con los datos guardados en la propia cola y sin consultar la BBDD.
+     *
+     * @param posicion Paciente de la cola de triaje y su posición en ella.
+     * @return DTO de salida con los datos de triaje del paciente.
+     */
+    @Override
+    public TriajeResponseDTO convertirPosicionTriajeAResponseDto(PosicionTriaje posicion)
+    {
+        log.info("---> convertirPosicionTriajeAResponseDto");
+
+        if (Objects.isNull(posicion))
+            return null;
+
+        EntradaTriaje entrada = posicion.entrada();
+        TriajeResponseDTO dto = new TriajeResponseDTO();
+        dto.setPosicion(posicion.posicion());
+        dto.setPacienteId(entrada.pacienteId());
+        dto.setNombre(entrada.nombre());
+        dto.setApellidos(entrada.apellidos());
+        dto.setGravedad(Objects.isNull(entrada.gravedad()) ? null : entrada.gravedad().name());
+        dto.setFechaIngreso(Objects.isNull(entrada.fechaIngreso())
+                ? null
+                : this.fechaMapeador.convertirLocalDateTimeAString(entrada.fechaIngreso()));
+        log.info("<--- convertirPosicionTriajeAResponseDto");
+        return dto;
+    }
+
+    private PacienteResponseDTO construirResponseDto(Paciente entidad, long total, CamposSolicitados campos)
+    {
         PacienteResponseDTO dto = new PacienteResponseDTO();
         dto.setId(entidad.getId());
         dto.setNombre(entidad.getNombre());
@@ -168,21 +341,27 @@ public class PacienteMapeadorImpl implements IPacienteMapeador
         dto.setDireccion(entidad.getDireccion());
         dto.setTelefono(entidad.getTelefono());
         dto.setGenero(entidad.getGenero().name());
-        dto.setFechaNacimiento(this.fechaMapeador
-                .convertirLocalDateTimeAString(entidad.getFechaNacimiento()));
-        dto.setFechaIngreso(this.fechaMapeador
-                .convertirLocalDateTimeAString(entidad.getFechaIngreso()));
+
+        if (campos.incluye("fechaNacimiento"))
+            dto.setFechaNacimiento(this.fechaMapeador
+                    .convertirLocalDateTimeAString(entidad.getFechaNacimiento()));
+
+        if (campos.incluye("fechaIngreso"))
+            dto.setFechaIngreso(this.fechaMapeador
+                    .convertirLocalDateTimeAString(entidad.getFechaIngreso()));
+
         dto.setGravedad(entidad.getGravedad().name());
-        dto.setMedicoAsignado(entidad.getMedicoAsignado().getNombre() + " " +
-                              entidad.getMedicoAsignado().getApellidos());
-        dto.setAreaTratamiento(entidad.getMedicoAsignado().getEspecialidad().name());
+
+        //Un paciente puede quedar sin médico asignado si se elimina a todos los médicos del sistema:
+        if (Objects.nonNull(entidad.getMedicoAsignado()))
+        {
+            dto.setMedicoAsignado(entidad.getMedicoAsignado().getNombre() + " " +
+                                  entidad.getMedicoAsignado().getApellidos());
+            dto.setAreaTratamiento(entidad.getMedicoAsignado().getEspecialidad().name());
+        }
         
-        if (Objects.isNull(entidad.getCitasAsignadas()) || entidad.getCitasAsignadas().isEmpty())
-            dto.setCitasRegistradas(0);
-        else
-            dto.setCitasRegistradas(entidad.getCitasAsignadas().size());
+        dto.setCitasRegistradas((int) total);
 
-        log.info("<--- convertirEntidadAResponseDto");
         return dto;
     }
     
@@ -241,4 +420,23 @@ public class PacienteMapeadorImpl implements IPacienteMapeador
         log.info("<--- convertirGravedad");
         return gravedad;
     }
+
+    //Datos propios del paciente, comunes al alta individual y al alta por lotes:
+    private Paciente convertirDatosPostRequestDto(PacientePostRequestDTO dto)
+    {
+        Paciente entidad = new Paciente();
+        entidad.setNombre(dto.getNombre().trim());
+        entidad.setApellidos(dto.getApellidos().trim());
+        entidad.setDni(dto.getDni().trim());
+        entidad.setEmail((dto.getEmail().trim()));
+        entidad.setDireccion(dto.getDireccion().trim());
+        entidad.setTelefono(dto.getTelefono().trim());
+        entidad.setGenero(this.convertirGenero(dto.getGenero().trim()));
+        entidad.setGravedad(this.convertirGravedad(dto.getGravedad().trim()));
+        entidad.setFechaNacimiento(this.fechaMapeador
+                .convertirStringALocalDateTime(dto.getFechaNacimiento().trim()));
+        entidad.setFechaIngreso(this.fechaMapeador
+                .convertirStringALocalDateTime(dto.getFechaIngreso().trim()));
+        return entidad;
+    }
 }
@@ -1,10 +1,20 @@
 package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.SalaRequestDTO;
+import dev.acobano.springrestful.hospital.dto.salida.DisponibilidadSalaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.HuecoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.SalaResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IFechaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ISalaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +38,9 @@ public class SalaMapeadorImpl implements ISalaMapeador
     @Autowired
     private IFechaMapeador fechaMapeador;
 
+    @Autowired
+    private ICitaServicio citaServicio;
+
 
 
                                         // *****************
@@ -63,23 +76,140 @@ public class SalaMapeadorImpl implements ISalaMapeador
      * @return Datos de la entidad envueltos en un DTO de salida de clase 'SalaResponseDTO'.
      */
     @Override
-    public SalaResponseDTO convertirEntidadAResponseDto(Sala entidad) 
+    public SalaResponseDTO convertirEntidadAResponseDto(Sala entidad)
+    {
+        return this.convertirEntidadAResponseDto(entidad, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que transforma los datos de una entidad de clase 'Sala' en su DTO de salida,
+     * sin contar sus citas si no se ha pedido el campo 'citasAsignadas'.
+     *
+     * @param entidad Objeto de la clase 'Sala'.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Datos de la entidad envueltos en un DTO de salida de clase 'SalaResponseDTO'.
+     */
+    @Override
+    public SalaResponseDTO convertirEntidadAResponseDto(Sala entidad, CamposSolicitados campos)
     {
         log.info("---> convertirEntidadAResponseDto");
 
         if (Objects.isNull(entidad))
             return null;
 
+        //Contamos las citas asignadas con una consulta agregada en lugar de inicializar la colección:
+        Map<Long, Long> conteo = Objects.isNull(entidad.getId()) || !campos.incluye("citasAsignadas")
+                ? Collections.emptyMap()
+                : this.citaServicio.contarCitasPorSalas(List.of(entidad.getId()));
+        SalaResponseDTO dto = this.construirResponseDto(entidad, conteo.getOrDefault(entidad.getId(), 0L));
+
+        log.info("<--- convertirEntidadAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que transforma una lista de entidades de clase 'Sala' en sus DTO de salida,
+     * obteniendo las citas asignadas de todas las salas con una única consulta agregada.
+     *
+     * @param entidades Lista de objetos de la clase 'Sala', en el orden en que se desean devolver.
+     * @return Lista de DTOs de salida de clase 'SalaResponseDTO' en el mismo orden que la lista de entrada.
+     */
+    @Override
+    public List<SalaResponseDTO> convertirListaEntidadesAResponseDto(List<Sala> entidades)
+    {
+        return this.convertirListaEntidadesAResponseDto(entidades, CamposSolicitados.TODOS);
+    }
+
+    /**
+     * Método que transforma una lista de entidades de clase 'Sala' en sus DTO de salida,
+     * sin contar sus citas si no se ha pedido el campo 'citasAsignadas'.
+     *
+     * @param entidades Lista de objetos de la clase 'Sala', en el orden en que se desean devolver.
+     * @param campos Campos del DTO de salida solicitados en el parámetro 'fields'.
+     * @return Lista de DTOs de salida de clase 'SalaResponseDTO' en el mismo orden que la lista de entrada.
+     */
+    @Override
+    public List<SalaResponseDTO> convertirListaEntidadesAResponseDto(List<Sala> entidades, CamposSolicitados campos)
+    {
+        log.info("---> convertirListaEntidadesAResponseDto");
+
+        if (Objects.isNull(entidades))
+            return null;
+
+        List<Long> ids = entidades.stream()
+                .map(Sala::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<Long, Long> conteo = campos.incluye("citasAsignadas")
+                ? this.citaServicio.contarCitasPorSalas(ids)
+                : Collections.emptyMap();
+        List<SalaResponseDTO> listaDto = new ArrayList<>(entidades.size());
+
+        for (Sala e : entidades)
+            listaDto.add(this.construirResponseDto(e, conteo.getOrDefault(e.getId(), 0L)));
+
+        log.info("<--- convertirListaEntidadesAResponseDto");
+        return listaDto;
+    }
+
+    /**
+     * Método que transforma un hueco libre de una sala en su DTO de salida de clase 'HuecoResponseDTO'.
+     *
+     * @param hueco Hueco devuelto por la búsqueda de disponibilidad.
+     * @return Datos del hueco envueltos en un DTO de salida de clase 'HuecoResponseDTO'.
+     */
+    @Override
+    public HuecoResponseDTO convertirHuecoAResponseDto(Hueco hueco)
+    {
+        log.info("---> convertirHuecoAResponseDto");
+
+        if (Objects.isNull(hueco))
+            return null;
+
+        HuecoResponseDTO dto = new HuecoResponseDTO();
+        dto.setSalaId(hueco.salaId());
+        dto.setNumSala(Objects.isNull(hueco.numSala()) ? 0 : hueco.numSala());
+        dto.setFecha(this.fechaMapeador.convertirLocalDateAString(hueco.fecha()));
+        dto.setHoraInicio(this.fechaMapeador.convertirLocalTimeAString(hueco.inicio()));
+        dto.setHoraFin(this.fechaMapeador.convertirLocalTimeAString(hueco.fin()));
+        log.info("<--- convertirHuecoAResponseDto");
+        return dto;
+    }
+
+    /**
+     * Método que envuelve dentro de un DTO de salida de clase 'DisponibilidadSalaResponseDTO'
+     * la respuesta del mapa de ocupación de una sala sobre un intervalo de un día.
+     *
+     * @param disponibilidad Disponibilidad de la sala obtenida de su mapa de ocupación.
+     * @return Datos de la disponibilidad envueltos en un DTO de salida de clase 'DisponibilidadSalaResponseDTO'.
+     */
+    @Override
+    public DisponibilidadSalaResponseDTO convertirDisponibilidadAResponseDto(Disponibilidad disponibilidad)
+    {
+        log.info("---> convertirDisponibilidadAResponseDto");
+
+        if (Objects.isNull(disponibilidad))
+            return null;
+
+        DisponibilidadSalaResponseDTO dto = new DisponibilidadSalaResponseDTO();
+        dto.setSalaId(disponibilidad.salaId());
+        dto.setFecha(this.fechaMapeador.convertirLocalDateAString(disponibilidad.fecha()));
+        dto.setHoraInicio(this.fechaMapeador.convertirLocalTimeAString(disponibilidad.desde()));
+        dto.setHoraFin(this.fechaMapeador.convertirLocalTimeAString(disponibilidad.hasta()));
+        dto.setLibre(disponibilidad.libre());
+        dto.setMinutosOcupados(disponibilidad.minutosOcupados());
+        log.info("<--- convertirDisponibilidadAResponseDto");
+        return dto;
+    }
+
+    private SalaResponseDTO construirResponseDto(Sala entidad, long total)
+    {
         SalaResponseDTO dto = new SalaResponseDTO();
         dto.setId(entidad.getId());
         dto.setNumSala(entidad.getNumero());
         
-        if (Objects.isNull(entidad.getCitasAsignadas()) || entidad.getCitasAsignadas().isEmpty())
-            dto.setCitasAsignadas(0);
-        else
-            dto.setCitasAsignadas(entidad.getCitasAsignadas().size());
+        dto.setCitasAsignadas((int) total);
 
-        log.info("<--- convertirEntidadAResponseDto");
         return dto;
     }
 }
@@ -1,9 +1,19 @@
 package dev.acobano.springrestful.hospital.mapeadores.interfaces;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPutRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SerieCitasRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SolicitudCitaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.PlanificacionResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.SerieCitasResponseDTO;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.planificacion.ResultadoPlanificacion;
+import dev.acobano.springrestful.hospital.planificacion.SolicitudCita;
+import java.util.List;
 
 /**
  * Interfaz de la capa de mapeadores que implementa los métodos que gestionan la traducción
@@ -14,6 +24,15 @@ import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 public interface ICitaMapeador 
 {
     Cita convertirPostResquestDtoAEntidad(CitaPostRequestDTO dto);
+    Cita convertirPostRequestDtoAEntidadDeLote(CitaPostRequestDTO dto);
     Cita convertirPutRequestDtoAEntidad(Cita entidad, CitaPutRequestDTO dto);
     CitaResponseDTO convertirEntidadAResponseDto(Cita entidad);
+    CitaResponseDTO convertirEntidadAResponseDto(Cita entidad, CamposSolicitados campos);
+    CitaResponseDTO convertirResumenAResponseDto(CitaResumen resumen);
+    CitaResponseDTO convertirResumenAResponseDto(CitaResumen resumen, CamposSolicitados campos);
+    SolicitudCita convertirSolicitudRequestDto(SolicitudCitaRequestDTO dto);
+    PlanificacionResponseDTO convertirResultadoPlanificacionAResponseDto(ResultadoPlanificacion resultado,
+                                                                         List<SolicitudCitaRequestDTO> solicitudes);
+    SerieCitas convertirSerieRequestDtoAEntidad(SerieCitasRequestDTO dto);
+    SerieCitasResponseDTO convertirSerieAResponseDto(SerieCitas entidad);
 }
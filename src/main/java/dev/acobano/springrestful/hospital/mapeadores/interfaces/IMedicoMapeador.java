@@ -1,11 +1,14 @@
 package dev.acobano.springrestful.hospital.mapeadores.interfaces;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.MedicoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteMedicoDTO;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
 import java.util.List;
 
 /**
@@ -19,6 +22,11 @@ public interface IMedicoMapeador
     Medico convertirPostRequestDtoAEntidad(MedicoPostRequestDTO dto);
     Medico convertirPutRequestDtoAEntidad(Medico entidad, MedicoPutRequestDTO dto);
     MedicoResponseDTO convertirEntidadAResponseDto(Medico entidad);
+    MedicoResponseDTO convertirEntidadAResponseDto(Medico entidad, CamposSolicitados campos);
+    List<MedicoResponseDTO> convertirListaEntidadesAResponseDto(List<Medico> entidades);
+    MedicoResponseDTO convertirResumenAResponseDto(MedicoResumen resumen);
+    MedicoResponseDTO convertirResumenAResponseDto(MedicoResumen resumen, CamposSolicitados campos);
     List<PacienteMedicoDTO> convertirPacientesAsignadosADto(Medico medico);
+    List<PacienteMedicoDTO> convertirListaPacientesADto(List<Paciente> pacientes);
     Especialidad convertirEspecialidad(String especialidadString);
 }
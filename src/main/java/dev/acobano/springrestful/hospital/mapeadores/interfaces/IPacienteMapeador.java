@@ -1,11 +1,16 @@
 package dev.acobano.springrestful.hospital.mapeadores.interfaces;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.TriajeResponseDTO;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
+import java.util.List;
 
 /**
  * Interfaz de la capa de mapeadores que implementa los métodos que gestionan la traducción
@@ -16,8 +21,14 @@ import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
 public interface IPacienteMapeador 
 {
     Paciente convertirPostRequestDtoAEntidad(PacientePostRequestDTO dto);
+    Paciente convertirPostRequestDtoAEntidadDeLote(PacientePostRequestDTO dto);
     Paciente convertirPutRequestDtoAEntidad(Paciente entidad, PacientePutRequestDTO dto);
     PacienteResponseDTO convertirEntidadAResponseDto(Paciente entidad);
+    PacienteResponseDTO convertirEntidadAResponseDto(Paciente entidad, CamposSolicitados campos);
+    List<PacienteResponseDTO> convertirListaEntidadesAResponseDto(List<Paciente> entidades);
+    PacienteResponseDTO convertirResumenAResponseDto(PacienteResumen resumen);
+    PacienteResponseDTO convertirResumenAResponseDto(PacienteResumen resumen, CamposSolicitados campos);
+    TriajeResponseDTO convertirPosicionTriajeAResponseDto(PosicionTriaje posicion);
     Genero convertirGenero (String generoString);
     Gravedad convertirGravedad (String gravedadString);
 }
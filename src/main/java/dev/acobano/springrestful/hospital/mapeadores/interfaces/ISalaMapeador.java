@@ -1,8 +1,14 @@
 package dev.acobano.springrestful.hospital.mapeadores.interfaces;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.SalaRequestDTO;
+import dev.acobano.springrestful.hospital.dto.salida.DisponibilidadSalaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.HuecoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.SalaResponseDTO;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import java.util.List;
 
 /**
  * Interfaz de la capa de mapeadores que implementa los métodos que gestionan la traducción
@@ -14,4 +20,9 @@ public interface ISalaMapeador
 {
     Sala convertirRequestDtoAEntidad(SalaRequestDTO dto);
     SalaResponseDTO convertirEntidadAResponseDto(Sala entidad);
+    SalaResponseDTO convertirEntidadAResponseDto(Sala entidad, CamposSolicitados campos);
+    List<SalaResponseDTO> convertirListaEntidadesAResponseDto(List<Sala> entidades);
+    List<SalaResponseDTO> convertirListaEntidadesAResponseDto(List<Sala> entidades, CamposSolicitados campos);
+    HuecoResponseDTO convertirHuecoAResponseDto(Hueco hueco);
+    DisponibilidadSalaResponseDTO convertirDisponibilidadAResponseDto(Disponibilidad disponibilidad);
 }
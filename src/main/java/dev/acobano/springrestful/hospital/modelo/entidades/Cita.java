@@ -2,14 +2,21 @@ package dev.acobano.springrestful.hospital.modelo.entidades;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -26,7 +33,26 @@ import lombok.NoArgsConstructor;
  */
 
 @Entity
-@Table(name = "citas")
+@NamedEntityGraph(
+        name = Cita.GRAFO_DETALLE,
+        attributeNodes = {
+                @NamedAttributeNode(value = "paciente", subgraph = "paciente-medico"),
+                @NamedAttributeNode("sala")
+        },
+        subgraphs = @NamedSubgraph(
+                name = "paciente-medico",
+                attributeNodes = @NamedAttributeNode("medicoAsignado")
+        )
+)
+@Table(
+        name = "citas",
+        indexes = {
+                @Index(name = "idx_citas_fecha_cita_id", columnList = "fecha_cita, cita_id"),
+                @Index(name = "idx_citas_sala_fecha_hora", columnList = "sala_id, fecha_cita, hora_entrada"),
+                @Index(name = "idx_citas_paciente_fecha_hora", columnList = "paciente_id, fecha_cita, hora_entrada"),
+                @Index(name = "idx_citas_fecha_horas", columnList = "fecha_cita, hora_entrada, hora_salida")
+        }
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -37,16 +63,25 @@ public class Cita
                                         // ***  ATRIBUTOS  ***
                                         // *******************
 
+    //Grafo que carga en una única sentencia la cita junto a su paciente, el médico de este y la sala:
+    public static final String GRAFO_DETALLE = "Cita.detalle";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "citas_seq")
+    @SequenceGenerator(name = "citas_seq", sequenceName = "citas_seq", allocationSize = 50)
     @Column(name = "cita_id")
     private Long id;
+
+    //Versión de la fila para el bloqueo optimista: se rechaza cualquier actualización hecha sobre datos ya modificados:
+    @Version
+    @Column(name = "version")
+    private Long version;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paciente_id")
     private Paciente paciente;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sala_id")
     private Sala sala;
     
@@ -1,6 +1,7 @@
 package dev.acobano.springrestful.hospital.modelo.entidades;
 
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -8,10 +9,14 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -19,6 +24,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 /**
  * Clase de la capa de entidades que define todos los datos relacionados
@@ -28,7 +37,16 @@ import lombok.NoArgsConstructor;
  */
 
 @Entity
-@Table(name = "medicos")
+@Table(
+        name = "medicos",
+        indexes = {
+                @Index(name = "idx_medicos_especialidad", columnList = "especialidad"),
+                @Index(name = "idx_medicos_nombre_normalizado", columnList = "nombre_normalizado")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_medicos_dni", columnNames = "dni")
+)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Medico.REGION_CACHE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -39,13 +57,27 @@ public class Medico
                                         // ***  ATRIBUTOS  ***
                                         // *******************
 
+    //Región de la caché de segundo nivel (límites de tamaño en 'cache/caffeine-jcache.conf'):
+    public static final String REGION_CACHE = "medicos";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medicos_seq")
+    @SequenceGenerator(name = "medicos_seq", sequenceName = "medicos_seq", allocationSize = 50)
     @Column(name = "medico_id")
     private Long id;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
     
     @Column(name = "nombre")
     private String nombre;
+
+    //Nombre en minúsculas, calculado por la BBDD e indexado para las búsquedas por nombre.
+    //Se relee tras cada alta o modificación, para que la entidad y la caché de segundo nivel no queden desfasadas:
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "nombre_normalizado", insertable = false, updatable = false)
+    private String nombreNormalizado;
     
     @Column(name = "apellidos")
     private String apellidos;
@@ -10,12 +10,16 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,6 +27,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 /**
  * Clase de la capa de entidades que define todos los datos relacionados
@@ -32,7 +38,15 @@ import lombok.NoArgsConstructor;
  */
 
 @Entity
-@Table(name = "pacientes")
+@Table(
+        name = "pacientes",
+        indexes = {
+                @Index(name = "idx_pacientes_gravedad_fecha_ingreso", columnList = "gravedad, fecha_ingreso"),
+                @Index(name = "idx_pacientes_triaje", columnList = "gravedad_orden, fecha_ingreso, paciente_id"),
+                @Index(name = "idx_pacientes_medico_id", columnList = "medico_id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_pacientes_dni", columnNames = "dni")
+)
 @Data
 @Builder
 @NoArgsConstructor
@@ -44,9 +58,14 @@ public class Paciente
                                         // *******************
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pacientes_seq")
+    @SequenceGenerator(name = "pacientes_seq", sequenceName = "pacientes_seq", allocationSize = 50)
     @Column(name = "paciente_id")
     private Long id;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
     
     @Column(name = "nombre")
     private String nombre;
@@ -64,6 +83,12 @@ public class Paciente
     @Enumerated(EnumType.STRING)
     @Column(name = "gravedad")
     private Gravedad gravedad;
+
+    //Posición de la gravedad en el triaje (0 = CRITICA), calculada por la BBDD e indexada para ordenar por ella.
+    //Se relee tras cada alta o modificación, ya que la gravedad del paciente puede cambiar:
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "gravedad_orden", insertable = false, updatable = false)
+    private Integer gravedadOrden;
     
     @Column(name = "direccion")
     private String direccion;
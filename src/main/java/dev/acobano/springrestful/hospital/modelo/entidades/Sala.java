@@ -1,5 +1,6 @@
 package dev.acobano.springrestful.hospital.modelo.entidades;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -7,13 +8,17 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Clase de la capa de entidades que define todos los datos relacionados con
@@ -23,6 +28,8 @@ import lombok.NoArgsConstructor;
  */
 @Entity
 @Table(name = "salas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Sala.REGION_CACHE)
 @Data
 @Builder
 @NoArgsConstructor
@@ -33,10 +40,18 @@ public class Sala
                                         // ***  ATRIBUTOS  ***
                                         // *******************
 
+    //Región de la caché de segundo nivel (límites de tamaño en 'cache/caffeine-jcache.conf'):
+    public static final String REGION_CACHE = "salas";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "salas_seq")
+    @SequenceGenerator(name = "salas_seq", sequenceName = "salas_seq", allocationSize = 50)
     @Column(name = "sala_id")
     private Long id;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
     
     @Column(name = "num_sala")
     private int numero;
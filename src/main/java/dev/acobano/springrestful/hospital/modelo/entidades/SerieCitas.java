@@ -0,0 +1,99 @@
+package dev.acobano.springrestful.hospital.modelo.entidades;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.Version;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase de la capa de entidades que define una serie de citas médicas periódicas (p. ej. las
+ * sesiones semanales de un tratamiento) guardada en una única fila: la regla de repetición, el
+ * horario común y las fechas canceladas como excepciones. Sus ocurrencias no se guardan, sino
+ * que se calculan solo para el rango de días que se consulta.
+ * <>
+ * @author Álvaro Cobano
+ */
+
+@Entity
+@Table(
+        name = "series_citas",
+        indexes = {
+                @Index(name = "idx_series_citas_sala_fechas", columnList = "sala_id, fecha_inicio, fecha_fin"),
+                @Index(name = "idx_series_citas_paciente_fechas", columnList = "paciente_id, fecha_inicio, fecha_fin")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieCitas
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "series_citas_seq")
+    @SequenceGenerator(name = "series_citas_seq", sequenceName = "series_citas_seq", allocationSize = 50)
+    @Column(name = "serie_id")
+    private Long id;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "paciente_id")
+    private Paciente paciente;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sala_id")
+    private Sala sala;
+
+    @Temporal(TemporalType.DATE)
+    @Column(name = "fecha_inicio")
+    private LocalDate fechaInicio;
+
+    @Temporal(TemporalType.DATE)
+    @Column(name = "fecha_fin")
+    private LocalDate fechaFin;
+
+    @Column(name = "intervalo_dias")
+    private int intervaloDias;
+
+    @Temporal(TemporalType.TIME)
+    @Column(name = "hora_entrada")
+    private LocalTime horaEntrada;
+
+    @Temporal(TemporalType.TIME)
+    @Column(name = "hora_salida")
+    private LocalTime horaSalida;
+
+    //Fechas en las que se ha cancelado la ocurrencia de la serie:
+    @ElementCollection
+    @CollectionTable(name = "series_citas_excepciones", joinColumns = @JoinColumn(name = "serie_id"))
+    @Column(name = "fecha")
+    @Builder.Default
+    private Set<LocalDate> excepciones = new HashSet<>();
+}
@@ -0,0 +1,34 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Interfaz de proyección con los campos escalares que necesita el DTO de salida 'CitaResponseDTO',
+ * obtenidos en una única SELECT sin cargar en el contexto de persistencia las entidades 'Cita',
+ * 'Paciente', 'Médico' y 'Sala'. El médico puede ser nulo si el paciente quedó sin asignar.
+ * Las ocurrencias de una serie de citas no tienen ID de cita, sino el de su serie.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface CitaResumen
+{
+    Long getId();
+    String getNombrePaciente();
+    String getApellidosPaciente();
+    Gravedad getGravedad();
+    String getNombreMedico();
+    String getApellidosMedico();
+    Especialidad getEspecialidad();
+    Integer getNumSala();
+    LocalDate getFechaCita();
+    LocalTime getHoraEntrada();
+    LocalTime getHoraSalida();
+
+    default Long getSerieId()
+    {
+        return null;
+    }
+}
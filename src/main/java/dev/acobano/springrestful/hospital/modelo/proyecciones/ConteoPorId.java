@@ -0,0 +1,14 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+/**
+ * Interfaz de proyección utilizada por las consultas agregadas 'COUNT ... GROUP BY' del
+ * repositorio, que devuelve el número de elementos asociados a cada entidad padre sin
+ * necesidad de inicializar sus colecciones '@OneToMany'.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface ConteoPorId
+{
+    Long getId();
+    Long getTotal();
+}
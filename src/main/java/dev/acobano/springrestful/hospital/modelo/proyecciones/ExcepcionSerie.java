@@ -0,0 +1,15 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+import java.time.LocalDate;
+
+/**
+ * Interfaz de proyección con una fecha cancelada de una serie de citas, utilizada para leer
+ * de una vez solo las excepciones que caen dentro del rango de días consultado.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface ExcepcionSerie
+{
+    Long getId();
+    LocalDate getFecha();
+}
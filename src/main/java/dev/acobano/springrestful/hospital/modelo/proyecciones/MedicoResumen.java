@@ -0,0 +1,23 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import java.time.LocalDate;
+
+/**
+ * Interfaz de proyección con los campos que necesita el DTO de salida 'MedicoResponseDTO',
+ * incluido el número de pacientes asignados, obtenidos en una única SELECT sin cargar entidades.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface MedicoResumen
+{
+    Long getId();
+    String getNombre();
+    String getApellidos();
+    String getDni();
+    String getEmail();
+    Especialidad getEspecialidad();
+    LocalDate getFechaGraduacion();
+    LocalDate getFechaIncorporacion();
+    Long getPacientesAsignados();
+}
@@ -0,0 +1,87 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Ocurrencia de una serie de citas en un día concreto, expuesta como un 'CitaResumen' más para
+ * listarla junto a las citas guardadas. No tiene ID de cita propio, sino el de su serie.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record OcurrenciaSerie(SerieCitasResumen serie, LocalDate fecha) implements CitaResumen
+{
+    @Override
+    public Long getId()
+    {
+        return null;
+    }
+
+    @Override
+    public Long getSerieId()
+    {
+        return this.serie.getId();
+    }
+
+    @Override
+    public String getNombrePaciente()
+    {
+        return this.serie.getNombrePaciente();
+    }
+
+    @Override
+    public String getApellidosPaciente()
+    {
+        return this.serie.getApellidosPaciente();
+    }
+
+    @Override
+    public Gravedad getGravedad()
+    {
+        return this.serie.getGravedad();
+    }
+
+    @Override
+    public String getNombreMedico()
+    {
+        return this.serie.getNombreMedico();
+    }
+
+    @Override
+    public String getApellidosMedico()
+    {
+        return this.serie.getApellidosMedico();
+    }
+
+    @Override
+    public Especialidad getEspecialidad()
+    {
+        return this.serie.getEspecialidad();
+    }
+
+    @Override
+    public Integer getNumSala()
+    {
+        return this.serie.getNumSala();
+    }
+
+    @Override
+    public LocalDate getFechaCita()
+    {
+        return this.fecha;
+    }
+
+    @Override
+    public LocalTime getHoraEntrada()
+    {
+        return this.serie.getHoraEntrada();
+    }
+
+    @Override
+    public LocalTime getHoraSalida()
+    {
+        return this.serie.getHoraSalida();
+    }
+}
@@ -0,0 +1,31 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.time.LocalDateTime;
+
+/**
+ * Interfaz de proyección con los campos que necesita el DTO de salida 'PacienteResponseDTO',
+ * incluido el número de citas registradas, obtenidos en una única SELECT sin cargar entidades.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface PacienteResumen
+{
+    Long getId();
+    String getNombre();
+    String getApellidos();
+    String getDni();
+    Genero getGenero();
+    String getDireccion();
+    String getEmail();
+    String getTelefono();
+    LocalDateTime getFechaNacimiento();
+    LocalDateTime getFechaIngreso();
+    String getNombreMedico();
+    String getApellidosMedico();
+    Especialidad getEspecialidad();
+    Gravedad getGravedad();
+    Long getCitasRegistradas();
+}
@@ -0,0 +1,13 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+/**
+ * Interfaz de proyección con el identificador y el número interno de una sala, suficiente
+ * para las búsquedas de disponibilidad sin cargar las entidades ni sus citas asignadas.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface SalaResumen
+{
+    Long getId();
+    Integer getNumero();
+}
@@ -0,0 +1,30 @@
+package dev.acobano.springrestful.hospital.modelo.proyecciones;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Interfaz de proyección con los campos escalares de una serie de citas y de su paciente,
+ * médico y sala, obtenidos en una única SELECT para expandir sus ocurrencias como si fueran
+ * filas de 'CitaResumen'. El médico puede ser nulo si el paciente quedó sin asignar.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface SerieCitasResumen
+{
+    Long getId();
+    String getNombrePaciente();
+    String getApellidosPaciente();
+    Gravedad getGravedad();
+    String getNombreMedico();
+    String getApellidosMedico();
+    Especialidad getEspecialidad();
+    Integer getNumSala();
+    LocalDate getFechaInicio();
+    LocalDate getFechaFin();
+    Integer getIntervaloDias();
+    LocalTime getHoraEntrada();
+    LocalTime getHoraSalida();
+}
@@ -0,0 +1,78 @@
+package dev.acobano.springrestful.hospital.paginacion;
+
+import java.util.Objects;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Clase de utilidades encargada de construir las cabeceras HTTP con los metadatos de
+ * paginación, de forma que el body de los listados siga siendo un array JSON de DTOs.
+ * <>
+ * @author Álvaro Cobano
+ */
+public final class CabecerasPaginacion
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    public static final String TOTAL_ELEMENTOS = "X-Total-Elementos";
+    public static final String TOTAL_PAGINAS = "X-Total-Paginas";
+    public static final String PAGINA_ACTUAL = "X-Pagina-Actual";
+    public static final String TAMANIO_PAGINA = "X-Tamanio-Pagina";
+    public static final String HAY_SIGUIENTE = "X-Hay-Siguiente";
+    public static final String SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    private CabecerasPaginacion() {}
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que genera las cabeceras de una página obtenida mediante paginación por desplazamiento.
+     *
+     * @param pagina Página de resultados devuelta por la capa de servicio.
+     * @return Objeto de la clase HttpHeaders con los totales y la posición de la página.
+     */
+    public static HttpHeaders dePagina(Page<?> pagina)
+    {
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.add(TOTAL_ELEMENTOS, String.valueOf(pagina.getTotalElements()));
+        cabeceras.add(TOTAL_PAGINAS, String.valueOf(pagina.getTotalPages()));
+        cabeceras.add(PAGINA_ACTUAL, String.valueOf(pagina.getNumber()));
+        cabeceras.add(TAMANIO_PAGINA, String.valueOf(pagina.getSize()));
+        cabeceras.add(HAY_SIGUIENTE, String.valueOf(pagina.hasNext()));
+        return cabeceras;
+    }
+
+    /**
+     * Método que genera las cabeceras de un fragmento obtenido mediante paginación por cursor. Al no
+     * calcular totales, únicamente se informa del cursor con el que solicitar el siguiente fragmento.
+     *
+     * @param fragmento Fragmento de resultados devuelto por la capa de servicio.
+     * @param siguienteCursor Cursor opaco del último elemento del fragmento.
+     * @return Objeto de la clase HttpHeaders con los metadatos del fragmento.
+     */
+    public static HttpHeaders deFragmento(Slice<?> fragmento, String siguienteCursor)
+    {
+        HttpHeaders cabeceras = new HttpHeaders();
+        cabeceras.add(TAMANIO_PAGINA, String.valueOf(fragmento.getSize()));
+        cabeceras.add(HAY_SIGUIENTE, String.valueOf(fragmento.hasNext()));
+
+        if (fragmento.hasNext() && !Objects.isNull(siguienteCursor))
+            cabeceras.add(SIGUIENTE_CURSOR, siguienteCursor);
+
+        return cabeceras;
+    }
+}
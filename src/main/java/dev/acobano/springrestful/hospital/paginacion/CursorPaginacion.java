@@ -0,0 +1,140 @@
+package dev.acobano.springrestful.hospital.paginacion;
+
+import dev.acobano.springrestful.hospital.excepciones.CursorInvalidoExcepcion;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Clase de utilidades encargada de codificar y decodificar los cursores opacos empleados
+ * en la paginación por clave (keyset), de forma que el cliente solo tenga que reenviar el
+ * valor recibido en la cabecera 'X-Siguiente-Cursor' para obtener la siguiente página.
+ * <>
+ * @author Álvaro Cobano
+ */
+public final class CursorPaginacion
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final String SEPARADOR = "|";
+    private static final String MENSAJE_CURSOR_INVALIDO = "El cursor de paginación introducido no es válido";
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    private CursorPaginacion() {}
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que genera el cursor opaco correspondiente al último número identificador de una página.
+     *
+     * @param ultimoId Número identificador del último elemento devuelto.
+     * @return Cadena de texto con el cursor codificado en Base64.
+     */
+    public static String codificarId(Long ultimoId)
+    {
+        return codificar(String.valueOf(ultimoId));
+    }
+
+    /**
+     * Método que obtiene el último número identificador a partir de un cursor opaco. Un cursor
+     * vacío indica que se desea comenzar a paginar desde el primer elemento.
+     *
+     * @param cursor Cadena de texto con el cursor recibido del cliente.
+     * @return Número identificador a partir del cual continuar, o 0 si el cursor está vacío.
+     */
+    public static Long decodificarId(String cursor)
+    {
+        if (Objects.isNull(cursor) || cursor.isBlank())
+            return 0L;
+
+        try
+        {
+            return Long.valueOf(decodificar(cursor));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new CursorInvalidoExcepcion(MENSAJE_CURSOR_INVALIDO);
+        }
+    }
+
+    /**
+     * Método que genera el cursor opaco correspondiente a la clave compuesta (fecha, id) del
+     * último elemento de una página ordenada por fecha.
+     *
+     * @param fecha Fecha del último elemento devuelto.
+     * @param ultimoId Número identificador del último elemento devuelto.
+     * @return Cadena de texto con el cursor codificado en Base64.
+     */
+    public static String codificarFechaId(LocalDate fecha, Long ultimoId)
+    {
+        return codificar(fecha + SEPARADOR + ultimoId);
+    }
+
+    /**
+     * Método que obtiene la clave compuesta (fecha, id) a partir de un cursor opaco.
+     *
+     * @param cursor Cadena de texto con el cursor recibido del cliente.
+     * @return Objeto 'CursorFecha' con la clave, o null si el cursor está vacío.
+     */
+    public static CursorFecha decodificarFechaId(String cursor)
+    {
+        if (Objects.isNull(cursor) || cursor.isBlank())
+            return null;
+
+        String contenido = decodificar(cursor);
+        int posicion = contenido.indexOf(SEPARADOR);
+
+        if (posicion < 0)
+            throw new CursorInvalidoExcepcion(MENSAJE_CURSOR_INVALIDO);
+
+        try
+        {
+            return new CursorFecha(LocalDate.parse(contenido.substring(0, posicion)),
+                                   Long.valueOf(contenido.substring(posicion + 1)));
+        }
+        catch (DateTimeParseException | NumberFormatException e)
+        {
+            throw new CursorInvalidoExcepcion(MENSAJE_CURSOR_INVALIDO);
+        }
+    }
+
+    private static String codificar(String contenido)
+    {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificar(String cursor)
+    {
+        try
+        {
+            return new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new CursorInvalidoExcepcion(MENSAJE_CURSOR_INVALIDO);
+        }
+    }
+
+    /**
+     * Clave compuesta (fecha, id) de la última fila devuelta en una paginación ordenada por fecha.
+     *
+     * @param fecha Fecha de la última fila devuelta.
+     * @param id Número identificador de la última fila devuelta.
+     */
+    public record CursorFecha(LocalDate fecha, Long id) {}
+}
@@ -0,0 +1,132 @@
+package dev.acobano.springrestful.hospital.paginacion;
+
+import dev.acobano.springrestful.hospital.excepciones.ListaIdsInvalidaExcepcion;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clase encargada de las búsquedas de varios elementos por su lista de IDs ('?ids=1,2,3'). La capa
+ * de servicio los lee todos con una única consulta 'IN', que los devuelve en cualquier orden y sin
+ * rastro de los IDs inexistentes; aquí se colocan en el orden en que se pidieron y los IDs que no
+ * se han encontrado se informan en la cabecera 'X-Ids-No-Encontrados' de la respuesta.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+public class SeleccionPorIds
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    public static final String IDS_NO_ENCONTRADOS = "X-Ids-No-Encontrados";
+
+    private final int idsMaximos;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public SeleccionPorIds(@Value("${hospital.consultas.ids-maximos:200}") int idsMaximos)
+    {
+        this.idsMaximos = idsMaximos;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que descarta los IDs nulos o repetidos de la lista introducida, manteniendo el orden
+     * de su primera aparición, y comprueba que el número resultante está dentro del máximo.
+     *
+     * @param ids Lista de IDs recibida en el parámetro 'ids' de la petición.
+     * @return Lista de IDs distintos en el orden en que se pidieron.
+     * @throws ListaIdsInvalidaExcepcion Si no queda ningún ID o se supera el máximo por petición.
+     */
+    public List<Long> normalizar(List<Long> ids)
+    {
+        List<Long> distintos = Objects.isNull(ids)
+                ? List.of()
+                : new ArrayList<>(ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        if (distintos.isEmpty() || distintos.size() > this.idsMaximos)
+            throw new ListaIdsInvalidaExcepcion(String.format(
+                    "El número de IDs distintos a buscar debe estar entre 1 y %d", this.idsMaximos));
+
+        return distintos;
+    }
+
+    /**
+     * Método que ordena los elementos encontrados según la lista de IDs solicitada.
+     *
+     * @param ids Lista de IDs normalizada, en el orden en que se pidieron.
+     * @param encontrados Elementos devueltos por la consulta, en cualquier orden.
+     * @param identificador Lectura del ID de cada elemento.
+     * @return Resultado con los elementos ordenados y los IDs que no se han encontrado.
+     */
+    public <T> Seleccion<T> ordenar(List<Long> ids, Collection<T> encontrados, Function<T, Long> identificador)
+    {
+        Map<Long, T> porId = new HashMap<>(encontrados.size() * 2);
+        encontrados.forEach(e -> porId.put(identificador.apply(e), e));
+
+        List<T> ordenados = new ArrayList<>(encontrados.size());
+        List<Long> noEncontrados = new ArrayList<>();
+
+        for (Long id : ids)
+        {
+            T elemento = porId.get(id);
+
+            if (Objects.isNull(elemento))
+                noEncontrados.add(id);
+            else
+                ordenados.add(elemento);
+        }
+
+        return new Seleccion<>(ordenados, noEncontrados);
+    }
+
+    /**
+     * Resultado de una búsqueda por lista de IDs.
+     *
+     * @param encontrados Elementos encontrados, en el orden en que se pidieron sus IDs.
+     * @param noEncontrados IDs solicitados que no corresponden a ningún elemento.
+     */
+    public record Seleccion<T>(List<T> encontrados, List<Long> noEncontrados)
+    {
+        /**
+         * Método que genera las cabeceras de la respuesta: si algún ID no se ha encontrado,
+         * se enumeran en 'X-Ids-No-Encontrados' separados por comas.
+         *
+         * @return Objeto de la clase HttpHeaders con los metadatos de la búsqueda.
+         */
+        public HttpHeaders cabeceras()
+        {
+            HttpHeaders cabeceras = new HttpHeaders();
+
+            if (!this.noEncontrados.isEmpty())
+                cabeceras.add(IDS_NO_ENCONTRADOS, this.noEncontrados.stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(",")));
+
+            return cabeceras;
+        }
+    }
+}
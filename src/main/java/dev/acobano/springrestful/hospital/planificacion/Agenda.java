@@ -0,0 +1,129 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Agenda de una sala o de un médico en un día: conjunto ordenado por hora de entrada de franjas
+ * ocupadas que, al rechazarse cualquier solapamiento, se mantienen siempre disjuntas. Gracias a
+ * ello, basta con consultar la franja inmediatamente anterior a la hora de salida pedida para
+ * detectar un conflicto en tiempo O(log n). Junto a las franjas se mantiene su mapa de ocupación
+ * por minutos, que responde sin recorrer el árbol a la mayoría de preguntas de disponibilidad.
+ * <>
+ * No es segura entre hilos por sí misma: el índice la usa siempre sincronizado sobre la propia agenda.
+ * <>
+ * @author Álvaro Cobano
+ */
+class Agenda
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final Comparator<FranjaOcupada> POR_INICIO = Comparator
+            .comparing(FranjaOcupada::inicio)
+            .thenComparing(FranjaOcupada::citaId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FranjaOcupada::serieId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final TreeSet<FranjaOcupada> franjas = new TreeSet<>(POR_INICIO);
+    private final Map<Long, FranjaOcupada> franjasPorCita = new HashMap<>();
+    private final OcupacionMinutos minutos = new OcupacionMinutos();
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    Agenda(Collection<FranjaOcupada> ocupadas)
+    {
+        ocupadas.forEach(this::anadir);
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que busca la franja que impide ocupar la agenda entre las horas introducidas. Entre
+     * las franjas que empiezan antes de 'fin', la última es la que termina más tarde, así que
+     * solo ella puede solapar con el intervalo pedido.
+     *
+     * @param inicio Hora de entrada del intervalo a comprobar.
+     * @param fin Hora de salida del intervalo a comprobar.
+     * @param citaId Cita que se está reservando, cuya franja anterior no cuenta como conflicto.
+     * @return Objeto Optional con la franja en conflicto, o vacío si el intervalo está libre.
+     */
+    Optional<FranjaOcupada> buscarConflicto(LocalTime inicio, LocalTime fin, Long citaId)
+    {
+        //Si ningún minuto del intervalo está ocupado no hace falta buscar en el árbol:
+        if (this.minutos.estaLibre(inicio, fin))
+            return Optional.empty();
+
+        FranjaOcupada anterior = this.franjas.lower(new FranjaOcupada(null, fin, fin));
+
+        //La franja de la propia cita se ignora: al moverla de hora no debe chocar consigo misma.
+        while (Objects.nonNull(anterior) && Objects.nonNull(citaId) && citaId.equals(anterior.citaId()))
+            anterior = this.franjas.lower(anterior);
+
+        return Optional.ofNullable(anterior).filter(f -> f.solapaCon(inicio, fin));
+    }
+
+    void anadir(FranjaOcupada franja)
+    {
+        this.quitar(franja.citaId());
+        this.franjas.add(franja);
+        this.minutos.ocupar(franja.inicio(), franja.fin());
+
+        if (Objects.nonNull(franja.citaId()))
+            this.franjasPorCita.put(franja.citaId(), franja);
+    }
+
+    void quitar(Long citaId)
+    {
+        if (Objects.isNull(citaId))
+            return;
+
+        FranjaOcupada anterior = this.franjasPorCita.remove(citaId);
+
+        if (Objects.nonNull(anterior) && this.franjas.remove(anterior))
+            this.minutos.liberar(anterior.inicio(), anterior.fin(), this.franjas);
+    }
+
+    /**
+     * Método que comprueba con el mapa de minutos si la agenda está libre entre las horas introducidas.
+     *
+     * @param inicio Hora de inicio del intervalo.
+     * @param fin Hora de fin del intervalo.
+     * @return True si ningún minuto que toca el intervalo está ocupado.
+     */
+    boolean estaLibre(LocalTime inicio, LocalTime fin)
+    {
+        return this.minutos.estaLibre(inicio, fin);
+    }
+
+    int minutosOcupados()
+    {
+        return this.minutos.minutosOcupados();
+    }
+
+    List<Intervalo> libres(LocalTime apertura, LocalTime cierre, Duration minimo)
+    {
+        return CalculoHuecos.libres(this.franjas, apertura, cierre, minimo);
+    }
+
+    Collection<Long> citas()
+    {
+        return this.franjasPorCita.keySet();
+    }
+}
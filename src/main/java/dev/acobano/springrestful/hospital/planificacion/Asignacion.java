@@ -0,0 +1,11 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Sala, día y franja horaria que el planificador ha reservado para una petición de cita.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record Asignacion(PeticionCita peticion, Long salaId, LocalDate fecha, LocalTime inicio, LocalTime fin) {}
@@ -0,0 +1,100 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase de utilidades que calcula los intervalos libres de un día a partir de sus franjas ocupadas,
+ * en un único recorrido lineal sobre las franjas ya ordenadas por hora de entrada.
+ * <>
+ * @author Álvaro Cobano
+ */
+public final class CalculoHuecos
+{
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    private CalculoHuecos() {}
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que devuelve los intervalos libres entre la apertura y el cierre que duran al menos lo indicado.
+     * Admite franjas solapadas entre sí, como las de las citas de un médico repartidas en varias salas.
+     *
+     * @param ocupadas Franjas ocupadas del día, ordenadas por hora de entrada.
+     * @param apertura Hora desde la que se buscan huecos.
+     * @param cierre Hora hasta la que se buscan huecos.
+     * @param minimo Duración mínima de cada hueco devuelto.
+     * @return Lista de intervalos libres ordenada por hora de inicio.
+     */
+    public static List<Intervalo> libres(Iterable<FranjaOcupada> ocupadas,
+                                         LocalTime apertura,
+                                         LocalTime cierre,
+                                         Duration minimo)
+    {
+        List<Intervalo> libres = new ArrayList<>();
+        LocalTime desde = apertura;
+
+        for (FranjaOcupada franja : ocupadas)
+        {
+            if (!franja.inicio().isBefore(cierre))
+                break;
+
+            if (franja.fin().isAfter(desde))
+            {
+                anadirSiCabe(libres, desde, franja.inicio(), minimo);
+                desde = franja.fin();
+            }
+        }
+
+        anadirSiCabe(libres, desde, cierre, minimo);
+        return libres;
+    }
+
+    /**
+     * Método que cruza dos listas ordenadas de intervalos libres y devuelve aquellos tramos comunes
+     * que duran al menos lo indicado, avanzando en paralelo sobre ambas listas.
+     *
+     * @param a Primera lista de intervalos, ordenada y sin solapamientos.
+     * @param b Segunda lista de intervalos, ordenada y sin solapamientos.
+     * @param minimo Duración mínima de cada tramo devuelto.
+     * @return Lista de tramos libres en ambas listas.
+     */
+    public static List<Intervalo> interseccion(List<Intervalo> a, List<Intervalo> b, Duration minimo)
+    {
+        List<Intervalo> comunes = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+
+        while (i < a.size() && j < b.size())
+        {
+            Intervalo x = a.get(i);
+            Intervalo y = b.get(j);
+            LocalTime inicio = x.inicio().isAfter(y.inicio()) ? x.inicio() : y.inicio();
+            LocalTime fin = x.fin().isBefore(y.fin()) ? x.fin() : y.fin();
+
+            anadirSiCabe(comunes, inicio, fin, minimo);
+
+            if (x.fin().isBefore(y.fin()))
+                i++;
+            else
+                j++;
+        }
+
+        return comunes;
+    }
+
+    private static void anadirSiCabe(List<Intervalo> libres, LocalTime inicio, LocalTime fin, Duration minimo)
+    {
+        if (inicio.isBefore(fin) && Duration.between(inicio, fin).compareTo(minimo) >= 0)
+            libres.add(new Intervalo(inicio, fin));
+    }
+}
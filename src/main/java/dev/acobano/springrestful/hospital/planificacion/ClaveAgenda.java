@@ -0,0 +1,11 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+
+/**
+ * Identificador de la agenda de una sala en un día concreto: cada par (sala, fecha)
+ * tiene su propio índice de franjas ocupadas.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record ClaveAgenda(Long salaId, LocalDate fecha) {}
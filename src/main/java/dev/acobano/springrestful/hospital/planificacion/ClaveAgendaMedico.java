@@ -0,0 +1,11 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+
+/**
+ * Identificador de la agenda de un médico en un día concreto: reúne las citas de todos
+ * sus pacientes asignados, sea cual sea la sala en la que se celebren.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record ClaveAgendaMedico(Long medicoId, LocalDate fecha) {}
@@ -0,0 +1,163 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Estado de trabajo del planificador para un único día: los intervalos que siguen libres en cada
+ * sala, en la agenda de cada médico implicado y en la de cada paciente. Como las citas de días
+ * distintos nunca compiten entre sí, cada día se resuelve por separado y sin sincronización,
+ * siempre desde un solo hilo.
+ * <>
+ * @author Álvaro Cobano
+ */
+class DiaPlanificacion
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private final LocalDate fecha;
+    private final Intervalo jornada;
+
+    //Salas en el orden en que se prueban, de modo que a igual hora se elige siempre la misma:
+    private final Map<Long, List<Intervalo>> libresSalas = new LinkedHashMap<>();
+    private final Map<Long, List<Intervalo>> libresMedicos = new HashMap<>();
+
+    //Cada paciente parte de la jornada completa y pierde las franjas que se le asignan en el día:
+    private final Map<Long, List<Intervalo>> libresPacientes = new HashMap<>();
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    DiaPlanificacion(LocalDate fecha, Intervalo jornada, List<Long> salaIds, Map<Long, List<Intervalo>> libresSalas)
+    {
+        this.fecha = fecha;
+        this.jornada = jornada;
+
+        for (Long salaId : salaIds)
+            this.libresSalas.put(salaId, new ArrayList<>(libresSalas.getOrDefault(salaId, List.of())));
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    LocalDate fecha()
+    {
+        return this.fecha;
+    }
+
+    /**
+     * Método que devuelve, de entre los médicos introducidos, aquellos cuya agenda aún no se ha cargado.
+     *
+     * @param medicoIds Médicos de las peticiones que se van a resolver en este día.
+     * @return Conjunto de médicos pendientes de cargar.
+     */
+    Set<Long> medicosSinCargar(Collection<Long> medicoIds)
+    {
+        return medicoIds.stream()
+                .filter(Objects::nonNull)
+                .filter(id -> !this.libresMedicos.containsKey(id))
+                .collect(Collectors.toSet());
+    }
+
+    void anadirMedicos(Map<Long, List<Intervalo>> libres)
+    {
+        libres.forEach((medicoId, intervalos) -> this.libresMedicos.put(medicoId, new ArrayList<>(intervalos)));
+    }
+
+    /**
+     * Método que reparte las peticiones introducidas, en el orden recibido, dando a cada una la
+     * franja libre más temprana en la que coinciden una sala, el médico de su paciente y el propio
+     * paciente, que no puede acudir a dos citas a la vez aunque no tenga médico.
+     *
+     * @param peticiones Peticiones a resolver en este día, ordenadas por prioridad.
+     * @return Lista con las asignaciones conseguidas; las peticiones ausentes se quedaron sin hueco.
+     */
+    List<Asignacion> asignar(List<PeticionCita> peticiones)
+    {
+        List<Asignacion> asignadas = new ArrayList<>();
+
+        for (PeticionCita peticion : peticiones)
+            this.asignar(peticion).ifPresent(asignadas::add);
+
+        return asignadas;
+    }
+
+    private Optional<Asignacion> asignar(PeticionCita peticion)
+    {
+        Duration duracion = Duration.ofMinutes(peticion.solicitud().duracionMinutos());
+        List<Intervalo> libresMedico = Objects.isNull(peticion.medicoId())
+                ? List.of(this.jornada)
+                : this.libresMedicos.getOrDefault(peticion.medicoId(), List.of());
+        List<Intervalo> libresPaciente = this.libresPacientes.computeIfAbsent(peticion.solicitud().pacienteId(),
+                pacienteId -> new ArrayList<>(List.of(this.jornada)));
+        List<Intervalo> libresAmbos = CalculoHuecos.interseccion(libresMedico, libresPaciente, duracion);
+        Long salaElegida = null;
+        LocalTime inicio = null;
+
+        for (Map.Entry<Long, List<Intervalo>> sala : this.libresSalas.entrySet())
+        {
+            //El primer tramo común es el más temprano de esa sala:
+            List<Intervalo> comunes = CalculoHuecos.interseccion(sala.getValue(), libresAmbos, duracion);
+
+            if (!comunes.isEmpty() && (Objects.isNull(inicio) || comunes.get(0).inicio().isBefore(inicio)))
+            {
+                salaElegida = sala.getKey();
+                inicio = comunes.get(0).inicio();
+            }
+        }
+
+        if (Objects.isNull(salaElegida))
+            return Optional.empty();
+
+        LocalTime fin = inicio.plus(duracion);
+        ocupar(this.libresSalas.get(salaElegida), inicio, fin);
+
+        if (Objects.nonNull(peticion.medicoId()))
+            ocupar(libresMedico, inicio, fin);
+
+        ocupar(libresPaciente, inicio, fin);
+
+        return Optional.of(new Asignacion(peticion, salaElegida, this.fecha, inicio, fin));
+    }
+
+    //Parte el intervalo libre que contiene la franja reservada en los tramos que quedan a cada lado:
+    private static void ocupar(List<Intervalo> libres, LocalTime inicio, LocalTime fin)
+    {
+        for (int i = 0; i < libres.size(); i++)
+        {
+            Intervalo libre = libres.get(i);
+
+            if (!libre.inicio().isAfter(inicio) && !libre.fin().isBefore(fin))
+            {
+                libres.remove(i);
+
+                if (fin.isBefore(libre.fin()))
+                    libres.add(i, new Intervalo(fin, libre.fin()));
+
+                if (libre.inicio().isBefore(inicio))
+                    libres.add(i, new Intervalo(libre.inicio(), inicio));
+
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Respuesta del mapa de ocupación de una sala a la pregunta de si está libre en un intervalo
+ * de un día, junto al total de minutos que tiene ocupados ese día.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record Disponibilidad(Long salaId, LocalDate fecha, LocalTime desde, LocalTime hasta,
+                             boolean libre, int minutosOcupados) {}
@@ -0,0 +1,18 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Franja ocupada por una cita junto a su sala y su fecha, tal y como la devuelven las consultas
+ * por rango que cargan de una sola vez las agendas de varias salas o de un médico.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record FranjaCita(Long citaId, Long salaId, LocalDate fecha, LocalTime inicio, LocalTime fin)
+{
+    public FranjaOcupada franja()
+    {
+        return new FranjaOcupada(this.citaId, this.inicio, this.fin);
+    }
+}
@@ -0,0 +1,17 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalTime;
+
+/**
+ * Franja ocupada por una cita junto al médico del paciente que la tiene, tal y como la devuelve
+ * la consulta que carga de una sola vez las agendas de varios médicos en un mismo día.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record FranjaMedico(Long medicoId, Long citaId, LocalTime inicio, LocalTime fin)
+{
+    public FranjaOcupada franja()
+    {
+        return new FranjaOcupada(this.citaId, this.inicio, this.fin);
+    }
+}
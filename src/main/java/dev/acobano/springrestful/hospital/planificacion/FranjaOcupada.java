@@ -0,0 +1,31 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalTime;
+import java.util.Objects;
+
+/**
+ * Intervalo semiabierto [inicio, fin) durante el que una cita mantiene ocupada su sala.
+ * Dos franjas consecutivas (una termina a la hora exacta en la que empieza la otra) no se solapan.
+ * Las franjas de las ocurrencias de una serie de citas no tienen cita propia, sino el ID de su serie.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record FranjaOcupada(Long citaId, LocalTime inicio, LocalTime fin, Long serieId)
+{
+    public FranjaOcupada(Long citaId, LocalTime inicio, LocalTime fin)
+    {
+        this(citaId, inicio, fin, null);
+    }
+
+    public boolean solapaCon(LocalTime otroInicio, LocalTime otroFin)
+    {
+        return this.inicio.isBefore(otroFin) && otroInicio.isBefore(this.fin);
+    }
+
+    public String descripcion()
+    {
+        return Objects.nonNull(this.serieId)
+                ? "serie de citas con ID " + this.serieId
+                : "cita con ID " + this.citaId;
+    }
+}
@@ -0,0 +1,31 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Regla y horario de una serie de citas junto a su sala y al médico de su paciente, tal y como
+ * la devuelven las consultas que cargan las agendas. Cada día en el que la regla genera una
+ * ocurrencia, la serie ocupa la franja [inicio, fin) en ambas agendas.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record FranjaSerie(Long serieId,
+                          Long salaId,
+                          Long medicoId,
+                          LocalDate fechaInicio,
+                          LocalDate fechaFin,
+                          int intervaloDias,
+                          LocalTime inicio,
+                          LocalTime fin)
+{
+    public ReglaRecurrencia regla()
+    {
+        return new ReglaRecurrencia(this.fechaInicio, this.fechaFin, this.intervaloDias);
+    }
+
+    public FranjaOcupada franja()
+    {
+        return new FranjaOcupada(null, this.inicio, this.fin, this.serieId);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Hueco libre de una sala en un día, resultado de las búsquedas de disponibilidad.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record Hueco(Long salaId, Integer numSala, LocalDate fecha, LocalTime inicio, LocalTime fin) {}
@@ -0,0 +1,266 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.MedicoOcupadoExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice en memoria de las franjas ocupadas de cada médico por día. Una cita solo se relaciona
+ * con su paciente, así que el médico que la atiende es el asignado a ese paciente: este índice
+ * impide que dos pacientes del mismo médico tengan cita a la vez aunque sea en salas distintas.
+ * <>
+ * Cada agenda (médico, fecha) se carga bajo demanda con una única consulta que recorre los
+ * pacientes del médico por 'idx_pacientes_medico_id' y sus citas de ese día por
+ * 'idx_citas_paciente_fecha_hora'; a partir de ahí se mantiene con cada alta, modificación o
+ * baja de citas y con cada cambio de médico de un paciente, sin volver a consultar la BBDD.
+ * Las ocurrencias de las series de citas de sus pacientes se añaden al cargar cada día.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class IndiceAgendaMedicos extends IndiceAgendas<ClaveAgendaMedico>
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private final CitaRepositorio repositorio;
+    private final SerieCitasRepositorio serieRepositorio;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public IndiceAgendaMedicos(CitaRepositorio repositorio,
+                               SerieCitasRepositorio serieRepositorio,
+                               @Value("${hospital.planificacion.agendas.maximo:10000}") long maximoAgendas,
+                               @Value("${hospital.planificacion.agendas.expiracion:PT1H}") Duration expiracion,
+                               @Value("${hospital.planificacion.cerrojos.espera:PT2S}") Duration esperaCerrojo)
+    {
+        super(maximoAgendas, expiracion, esperaCerrojo);
+        this.repositorio = repositorio;
+        this.serieRepositorio = serieRepositorio;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que anota la franja de la cita introducida en la agenda del médico de su paciente,
+     * comprobando antes que no se solapa con ninguna otra cita de ese médico el mismo día. Si el
+     * paciente no tiene médico asignado, la cita se retira de la agenda en la que estuviera.
+     *
+     * @param cita Cita a reservar, con su ID ya asignado.
+     * @throws HorarioInvalidoExcepcion Si la hora de salida no es posterior a la de entrada.
+     * @throws MedicoOcupadoExcepcion Si el médico ya tiene otra cita en parte del intervalo.
+     */
+    public void reservar(Cita cita)
+    {
+        Long medicoId = Objects.isNull(cita.getPaciente()) || Objects.isNull(cita.getPaciente().getMedicoAsignado())
+                ? null
+                : cita.getPaciente().getMedicoAsignado().getId();
+
+        if (Objects.isNull(medicoId) || Objects.isNull(cita.getFechaCita())
+                || Objects.isNull(cita.getHoraEntrada()) || Objects.isNull(cita.getHoraSalida()))
+        {
+            this.liberar(cita.getId());
+            return;
+        }
+
+        this.reservar(new ClaveAgendaMedico(medicoId, cita.getFechaCita()),
+                cita.getId(), cita.getHoraEntrada(), cita.getHoraSalida());
+    }
+
+    /**
+     * Método que bloquea hasta que termine la transacción en curso las agendas de los médicos de
+     * todas las citas introducidas, p. ej. antes de reservar un alta por lotes, para tomar sus
+     * cerrojos de una vez y en orden en lugar de a medida que se reserva cada cita.
+     *
+     * @param citas Citas cuyas agendas se van a modificar, con su paciente ya cargado.
+     * @throws org.springframework.dao.CannotAcquireLockException Si otra transacción retiene alguna
+     *         agenda más tiempo del permitido.
+     */
+    public void bloquearAgendas(Collection<Cita> citas)
+    {
+        this.bloquearHastaTerminar(clavesDe(citas));
+    }
+
+    /**
+     * Método que descarta, una vez confirmada la transacción en curso, las agendas de los médicos de
+     * las citas introducidas, p. ej. al eliminarlas en cascada junto a su paciente. El resto de
+     * agendas cargadas se conserva.
+     *
+     * @param citas Citas eliminadas, con su paciente ya cargado.
+     */
+    public void invalidarAgendas(Collection<Cita> citas)
+    {
+        Set<ClaveAgendaMedico> claves = clavesDe(citas);
+
+        if (!claves.isEmpty())
+            this.invalidarAlConfirmarSi(claves::contains);
+    }
+
+    /**
+     * Método que traslada las citas de un paciente a la agenda de su nuevo médico. Las citas a partir
+     * de hoy se comprueban contra las que ya tiene ese médico; las pasadas solo se retiran del índice,
+     * ya que un solapamiento en el pasado no puede evitarse.
+     *
+     * @param medicoAnterior Número identificador del médico que tenía asignado el paciente, o null.
+     * @param medicoNuevo Número identificador del nuevo médico del paciente, o null si se le desasigna.
+     * @param citas Franjas de todas las citas del paciente.
+     * @throws MedicoOcupadoExcepcion Si alguna cita futura choca con otra del nuevo médico.
+     */
+    public void reasignarPaciente(Long medicoAnterior, Long medicoNuevo, List<FranjaCita> citas)
+    {
+        LocalDate hoy = LocalDate.now();
+        Set<LocalDate> fechas = new HashSet<>();
+
+        for (FranjaCita f : citas)
+        {
+            fechas.add(f.fecha());
+
+            if (Objects.isNull(medicoNuevo) || f.fecha().isBefore(hoy))
+                this.liberar(f.citaId());
+            else
+                this.reservar(new ClaveAgendaMedico(medicoNuevo, f.fecha()), f.citaId(), f.inicio(), f.fin());
+        }
+
+        //Las agendas afectadas que no se han actualizado aquí pueden haberse cargado con el estado anterior:
+        this.invalidarSi(clave -> fechas.contains(clave.fecha())
+                && (Objects.equals(clave.medicoId(), medicoAnterior)
+                    || (Objects.equals(clave.medicoId(), medicoNuevo) && clave.fecha().isBefore(hoy))));
+    }
+
+    /**
+     * Método que calcula los intervalos libres de varios médicos en un mismo día. Las agendas que aún
+     * no estén cargadas se leen todas juntas con una única consulta.
+     *
+     * @param fecha Día en el que se buscan huecos.
+     * @param medicoIds Números identificadores de los médicos a consultar.
+     * @param apertura Hora desde la que se buscan huecos.
+     * @param cierre Hora hasta la que se buscan huecos.
+     * @param minimo Duración mínima de cada hueco.
+     * @return Mapa con los intervalos libres de cada médico, ordenados por hora de inicio.
+     */
+    public Map<Long, List<Intervalo>> libresDelDia(LocalDate fecha,
+                                                   Collection<Long> medicoIds,
+                                                   LocalTime apertura,
+                                                   LocalTime cierre,
+                                                   Duration minimo)
+    {
+        List<ClaveAgendaMedico> claves = medicoIds.stream().map(id -> new ClaveAgendaMedico(id, fecha)).toList();
+        Map<Long, List<Intervalo>> libres = new HashMap<>();
+
+        this.consultar(claves, this::leerFranjasDelDia, agenda -> agenda.libres(apertura, cierre, minimo))
+                .forEach((clave, intervalos) -> libres.put(clave.medicoId(), intervalos));
+
+        return libres;
+    }
+
+    /**
+     * Método que descarta todas las agendas cargadas de un médico, p. ej. al eliminarlo o al eliminar
+     * a uno de sus pacientes junto a sus citas.
+     *
+     * @param medicoId Número identificador del médico.
+     */
+    public void invalidarMedico(Long medicoId)
+    {
+        this.invalidarSi(clave -> clave.medicoId().equals(medicoId));
+    }
+
+    /**
+     * Método que descarta las agendas cargadas de un médico en un rango de días, p. ej. al crear,
+     * modificar o eliminar una serie de citas de uno de sus pacientes.
+     * Se descartan al confirmar la transacción, para que nadie vuelva a cargarlas antes de tiempo.
+     *
+     * @param medicoId Número identificador del médico.
+     * @param desde Primer día del rango, incluido.
+     * @param hasta Último día del rango, incluido.
+     */
+    public void invalidarMedicoEntre(Long medicoId, LocalDate desde, LocalDate hasta)
+    {
+        this.invalidarAlConfirmarSi(clave -> clave.medicoId().equals(medicoId)
+                && !clave.fecha().isBefore(desde) && !clave.fecha().isAfter(hasta));
+    }
+
+    private static Set<ClaveAgendaMedico> clavesDe(Collection<Cita> citas)
+    {
+        return citas.stream()
+                .filter(c -> Objects.nonNull(c.getPaciente()) && Objects.nonNull(c.getPaciente().getMedicoAsignado())
+                        && Objects.nonNull(c.getFechaCita()))
+                .map(c -> new ClaveAgendaMedico(c.getPaciente().getMedicoAsignado().getId(), c.getFechaCita()))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    protected List<FranjaOcupada> leerFranjas(ClaveAgendaMedico clave)
+    {
+        List<FranjaOcupada> franjas = new ArrayList<>(
+                this.repositorio.findFranjasByMedicoAndFecha(clave.medicoId(), clave.fecha()));
+
+        for (FranjaSerie f : this.serieRepositorio.findFranjasByMedicosAndFecha(List.of(clave.medicoId()), clave.fecha()))
+            if (f.regla().incluye(clave.fecha()))
+                franjas.add(f.franja());
+
+        return franjas;
+    }
+
+    @Override
+    protected RuntimeException construirConflicto(ClaveAgendaMedico clave, FranjaOcupada ocupada)
+    {
+        return new MedicoOcupadoExcepcion(String.format(
+                "El médico ya tiene el %s otra cita entre las %s y las %s (%s)",
+                clave.fecha().format(FORMATO_FECHA), ocupada.inicio(), ocupada.fin(), ocupada.descripcion()));
+    }
+
+    //Carga conjunta de las agendas de varios médicos: una sola consulta por fecha, agrupada después por médico.
+    private Map<ClaveAgendaMedico, List<FranjaOcupada>> leerFranjasDelDia(Set<? extends ClaveAgendaMedico> claves)
+    {
+        Map<ClaveAgendaMedico, List<FranjaOcupada>> franjas = new HashMap<>();
+        claves.forEach(clave -> franjas.put(clave, new ArrayList<>()));
+
+        for (LocalDate fecha : claves.stream().map(ClaveAgendaMedico::fecha).distinct().toList())
+        {
+            List<Long> medicoIds = claves.stream()
+                    .filter(clave -> clave.fecha().equals(fecha))
+                    .map(ClaveAgendaMedico::medicoId)
+                    .toList();
+            log.debug("---> cargarAgendas {} de {} médicos", fecha, medicoIds.size());
+
+            for (FranjaMedico f : this.repositorio.findFranjasByMedicosAndFecha(medicoIds, fecha))
+                franjas.get(new ClaveAgendaMedico(f.medicoId(), fecha)).add(f.franja());
+
+            for (FranjaSerie f : this.serieRepositorio.findFranjasByMedicosAndFecha(medicoIds, fecha))
+                if (f.regla().incluye(fecha))
+                    franjas.get(new ClaveAgendaMedico(f.medicoId(), fecha)).add(f.franja());
+        }
+
+        return franjas;
+    }
+}
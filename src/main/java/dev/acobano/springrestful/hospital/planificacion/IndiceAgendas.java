@@ -0,0 +1,512 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Base de los índices en memoria de franjas ocupadas por día. Cada clave identifica la agenda de
+ * un día (de una sala, de un médico...) y se carga bajo demanda con una consulta por rango la
+ * primera vez que se necesita, o de nuevo tras ser desalojada.
+ * <>
+ * Las reservas se anotan en cuanto se comprueban, de modo que dos peticiones simultáneas no
+ * pueden ocupar la misma franja; si la transacción que las hizo se deshace, las agendas que
+ * modificó se descartan y se vuelven a leer de la BBDD en el siguiente acceso. Una reserva
+ * rechazada no modifica su agenda, que sigue cargada.
+ * <>
+ * Además, cada reserva bloquea su agenda hasta que termina la transacción que la hizo, y la fija
+ * para que, si mientras tanto la caché la desaloja, no se recargue de la BBDD sin la cita aún sin
+ * confirmar.
+ * Los cerrojos se reparten por franjas (lock striping): un número fijo de cerrojos indexados por el
+ * hash de la clave, de modo que solo compiten las reservas de la misma agenda (o de otra que caiga
+ * en su mismo cerrojo) y una sala o un médico muy solicitados no frenan al resto. Si el cerrojo no
+ * se obtiene a tiempo, la reserva falla con un conflicto de concurrencia que puede reintentarse.
+ * <>
+ * @param <K> Tipo de la clave que identifica cada agenda.
+ * @author Álvaro Cobano
+ */
+@Slf4j
+abstract class IndiceAgendas<K>
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    protected static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    //Número de cerrojos entre los que se reparten las agendas; potencia de 2 para indexar con una máscara:
+    private static final int NUMERO_CERROJOS = 256;
+
+    //Al terminar la transacción, los descartes de agendas se ejecutan antes de liberar los cerrojos:
+    private static final int ORDEN_DESCARTES = 0;
+
+    private final Cache<K, Agenda> agendas;
+
+    private final ReentrantLock[] cerrojos = new ReentrantLock[NUMERO_CERROJOS];
+    private final Duration esperaCerrojo;
+
+    //Agenda en la que está anotada cada cita, para poder liberarla o moverla conociendo solo su ID:
+    private final Map<Long, K> ubicaciones = new ConcurrentHashMap<>();
+
+    //Agendas con reservas de transacciones en curso: si la caché las desaloja, se recuperan de aquí y no de
+    //la BBDD, donde aún faltan esas reservas (o no se han volcado, en las transacciones que lo aplazan):
+    private final Map<K, Agenda> fijadas = new ConcurrentHashMap<>();
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    protected IndiceAgendas(long maximoAgendas, Duration expiracion, Duration esperaCerrojo)
+    {
+        this.esperaCerrojo = esperaCerrojo;
+
+        for (int i = 0; i < NUMERO_CERROJOS; i++)
+            this.cerrojos[i] = new ReentrantLock();
+
+        this.agendas = Caffeine.newBuilder()
+                .maximumSize(maximoAgendas)
+                .expireAfterAccess(expiracion)
+                .executor(Runnable::run)
+                .removalListener((K clave, Agenda agenda, RemovalCause causa) -> {
+                    if (Objects.nonNull(agenda))
+                        agenda.citas().forEach(citaId -> this.ubicaciones.remove(citaId, clave));
+                })
+                .build();
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que lee de la BBDD las franjas ocupadas de la agenda identificada por la clave introducida.
+     *
+     * @param clave Agenda a cargar.
+     * @return Listado de franjas ocupadas de la agenda.
+     */
+    protected abstract List<FranjaOcupada> leerFranjas(K clave);
+
+    /**
+     * Método que construye la excepción con la que se rechaza una reserva que se solapa con otra.
+     *
+     * @param clave Agenda en la que se intentó reservar.
+     * @param ocupada Franja con la que se solapa la reserva.
+     * @return Excepción a lanzar.
+     */
+    protected abstract RuntimeException construirConflicto(K clave, FranjaOcupada ocupada);
+
+    /**
+     * Método que anota la franja de una cita en la agenda introducida, comprobando antes que no se
+     * solapa con ninguna otra franja de esa agenda. Si la cita ya estaba anotada en otra agenda o
+     * franja (actualización), se libera la anterior, pero solo una vez comprobada la nueva y sin
+     * soltar hasta el final de la transacción el cerrojo de su agenda: si la transacción se deshace,
+     * nadie ha podido ocupar entretanto la franja que la cita recupera.
+     *
+     * @param clave Agenda en la que se reserva.
+     * @param citaId Número identificador de la cita a reservar.
+     * @param inicio Hora de entrada de la cita.
+     * @param fin Hora de salida de la cita.
+     * @throws HorarioInvalidoExcepcion Si la hora de salida no es posterior a la de entrada.
+     * @throws CannotAcquireLockException Si otra transacción retiene la agenda más tiempo del permitido.
+     */
+    protected void reservar(K clave, Long citaId, LocalTime inicio, LocalTime fin)
+    {
+        if (!inicio.isBefore(fin))
+            throw new HorarioInvalidoExcepcion("La hora de salida de la cita debe ser posterior a su hora de entrada");
+
+        //Si la cita se mueve de agenda, se bloquean juntas y en orden la nueva y la anterior:
+        K anterior = Objects.isNull(citaId) ? null : this.ubicaciones.get(citaId);
+        List<ReentrantLock> cerrojos = this.bloquearEnOrden(
+                Objects.isNull(anterior) ? List.of(clave) : List.of(clave, anterior));
+
+        try
+        {
+            Agenda agenda = this.agendas.get(clave, this::cargarAgenda);
+
+            synchronized (agenda)
+            {
+                Optional<FranjaOcupada> conflicto = agenda.buscarConflicto(inicio, fin, citaId);
+
+                if (conflicto.isPresent())
+                    throw this.construirConflicto(clave, conflicto.get());
+            }
+
+            this.liberar(citaId);
+
+            synchronized (agenda)
+            {
+                agenda.anadir(new FranjaOcupada(citaId, inicio, fin));
+            }
+
+            //Se registra antes que el descarte para que, si la transacción se deshace, no se recupere de aquí:
+            this.fijarHastaTerminar(clave, agenda);
+            this.descartarSiSeDeshace(clave);
+
+            if (Objects.nonNull(citaId))
+                this.ubicaciones.put(citaId, clave);
+        }
+        finally
+        {
+            //Se liberan después de los descartes para que las agendas ya estén limpias cuando otro las bloquee:
+            cerrojos.forEach(this::desbloquearAlTerminar);
+        }
+    }
+
+    /**
+     * Método que bloquea hasta que termine la transacción en curso todas las agendas introducidas,
+     * p. ej. los días de una serie de citas, de modo que ninguna reserva en ellas pueda cruzarse con
+     * la operación. Cada cerrojo se toma una sola vez y en orden creciente, así que dos operaciones
+     * que bloquean varias agendas a la vez no pueden quedarse esperando la una a la otra.
+     *
+     * @param claves Agendas a bloquear.
+     * @throws CannotAcquireLockException Si otra transacción retiene alguna agenda más tiempo del permitido.
+     */
+    public void bloquearHastaTerminar(Collection<K> claves)
+    {
+        this.bloquearEnOrden(claves).forEach(this::desbloquearAlTerminar);
+    }
+
+    /**
+     * Método que retira del índice la franja de la cita cuyo ID se introduce, si su agenda está cargada.
+     * La agenda queda bloqueada hasta que termine la transacción en curso, para que nadie ocupe la
+     * franja liberada antes de que se confirme el cambio que la libera.
+     *
+     * @param citaId Número identificador de la cita a liberar.
+     * @throws CannotAcquireLockException Si otra transacción retiene la agenda más tiempo del permitido.
+     */
+    public void liberar(Long citaId)
+    {
+        if (Objects.isNull(citaId))
+            return;
+
+        K clave = this.ubicaciones.get(citaId);
+
+        if (Objects.isNull(clave))
+            return;
+
+        ReentrantLock cerrojo = this.bloquear(indiceCerrojo(clave), clave);
+
+        try
+        {
+            this.ubicaciones.remove(citaId, clave);
+            Agenda agenda = this.agendas.getIfPresent(clave);
+
+            if (Objects.nonNull(agenda))
+            {
+                synchronized (agenda)
+                {
+                    agenda.quitar(citaId);
+                }
+
+                this.fijarHastaTerminar(clave, agenda);
+                this.descartarSiSeDeshace(clave);
+            }
+        }
+        finally
+        {
+            this.desbloquearAlTerminar(cerrojo);
+        }
+    }
+
+    /**
+     * Método que descarta el índice completo tras un borrado masivo de citas. Cada agenda se
+     * volverá a leer de la BBDD la próxima vez que se reserve en ella.
+     */
+    public void invalidarTodo()
+    {
+        this.agendas.invalidateAll();
+        this.ejecutarTrasTransaccion(this.agendas::invalidateAll);
+    }
+
+    /**
+     * Método que descarta las agendas cargadas cuyas claves cumplan el filtro, ahora y de nuevo al
+     * terminar la transacción en curso.
+     *
+     * @param filtro Condición que deben cumplir las claves de las agendas a descartar.
+     */
+    protected void invalidarSi(Predicate<K> filtro)
+    {
+        Runnable invalidacion = () -> this.agendas.invalidateAll(
+                this.agendas.asMap().keySet().stream().filter(filtro).toList());
+
+        invalidacion.run();
+        this.ejecutarTrasTransaccion(invalidacion);
+    }
+
+    /**
+     * Método que descarta las agendas cargadas cuyas claves cumplan el filtro una vez confirmada la
+     * transacción en curso, o ahora mismo si no hay ninguna. Al ejecutarse antes de liberar los
+     * cerrojos, quien bloquee después esas agendas las vuelve a leer con los cambios ya confirmados.
+     *
+     * @param filtro Condición que deben cumplir las claves de las agendas a descartar.
+     */
+    protected void invalidarAlConfirmarSi(Predicate<K> filtro)
+    {
+        Runnable invalidacion = () -> this.agendas.invalidateAll(
+                this.agendas.asMap().keySet().stream().filter(filtro).toList());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    invalidacion.run();
+                }
+            });
+        else
+            invalidacion.run();
+    }
+
+    /**
+     * Método que obtiene varias agendas a la vez. Las que aún no estén cargadas se leen juntas
+     * con la función introducida, que puede resolverlas con una única consulta.
+     *
+     * @param claves Agendas a obtener.
+     * @param lector Función que lee de la BBDD las franjas de las agendas que faltan.
+     * @return Mapa con la agenda de cada clave.
+     */
+    protected Map<K, Agenda> obtenerAgendas(Collection<K> claves,
+                                            Function<Set<? extends K>, Map<K, List<FranjaOcupada>>> lector)
+    {
+        return this.agendas.getAll(claves, faltan -> {
+            Map<K, Agenda> cargadas = new HashMap<>();
+            Set<K> porLeer = new HashSet<>();
+
+            for (K clave : faltan)
+            {
+                Agenda fijada = this.recuperarFijada(clave);
+
+                if (Objects.nonNull(fijada))
+                    cargadas.put(clave, fijada);
+                else
+                    porLeer.add(clave);
+            }
+
+            if (!porLeer.isEmpty())
+                lector.apply(porLeer).forEach((clave, lista) -> {
+                    Agenda agenda = new Agenda(lista);
+                    agenda.citas().forEach(citaId -> this.ubicaciones.put(citaId, clave));
+                    cargadas.put(clave, agenda);
+                });
+
+            return cargadas;
+        });
+    }
+
+    /**
+     * Método que ejecuta una consulta de solo lectura sobre una agenda, cargándola si hace falta.
+     *
+     * @param clave Agenda a consultar.
+     * @param consulta Función que obtiene el resultado a partir de la agenda.
+     * @return Resultado de la consulta.
+     */
+    protected <R> R consultar(K clave, Function<Agenda, R> consulta)
+    {
+        Agenda agenda = this.agendas.get(clave, this::cargarAgenda);
+
+        synchronized (agenda)
+        {
+            return consulta.apply(agenda);
+        }
+    }
+
+    /**
+     * Método que ejecuta una misma consulta de solo lectura sobre varias agendas a la vez, cargando
+     * juntas con la función introducida las que aún no estén en el índice.
+     *
+     * @param claves Agendas a consultar.
+     * @param lector Función que lee de la BBDD las franjas de las agendas que faltan.
+     * @param consulta Función que obtiene el resultado a partir de cada agenda.
+     * @return Mapa con el resultado de cada agenda.
+     */
+    protected <R> Map<K, R> consultar(Collection<K> claves,
+                                      Function<Set<? extends K>, Map<K, List<FranjaOcupada>>> lector,
+                                      Function<Agenda, R> consulta)
+    {
+        Map<K, R> resultados = new HashMap<>();
+
+        for (Map.Entry<K, Agenda> entrada : this.obtenerAgendas(claves, lector).entrySet())
+            synchronized (entrada.getValue())
+            {
+                resultados.put(entrada.getKey(), consulta.apply(entrada.getValue()));
+            }
+
+        return resultados;
+    }
+
+    //Tras el commit se repite la invalidación por si otra petición recargó la agenda con las filas aún sin borrar:
+    protected void ejecutarTrasTransaccion(Runnable accion)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public int getOrder()
+                {
+                    return ORDEN_DESCARTES;
+                }
+
+                @Override
+                public void afterCompletion(int estado)
+                {
+                    accion.run();
+                }
+            });
+    }
+
+    private static int indiceCerrojo(Object clave)
+    {
+        int hash = clave.hashCode();
+        return (hash ^ (hash >>> 16)) & (NUMERO_CERROJOS - 1);
+    }
+
+    //Cada cerrojo se toma una sola vez y en orden creciente; si alguno no se obtiene, se sueltan los ya tomados:
+    private List<ReentrantLock> bloquearEnOrden(Collection<K> claves)
+    {
+        int[] indices = claves.stream().mapToInt(IndiceAgendas::indiceCerrojo).distinct().sorted().toArray();
+        List<ReentrantLock> tomados = new ArrayList<>(indices.length);
+
+        try
+        {
+            for (int indice : indices)
+                tomados.add(this.bloquear(indice, claves));
+        }
+        catch (RuntimeException ex)
+        {
+            tomados.forEach(this::desbloquearAlTerminar);
+            throw ex;
+        }
+
+        return tomados;
+    }
+
+    private ReentrantLock bloquear(int indice, Object agendas)
+    {
+        ReentrantLock cerrojo = this.cerrojos[indice];
+
+        try
+        {
+            if (cerrojo.tryLock(this.esperaCerrojo.toMillis(), TimeUnit.MILLISECONDS))
+                return cerrojo;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        throw new CannotAcquireLockException(String.format(
+                "No se ha podido bloquear la agenda %s: otra petición la está modificando", agendas));
+    }
+
+    //Dentro de una transacción el cerrojo se retiene hasta que termina; fuera de ella, solo durante la comprobación:
+    private void desbloquearAlTerminar(ReentrantLock cerrojo)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public int getOrder()
+                {
+                    return Ordered.LOWEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(int estado)
+                {
+                    cerrojo.unlock();
+                }
+            });
+        else
+            cerrojo.unlock();
+    }
+
+    //Mientras la transacción no termine, la agenda no puede volver a leerse de la BBDD sin sus reservas:
+    private void fijarHastaTerminar(K clave, Agenda agenda)
+    {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return;
+
+        //Solo la primera reserva de la transacción en la agenda registra su liberación:
+        if (Objects.isNull(this.fijadas.put(clave, agenda)))
+            this.ejecutarTrasTransaccion(() -> this.fijadas.remove(clave));
+    }
+
+    //Al desalojarla se olvidaron las ubicaciones de sus citas, que se vuelven a anotar:
+    private Agenda recuperarFijada(K clave)
+    {
+        Agenda agenda = this.fijadas.get(clave);
+
+        if (Objects.nonNull(agenda))
+            synchronized (agenda)
+            {
+                agenda.citas().forEach(citaId -> this.ubicaciones.put(citaId, clave));
+            }
+
+        return agenda;
+    }
+
+    private Agenda cargarAgenda(K clave)
+    {
+        Agenda fijada = this.recuperarFijada(clave);
+
+        if (Objects.nonNull(fijada))
+            return fijada;
+
+        log.debug("---> cargarAgenda {}", clave);
+        Agenda agenda = new Agenda(this.leerFranjas(clave));
+        agenda.citas().forEach(citaId -> this.ubicaciones.put(citaId, clave));
+
+        //La consulta puede haber leído cambios aún sin confirmar de esta misma transacción:
+        this.descartarSiSeDeshace(clave);
+        return agenda;
+    }
+
+    private void descartarSiSeDeshace(K clave)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public int getOrder()
+                {
+                    return ORDEN_DESCARTES;
+                }
+
+                @Override
+                public void afterCompletion(int estado)
+                {
+                    if (estado != STATUS_COMMITTED)
+                        agendas.invalidate(clave);
+                }
+            });
+    }
+}
@@ -0,0 +1,273 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice en memoria de las franjas ocupadas de cada sala por día, que permite rechazar una cita
+ * que se solape con otra ya reservada en tiempo O(log n) sin recorrer 'Sala.citasAsignadas'.
+ * <>
+ * Cada agenda (sala, fecha) se carga bajo demanda con una consulta por rango sobre el índice
+ * 'idx_citas_sala_fecha_hora'. El tratamiento de las reservas concurrentes y de las transacciones
+ * deshechas es el común a todos los índices de agendas. Las preguntas de disponibilidad puntual
+ * (si una sala está libre en un intervalo, qué salas lo están a una hora) se responden con el mapa
+ * de ocupación por minutos de cada agenda.
+ * <>
+ * Las series de citas no tienen filas por ocurrencia: al cargar el día se añade la franja de cada
+ * serie vigente cuya regla genere una ocurrencia en esa fecha, de modo que una serie larga solo
+ * cuesta en los días que se llegan a consultar.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class IndiceOcupacionSalas extends IndiceAgendas<ClaveAgenda>
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private final CitaRepositorio repositorio;
+    private final SerieCitasRepositorio serieRepositorio;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public IndiceOcupacionSalas(CitaRepositorio repositorio,
+                                SerieCitasRepositorio serieRepositorio,
+                                @Value("${hospital.planificacion.agendas.maximo:10000}") long maximoAgendas,
+                                @Value("${hospital.planificacion.agendas.expiracion:PT1H}") Duration expiracion,
+                                @Value("${hospital.planificacion.cerrojos.espera:PT2S}") Duration esperaCerrojo)
+    {
+        super(maximoAgendas, expiracion, esperaCerrojo);
+        this.repositorio = repositorio;
+        this.serieRepositorio = serieRepositorio;
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que anota la franja de la cita introducida en la agenda de su sala, comprobando antes
+     * que no se solapa con ninguna otra cita de la misma sala y día. Si la cita ya estaba anotada
+     * en otra franja (actualización), se libera la anterior.
+     *
+     * @param cita Cita a reservar, con su ID ya asignado.
+     * @throws HorarioInvalidoExcepcion Si la hora de salida no es posterior a la de entrada.
+     * @throws SalaOcupadaExcepcion Si la sala ya está ocupada en parte del intervalo de la cita.
+     */
+    public void reservar(Cita cita)
+    {
+        if (Objects.isNull(cita.getSala()) || Objects.isNull(cita.getSala().getId())
+                || Objects.isNull(cita.getFechaCita())
+                || Objects.isNull(cita.getHoraEntrada()) || Objects.isNull(cita.getHoraSalida()))
+            return;
+
+        this.reservar(new ClaveAgenda(cita.getSala().getId(), cita.getFechaCita()),
+                cita.getId(), cita.getHoraEntrada(), cita.getHoraSalida());
+    }
+
+    /**
+     * Método que bloquea hasta que termine la transacción en curso las agendas de sala de todas las
+     * citas introducidas, p. ej. antes de reservar un alta por lotes, para tomar sus cerrojos de una
+     * vez y en orden en lugar de a medida que se reserva cada cita.
+     *
+     * @param citas Citas cuyas agendas se van a modificar.
+     * @throws org.springframework.dao.CannotAcquireLockException Si otra transacción retiene alguna
+     *         agenda más tiempo del permitido.
+     */
+    public void bloquearAgendas(Collection<Cita> citas)
+    {
+        this.bloquearHastaTerminar(clavesDe(citas));
+    }
+
+    /**
+     * Método que descarta, una vez confirmada la transacción en curso, las agendas de sala de las
+     * citas introducidas, p. ej. al eliminarlas en cascada junto a su paciente. El resto de agendas
+     * cargadas se conserva.
+     *
+     * @param citas Citas eliminadas.
+     */
+    public void invalidarAgendas(Collection<Cita> citas)
+    {
+        Set<ClaveAgenda> claves = clavesDe(citas);
+
+        if (!claves.isEmpty())
+            this.invalidarAlConfirmarSi(claves::contains);
+    }
+
+    /**
+     * Método que calcula los intervalos libres de varias salas en un mismo día. Las agendas que aún
+     * no estén cargadas se leen todas juntas con una única consulta por rango sobre la fecha.
+     *
+     * @param fecha Día en el que se buscan huecos.
+     * @param salaIds Números identificadores de las salas a consultar.
+     * @param apertura Hora desde la que se buscan huecos.
+     * @param cierre Hora hasta la que se buscan huecos.
+     * @param minimo Duración mínima de cada hueco.
+     * @return Mapa con los intervalos libres de cada sala, ordenados por hora de inicio.
+     */
+    public Map<Long, List<Intervalo>> libresDelDia(LocalDate fecha,
+                                                   Collection<Long> salaIds,
+                                                   LocalTime apertura,
+                                                   LocalTime cierre,
+                                                   Duration minimo)
+    {
+        List<ClaveAgenda> claves = salaIds.stream().map(id -> new ClaveAgenda(id, fecha)).toList();
+        Map<Long, List<Intervalo>> libres = new HashMap<>();
+
+        this.consultar(claves, this::leerFranjasDelDia, agenda -> agenda.libres(apertura, cierre, minimo))
+                .forEach((clave, intervalos) -> libres.put(clave.salaId(), intervalos));
+
+        return libres;
+    }
+
+    /**
+     * Método que comprueba si una sala está libre en un intervalo de un día con su mapa de ocupación por minutos.
+     *
+     * @param salaId Número identificador de la sala.
+     * @param fecha Día a consultar.
+     * @param desde Hora de inicio del intervalo.
+     * @param hasta Hora de fin del intervalo.
+     * @return Disponibilidad de la sala en el intervalo y minutos que tiene ocupados ese día.
+     */
+    public Disponibilidad consultarDisponibilidad(Long salaId, LocalDate fecha, LocalTime desde, LocalTime hasta)
+    {
+        return this.consultar(new ClaveAgenda(salaId, fecha), agenda -> new Disponibilidad(
+                salaId, fecha, desde, hasta, agenda.estaLibre(desde, hasta), agenda.minutosOcupados()));
+    }
+
+    /**
+     * Método que filtra, de entre las salas introducidas, las que están libres en un intervalo de un día.
+     * Las agendas que aún no estén cargadas se leen todas juntas con una única consulta por rango.
+     *
+     * @param fecha Día a consultar.
+     * @param salaIds Números identificadores de las salas a consultar.
+     * @param desde Hora de inicio del intervalo.
+     * @param hasta Hora de fin del intervalo.
+     * @return Conjunto con los números identificadores de las salas libres.
+     */
+    public Set<Long> salasLibres(LocalDate fecha, Collection<Long> salaIds, LocalTime desde, LocalTime hasta)
+    {
+        List<ClaveAgenda> claves = salaIds.stream().map(id -> new ClaveAgenda(id, fecha)).toList();
+
+        return this.consultar(claves, this::leerFranjasDelDia, agenda -> agenda.estaLibre(desde, hasta))
+                .entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(entrada -> entrada.getKey().salaId())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Método que descarta todas las agendas cargadas de una sala, p. ej. al eliminarla junto a sus citas.
+     *
+     * @param salaId Número identificador de la sala.
+     */
+    public void invalidarSala(Long salaId)
+    {
+        this.invalidarSi(clave -> clave.salaId().equals(salaId));
+    }
+
+    /**
+     * Método que descarta las agendas cargadas de una sala en un rango de días, p. ej. al crear,
+     * modificar o eliminar una serie de citas en ella. Solo se recorren las agendas cargadas, no
+     * los días del rango, por larga que sea la serie.
+     * Se descartan al confirmar la transacción, para que nadie vuelva a cargarlas antes de tiempo.
+     *
+     * @param salaId Número identificador de la sala.
+     * @param desde Primer día del rango, incluido.
+     * @param hasta Último día del rango, incluido.
+     */
+    public void invalidarSalaEntre(Long salaId, LocalDate desde, LocalDate hasta)
+    {
+        this.invalidarAlConfirmarSi(clave -> clave.salaId().equals(salaId)
+                && !clave.fecha().isBefore(desde) && !clave.fecha().isAfter(hasta));
+    }
+
+    private static Set<ClaveAgenda> clavesDe(Collection<Cita> citas)
+    {
+        return citas.stream()
+                .filter(c -> Objects.nonNull(c.getSala()) && Objects.nonNull(c.getSala().getId())
+                        && Objects.nonNull(c.getFechaCita()))
+                .map(c -> new ClaveAgenda(c.getSala().getId(), c.getFechaCita()))
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    protected List<FranjaOcupada> leerFranjas(ClaveAgenda clave)
+    {
+        List<FranjaOcupada> franjas = new ArrayList<>(
+                this.repositorio.findFranjasBySalaAndFecha(clave.salaId(), clave.fecha()));
+
+        //Las series solo ocupan la agenda los días en los que su regla genera una ocurrencia:
+        for (FranjaSerie f : this.serieRepositorio.findFranjasBySalaAndFecha(clave.salaId(), clave.fecha()))
+            if (f.regla().incluye(clave.fecha()))
+                franjas.add(f.franja());
+
+        return franjas;
+    }
+
+    @Override
+    protected RuntimeException construirConflicto(ClaveAgenda clave, FranjaOcupada ocupada)
+    {
+        return new SalaOcupadaExcepcion(String.format(
+                "La sala ya está ocupada el %s entre las %s y las %s por la %s",
+                clave.fecha().format(FORMATO_FECHA), ocupada.inicio(), ocupada.fin(), ocupada.descripcion()));
+    }
+
+    //Carga conjunta de las agendas de un día: una sola consulta por fecha, agrupada después por sala.
+    private Map<ClaveAgenda, List<FranjaOcupada>> leerFranjasDelDia(Set<? extends ClaveAgenda> claves)
+    {
+        Map<ClaveAgenda, List<FranjaOcupada>> franjas = new HashMap<>();
+        claves.forEach(clave -> franjas.put(clave, new ArrayList<>()));
+
+        for (LocalDate fecha : claves.stream().map(ClaveAgenda::fecha).distinct().toList())
+        {
+            log.debug("---> cargarAgendas {}", fecha);
+
+            for (FranjaCita f : this.repositorio.findFranjasByFecha(fecha))
+            {
+                List<FranjaOcupada> lista = franjas.get(new ClaveAgenda(f.salaId(), fecha));
+
+                if (Objects.nonNull(lista))
+                    lista.add(f.franja());
+            }
+
+            for (FranjaSerie f : this.serieRepositorio.findFranjasByFecha(fecha))
+            {
+                List<FranjaOcupada> lista = franjas.get(new ClaveAgenda(f.salaId(), fecha));
+
+                if (Objects.nonNull(lista) && f.regla().incluye(fecha))
+                    lista.add(f.franja());
+            }
+        }
+
+        return franjas;
+    }
+}
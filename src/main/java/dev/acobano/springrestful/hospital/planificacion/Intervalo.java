@@ -0,0 +1,17 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * Intervalo semiabierto [inicio, fin) de tiempo libre dentro de un mismo día.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record Intervalo(LocalTime inicio, LocalTime fin)
+{
+    public Duration duracion()
+    {
+        return Duration.between(this.inicio, this.fin);
+    }
+}
@@ -0,0 +1,120 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalTime;
+
+/**
+ * Mapa de bits con la ocupación minuto a minuto de una agenda durante un día: 1.440 bits
+ * repartidos en 23 palabras de 64 bits, donde cada bit a 1 indica un minuto ocupado.
+ * <>
+ * Una franja ocupa todos los minutos que toca, aunque sea en parte (una cita de 10:00:00 a 10:30:30
+ * ocupa también el minuto 10:30), por lo que el mapa nunca marca como libre un minuto ocupado:
+ * si dice que un intervalo está libre, lo está; si dice que está ocupado, puede ser solo por segundos.
+ * Las consultas y actualizaciones recorren como mucho 23 palabras con máscaras, sin bucles por minuto.
+ * <>
+ * No es seguro entre hilos por sí mismo: su agenda lo usa siempre sincronizado sobre ella.
+ * <>
+ * @author Álvaro Cobano
+ */
+final class OcupacionMinutos
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    static final int MINUTOS_DIA = 24 * 60;
+
+    private final long[] palabras = new long[(MINUTOS_DIA + Long.SIZE - 1) / Long.SIZE];
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    void ocupar(LocalTime inicio, LocalTime fin)
+    {
+        int desde = primerMinuto(inicio);
+        int hasta = finMinutos(fin);
+
+        for (int p = desde / Long.SIZE; desde < hasta && p <= (hasta - 1) / Long.SIZE; p++)
+            this.palabras[p] |= mascara(p, desde, hasta);
+    }
+
+    /**
+     * Método que desmarca los minutos de una franja retirada. Las franjas restantes que compartían
+     * alguno de esos minutos (contiguas por segundos, o solapadas si la BBDD ya las tenía así)
+     * vuelven a marcar los que siguen ocupando.
+     *
+     * @param inicio Hora de entrada de la franja retirada.
+     * @param fin Hora de salida de la franja retirada.
+     * @param restantes Franjas que siguen en la agenda, ordenadas por hora de entrada.
+     */
+    void liberar(LocalTime inicio, LocalTime fin, Iterable<FranjaOcupada> restantes)
+    {
+        int desde = primerMinuto(inicio);
+        int hasta = finMinutos(fin);
+
+        for (int p = desde / Long.SIZE; desde < hasta && p <= (hasta - 1) / Long.SIZE; p++)
+            this.palabras[p] &= ~mascara(p, desde, hasta);
+
+        for (FranjaOcupada f : restantes)
+        {
+            if (primerMinuto(f.inicio()) >= hasta)
+                break;
+
+            if (finMinutos(f.fin()) > desde)
+                this.ocupar(f.inicio(), f.fin());
+        }
+    }
+
+    /**
+     * Método que comprueba si ningún minuto del intervalo [inicio, fin) está ocupado.
+     *
+     * @param inicio Hora de inicio del intervalo.
+     * @param fin Hora de fin del intervalo.
+     * @return True si todos los minutos que toca el intervalo están libres.
+     */
+    boolean estaLibre(LocalTime inicio, LocalTime fin)
+    {
+        int desde = primerMinuto(inicio);
+        int hasta = finMinutos(fin);
+
+        for (int p = desde / Long.SIZE; desde < hasta && p <= (hasta - 1) / Long.SIZE; p++)
+            if ((this.palabras[p] & mascara(p, desde, hasta)) != 0)
+                return false;
+
+        return true;
+    }
+
+    int minutosOcupados()
+    {
+        int total = 0;
+
+        for (long palabra : this.palabras)
+            total += Long.bitCount(palabra);
+
+        return total;
+    }
+
+    private static int primerMinuto(LocalTime hora)
+    {
+        return hora.toSecondOfDay() / 60;
+    }
+
+    //Minuto siguiente al último que toca la franja, redondeando hacia arriba los segundos sueltos:
+    private static int finMinutos(LocalTime hora)
+    {
+        return (hora.toSecondOfDay() + 59) / 60;
+    }
+
+    //Bits de la palabra 'p' que caen dentro de [desde, hasta):
+    private static long mascara(int p, int desde, int hasta)
+    {
+        int base = p * Long.SIZE;
+        int primero = Math.max(desde, base) - base;
+        int ultimo = Math.min(hasta, base + Long.SIZE) - base;
+        long hastaUltimo = ultimo == Long.SIZE ? -1L : (1L << ultimo) - 1;
+
+        return hastaUltimo & (-1L << primero);
+    }
+}
@@ -0,0 +1,16 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.time.LocalDateTime;
+
+/**
+ * Solicitud de cita junto a los datos del paciente que deciden su prioridad y su agenda: el médico
+ * asignado (o null), su gravedad y su fecha de ingreso. 'orden' es su posición en el lote recibido.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record PeticionCita(int orden,
+                           SolicitudCita solicitud,
+                           Long medicoId,
+                           Gravedad gravedad,
+                           LocalDateTime fechaIngreso) {}
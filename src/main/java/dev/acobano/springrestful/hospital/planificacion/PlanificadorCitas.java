@@ -0,0 +1,185 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Planificador que reparte un lote de peticiones de cita entre las salas y las franjas libres,
+ * sin solapar ninguna sala ni la agenda de ningún médico o paciente, y dando preferencia a los
+ * pacientes más graves.
+ * <>
+ * Cada petición se intenta primero el primer día de su rango y, si ese día no le queda hueco, el
+ * siguiente, en rondas sucesivas. En cada ronda los días implicados se resuelven en paralelo sobre
+ * un ForkJoinPool propio, ya que las citas de días distintos nunca compiten por la misma franja;
+ * dentro de cada día las peticiones se atienden por gravedad, fecha de ingreso y orden en el lote.
+ * Las agendas de salas y médicos se obtienen de los índices en memoria antes de lanzar cada ronda,
+ * desde el hilo que llama, de forma que las tareas paralelas no acceden a la BBDD.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class PlanificadorCitas
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final Comparator<PeticionCita> POR_PRIORIDAD = Comparator
+            .comparing(PeticionCita::gravedad, Comparator.nullsLast(Comparator.<Gravedad>reverseOrder()))
+            .thenComparing(PeticionCita::fechaIngreso, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(PeticionCita::orden);
+
+    private final IndiceOcupacionSalas indiceSalas;
+    private final IndiceAgendaMedicos indiceMedicos;
+    private final LocalTime apertura;
+    private final LocalTime cierre;
+    private final ForkJoinPool pool;
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public PlanificadorCitas(IndiceOcupacionSalas indiceSalas,
+                             IndiceAgendaMedicos indiceMedicos,
+                             @Value("${hospital.planificacion.horario.apertura:08:00}") LocalTime apertura,
+                             @Value("${hospital.planificacion.horario.cierre:20:00}") LocalTime cierre,
+                             @Value("${hospital.planificacion.automatica.paralelismo:0}") int paralelismo)
+    {
+        this.indiceSalas = indiceSalas;
+        this.indiceMedicos = indiceMedicos;
+        this.apertura = apertura;
+        this.cierre = cierre;
+        this.pool = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors());
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que busca sala y franja para cada petición dentro de su rango de días.
+     *
+     * @param peticiones Peticiones a planificar.
+     * @param salaIds Salas disponibles, en el orden en que se prefieren a igual hora.
+     * @return Lista con las asignaciones conseguidas; las peticiones ausentes se quedaron sin hueco.
+     */
+    public List<Asignacion> planificar(List<PeticionCita> peticiones, List<Long> salaIds)
+    {
+        log.info("---> planificar: {} peticiones", peticiones.size());
+        Map<LocalDate, DiaPlanificacion> dias = new HashMap<>();
+        List<Asignacion> asignadas = new ArrayList<>();
+
+        //Cada petición empieza por el primer día de su rango:
+        Map<PeticionCita, LocalDate> pendientes = new HashMap<>();
+        peticiones.forEach(p -> pendientes.put(p, p.solicitud().desde()));
+
+        for (int ronda = 1; !pendientes.isEmpty() && !salaIds.isEmpty(); ronda++)
+        {
+            Map<LocalDate, List<PeticionCita>> porDia = new TreeMap<>();
+
+            pendientes.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(POR_PRIORIDAD))
+                    .forEach(e -> porDia.computeIfAbsent(e.getValue(), fecha -> new ArrayList<>()).add(e.getKey()));
+
+            List<Callable<List<Asignacion>>> tareas = new ArrayList<>();
+
+            for (Map.Entry<LocalDate, List<PeticionCita>> delDia : porDia.entrySet())
+            {
+                DiaPlanificacion dia = dias.computeIfAbsent(delDia.getKey(), fecha -> this.cargarDia(fecha, salaIds));
+                this.cargarMedicos(dia, delDia.getValue());
+                tareas.add(() -> dia.asignar(delDia.getValue()));
+            }
+
+            log.debug("---> ronda {}: {} peticiones en {} días", ronda, pendientes.size(), tareas.size());
+
+            for (Asignacion asignacion : this.resolver(tareas))
+            {
+                asignadas.add(asignacion);
+                pendientes.remove(asignacion.peticion());
+            }
+
+            //Las que no han tenido hueco pasan al día siguiente, si aún está dentro de su rango:
+            pendientes.replaceAll((peticion, fecha) -> fecha.plusDays(1));
+            pendientes.entrySet().removeIf(e -> e.getValue().isAfter(e.getKey().solicitud().hasta()));
+        }
+
+        log.info("<--- planificar: {} asignadas", asignadas.size());
+        return asignadas;
+    }
+
+    private DiaPlanificacion cargarDia(LocalDate fecha, List<Long> salaIds)
+    {
+        return new DiaPlanificacion(fecha, new Intervalo(this.apertura, this.cierre), salaIds,
+                this.indiceSalas.libresDelDia(fecha, salaIds, this.apertura, this.cierre, Duration.ZERO));
+    }
+
+    private void cargarMedicos(DiaPlanificacion dia, List<PeticionCita> peticiones)
+    {
+        Set<Long> faltan = dia.medicosSinCargar(peticiones.stream().map(PeticionCita::medicoId).toList());
+
+        if (!faltan.isEmpty())
+            dia.anadirMedicos(this.indiceMedicos.libresDelDia(
+                    dia.fecha(), faltan, this.apertura, this.cierre, Duration.ZERO));
+    }
+
+    //Un único día se resuelve en el propio hilo; varios se reparten entre los hilos del pool:
+    private List<Asignacion> resolver(List<Callable<List<Asignacion>>> tareas)
+    {
+        List<Asignacion> asignadas = new ArrayList<>();
+
+        try
+        {
+            if (tareas.size() == 1)
+                return tareas.get(0).call();
+
+            for (Future<List<Asignacion>> resultado : this.pool.invokeAll(tareas))
+                asignadas.addAll(resultado.get());
+        }
+        catch (ExecutionException e)
+        {
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Planificación de citas interrumpida", e);
+        }
+        catch (Exception e)
+        {
+            throw e instanceof RuntimeException re ? re : new IllegalStateException(e);
+        }
+
+        return asignadas;
+    }
+
+    @PreDestroy
+    public void cerrar()
+    {
+        this.pool.shutdown();
+    }
+}
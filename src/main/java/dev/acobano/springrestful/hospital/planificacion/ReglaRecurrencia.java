@@ -0,0 +1,53 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regla de repetición de una serie de citas: una ocurrencia cada 'intervaloDias' días desde
+ * 'inicio' hasta 'fin', ambos incluidos. Las fechas se calculan de forma aritmética, de modo
+ * que obtener las ocurrencias de un rango cuesta lo mismo que ocurrencias haya en él, sin
+ * recorrer las anteriores por larga que sea la serie.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record ReglaRecurrencia(LocalDate inicio, LocalDate fin, int intervaloDias)
+{
+    /**
+     * Método que comprueba si la regla genera una ocurrencia en la fecha introducida.
+     *
+     * @param fecha Día a comprobar.
+     * @return True si la fecha está dentro de la serie y cae en uno de sus saltos.
+     */
+    public boolean incluye(LocalDate fecha)
+    {
+        return !fecha.isBefore(this.inicio) && !fecha.isAfter(this.fin)
+                && ChronoUnit.DAYS.between(this.inicio, fecha) % this.intervaloDias == 0;
+    }
+
+    /**
+     * Método que calcula las fechas de las ocurrencias de la regla dentro de un rango de días.
+     *
+     * @param desde Primer día del rango, incluido.
+     * @param hasta Último día del rango, incluido.
+     * @return Lista ordenada de fechas de la serie dentro del rango.
+     */
+    public List<LocalDate> fechasEntre(LocalDate desde, LocalDate hasta)
+    {
+        LocalDate primera = desde.isAfter(this.inicio) ? desde : this.inicio;
+        LocalDate ultima = hasta.isBefore(this.fin) ? hasta : this.fin;
+        List<LocalDate> fechas = new ArrayList<>();
+
+        //Saltamos directamente a la primera ocurrencia del rango redondeando hacia arriba el número de saltos:
+        long saltos = Math.floorDiv(ChronoUnit.DAYS.between(this.inicio, primera) + this.intervaloDias - 1,
+                this.intervaloDias);
+
+        for (LocalDate f = this.inicio.plusDays(saltos * this.intervaloDias); !f.isAfter(ultima);
+             f = f.plusDays(this.intervaloDias))
+            fechas.add(f);
+
+        return fechas;
+    }
+}
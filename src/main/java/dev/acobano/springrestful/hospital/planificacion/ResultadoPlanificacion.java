@@ -0,0 +1,12 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import java.util.List;
+
+/**
+ * Resultado de planificar un lote de solicitudes: las citas ya guardadas y las posiciones
+ * dentro del lote de las solicitudes para las que no se encontró hueco.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record ResultadoPlanificacion(List<Cita> citas, List<Integer> sinAsignar) {}
@@ -0,0 +1,11 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import java.time.LocalDate;
+
+/**
+ * Petición de cita a planificar automáticamente: el paciente, el rango de días en el que
+ * puede acudir (ambos incluidos) y los minutos que debe durar la cita.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record SolicitudCita(Long pacienteId, LocalDate desde, LocalDate hasta, int duracionMinutos) {}
@@ -1,7 +1,29 @@
 package dev.acobano.springrestful.hospital.repositorios;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ConteoPorId;
+import dev.acobano.springrestful.hospital.planificacion.FranjaCita;
+import dev.acobano.springrestful.hospital.planificacion.FranjaMedico;
+import dev.acobano.springrestful.hospital.planificacion.FranjaOcupada;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,6 +33,150 @@ import org.springframework.stereotype.Repository;
  * @author Álvaro Cobano
  */
 @Repository
-public interface CitaRepositorio extends JpaRepository<Cita, Long> {
-    
+public interface CitaRepositorio extends JpaRepository<Cita, Long>
+{
+    //Las lecturas de solo consulta devuelven directamente las columnas de 'CitaResponseDTO' en una única SELECT:
+    String SELECT_RESUMEN = "SELECT c.id AS id, p.nombre AS nombrePaciente, p.apellidos AS apellidosPaciente, " +
+            "p.gravedad AS gravedad, m.nombre AS nombreMedico, m.apellidos AS apellidosMedico, " +
+            "m.especialidad AS especialidad, s.numero AS numSala, c.fechaCita AS fechaCita, " +
+            "c.horaEntrada AS horaEntrada, c.horaSalida AS horaSalida " +
+            "FROM Cita c JOIN c.paciente p LEFT JOIN p.medicoAsignado m JOIN c.sala s ";
+
+    //Las lecturas de entidades que después se modifican cargan paciente, médico y sala con el mismo JOIN:
+    @Override
+    @EntityGraph(Cita.GRAFO_DETALLE)
+    Optional<Cita> findById(Long id);
+
+    @Query(SELECT_RESUMEN + "WHERE c.id = :id")
+    Optional<CitaResumen> findResumenById(@Param("id") Long id);
+
+    //Búsqueda por lista de IDs: todas las citas solicitadas con una única consulta 'IN':
+    @Query(SELECT_RESUMEN + "WHERE c.id IN :ids")
+    List<CitaResumen> findResumenesByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Etiqueta de versión de la respuesta de una cita: su versión y las de su paciente, médico y sala, cuyos datos incluye:
+    @Query("SELECT CONCAT(CAST(c.version AS String), '.', CAST(p.version AS String), '.', " +
+            "COALESCE(CAST(m.version AS String), '-'), '.', CAST(s.version AS String)) " +
+            "FROM Cita c JOIN c.paciente p LEFT JOIN p.medicoAsignado m JOIN c.sala s WHERE c.id = :id")
+    Optional<String> findVersionById(@Param("id") Long id);
+
+    @Query(value = SELECT_RESUMEN, countQuery = "SELECT COUNT(c) FROM Cita c")
+    Page<CitaResumen> findResumenes(Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.id = :pacienteId",
+            countQuery = "SELECT COUNT(c) FROM Cita c WHERE c.paciente.id = :pacienteId")
+    Page<CitaResumen> findResumenesByPacienteId(@Param("pacienteId") Long pacienteId, Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE s.id = :salaId",
+            countQuery = "SELECT COUNT(c) FROM Cita c WHERE c.sala.id = :salaId")
+    Page<CitaResumen> findResumenesBySalaId(@Param("salaId") Long salaId, Pageable pageable);
+
+    //Citas de un paciente o de una sala en un rango de días, para listarlas junto a las ocurrencias de sus series:
+    @Query(SELECT_RESUMEN + "WHERE p.id = :pacienteId AND c.fechaCita BETWEEN :desde AND :hasta")
+    List<CitaResumen> findResumenesByPacienteIdEntre(@Param("pacienteId") Long pacienteId,
+                                                     @Param("desde") LocalDate desde,
+                                                     @Param("hasta") LocalDate hasta);
+
+    @Query(SELECT_RESUMEN + "WHERE s.id = :salaId AND c.fechaCita BETWEEN :desde AND :hasta")
+    List<CitaResumen> findResumenesBySalaIdEntre(@Param("salaId") Long salaId,
+                                                 @Param("desde") LocalDate desde,
+                                                 @Param("hasta") LocalDate hasta);
+
+    @Query(SELECT_RESUMEN + "ORDER BY c.fechaCita ASC, c.id ASC")
+    Slice<CitaResumen> findPrimerasPorFecha(Pageable pageable);
+
+    //Paginación por cursor (keyset) sobre el par (fechaCita, id), estable aunque se inserten nuevas citas:
+    @Query(SELECT_RESUMEN +
+            "WHERE c.fechaCita > :fecha OR (c.fechaCita = :fecha AND c.id > :id) " +
+            "ORDER BY c.fechaCita ASC, c.id ASC")
+    Slice<CitaResumen> findSiguientesPorFecha(@Param("fecha") LocalDate fecha,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+
+    //Lectura en streaming para exportaciones: cursor JDBC con tamaño de lote y entidades de solo lectura:
+    @EntityGraph(Cita.GRAFO_DETALLE)
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Cita c ORDER BY c.id")
+    Stream<Cita> streamAllOrderById();
+
+    //Listado completo en NDJSON: las mismas columnas que los listados paginados, leídas con un cursor JDBC:
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESUMEN + "ORDER BY c.id")
+    Stream<CitaResumen> streamResumenes();
+
+    //Franjas ocupadas de una sala en un día: consulta por rango sobre el índice (sala_id, fecha_cita, hora_entrada):
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaOcupada(c.id, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.sala.id = :salaId AND c.fechaCita = :fecha ORDER BY c.horaEntrada")
+    List<FranjaOcupada> findFranjasBySalaAndFecha(@Param("salaId") Long salaId, @Param("fecha") LocalDate fecha);
+
+    //Franjas de todas las salas en un día, para cargar de una vez sus agendas (índice sobre fecha_cita y horas):
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaCita(" +
+            "c.id, c.sala.id, c.fechaCita, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.fechaCita = :fecha ORDER BY c.horaEntrada")
+    List<FranjaCita> findFranjasByFecha(@Param("fecha") LocalDate fecha);
+
+    //Agenda de un médico en un día: sus pacientes por 'idx_pacientes_medico_id' y sus citas por (paciente_id, fecha_cita):
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaOcupada(c.id, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.paciente.medicoAsignado.id = :medicoId AND c.fechaCita = :fecha ORDER BY c.horaEntrada")
+    List<FranjaOcupada> findFranjasByMedicoAndFecha(@Param("medicoId") Long medicoId, @Param("fecha") LocalDate fecha);
+
+    //Agendas de varios médicos en un día, para cargarlas de una vez al planificar citas en bloque:
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaMedico(" +
+            "c.paciente.medicoAsignado.id, c.id, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.paciente.medicoAsignado.id IN :medicoIds AND c.fechaCita = :fecha " +
+            "ORDER BY c.horaEntrada")
+    List<FranjaMedico> findFranjasByMedicosAndFecha(@Param("medicoIds") Collection<Long> medicoIds,
+                                                    @Param("fecha") LocalDate fecha);
+
+    //Citas de una sala o de un médico que coinciden en fechas y horario con una nueva serie de citas:
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaCita(" +
+            "c.id, c.sala.id, c.fechaCita, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.sala.id = :salaId AND c.fechaCita BETWEEN :desde AND :hasta " +
+            "AND c.horaEntrada < :fin AND c.horaSalida > :inicio")
+    List<FranjaCita> findFranjasSolapadasBySala(@Param("salaId") Long salaId,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta,
+                                                @Param("inicio") LocalTime inicio,
+                                                @Param("fin") LocalTime fin);
+
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaCita(" +
+            "c.id, c.sala.id, c.fechaCita, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.paciente.medicoAsignado.id = :medicoId AND c.fechaCita BETWEEN :desde AND :hasta " +
+            "AND c.horaEntrada < :fin AND c.horaSalida > :inicio")
+    List<FranjaCita> findFranjasSolapadasByMedico(@Param("medicoId") Long medicoId,
+                                                  @Param("desde") LocalDate desde,
+                                                  @Param("hasta") LocalDate hasta,
+                                                  @Param("inicio") LocalTime inicio,
+                                                  @Param("fin") LocalTime fin);
+
+    @Query("SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaCita(" +
+            "c.id, c.sala.id, c.fechaCita, c.horaEntrada, c.horaSalida) " +
+            "FROM Cita c WHERE c.paciente.id = :pacienteId ORDER BY c.fechaCita, c.horaEntrada")
+    List<FranjaCita> findFranjasByPacienteId(@Param("pacienteId") Long pacienteId);
+
+    //Conteos agregados para toda una página de padres en una sola consulta, sin inicializar sus colecciones:
+    @Query("SELECT c.paciente.id AS id, COUNT(c) AS total FROM Cita c " +
+            "WHERE c.paciente.id IN :ids GROUP BY c.paciente.id")
+    List<ConteoPorId> contarPorPacientes(@Param("ids") Collection<Long> pacienteIds);
+
+    @Query("SELECT c.sala.id AS id, COUNT(c) AS total FROM Cita c " +
+            "WHERE c.sala.id IN :ids GROUP BY c.sala.id")
+    List<ConteoPorId> contarPorSalas(@Param("ids") Collection<Long> salaIds);
+
+    //Borrado masivo por lotes: se leen solo identificadores y se eliminan con sentencias DELETE directas:
+    boolean existsByIdNotNull();
+
+    @Query("SELECT c.id FROM Cita c ORDER BY c.id")
+    List<Long> findIds(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Cita c WHERE c.paciente.id IN :ids")
+    int deleteByPacienteIdIn(@Param("ids") Collection<Long> pacienteIds);
+
+    @Modifying
+    @Query("DELETE FROM Cita c WHERE c.sala.id IN :ids")
+    int deleteBySalaIdIn(@Param("ids") Collection<Long> salaIds);
 }
@@ -1,7 +1,23 @@
 package dev.acobano.springrestful.hospital.repositorios;
 
+import dev.acobano.springrestful.hospital.asignacion.CargaPacientes;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,6 +27,69 @@ import org.springframework.stereotype.Repository;
  * @author Álvaro Cobano
  */
 @Repository
-public interface MedicoRepositorio extends JpaRepository<Medico, Long> {
-    
+public interface MedicoRepositorio extends JpaRepository<Medico, Long>
+{
+    //Los listados devuelven las columnas de 'MedicoResponseDTO' y su número de pacientes en una única SELECT:
+    String SELECT_RESUMEN = "SELECT m.id AS id, m.nombre AS nombre, m.apellidos AS apellidos, m.dni AS dni, " +
+            "m.email AS email, m.especialidad AS especialidad, m.fechaGraduacion AS fechaGraduacion, " +
+            "m.fechaIncorporacion AS fechaIncorporacion, " +
+            "(SELECT COUNT(p) FROM Paciente p WHERE p.medicoAsignado = m) AS pacientesAsignados " +
+            "FROM Medico m ";
+
+    @Query(value = SELECT_RESUMEN, countQuery = "SELECT COUNT(m) FROM Medico m")
+    Page<MedicoResumen> findResumenes(Pageable pageable);
+
+    //Comparamos con la columna indexada del nombre en minúsculas, no con LOWER(m.nombre), que no usa ningún índice:
+    @Query(value = SELECT_RESUMEN + "WHERE m.nombreNormalizado = LOWER(:nombre)",
+            countQuery = "SELECT COUNT(m) FROM Medico m WHERE m.nombreNormalizado = LOWER(:nombre)")
+    Page<MedicoResumen> findResumenesByNombre(@Param("nombre") String nombre, Pageable pageable);
+
+    //Los filtros por especialidad se repiten con pocos valores distintos: sus resultados van a la caché de consultas.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = SELECT_RESUMEN + "WHERE m.especialidad = :especialidad",
+            countQuery = "SELECT COUNT(m) FROM Medico m WHERE m.especialidad = :especialidad")
+    Page<MedicoResumen> findResumenesByEspecialidad(@Param("especialidad") Especialidad especialidad,
+                                                    Pageable pageable);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = SELECT_RESUMEN + "WHERE m.nombreNormalizado = LOWER(:nombre) AND m.especialidad = :especialidad",
+            countQuery = "SELECT COUNT(m) FROM Medico m " +
+                    "WHERE m.nombreNormalizado = LOWER(:nombre) AND m.especialidad = :especialidad")
+    Page<MedicoResumen> findResumenesByNombreAndEspecialidad(@Param("nombre") String nombre,
+                                                             @Param("especialidad") Especialidad especialidad,
+                                                             Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE m.id > :id ORDER BY m.id ASC")
+    Slice<MedicoResumen> findResumenesDesdeId(@Param("id") Long id, Pageable pageable);
+
+    //Búsqueda por lista de IDs: todos los médicos solicitados con una única consulta 'IN':
+    @Query(SELECT_RESUMEN + "WHERE m.id IN :ids")
+    List<MedicoResumen> findResumenesByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Listado completo en NDJSON: cursor JDBC sobre las mismas columnas, sin materializar todos los médicos:
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESUMEN + "ORDER BY m.id")
+    Stream<MedicoResumen> streamResumenes();
+
+    //Etiqueta de versión de la respuesta de un médico: su versión y su número de pacientes:
+    @Query("SELECT CONCAT(CAST(m.version AS String), '.', " +
+            "CAST((SELECT COUNT(p) FROM Paciente p WHERE p.medicoAsignado = m) AS String)) " +
+            "FROM Medico m WHERE m.id = :id")
+    Optional<String> findVersionById(@Param("id") Long id);
+
+    //Borrado masivo por lotes: se leen solo identificadores y se eliminan con sentencias DELETE directas:
+    boolean existsByIdNotNull();
+
+    @Query("SELECT m.id FROM Medico m ORDER BY m.id")
+    List<Long> findIds(Pageable pageable);
+
+    //Carga inicial de las cargas de trabajo en memoria: pacientes de cada médico agrupados por gravedad:
+    @Query("SELECT new dev.acobano.springrestful.hospital.asignacion.CargaPacientes(" +
+            "m.id, m.especialidad, p.gravedad, COUNT(p)) " +
+            "FROM Medico m LEFT JOIN m.pacientesAsignados p GROUP BY m.id, m.especialidad, p.gravedad")
+    List<CargaPacientes> findCargasPacientes();
+
+    //Altas por lotes: DNIs del lote que ya están registrados, comprobados todos con una única consulta:
+    @Query("SELECT m.dni FROM Medico m WHERE m.dni IN :dnis")
+    List<String> findDnisRegistrados(@Param("dnis") Collection<String> dnis);
 }
@@ -1,7 +1,27 @@
 package dev.acobano.springrestful.hospital.repositorios;
 
+import dev.acobano.springrestful.hospital.asignacion.AsignacionPaciente;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ConteoPorId;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.triaje.EntradaTriaje;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,6 +31,86 @@ import org.springframework.stereotype.Repository;
  * @author Álvaro Cobano
  */
 @Repository
-public interface PacienteRepositorio extends JpaRepository<Paciente, Long> {
-    
+public interface PacienteRepositorio extends JpaRepository<Paciente, Long>
+{
+    //Los listados devuelven las columnas de 'PacienteResponseDTO' y su número de citas en una única SELECT:
+    String SELECT_RESUMEN = "SELECT p.id AS id, p.nombre AS nombre, p.apellidos AS apellidos, p.dni AS dni, " +
+            "p.genero AS genero, p.direccion AS direccion, p.email AS email, p.telefono AS telefono, " +
+            "p.fechaNacimiento AS fechaNacimiento, p.fechaIngreso AS fechaIngreso, " +
+            "m.nombre AS nombreMedico, m.apellidos AS apellidosMedico, m.especialidad AS especialidad, " +
+            "p.gravedad AS gravedad, (SELECT COUNT(c) FROM Cita c WHERE c.paciente = p) AS citasRegistradas " +
+            "FROM Paciente p LEFT JOIN p.medicoAsignado m ";
+
+    @Query(value = SELECT_RESUMEN, countQuery = "SELECT COUNT(p) FROM Paciente p")
+    Page<PacienteResumen> findResumenes(Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.gravedad = :gravedad",
+            countQuery = "SELECT COUNT(p) FROM Paciente p WHERE p.gravedad = :gravedad")
+    Page<PacienteResumen> findResumenesByGravedad(@Param("gravedad") Gravedad gravedad, Pageable pageable);
+
+    @Query(SELECT_RESUMEN + "WHERE p.id > :id ORDER BY p.id ASC")
+    Slice<PacienteResumen> findResumenesDesdeId(@Param("id") Long id, Pageable pageable);
+
+    //Búsqueda por lista de IDs: todos los pacientes solicitados con una única consulta 'IN':
+    @Query(SELECT_RESUMEN + "WHERE p.id IN :ids")
+    List<PacienteResumen> findResumenesByIdIn(@Param("ids") Collection<Long> ids);
+
+    Page<Paciente> findByMedicoAsignadoId(Long medicoId, Pageable pageable);
+
+    //Lectura en streaming para exportaciones: cursor JDBC con tamaño de lote y entidades de solo lectura:
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Paciente p LEFT JOIN FETCH p.medicoAsignado ORDER BY p.id")
+    Stream<Paciente> streamAllOrderById();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESUMEN + "ORDER BY p.id")
+    Stream<PacienteResumen> streamResumenes();
+
+    //Conteo agregado de pacientes asignados para toda una página de médicos en una sola consulta:
+    @Query("SELECT p.medicoAsignado.id AS id, COUNT(p) AS total FROM Paciente p " +
+            "WHERE p.medicoAsignado.id IN :ids GROUP BY p.medicoAsignado.id")
+    List<ConteoPorId> contarPorMedicos(@Param("ids") Collection<Long> medicoIds);
+
+    //La gravedad se persiste como texto: se ordena por su posición en el triaje, columna indexada junto al ingreso y el ID:
+    @Query("SELECT p FROM Paciente p ORDER BY p.gravedadOrden ASC, p.fechaIngreso ASC, p.id ASC")
+    List<Paciente> findAllOrdenadosPorTriaje(Pageable pageable);
+
+    //Carga inicial de la cola de triaje en memoria: solo las columnas que necesita, sin entidades gestionadas:
+    @Query("SELECT new dev.acobano.springrestful.hospital.triaje.EntradaTriaje(" +
+            "p.id, p.nombre, p.apellidos, p.gravedad, p.fechaIngreso) FROM Paciente p")
+    List<EntradaTriaje> findEntradasTriaje();
+
+    //Borrado masivo por lotes: se leen solo identificadores y se eliminan con sentencias DELETE directas:
+    boolean existsByIdNotNull();
+
+    @Query("SELECT p.id FROM Paciente p ORDER BY p.id")
+    List<Long> findIds(Pageable pageable);
+
+    //La desasignación masiva también incrementa la versión, para que las etiquetas de versión de los pacientes cambien:
+    @Modifying
+    @Query("UPDATE Paciente p SET p.medicoAsignado = null, p.version = p.version + 1 WHERE p.medicoAsignado.id IN :ids")
+    int desasignarMedicos(@Param("ids") Collection<Long> medicoIds);
+
+    //Etiqueta de versión de la respuesta de un paciente: su versión, la de su médico y su número de citas:
+    @Query("SELECT CONCAT(CAST(p.version AS String), '.', COALESCE(CAST(m.version AS String), '-'), '.', " +
+            "CAST((SELECT COUNT(c) FROM Cita c WHERE c.paciente = p) AS String)) " +
+            "FROM Paciente p LEFT JOIN p.medicoAsignado m WHERE p.id = :id")
+    Optional<String> findVersionById(@Param("id") Long id);
+
+    //Médico asignado y gravedad según la BBDD, sin volcar antes los cambios aún pendientes de la propia entidad:
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT new dev.acobano.springrestful.hospital.asignacion.AsignacionPaciente(m.id, p.gravedad) " +
+            "FROM Paciente p LEFT JOIN p.medicoAsignado m WHERE p.id = :id")
+    Optional<AsignacionPaciente> findAsignacionById(@Param("id") Long id);
+
+    //Altas de citas por lotes: pacientes del lote con su médico, que las agendas de los médicos necesitan, en una única consulta:
+    @Query("SELECT p FROM Paciente p LEFT JOIN FETCH p.medicoAsignado WHERE p.id IN :ids")
+    List<Paciente> findAllConMedicoByIdIn(@Param("ids") Collection<Long> ids);
+
+    //Altas por lotes: DNIs del lote que ya están registrados, comprobados todos con una única consulta:
+    @Query("SELECT p.dni FROM Paciente p WHERE p.dni IN :dnis")
+    List<String> findDnisRegistrados(@Param("dnis") Collection<String> dnis);
 }
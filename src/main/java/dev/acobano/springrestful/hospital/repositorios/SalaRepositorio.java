@@ -1,7 +1,19 @@
 package dev.acobano.springrestful.hospital.repositorios;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.SalaResumen;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,6 +23,32 @@ import org.springframework.stereotype.Repository;
  * @author Álvaro Cobano
  */
 @Repository
-public interface SalaRepositorio extends JpaRepository<Sala, Long> {
-    
+public interface SalaRepositorio extends JpaRepository<Sala, Long>
+{
+    Slice<Sala> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    //Listado completo en NDJSON: cursor JDBC con entidades de solo lectura; sus citas se cuentan por lotes:
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Sala s ORDER BY s.id")
+    Stream<Sala> streamAllOrderById();
+
+    //Listado ligero de todas las salas para las búsquedas de huecos; cambia poco, así que va a la caché de consultas:
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT s.id AS id, s.numero AS numero FROM Sala s ORDER BY s.numero, s.id")
+    List<SalaResumen> findResumenes();
+
+    //Etiqueta de versión de la respuesta de una sala: su versión y su número de citas:
+    @Query("SELECT CONCAT(CAST(s.version AS String), '.', " +
+            "CAST((SELECT COUNT(c) FROM Cita c WHERE c.sala = s) AS String)) " +
+            "FROM Sala s WHERE s.id = :id")
+    Optional<String> findVersionById(@Param("id") Long id);
+
+    //Borrado masivo por lotes: se leen solo identificadores y se eliminan con sentencias DELETE directas:
+    boolean existsByIdNotNull();
+
+    @Query("SELECT s.id FROM Sala s ORDER BY s.id")
+    List<Long> findIds(Pageable pageable);
 }
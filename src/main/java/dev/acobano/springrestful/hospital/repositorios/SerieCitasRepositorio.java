@@ -0,0 +1,99 @@
+package dev.acobano.springrestful.hospital.repositorios;
+
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ExcepcionSerie;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.SerieCitasResumen;
+import dev.acobano.springrestful.hospital.planificacion.FranjaSerie;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Interfaz de la capa de repositorio extendida de JpaRepository que sirve
+ * para realizar CRUD en la BBDD con entidades de clase 'SerieCitas'.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Repository
+public interface SerieCitasRepositorio extends JpaRepository<SerieCitas, Long>
+{
+    //Las consultas de agendas devuelven la regla de cada serie; las fechas se comprueban después contra ella:
+    String SELECT_FRANJA = "SELECT new dev.acobano.springrestful.hospital.planificacion.FranjaSerie(" +
+            "s.id, s.sala.id, m.id, s.fechaInicio, s.fechaFin, s.intervaloDias, s.horaEntrada, s.horaSalida) " +
+            "FROM SerieCitas s LEFT JOIN s.paciente p LEFT JOIN p.medicoAsignado m ";
+
+    //Series vigentes en un día y sin esa fecha entre sus ocurrencias canceladas:
+    String VIGENTE_EN_FECHA = "s.fechaInicio <= :fecha AND s.fechaFin >= :fecha AND :fecha NOT MEMBER OF s.excepciones ";
+
+    String SELECT_RESUMEN = "SELECT s.id AS id, p.nombre AS nombrePaciente, p.apellidos AS apellidosPaciente, " +
+            "p.gravedad AS gravedad, m.nombre AS nombreMedico, m.apellidos AS apellidosMedico, " +
+            "m.especialidad AS especialidad, sa.numero AS numSala, s.fechaInicio AS fechaInicio, " +
+            "s.fechaFin AS fechaFin, s.intervaloDias AS intervaloDias, " +
+            "s.horaEntrada AS horaEntrada, s.horaSalida AS horaSalida " +
+            "FROM SerieCitas s JOIN s.paciente p LEFT JOIN p.medicoAsignado m JOIN s.sala sa ";
+
+    //La serie se lee junto a su paciente, el médico de este, su sala y sus excepciones en una sola consulta:
+    @Override
+    @EntityGraph(attributePaths = {"paciente", "paciente.medicoAsignado", "sala", "excepciones"})
+    Optional<SerieCitas> findById(Long id);
+
+    //Agenda de una sala en un día, por el índice (sala_id, fecha_inicio, fecha_fin):
+    @Query(SELECT_FRANJA + "WHERE s.sala.id = :salaId AND " + VIGENTE_EN_FECHA)
+    List<FranjaSerie> findFranjasBySalaAndFecha(@Param("salaId") Long salaId, @Param("fecha") LocalDate fecha);
+
+    @Query(SELECT_FRANJA + "WHERE " + VIGENTE_EN_FECHA)
+    List<FranjaSerie> findFranjasByFecha(@Param("fecha") LocalDate fecha);
+
+    @Query(SELECT_FRANJA + "WHERE m.id IN :medicoIds AND " + VIGENTE_EN_FECHA)
+    List<FranjaSerie> findFranjasByMedicosAndFecha(@Param("medicoIds") Collection<Long> medicoIds,
+                                                   @Param("fecha") LocalDate fecha);
+
+    //Series de un paciente, p. ej. antes de eliminarlo junto a ellas en cascada:
+    @Query(SELECT_FRANJA + "WHERE p.id = :pacienteId")
+    List<FranjaSerie> findFranjasByPacienteId(@Param("pacienteId") Long pacienteId);
+
+    //Series de una sala o de un médico que coinciden en fechas y horario con una nueva serie:
+    @Query(SELECT_FRANJA + "WHERE s.sala.id = :salaId AND s.fechaInicio <= :hasta AND s.fechaFin >= :desde " +
+            "AND s.horaEntrada < :fin AND s.horaSalida > :inicio")
+    List<FranjaSerie> findFranjasSolapadasBySala(@Param("salaId") Long salaId,
+                                                 @Param("desde") LocalDate desde,
+                                                 @Param("hasta") LocalDate hasta,
+                                                 @Param("inicio") LocalTime inicio,
+                                                 @Param("fin") LocalTime fin);
+
+    @Query(SELECT_FRANJA + "WHERE m.id = :medicoId AND s.fechaInicio <= :hasta AND s.fechaFin >= :desde " +
+            "AND s.horaEntrada < :fin AND s.horaSalida > :inicio")
+    List<FranjaSerie> findFranjasSolapadasByMedico(@Param("medicoId") Long medicoId,
+                                                   @Param("desde") LocalDate desde,
+                                                   @Param("hasta") LocalDate hasta,
+                                                   @Param("inicio") LocalTime inicio,
+                                                   @Param("fin") LocalTime fin);
+
+    //Series de un paciente o de una sala con alguna fecha dentro de un rango, para expandir solo ese rango:
+    @Query(SELECT_RESUMEN + "WHERE p.id = :pacienteId AND s.fechaInicio <= :hasta AND s.fechaFin >= :desde")
+    List<SerieCitasResumen> findResumenesByPacienteIdEntre(@Param("pacienteId") Long pacienteId,
+                                                           @Param("desde") LocalDate desde,
+                                                           @Param("hasta") LocalDate hasta);
+
+    @Query(SELECT_RESUMEN + "WHERE sa.id = :salaId AND s.fechaInicio <= :hasta AND s.fechaFin >= :desde")
+    List<SerieCitasResumen> findResumenesBySalaIdEntre(@Param("salaId") Long salaId,
+                                                       @Param("desde") LocalDate desde,
+                                                       @Param("hasta") LocalDate hasta);
+
+    //Solo las ocurrencias canceladas dentro del rango, no todas las de la serie:
+    @Query("SELECT s.id AS id, e AS fecha FROM SerieCitas s JOIN s.excepciones e " +
+            "WHERE s.id IN :ids AND e BETWEEN :desde AND :hasta")
+    List<ExcepcionSerie> findExcepcionesEntre(@Param("ids") Collection<Long> serieIds,
+                                              @Param("desde") LocalDate desde,
+                                              @Param("hasta") LocalDate hasta);
+
+    boolean existsByPacienteId(Long pacienteId);
+}
@@ -0,0 +1,64 @@
+package dev.acobano.springrestful.hospital.servicios.implementaciones;
+
+import dev.acobano.springrestful.hospital.dto.salida.EstadisticasCacheResponseDTO;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICacheServicio;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Clase de la capa de servicio encargada de leer las estadísticas que Hibernate
+ * acumula sobre cada región de la caché de segundo nivel.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Service
+@Slf4j
+public class CacheServicioImpl implements ICacheServicio
+{
+                                            // *******************
+                                            // ***  ATRIBUTOS  ***
+                                            // *******************
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+
+
+                                            // *****************
+                                            // ***  MÉTODOS  ***
+                                            // *****************
+
+    @Override
+    public List<EstadisticasCacheResponseDTO> leerEstadisticasRegiones()
+    {
+        log.info("---> leerEstadisticasRegiones");
+        Statistics estadisticas = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String[] regiones = estadisticas.getSecondLevelCacheRegionNames();
+        Arrays.sort(regiones);
+
+        List<EstadisticasCacheResponseDTO> listaDto = new ArrayList<>(regiones.length);
+
+        for (String region : regiones)
+        {
+            CacheRegionStatistics estadisticasRegion = estadisticas.getCacheRegionStatistics(region);
+            listaDto.add(EstadisticasCacheResponseDTO.builder()
+                    .region(region)
+                    .aciertos(estadisticasRegion.getHitCount())
+                    .fallos(estadisticasRegion.getMissCount())
+                    .inserciones(estadisticasRegion.getPutCount())
+                    .build());
+        }
+
+        log.info("<--- leerEstadisticasRegiones");
+        return listaDto;
+    }
+}
@@ -1,14 +1,54 @@
 package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
+import dev.acobano.springrestful.hospital.concurrencia.ReintentosOptimistas;
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.MedicoOcupadoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.exportacion.RecorridoPorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ConteoPorId;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ExcepcionSerie;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.OcurrenciaSerie;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.SerieCitasResumen;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.planificacion.ReglaRecurrencia;
 import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SalaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,12 +66,46 @@ public class CitaServicioImpl implements ICitaServicio
                                             // ***  ATRIBUTOS  ***
                                             // *******************
 
+    //Número máximo de identificadores que se eliminan en cada sentencia DELETE masiva:
+    private static final int TAMANIO_LOTE_BORRADO = 1000;
+
+    //Orden de los listados que mezclan citas guardadas con ocurrencias de series, que no tienen ID propio:
+    private static final Comparator<CitaResumen> POR_FECHA_Y_HORA = Comparator
+            .comparing(CitaResumen::getFechaCita)
+            .thenComparing(CitaResumen::getHoraEntrada)
+            .thenComparing(CitaResumen::getId, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(CitaResumen::getSerieId, Comparator.nullsLast(Comparator.naturalOrder()));
+
     @Autowired
     private CitaRepositorio repositorio;
+
+    @Autowired
+    private SerieCitasRepositorio serieRepositorio;
+
+    @Autowired
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Autowired
+    private SalaRepositorio salaRepositorio;
     
     @Autowired
     private ICitaMapeador mapeador;
 
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @Autowired
+    private ReintentosOptimistas reintentos;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${hospital.planificacion.series.rango-maximo-dias:366}")
+    private int rangoMaximoDias;
+
 
 
                                             // *****************
@@ -49,6 +123,39 @@ public class CitaServicioImpl implements ICitaServicio
         return optCita;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CitaResumen> buscarResumenCita(Long id)
+    {
+        log.info("---> buscarResumenCita");
+        //Solo lectura: obtenemos las columnas del DTO sin cargar ni vigilar las entidades asociadas:
+        Optional<CitaResumen> optResumen = this.repositorio.findResumenById(id);
+        log.info("<--- buscarResumenCita");
+        return optResumen;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CitaResumen> buscarResumenesCitas(Collection<Long> ids)
+    {
+        log.info("---> buscarResumenesCitas");
+        //Todas las citas solicitadas con una única consulta, con las columnas del DTO y sin cargar entidades:
+        List<CitaResumen> lista = this.repositorio.findResumenesByIdIn(ids);
+        log.info("<--- buscarResumenesCitas");
+        return lista;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> buscarVersionCita(Long id)
+    {
+        log.info("---> buscarVersionCita");
+        //Solo la etiqueta de versión, para responder a las peticiones condicionales sin cargar la entidad:
+        Optional<String> optVersion = this.repositorio.findVersionById(id);
+        log.info("<--- buscarVersionCita");
+        return optVersion;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Cita> leerListaCitas()
@@ -59,30 +166,389 @@ public class CitaServicioImpl implements ICitaServicio
         return listaCitas;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CitaResumen> leerPaginaCitas(Pageable pageable)
+    {
+        log.info("---> leerPaginaCitas");
+        Page<CitaResumen> pagina = this.repositorio.findResumenes(pageable);
+        log.info("<--- leerPaginaCitas");
+        return pagina;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long procesarCitasPorLotes(int tamanioLote, Consumer<List<Cita>> consumidor)
+    {
+        log.info("---> procesarCitasPorLotes");
+        //Tras entregar cada lote vaciamos el contexto de persistencia para que la memoria no crezca con el listado:
+        long total = RecorridoPorLotes.recorrer(this.repositorio.streamAllOrderById(),
+                tamanioLote, consumidor, this.entityManager::clear);
+        log.info("<--- procesarCitasPorLotes");
+        return total;
+    }
+
+    /**
+     * Método que recorre los resúmenes de todas las citas registradas en lotes de tamaño fijo mediante un cursor
+     * de la BBDD, de forma que el listado completo nunca llegue a materializarse en memoria.
+     *
+     * @param tamanioLote Número máximo de elementos que se entregan en cada lote.
+     * @param consumidor Función que procesa cada lote.
+     * @return Número total de elementos recorridos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long procesarResumenesCitasPorLotes(int tamanioLote, Consumer<List<CitaResumen>> consumidor)
+    {
+        log.info("---> procesarResumenesCitasPorLotes");
+        //Las proyecciones no quedan vigiladas por el contexto de persistencia, así que no hay nada que vaciar entre lotes:
+        long total = RecorridoPorLotes.recorrer(this.repositorio.streamResumenes(), tamanioLote, consumidor, () -> {});
+        log.info("<--- procesarResumenesCitasPorLotes");
+        return total;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CitaResumen> leerCitasDesdeCursor(LocalDate fecha, Long ultimoId, int tamanio)
+    {
+        log.info("---> leerCitasDesdeCursor");
+        //Sin cursor previo comenzamos por la cita más antigua; con él, continuamos tras la clave (fecha, id):
+        Slice<CitaResumen> fragmento = Objects.isNull(fecha)
+                ? this.repositorio.findPrimerasPorFecha(PageRequest.ofSize(tamanio))
+                : this.repositorio.findSiguientesPorFecha(fecha, ultimoId, PageRequest.ofSize(tamanio));
+        log.info("<--- leerCitasDesdeCursor");
+        return fragmento;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CitaResumen> leerCitasPorPaciente(Long pacienteId, Pageable pageable)
+    {
+        log.info("---> leerCitasPorPaciente");
+        Page<CitaResumen> pagina = this.repositorio.findResumenesByPacienteId(pacienteId, pageable);
+        log.info("<--- leerCitasPorPaciente");
+        return pagina;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CitaResumen> leerCitasPorSala(Long salaId, Pageable pageable)
+    {
+        log.info("---> leerCitasPorSala");
+        Page<CitaResumen> pagina = this.repositorio.findResumenesBySalaId(salaId, pageable);
+        log.info("<--- leerCitasPorSala");
+        return pagina;
+    }
+
+    /**
+     * Método que lista las citas de un paciente en un rango de días junto a las ocurrencias de sus
+     * series de citas en ese rango. Las series se expanden solo dentro del rango, de modo que su
+     * coste depende de las ocurrencias listadas y no de la longitud total de cada serie.
+     *
+     * @param pacienteId Número identificador del paciente.
+     * @param desde Primer día del rango, incluido.
+     * @param hasta Último día del rango, incluido.
+     * @param pageable Número y tamaño de la página solicitada; el orden es siempre por fecha y hora.
+     * @return Página de citas y ocurrencias ordenadas por fecha y hora de entrada.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CitaResumen> leerCitasPorPacienteEntre(Long pacienteId, LocalDate desde, LocalDate hasta, Pageable pageable)
+    {
+        log.info("---> leerCitasPorPacienteEntre");
+        this.validarRango(desde, hasta);
+
+        List<CitaResumen> citas = new ArrayList<>(this.repositorio.findResumenesByPacienteIdEntre(pacienteId, desde, hasta));
+        citas.addAll(this.expandirSeries(this.serieRepositorio.findResumenesByPacienteIdEntre(pacienteId, desde, hasta),
+                desde, hasta));
+
+        Page<CitaResumen> pagina = paginar(citas, pageable);
+        log.info("<--- leerCitasPorPacienteEntre");
+        return pagina;
+    }
+
+    /**
+     * Método que lista las citas de una sala en un rango de días junto a las ocurrencias de las
+     * series de citas de esa sala en ese rango.
+     *
+     * @param salaId Número identificador de la sala.
+     * @param desde Primer día del rango, incluido.
+     * @param hasta Último día del rango, incluido.
+     * @param pageable Número y tamaño de la página solicitada; el orden es siempre por fecha y hora.
+     * @return Página de citas y ocurrencias ordenadas por fecha y hora de entrada.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<CitaResumen> leerCitasPorSalaEntre(Long salaId, LocalDate desde, LocalDate hasta, Pageable pageable)
+    {
+        log.info("---> leerCitasPorSalaEntre");
+        this.validarRango(desde, hasta);
+
+        List<CitaResumen> citas = new ArrayList<>(this.repositorio.findResumenesBySalaIdEntre(salaId, desde, hasta));
+        citas.addAll(this.expandirSeries(this.serieRepositorio.findResumenesBySalaIdEntre(salaId, desde, hasta),
+                desde, hasta));
+
+        Page<CitaResumen> pagina = paginar(citas, pageable);
+        log.info("<--- leerCitasPorSalaEntre");
+        return pagina;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> contarCitasPorPacientes(Collection<Long> pacienteIds)
+    {
+        log.info("---> contarCitasPorPacientes");
+        Map<Long, Long> conteo = new HashMap<>();
+
+        //Un único 'COUNT ... GROUP BY' para todos los pacientes, sin cargar sus colecciones de citas:
+        if (!pacienteIds.isEmpty())
+            for (ConteoPorId c : this.repositorio.contarPorPacientes(pacienteIds))
+                conteo.put(c.getId(), c.getTotal());
+
+        log.info("<--- contarCitasPorPacientes");
+        return conteo;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> contarCitasPorSalas(Collection<Long> salaIds)
+    {
+        log.info("---> contarCitasPorSalas");
+        Map<Long, Long> conteo = new HashMap<>();
+
+        if (!salaIds.isEmpty())
+            for (ConteoPorId c : this.repositorio.contarPorSalas(salaIds))
+                conteo.put(c.getId(), c.getTotal());
+
+        log.info("<--- contarCitasPorSalas");
+        return conteo;
+    }
+
     @Override
     @Transactional
     public void guardarCita(Cita entidad)
     {
         log.info("---> guardarCita");
         this.repositorio.save(entidad);
+
+        //Con el ID ya asignado, comprobamos que la sala y el médico estén libres en esa franja; si no, se deshace la transacción:
+        this.indiceOcupacion.reservar(entidad);
+        this.indiceMedicos.reservar(entidad);
         log.info("<--- guardarCita");
     }
 
+    /**
+     * Método que lee la cita cuyo ID se introduce, le aplica los cambios introducidos y la guarda
+     * en una única transacción. Si otra petición la modifica a la vez, el bloqueo optimista rechaza
+     * la escritura obsoleta y la operación completa se repite sobre los datos ya confirmados.
+     * También se repite si su nueva franja está retenida por otra transacción más tiempo del permitido.
+     *
+     * @param id Número identificador de la cita a actualizar.
+     * @param cambios Modificaciones a aplicar sobre la entidad leída.
+     * @return Objeto Optional con la entidad actualizada, o vacío si no existe.
+     */
+    @Override
+    public Optional<Cita> actualizarCita(Long id, Consumer<Cita> cambios)
+    {
+        log.info("---> actualizarCita");
+        Optional<Cita> optCita = this.reintentos.ejecutar(() -> {
+            Optional<Cita> leida = this.repositorio.findById(id);
+            leida.ifPresent(cita -> {
+                cambios.accept(cita);
+                this.guardarCita(cita);
+            });
+            return leida;
+        });
+        log.info("<--- actualizarCita");
+        return optCita;
+    }
+
+    @Override
+    @Transactional
+    public List<Cita> guardarCitas(List<Cita> entidades)
+    {
+        log.info("---> guardarCitas");
+        //Una única transacción: Hibernate agrupa los INSERT en lotes JDBC de 'hibernate.jdbc.batch_size':
+        List<Cita> guardadas = this.repositorio.saveAll(entidades);
+        guardadas.forEach(this.indiceOcupacion::reservar);
+        guardadas.forEach(this.indiceMedicos::reservar);
+        log.info("<--- guardarCitas");
+        return guardadas;
+    }
+
+    /**
+     * Método que guarda en una única transacción un tramo de citas de un alta por lotes. Los pacientes
+     * y las salas de todo el tramo se resuelven con una consulta por tipo, y los INSERT se vuelcan
+     * juntos al final, agrupados en lotes JDBC, en lugar de uno a uno antes de cargar cada agenda.
+     * Las citas cuyo paciente o sala no existen, o cuya franja choca con otra cita de su sala o de
+     * su médico (incluidas las anteriores del mismo tramo), se rechazan sin afectar a las demás.
+     *
+     * @param entidades Citas a guardar, con su paciente y su sala referenciados solo por su ID.
+     * @return Mapa con el motivo del rechazo de cada cita no guardada, según su posición en la lista.
+     */
+    @Override
+    @Transactional
+    public Map<Integer, String> guardarCitasEnLote(List<Cita> entidades)
+    {
+        log.info("---> guardarCitasEnLote");
+        Map<Long, Paciente> pacientes = this.pacienteRepositorio.findAllConMedicoByIdIn(entidades.stream()
+                        .map(c -> c.getPaciente().getId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Paciente::getId, Function.identity()));
+        Map<Long, Sala> salas = this.salaRepositorio.findAllById(entidades.stream()
+                        .map(c -> c.getSala().getId()).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Sala::getId, Function.identity()));
+        Map<Integer, String> rechazos = new HashMap<>();
+
+        for (Cita cita : entidades)
+        {
+            cita.setPaciente(pacientes.get(cita.getPaciente().getId()));
+            cita.setSala(salas.get(cita.getSala().getId()));
+        }
+
+        //Las agendas de todo el tramo se bloquean de antemano y en orden (las de sala antes que las de médico,
+        //como en cada reserva), de modo que dos tramos que comparten agendas no pueden esperarse el uno al otro:
+        this.indiceOcupacion.bloquearAgendas(entidades);
+        this.indiceMedicos.bloquearAgendas(entidades);
+
+        //Las consultas que cargan las agendas no vuelcan las citas ya anotadas del tramo, que se insertan todas al final:
+        FlushModeType modoAnterior = this.entityManager.getFlushMode();
+        this.entityManager.setFlushMode(FlushModeType.COMMIT);
+
+        try
+        {
+            for (int i = 0; i < entidades.size(); i++)
+            {
+                Cita cita = entidades.get(i);
+
+                if (Objects.isNull(cita.getPaciente()))
+                {
+                    rechazos.put(i, "No existe ningún paciente en el sistema con el ID indicado");
+                    continue;
+                }
+
+                if (Objects.isNull(cita.getSala()))
+                {
+                    rechazos.put(i, "No existe ninguna sala en el sistema con el ID indicado");
+                    continue;
+                }
+
+                try
+                {
+                    this.guardarCita(cita);
+                }
+                catch (SalaOcupadaExcepcion | MedicoOcupadoExcepcion | HorarioInvalidoExcepcion ex)
+                {
+                    //La cita rechazada sale de las agendas y de la BBDD antes de que se vuelque el tramo:
+                    this.indiceOcupacion.liberar(cita.getId());
+                    this.indiceMedicos.liberar(cita.getId());
+                    this.entityManager.remove(cita);
+                    rechazos.put(i, ex.getMessage());
+                }
+            }
+
+            this.repositorio.flush();
+        }
+        finally
+        {
+            this.entityManager.setFlushMode(modoAnterior);
+        }
+
+        //Las citas ya volcadas no necesitan seguir en el contexto de persistencia de la petición:
+        this.entityManager.clear();
+        log.info("<--- guardarCitasEnLote");
+        return rechazos;
+    }
+
     @Override
     @Transactional
     public void eliminarCita(Long id) 
     {
         log.info("---> eliminarCita");
         this.repositorio.deleteById(id);
+        this.indiceOcupacion.liberar(id);
+        this.indiceMedicos.liberar(id);
         log.info("<--- eliminarCita");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existenCitas()
+    {
+        log.info("---> existenCitas");
+        boolean existen = this.repositorio.existsByIdNotNull();
+        log.info("<--- existenCitas");
+        return existen;
+    }
+
     @Override
     @Transactional
     public void eliminarTodasCitas()
     {
         log.info("---> eliminarTodasCitas");
-        this.repositorio.deleteAll();
+        List<Long> ids;
+
+        //Borramos por lotes de identificadores sin llegar a cargar las entidades en memoria:
+        do
+        {
+            ids = this.repositorio.findIds(PageRequest.ofSize(TAMANIO_LOTE_BORRADO));
+
+            if (!ids.isEmpty())
+                this.repositorio.deleteAllByIdInBatch(ids);
+        }
+        while (ids.size() == TAMANIO_LOTE_BORRADO);
+
+        this.indiceOcupacion.invalidarTodo();
+        this.indiceMedicos.invalidarTodo();
         log.info("<--- eliminarTodasCitas");
     }
+
+    private void validarRango(LocalDate desde, LocalDate hasta)
+    {
+        if (Objects.isNull(desde) || Objects.isNull(hasta) || hasta.isBefore(desde)
+                || ChronoUnit.DAYS.between(desde, hasta) >= this.rangoMaximoDias)
+            throw new HorarioInvalidoExcepcion(String.format(
+                    "El rango de fechas debe indicar 'desde' y 'hasta', en ese orden, y abarcar como máximo %d días",
+                    this.rangoMaximoDias));
+    }
+
+    //Solo se leen las excepciones que caen dentro del rango, con una única consulta para todas las series:
+    private List<CitaResumen> expandirSeries(List<SerieCitasResumen> series, LocalDate desde, LocalDate hasta)
+    {
+        List<CitaResumen> ocurrencias = new ArrayList<>();
+
+        if (series.isEmpty())
+            return ocurrencias;
+
+        Map<Long, Set<LocalDate>> canceladas = new HashMap<>();
+
+        for (ExcepcionSerie e : this.serieRepositorio.findExcepcionesEntre(
+                series.stream().map(SerieCitasResumen::getId).toList(), desde, hasta))
+            canceladas.computeIfAbsent(e.getId(), id -> new HashSet<>()).add(e.getFecha());
+
+        for (SerieCitasResumen serie : series)
+        {
+            ReglaRecurrencia regla = new ReglaRecurrencia(serie.getFechaInicio(), serie.getFechaFin(),
+                    serie.getIntervaloDias());
+
+            Set<LocalDate> suyas = canceladas.getOrDefault(serie.getId(), Set.of());
+
+            for (LocalDate fecha : regla.fechasEntre(desde, hasta))
+                if (!suyas.contains(fecha))
+                    ocurrencias.add(new OcurrenciaSerie(serie, fecha));
+        }
+
+        return ocurrencias;
+    }
+
+    private static Page<CitaResumen> paginar(List<CitaResumen> citas, Pageable pageable)
+    {
+        citas.sort(POR_FECHA_Y_HORA);
+
+        if (pageable.isUnpaged())
+            return new PageImpl<>(citas, pageable, citas.size());
+
+        int desde = (int) Math.min(pageable.getOffset(), citas.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), citas.size());
+        return new PageImpl<>(citas.subList(desde, hasta), pageable, citas.size());
+    }
 }
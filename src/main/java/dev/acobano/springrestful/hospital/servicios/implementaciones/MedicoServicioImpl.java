@@ -1,14 +1,34 @@
 package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
+import dev.acobano.springrestful.hospital.asignacion.CargaMedicos;
+import dev.acobano.springrestful.hospital.concurrencia.ReintentosOptimistas;
+import dev.acobano.springrestful.hospital.exportacion.RecorridoPorLotes;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
 import dev.acobano.springrestful.hospital.repositorios.MedicoRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IMedicoServicio;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +46,27 @@ public class MedicoServicioImpl implements IMedicoServicio
                                             // ***  ATRIBUTOS  ***
                                             // *******************
 
+    //Número máximo de identificadores que se eliminan en cada sentencia DELETE masiva:
+    private static final int TAMANIO_LOTE_BORRADO = 1000;
+
     @Autowired
     private MedicoRepositorio repositorio;
 
+    @Autowired
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @Autowired
+    private CargaMedicos cargaMedicos;
+
+    @Autowired
+    private ReintentosOptimistas reintentos;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
 
 
                                             // *****************
@@ -45,6 +83,27 @@ public class MedicoServicioImpl implements IMedicoServicio
         return optMedico;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> buscarVersionMedico(Long id)
+    {
+        log.info("---> buscarVersionMedico");
+        Optional<String> optVersion = this.repositorio.findVersionById(id);
+        log.info("<--- buscarVersionMedico");
+        return optVersion;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MedicoResumen> buscarResumenesMedicos(Collection<Long> ids)
+    {
+        log.info("---> buscarResumenesMedicos");
+        //Todos los médicos solicitados con una única consulta, incluido el número de pacientes de cada uno:
+        List<MedicoResumen> lista = this.repositorio.findResumenesByIdIn(ids);
+        log.info("<--- buscarResumenesMedicos");
+        return lista;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Medico> leerListaMedicos()
@@ -54,46 +113,82 @@ public class MedicoServicioImpl implements IMedicoServicio
         log.info("<--- leerListaMedicos");
         return listaEntidades;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MedicoResumen> leerPaginaMedicos(Pageable pageable)
+    {
+        log.info("---> leerPaginaMedicos");
+        Page<MedicoResumen> pagina = this.repositorio.findResumenes(pageable);
+        log.info("<--- leerPaginaMedicos");
+        return pagina;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MedicoResumen> leerMedicosDesdeCursor(Long ultimoId, int tamanio)
+    {
+        log.info("---> leerMedicosDesdeCursor");
+        //Paginación por clave: el coste no depende de la profundidad de la página solicitada:
+        Slice<MedicoResumen> fragmento = this.repositorio
+                .findResumenesDesdeId(ultimoId, PageRequest.ofSize(tamanio));
+        log.info("<--- leerMedicosDesdeCursor");
+        return fragmento;
+    }
+
+    /**
+     * Método que recorre los resúmenes de todos los médicos registrados en lotes de tamaño fijo mediante un cursor
+     * de la BBDD, de forma que el listado completo nunca llegue a materializarse en memoria.
+     *
+     * @param tamanioLote Número máximo de elementos que se entregan en cada lote.
+     * @param consumidor Función que procesa cada lote.
+     * @return Número total de elementos recorridos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long procesarResumenesMedicosPorLotes(int tamanioLote, Consumer<List<MedicoResumen>> consumidor)
+    {
+        log.info("---> procesarResumenesMedicosPorLotes");
+        //Las proyecciones no quedan vigiladas por el contexto de persistencia, así que no hay nada que vaciar entre lotes:
+        long total = RecorridoPorLotes.recorrer(this.repositorio.streamResumenes(), tamanioLote, consumidor, () -> {});
+        log.info("<--- procesarResumenesMedicosPorLotes");
+        return total;
+    }
     
     @Override
     @Transactional(readOnly = true)
-    public List<Medico> filtrarMedicosPorNombre(String nombre)
+    public Page<MedicoResumen> filtrarMedicosPorNombre(String nombre, Pageable pageable)
     {
         log.info("---> filtrarMedicosPorNombre");
-        //Filtramos la lista por nombre usando los flujos del JDK 8:
-        List<Medico> listaFiltrada = this.repositorio.findAll()
-                .stream()
-                .filter(medico -> medico.getNombre().equalsIgnoreCase(nombre))
-                .toList();
+        //Delegamos el filtro por nombre en la BBDD para evitar cargar la tabla completa:
+        Page<MedicoResumen> listaFiltrada = this.repositorio.findResumenesByNombre(nombre, pageable);
         log.info("<--- filtrarMedicosPorNombre");
         return listaFiltrada;
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<Medico> filtrarMedicosPorEspecialidad(String especialidad)
+    public Page<MedicoResumen> filtrarMedicosPorEspecialidad(String especialidad, Pageable pageable)
     {
         log.info("---> filtrarMedicosPorEspecialidad");
-        //Filtramos la lista por especialidad usando los flujos del JDK 8:
-        List<Medico> listaFiltrada = this.repositorio.findAll()
-                .stream()
-                .filter(medico -> medico.getEspecialidad().name().equalsIgnoreCase(especialidad))
-                .toList();
+        //Una especialidad inexistente no puede coincidir con ningún médico:
+        Optional<Especialidad> optEspecialidad = this.convertirEspecialidad(especialidad);
+        Page<MedicoResumen> listaFiltrada = optEspecialidad.isPresent()
+                ? this.repositorio.findResumenesByEspecialidad(optEspecialidad.get(), pageable)
+                : Page.empty(pageable);
         log.info("<--- filtrarMedicosPorEspecialidad");
         return listaFiltrada;
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<Medico> filtrarMedicosPorNombreYEspecialidad(String nombre, String especialidad)
+    public Page<MedicoResumen> filtrarMedicosPorNombreYEspecialidad(String nombre, String especialidad, Pageable pageable)
     {
         log.info("---> filtrarMedicosPorNombreYEspecialidad");
-        //Filtramos la lista por nombre y especialidad usando los flujos del JDK 8:
-        List<Medico> listaFiltrada = this.repositorio.findAll()
-                .stream()
-                .filter(medico -> medico.getNombre().equalsIgnoreCase(nombre)
-                        && medico.getEspecialidad().name().equalsIgnoreCase(especialidad)
-                ).toList();
+        Optional<Especialidad> optEspecialidad = this.convertirEspecialidad(especialidad);
+        Page<MedicoResumen> listaFiltrada = optEspecialidad.isPresent()
+                ? this.repositorio.findResumenesByNombreAndEspecialidad(nombre, optEspecialidad.get(), pageable)
+                : Page.empty(pageable);
         log.info("<--- filtrarMedicosPorNombreYEspecialidad");
         return listaFiltrada;
     }
@@ -104,23 +199,132 @@ public class MedicoServicioImpl implements IMedicoServicio
     {
         log.info("---> guardarMedico");
         this.repositorio.save(medico);
+        //Los médicos nuevos entran en la asignación automática de pacientes con carga nula:
+        this.cargaMedicos.trasConfirmar(() -> this.cargaMedicos.registrarMedico(medico.getId(), medico.getEspecialidad()));
         log.info("<--- guardarMedico");
     }
+
+    /**
+     * Método que guarda en una única transacción un tramo de médicos de un alta por lotes. Los DNIs
+     * del tramo se comprueban con una sola consulta y los INSERT se vuelcan al final, agrupados en
+     * lotes JDBC. Los médicos con un DNI ya registrado o repetido en el lote se rechazan sin afectar
+     * a los demás.
+     *
+     * @param entidades Médicos a guardar.
+     * @return Mapa con el motivo del rechazo de cada médico no guardado, según su posición en la lista.
+     */
+    @Override
+    @Transactional
+    public Map<Integer, String> guardarMedicosEnLote(List<Medico> entidades)
+    {
+        log.info("---> guardarMedicosEnLote");
+        Set<String> registrados = new HashSet<>(this.repositorio.findDnisRegistrados(
+                entidades.stream().map(Medico::getDni).toList()));
+        Set<String> vistos = new HashSet<>();
+        Map<Integer, String> rechazos = new HashMap<>();
+
+        for (int i = 0; i < entidades.size(); i++)
+        {
+            String dni = entidades.get(i).getDni();
+
+            if (registrados.contains(dni))
+                rechazos.put(i, "Ya existe un médico registrado en el sistema con el DNI " + dni);
+            else if (!vistos.add(dni))
+                rechazos.put(i, "El DNI " + dni + " está repetido en el lote");
+            else
+                this.guardarMedico(entidades.get(i));
+        }
+
+        this.repositorio.flush();
+
+        //Los médicos ya volcados no necesitan seguir en el contexto de persistencia de la petición:
+        this.entityManager.clear();
+        log.info("<--- guardarMedicosEnLote");
+        return rechazos;
+    }
+
+    /**
+     * Método que lee el médico cuyo ID se introduce, le aplica los cambios introducidos y lo guarda
+     * en una única transacción. Si otra petición lo modifica a la vez, el bloqueo optimista rechaza
+     * la escritura obsoleta y la operación completa se repite sobre los datos ya confirmados.
+     *
+     * @param id Número identificador del medico a actualizar.
+     * @param cambios Modificaciones a aplicar sobre la entidad leída.
+     * @return Objeto Optional con la entidad actualizada, o vacío si no existe.
+     */
+    @Override
+    public Optional<Medico> actualizarMedico(Long id, Consumer<Medico> cambios)
+    {
+        log.info("---> actualizarMedico");
+        Optional<Medico> optMedico = this.reintentos.ejecutar(() -> {
+            Optional<Medico> leido = this.repositorio.findById(id);
+            leido.ifPresent(medico -> {
+                cambios.accept(medico);
+                this.guardarMedico(medico);
+            });
+            return leido;
+        });
+        log.info("<--- actualizarMedico");
+        return optMedico;
+    }
     @Override
     @Transactional
     public void eliminarMedico(Long id) 
     {
         log.info("---> eliminarMedico");
         this.repositorio.deleteById(id);
+        this.indiceMedicos.invalidarMedico(id);
+        this.cargaMedicos.trasConfirmar(() -> this.cargaMedicos.retirarMedico(id));
         log.info("<--- eliminarMedico");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existenMedicos()
+    {
+        log.info("---> existenMedicos");
+        boolean existen = this.repositorio.existsByIdNotNull();
+        log.info("<--- existenMedicos");
+        return existen;
+    }
+
     @Override
     @Transactional
     public void eliminarTodosMedicos()
     {
         log.info("---> eliminarTodosMedicos");
-        this.repositorio.deleteAll();
+        List<Long> ids;
+
+        //Por cada lote dejamos sin médico asignado a sus pacientes antes de eliminar a los médicos:
+        do
+        {
+            ids = this.repositorio.findIds(PageRequest.ofSize(TAMANIO_LOTE_BORRADO));
+
+            if (!ids.isEmpty())
+            {
+                this.pacienteRepositorio.desasignarMedicos(ids);
+                this.repositorio.deleteAllByIdInBatch(ids);
+            }
+        }
+        while (ids.size() == TAMANIO_LOTE_BORRADO);
+
+        //Los pacientes desasignados dejan de contar en las agendas de sus antiguos médicos:
+        this.indiceMedicos.invalidarTodo();
+        this.cargaMedicos.trasConfirmar(this.cargaMedicos::reconstruir);
         log.info("<--- eliminarTodosMedicos");
     }
+
+    /**
+     * Método auxiliar que traduce, sin distinguir mayúsculas de minúsculas, una cadena
+     * de texto en su correspondiente valor de la clase enumerada 'Especialidad'.
+     *
+     * @param especialidad Cadena de texto con el nombre de la especialidad.
+     * @return Objeto de la clase Optional con la especialidad encontrada, si existe.
+     */
+    private Optional<Especialidad> convertirEspecialidad(String especialidad)
+    {
+        return Arrays.stream(Especialidad.values())
+                .filter(e -> e.name().equalsIgnoreCase(especialidad))
+                .findFirst();
+    }
 }
@@ -1,14 +1,50 @@
 package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
+import dev.acobano.springrestful.hospital.asignacion.AsignacionPaciente;
+import dev.acobano.springrestful.hospital.asignacion.CargaMedicos;
+import dev.acobano.springrestful.hospital.concurrencia.ReintentosOptimistas;
+import dev.acobano.springrestful.hospital.excepciones.MedicoNoEncontradoExcepcion;
+import dev.acobano.springrestful.hospital.exportacion.RecorridoPorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IPacienteMapeador;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ConteoPorId;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.planificacion.FranjaSerie;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.MedicoRepositorio;
 import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
+import dev.acobano.springrestful.hospital.triaje.ColaTriaje;
+import dev.acobano.springrestful.hospital.triaje.EntradaTriaje;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +62,39 @@ public class PacienteServicioImpl implements IPacienteServicio
                                 // ***  ATRIBUTOS  ***
                                 // *******************
 
+    //Número máximo de identificadores que se eliminan en cada sentencia DELETE masiva:
+    private static final int TAMANIO_LOTE_BORRADO = 1000;
+
     @Autowired
     private PacienteRepositorio repositorio;
 
+    @Autowired
+    private CitaRepositorio citaRepositorio;
+
+    @Autowired
+    private SerieCitasRepositorio serieRepositorio;
+
+    @Autowired
+    private MedicoRepositorio medicoRepositorio;
+
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @Autowired
+    private ColaTriaje colaTriaje;
+
+    @Autowired
+    private CargaMedicos cargaMedicos;
+
+    @Autowired
+    private ReintentosOptimistas reintentos;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
 
 
                                 // *****************
@@ -52,6 +118,27 @@ public class PacienteServicioImpl implements IPacienteServicio
         return optPaciente;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> buscarVersionPaciente(Long id)
+    {
+        log.info("---> buscarVersionPaciente");
+        Optional<String> optVersion = this.repositorio.findVersionById(id);
+        log.info("<--- buscarVersionPaciente");
+        return optVersion;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PacienteResumen> buscarResumenesPacientes(Collection<Long> ids)
+    {
+        log.info("---> buscarResumenesPacientes");
+        //Todos los pacientes solicitados con una única consulta, incluido el número de citas de cada uno:
+        List<PacienteResumen> lista = this.repositorio.findResumenesByIdIn(ids);
+        log.info("<--- buscarResumenesPacientes");
+        return lista;
+    }
+
     /**
      * Método que realiza una llamada al repositorio para mostrar una lista
      * con todos los pacientes que existen registrados dentro del sistema.
@@ -68,33 +155,222 @@ public class PacienteServicioImpl implements IPacienteServicio
         return listaPacientes;
     }
 
+    /**
+     * Método que realiza una llamada al repositorio para obtener una única página
+     * de pacientes según el número, tamaño y ordenación solicitados.
+     *
+     * @param pageable Objeto con los datos de la página a obtener.
+     * @return Página de proyecciones 'PacienteResumen' junto con los totales del listado.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PacienteResumen> leerPaginaPacientes(Pageable pageable)
+    {
+        log.info("---> leerPaginaPacientes");
+        Page<PacienteResumen> pagina = this.repositorio.findResumenes(pageable);
+        log.info("<--- leerPaginaPacientes");
+        return pagina;
+    }
+
+    /**
+     * Método que recorre todos los pacientes del sistema mediante un cursor de la BBDD y los entrega
+     * en lotes al consumidor introducido. Tras cada lote se vacía el contexto de persistencia, por lo
+     * que la memoria empleada depende del tamaño del lote y no del número total de pacientes.
+     *
+     * @param tamanioLote Número máximo de pacientes que se entregan en cada lote.
+     * @param consumidor Función que procesa cada lote de entidades 'Paciente'.
+     * @return Número total de pacientes recorridos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long procesarPacientesPorLotes(int tamanioLote, Consumer<List<Paciente>> consumidor)
+    {
+        log.info("---> procesarPacientesPorLotes");
+        long total = RecorridoPorLotes.recorrer(this.repositorio.streamAllOrderById(),
+                tamanioLote, consumidor, this.entityManager::clear);
+        log.info("<--- procesarPacientesPorLotes");
+        return total;
+    }
+
+    /**
+     * Método que recorre los resúmenes de todos los pacientes registrados en lotes de tamaño fijo mediante un cursor
+     * de la BBDD, de forma que el listado completo nunca llegue a materializarse en memoria.
+     *
+     * @param tamanioLote Número máximo de elementos que se entregan en cada lote.
+     * @param consumidor Función que procesa cada lote.
+     * @return Número total de elementos recorridos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long procesarResumenesPacientesPorLotes(int tamanioLote, Consumer<List<PacienteResumen>> consumidor)
+    {
+        log.info("---> procesarResumenesPacientesPorLotes");
+        //Las proyecciones no quedan vigiladas por el contexto de persistencia, así que no hay nada que vaciar entre lotes:
+        long total = RecorridoPorLotes.recorrer(this.repositorio.streamResumenes(), tamanioLote, consumidor, () -> {});
+        log.info("<--- procesarResumenesPacientesPorLotes");
+        return total;
+    }
+
+    /**
+     * Método que realiza una llamada al repositorio para obtener los pacientes cuyo número
+     * identificador sea posterior al último recibido, sin recorrer las filas anteriores.
+     *
+     * @param ultimoId Número identificador del último paciente de la página anterior.
+     * @param tamanio Número máximo de pacientes a devolver.
+     * @return Fragmento de proyecciones 'PacienteResumen' ordenadas por su número identificador.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PacienteResumen> leerPacientesDesdeCursor(Long ultimoId, int tamanio)
+    {
+        log.info("---> leerPacientesDesdeCursor");
+        Slice<PacienteResumen> fragmento = this.repositorio
+                .findResumenesDesdeId(ultimoId, PageRequest.ofSize(tamanio));
+        log.info("<--- leerPacientesDesdeCursor");
+        return fragmento;
+    }
+
     /**
      * Método que realiza una llamada al repositorio para devolver una lista
      * de pacientes cuyo parámetro 'Gravedad' coincida con el introducido por
      * parámetro de entrada.
      *
      * @param gravedad Cadena de texto con la gravedad de la afección que se desea buscar.
-     * @return Lista de entidades 'Paciente' con todos los datos disponibles.
+     * @param pageable Objeto con los datos de la página a obtener.
+     * @return Página de proyecciones 'PacienteResumen' con los datos de cada paciente.
      */
     @Override
     @Transactional(readOnly = true)
-    public List<Paciente> filtrarPacientesPorGravedad(String gravedad)
+    public Page<PacienteResumen> filtrarPacientesPorGravedad(String gravedad, Pageable pageable)
     {
         log.info("---> filtrarPacientesPorGravedad");
 
-        //Filtramos la lista por gravedad usando los flujos del JDK 8:
-        List<Paciente> listaFiltrada = this.repositorio.findAll()
-                .stream()
-                .filter(paciente -> paciente.getGravedad().name().equalsIgnoreCase(gravedad))
-                .toList();
+        //Una gravedad inexistente no puede coincidir con ningún paciente, por lo que no consultamos la BBDD:
+        Optional<Gravedad> optGravedad = Arrays.stream(Gravedad.values())
+                .filter(g -> g.name().equalsIgnoreCase(gravedad))
+                .findFirst();
+
+        Page<PacienteResumen> listaFiltrada = optGravedad.isPresent()
+                ? this.repositorio.findResumenesByGravedad(optGravedad.get(), pageable)
+                : Page.empty(pageable);
         
         log.info("<--- filtrarPacientesPorGravedad");
         return listaFiltrada;
     }
 
+    /**
+     * Método que realiza una llamada al repositorio para devolver los pacientes más urgentes
+     * del sistema, ordenados primero por la gravedad de su afección (de CRITICA a ASINTOMATICA)
+     * y después por su fecha de ingreso, sin cargar el resto del censo de pacientes.
+     *
+     * @param limite Número máximo de pacientes a devolver.
+     * @return Lista de entidades 'Paciente' ordenadas según el criterio de triaje.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Paciente> leerPacientesPorTriaje(int limite)
+    {
+        log.info("---> leerPacientesPorTriaje");
+        List<Paciente> listaOrdenada = this.repositorio
+                .findAllOrdenadosPorTriaje(PageRequest.of(0, Math.max(1, limite)));
+        log.info("<--- leerPacientesPorTriaje");
+        return listaOrdenada;
+    }
+
+    /**
+     * Método que extrae de la cola de triaje en memoria al paciente más urgente para ser atendido.
+     *
+     * @return Objeto Optional con el paciente extraído y la posición que ocupaba (la primera),
+     *         o vacío si no hay pacientes esperando.
+     */
+    @Override
+    public Optional<PosicionTriaje> atenderSiguientePaciente()
+    {
+        log.info("---> atenderSiguientePaciente");
+        Optional<PosicionTriaje> siguiente = this.colaTriaje.extraerSiguiente()
+                .map(entrada -> new PosicionTriaje(entrada, 1));
+        log.info("<--- atenderSiguientePaciente");
+        return siguiente;
+    }
+
+    /**
+     * Método que consulta, sin extraerlos, los primeros pacientes de la cola de triaje en memoria.
+     *
+     * @param limite Número máximo de pacientes a devolver.
+     * @return Lista de pacientes en espera con su posición en la cola.
+     */
+    @Override
+    public List<PosicionTriaje> consultarColaTriaje(int limite)
+    {
+        log.info("---> consultarColaTriaje");
+        List<PosicionTriaje> primeros = this.colaTriaje.consultar(Math.max(1, limite));
+        log.info("<--- consultarColaTriaje");
+        return primeros;
+    }
+
+    /**
+     * Método que consulta la posición en la cola de triaje del paciente cuyo ID se introduce.
+     *
+     * @param id Número identificador del paciente.
+     * @return Objeto Optional con la posición del paciente, o vacío si no está esperando.
+     */
+    @Override
+    public Optional<PosicionTriaje> consultarPosicionTriaje(Long id)
+    {
+        log.info("---> consultarPosicionTriaje");
+        Optional<PosicionTriaje> posicion = this.colaTriaje.posicion(id);
+        log.info("<--- consultarPosicionTriaje");
+        return posicion;
+    }
+
+    /**
+     * Método que realiza una llamada al repositorio para obtener una página con los
+     * pacientes asignados al médico cuyo número identificador se introduce por parámetro.
+     *
+     * @param medicoId Número identificador del médico cuyos pacientes se desean listar.
+     * @param pageable Objeto con los datos de la página a obtener.
+     * @return Página de entidades 'Paciente' asignadas a dicho médico.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Paciente> leerPacientesPorMedico(Long medicoId, Pageable pageable)
+    {
+        log.info("---> leerPacientesPorMedico");
+        Page<Paciente> pagina = this.repositorio.findByMedicoAsignadoId(medicoId, pageable);
+        log.info("<--- leerPacientesPorMedico");
+        return pagina;
+    }
+
+    /**
+     * Método que realiza una única consulta agregada al repositorio para obtener el número de
+     * pacientes asignados a cada uno de los médicos introducidos, sin inicializar sus colecciones.
+     *
+     * @param medicoIds Números identificadores de los médicos cuyos pacientes se desean contar.
+     * @return Mapa con el número de pacientes asignados a cada médico que tenga al menos uno.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> contarPacientesPorMedicos(Collection<Long> medicoIds)
+    {
+        log.info("---> contarPacientesPorMedicos");
+        Map<Long, Long> conteo = new HashMap<>();
+
+        if (!medicoIds.isEmpty())
+            for (ConteoPorId c : this.repositorio.contarPorMedicos(medicoIds))
+                conteo.put(c.getId(), c.getTotal());
+
+        log.info("<--- contarPacientesPorMedicos");
+        return conteo;
+    }
+
     /**
      * Método que realiza una llamada al repositorio para guardar en el sistema
-     * a un nuevo paciente introducido como parámetro de entrada.
+     * a un nuevo paciente introducido como parámetro de entrada. Si se trata de
+     * un paciente existente al que se le cambia el médico asignado, sus citas
+     * pasan a la agenda del nuevo médico, comprobando que no choquen con las suyas.
+     * Los pacientes nuevos entran en la cola de triaje y los que ya esperan en ella
+     * se recolocan según su gravedad y fecha de ingreso al confirmarse la transacción,
+     * igual que la carga de trabajo de sus médicos anterior y nuevo.
      *
      * @param pacienteAGuardar Entidad cuyos datos están listos para ser guardados en el sistema.
      */
@@ -103,14 +379,144 @@ public class PacienteServicioImpl implements IPacienteServicio
     public void guardarPaciente(Paciente pacienteAGuardar)
     {
         log.info("---> guardarPaciente");
-        this.repositorio.save(pacienteAGuardar);
+        this.guardar(pacienteAGuardar, null);
         log.info("<--- guardarPaciente");
     }
 
+    /**
+     * Método que lee el paciente cuyo ID se introduce, le aplica los cambios introducidos y lo guarda
+     * en una única transacción. Si otra petición lo modifica a la vez, el bloqueo optimista rechaza
+     * la escritura obsoleta y la operación completa se repite sobre los datos ya confirmados.
+     * La cola de triaje y las cargas de los médicos solo reflejan el intento que se confirma.
+     *
+     * @param id Número identificador del paciente a actualizar.
+     * @param cambios Modificaciones a aplicar sobre la entidad leída.
+     * @return Objeto Optional con la entidad actualizada, o vacío si no existe.
+     */
+    @Override
+    public Optional<Paciente> actualizarPaciente(Long id, Consumer<Paciente> cambios)
+    {
+        log.info("---> actualizarPaciente");
+        Optional<Paciente> optPaciente = this.reintentos.ejecutar(() -> {
+            Optional<Paciente> leido = this.repositorio.findById(id);
+            leido.ifPresent(paciente -> {
+                cambios.accept(paciente);
+                this.guardarPaciente(paciente);
+            });
+            return leido;
+        });
+        log.info("<--- actualizarPaciente");
+        return optPaciente;
+    }
+
+    /**
+     * Método que asigna a un nuevo paciente el médico con menos carga de trabajo de la especialidad
+     * introducida, ponderada según la gravedad de sus pacientes, y lo guarda en el sistema. El médico
+     * se elige con las cargas en memoria, sin recorrer a los médicos ni a sus pacientes en la BBDD.
+     *
+     * @param pacienteAGuardar Entidad sin médico asignado cuyos datos están listos para ser guardados.
+     * @param especialidad Especialidad del médico a asignar, o null para elegir entre todos los médicos.
+     * @throws MedicoNoEncontradoExcepcion Si no hay ningún médico de esa especialidad.
+     */
+    @Override
+    @Transactional
+    public void guardarPacienteConMedicoAutomatico(Paciente pacienteAGuardar, Especialidad especialidad)
+    {
+        log.info("---> guardarPacienteConMedicoAutomatico");
+        Long medicoId = this.cargaMedicos.elegirMedico(especialidad, pacienteAGuardar.getGravedad()).orElseThrow(() ->
+                new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema con la especialidad solicitada"));
+
+        //Si el médico se ha eliminado mientras tanto, la transacción se deshace y su carga se restaura:
+        pacienteAGuardar.setMedicoAsignado(this.medicoRepositorio.findById(medicoId).orElseThrow(() ->
+                new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema con la especialidad solicitada")));
+
+        //Elegir al médico ya sumó a su carga el peso del paciente:
+        this.guardar(pacienteAGuardar, AsignacionPaciente.desde(pacienteAGuardar));
+        log.info("<--- guardarPacienteConMedicoAutomatico");
+    }
+
+    /**
+     * Método que guarda en una única transacción un tramo de pacientes de un alta por lotes. Los DNIs
+     * del tramo se comprueban con una sola consulta, los pacientes sin médico reciben el menos cargado
+     * de su especialidad igual que en el alta individual, y todos los médicos se leen juntos con otra
+     * consulta; los INSERT se vuelcan al final, agrupados en lotes JDBC.
+     * Los pacientes con un DNI ya registrado o repetido en el lote, o cuyo médico no existe, se
+     * rechazan sin afectar a los demás.
+     *
+     * @param entidades Pacientes a guardar, con su médico referenciado solo por su ID o sin médico.
+     * @param especialidades Especialidad del médico a asignar a cada paciente sin médico, o null.
+     * @return Mapa con el motivo del rechazo de cada paciente no guardado, según su posición en la lista.
+     */
+    @Override
+    @Transactional
+    public Map<Integer, String> guardarPacientesEnLote(List<Paciente> entidades, List<Especialidad> especialidades)
+    {
+        log.info("---> guardarPacientesEnLote");
+        Map<Integer, String> rechazos = this.buscarDnisDuplicados(entidades);
+        Map<Integer, AsignacionPaciente> contadas = new HashMap<>();
+
+        for (int i = 0; i < entidades.size(); i++)
+        {
+            Paciente paciente = entidades.get(i);
+
+            if (rechazos.containsKey(i) || Objects.nonNull(paciente.getMedicoAsignado()))
+                continue;
+
+            Optional<Long> medicoId = this.cargaMedicos.elegirMedico(especialidades.get(i), paciente.getGravedad());
+
+            if (medicoId.isEmpty())
+            {
+                rechazos.put(i, "No existe ningún médico en el sistema con la especialidad solicitada");
+                continue;
+            }
+
+            //Elegir al médico ya sumó a su carga el peso del paciente:
+            paciente.setMedicoAsignado(Medico.builder().id(medicoId.get()).build());
+            contadas.put(i, AsignacionPaciente.desde(paciente));
+        }
+
+        Set<Long> medicoIds = new HashSet<>();
+
+        for (int i = 0; i < entidades.size(); i++)
+            if (!rechazos.containsKey(i))
+                medicoIds.add(entidades.get(i).getMedicoAsignado().getId());
+
+        Map<Long, Medico> medicos = this.medicoRepositorio.findAllById(medicoIds).stream()
+                .collect(Collectors.toMap(Medico::getId, Function.identity()));
+
+        for (int i = 0; i < entidades.size(); i++)
+        {
+            if (rechazos.containsKey(i))
+                continue;
+
+            Paciente paciente = entidades.get(i);
+            paciente.setMedicoAsignado(medicos.get(paciente.getMedicoAsignado().getId()));
+
+            if (Objects.nonNull(paciente.getMedicoAsignado()))
+            {
+                this.guardar(paciente, contadas.get(i));
+                continue;
+            }
+
+            //Si el médico elegido se ha eliminado mientras tanto, su carga se restaura ya que la transacción sí se confirma:
+            Optional.ofNullable(contadas.get(i)).ifPresent(a -> this.cargaMedicos.restar(a.medicoId(), a.gravedad()));
+            rechazos.put(i, "No existe ningún médico en el sistema con el ID indicado");
+        }
+
+        this.repositorio.flush();
+
+        //Los pacientes ya volcados no necesitan seguir en el contexto de persistencia de la petición:
+        this.entityManager.clear();
+        log.info("<--- guardarPacientesEnLote");
+        return rechazos;
+    }
+
     /**
      * Método que realiza una llamada al repositorio para eliminar del sistema al
      * paciente cuyo número identificador coincida con el introducido por parámetro
-     * de entrada.
+     * de entrada. Sus citas y sus series se eliminan en cascada, por lo que, una vez
+     * confirmado el borrado, se descartan las agendas de sus salas y de su médico en los
+     * días de esas citas y series para que se recarguen de la BBDD.
      *
      * @param id Número identificador del paciente a eliminar.
      */
@@ -119,19 +525,131 @@ public class PacienteServicioImpl implements IPacienteServicio
     public void eliminarPaciente(Long id) 
     {
         log.info("---> eliminarPaciente");
+        Optional<AsignacionPaciente> asignacion = this.repositorio.findAsignacionById(id);
+        //Se copian antes del borrado las citas que se eliminan con él en cascada, para conocer sus agendas:
+        List<Cita> citas = this.repositorio.findById(id)
+                .map(Paciente::getCitasAsignadas)
+                .map(List::copyOf)
+                .orElse(List.of());
+        List<FranjaSerie> series = this.serieRepositorio.findFranjasByPacienteId(id);
         this.repositorio.deleteById(id);
+        this.indiceOcupacion.invalidarAgendas(citas);
+        this.indiceMedicos.invalidarAgendas(citas);
+
+        //Las ocurrencias de sus series no se retiran una a una: se recargan las agendas de sus fechas y de su médico:
+        series.forEach(s -> this.indiceOcupacion.invalidarSalaEntre(s.salaId(), s.fechaInicio(), s.fechaFin()));
+        series.stream()
+                .map(FranjaSerie::medicoId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(this.indiceMedicos::invalidarMedico);
+        this.colaTriaje.trasConfirmar(() -> this.colaTriaje.retirar(id));
+        asignacion.ifPresent(a -> this.cargaMedicos.trasConfirmar(() -> this.cargaMedicos.mover(a, null)));
         log.info("<--- eliminarPaciente");
     }
 
+    /**
+     * Método que comprueba mediante una consulta 'exists' si hay algún paciente
+     * registrado en el sistema, sin llegar a cargar ninguno en memoria.
+     *
+     * @return 'true' si existe al menos un paciente, 'false' en caso contrario.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existenPacientes()
+    {
+        log.info("---> existenPacientes");
+        boolean existen = this.repositorio.existsByIdNotNull();
+        log.info("<--- existenPacientes");
+        return existen;
+    }
+
     /**
      * Método que realiza una llamada al repositorio para eliminar del sistema
-     * a todos los pacientes que se encuentren registradas en él.
+     * a todos los pacientes que se encuentren registradas en él. Se eliminan por
+     * lotes de identificadores, borrando antes las citas de cada lote de pacientes.
      */
     @Override
+    @Transactional
     public void eliminarTodosPacientes()
     {
         log.info("---> eliminarTodosPacientes");
-        this.repositorio.deleteAll();
+        List<Long> ids;
+
+        do
+        {
+            ids = this.repositorio.findIds(PageRequest.ofSize(TAMANIO_LOTE_BORRADO));
+
+            if (!ids.isEmpty())
+            {
+                this.citaRepositorio.deleteByPacienteIdIn(ids);
+                this.repositorio.deleteAllByIdInBatch(ids);
+            }
+        }
+        while (ids.size() == TAMANIO_LOTE_BORRADO);
+
+        this.indiceOcupacion.invalidarTodo();
+        this.indiceMedicos.invalidarTodo();
+        this.colaTriaje.trasConfirmar(this.colaTriaje::vaciar);
+        this.cargaMedicos.trasConfirmar(this.cargaMedicos::reconstruir);
         log.info("<--- eliminarTodosPacientes");
     }
+
+    //Guarda el paciente partiendo de la asignación que ya cuenta en las cargas, o de la registrada en la BBDD si es null:
+    private void guardar(Paciente pacienteAGuardar, AsignacionPaciente contada)
+    {
+        Long id = pacienteAGuardar.getId();
+        AsignacionPaciente anterior = Objects.isNull(id) ? null : this.repositorio.findAsignacionById(id).orElse(null);
+        Long medicoAnterior = Objects.isNull(anterior) ? null : anterior.medicoId();
+
+        this.repositorio.save(pacienteAGuardar);
+
+        Long medicoNuevo = Objects.isNull(pacienteAGuardar.getMedicoAsignado())
+                ? null
+                : pacienteAGuardar.getMedicoAsignado().getId();
+
+        //Solo al cambiar de médico se leen las citas del paciente, por el índice (paciente_id, fecha_cita):
+        if (Objects.nonNull(id) && !Objects.equals(medicoAnterior, medicoNuevo))
+        {
+            this.indiceMedicos.reasignarPaciente(medicoAnterior, medicoNuevo,
+                    this.citaRepositorio.findFranjasByPacienteId(id));
+
+            //Las ocurrencias de sus series no se trasladan una a una: ambos médicos recargan sus agendas:
+            if (this.serieRepositorio.existsByPacienteId(id))
+            {
+                Optional.ofNullable(medicoAnterior).ifPresent(this.indiceMedicos::invalidarMedico);
+                Optional.ofNullable(medicoNuevo).ifPresent(this.indiceMedicos::invalidarMedico);
+            }
+        }
+
+        EntradaTriaje entrada = EntradaTriaje.desde(pacienteAGuardar);
+        this.colaTriaje.trasConfirmar(Objects.isNull(id)
+                ? () -> this.colaTriaje.encolar(entrada)
+                : () -> this.colaTriaje.actualizar(entrada));
+
+        AsignacionPaciente desde = Objects.isNull(contada) ? anterior : contada;
+        AsignacionPaciente hasta = AsignacionPaciente.desde(pacienteAGuardar);
+        this.cargaMedicos.trasConfirmar(() -> this.cargaMedicos.mover(desde, hasta));
+    }
+
+    //DNIs del tramo ya registrados en el sistema o repetidos dentro del propio lote, comprobados con una única consulta:
+    private Map<Integer, String> buscarDnisDuplicados(List<Paciente> entidades)
+    {
+        Set<String> registrados = new HashSet<>(this.repositorio.findDnisRegistrados(
+                entidades.stream().map(Paciente::getDni).toList()));
+        Set<String> vistos = new HashSet<>();
+        Map<Integer, String> duplicados = new HashMap<>();
+
+        for (int i = 0; i < entidades.size(); i++)
+        {
+            String dni = entidades.get(i).getDni();
+
+            if (registrados.contains(dni))
+                duplicados.put(i, "Ya existe un paciente registrado en el sistema con el DNI " + dni);
+            else if (!vistos.add(dni))
+                duplicados.put(i, "El DNI " + dni + " está repetido en el lote");
+        }
+
+        return duplicados;
+    }
 }
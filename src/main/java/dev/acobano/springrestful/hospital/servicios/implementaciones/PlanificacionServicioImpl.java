@@ -0,0 +1,341 @@
+package dev.acobano.springrestful.hospital.servicios.implementaciones;
+
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.PacienteNoEncontradoExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.SalaResumen;
+import dev.acobano.springrestful.hospital.planificacion.Asignacion;
+import dev.acobano.springrestful.hospital.planificacion.CalculoHuecos;
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.planificacion.Intervalo;
+import dev.acobano.springrestful.hospital.planificacion.PeticionCita;
+import dev.acobano.springrestful.hospital.planificacion.PlanificadorCitas;
+import dev.acobano.springrestful.hospital.planificacion.ResultadoPlanificacion;
+import dev.acobano.springrestful.hospital.planificacion.SolicitudCita;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SalaRepositorio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Clase de la capa de servicio encargada de buscar huecos libres en las agendas de las salas,
+ * y opcionalmente también en la de un médico, para programar nuevas citas, y de programar
+ * automáticamente lotes de citas en esos huecos.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Service
+@Slf4j
+public class PlanificacionServicioImpl implements IPlanificacionServicio
+{
+                                            // *******************
+                                            // ***  ATRIBUTOS  ***
+                                            // *******************
+
+    //Los huecos de un mismo día se devuelven por hora de inicio y, a igual hora, por número de sala:
+    private static final Comparator<Hueco> POR_HORA_Y_SALA = Comparator
+            .comparing(Hueco::inicio)
+            .thenComparing(Hueco::numSala, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @Autowired
+    private SalaRepositorio salaRepositorio;
+
+    @Autowired
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Autowired
+    private ICitaServicio citaServicio;
+
+    @Autowired
+    private PlanificadorCitas planificador;
+
+    @Value("${hospital.planificacion.horario.apertura:08:00}")
+    private LocalTime apertura;
+
+    @Value("${hospital.planificacion.horario.cierre:20:00}")
+    private LocalTime cierre;
+
+    @Value("${hospital.planificacion.huecos.dias-maximos:62}")
+    private int diasMaximos;
+
+    @Value("${hospital.planificacion.huecos.limite-maximo:100}")
+    private int limiteMaximo;
+
+    @Value("${hospital.planificacion.automatica.solicitudes-maximas:500}")
+    private int solicitudesMaximas;
+
+
+
+                                            // *****************
+                                            // ***  MÉTODOS  ***
+                                            // *****************
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Hueco> buscarHuecosSalas(LocalDate desde, int dias, int duracionMinutos, int limite)
+    {
+        log.info("---> buscarHuecosSalas");
+        this.validarBusqueda(dias, duracionMinutos, limite);
+
+        List<Hueco> huecos = this.buscarHuecos(desde, dias, Duration.ofMinutes(duracionMinutos), limite,
+                fecha -> UnaryOperator.identity());
+
+        log.info("<--- buscarHuecosSalas");
+        return huecos;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Hueco> buscarHuecosMedico(Long medicoId, LocalDate desde, int dias, int duracionMinutos, int limite)
+    {
+        log.info("---> buscarHuecosMedico");
+        this.validarBusqueda(dias, duracionMinutos, limite);
+        Duration duracion = Duration.ofMinutes(duracionMinutos);
+
+        //Cada hueco de sala se recorta a los tramos en los que el médico también está libre. Su agenda
+        //incluye las ocurrencias de las series de sus pacientes, igual que la que se comprueba al reservar:
+        List<Hueco> huecos = this.buscarHuecos(desde, dias, duracion, limite, fecha -> {
+            List<Intervalo> libresMedico = this.indiceMedicos
+                    .libresDelDia(fecha, List.of(medicoId), this.apertura, this.cierre, duracion)
+                    .getOrDefault(medicoId, List.of());
+            return libresSala -> CalculoHuecos.interseccion(libresSala, libresMedico, duracion);
+        });
+
+        log.info("<--- buscarHuecosMedico");
+        return huecos;
+    }
+
+    /**
+     * Método que comprueba si una sala está libre en un intervalo de un día con el mapa de ocupación
+     * por minutos de su agenda, que se carga de la BBDD solo si no estaba ya en memoria.
+     *
+     * @param salaId Número identificador de la sala.
+     * @param fecha Día a consultar.
+     * @param desde Hora de inicio del intervalo.
+     * @param hasta Hora de fin del intervalo.
+     * @return Objeto Optional con la disponibilidad de la sala, o vacío si la sala no existe.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Disponibilidad> consultarDisponibilidadSala(Long salaId, LocalDate fecha, LocalTime desde, LocalTime hasta)
+    {
+        log.info("---> consultarDisponibilidadSala");
+        this.validarIntervalo(desde, hasta);
+        Optional<Disponibilidad> disponibilidad = Optional.empty();
+
+        if (this.salaRepositorio.existsById(salaId))
+            disponibilidad = Optional.of(this.indiceOcupacion.consultarDisponibilidad(salaId, fecha, desde, hasta));
+
+        log.info("<--- consultarDisponibilidadSala");
+        return disponibilidad;
+    }
+
+    /**
+     * Método que devuelve las salas libres en un intervalo de un día, ordenadas por número de sala.
+     *
+     * @param fecha Día a consultar.
+     * @param desde Hora de inicio del intervalo.
+     * @param hasta Hora de fin del intervalo.
+     * @return Lista con un hueco por cada sala libre durante todo el intervalo.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Hueco> buscarSalasLibres(LocalDate fecha, LocalTime desde, LocalTime hasta)
+    {
+        log.info("---> buscarSalasLibres");
+        this.validarIntervalo(desde, hasta);
+
+        List<SalaResumen> salas = this.salaRepositorio.findResumenes();
+        Set<Long> libres = this.indiceOcupacion.salasLibres(
+                fecha, salas.stream().map(SalaResumen::getId).toList(), desde, hasta);
+        List<Hueco> huecos = salas.stream()
+                .filter(sala -> libres.contains(sala.getId()))
+                .map(sala -> new Hueco(sala.getId(), sala.getNumero(), fecha, desde, hasta))
+                .toList();
+
+        log.info("<--- buscarSalasLibres");
+        return huecos;
+    }
+
+    /**
+     * Método que programa un lote de citas: reparte las solicitudes entre las salas y franjas libres
+     * dentro del rango de días de cada una y guarda todas las citas conseguidas en una única
+     * transacción, con los INSERT agrupados en lotes JDBC. Las reservas se comprueban de nuevo
+     * contra los índices al guardarse, por si otra petición ocupó alguna franja mientras tanto.
+     *
+     * @param solicitudes Solicitudes de cita a programar.
+     * @return Citas guardadas y posiciones en el lote de las solicitudes que se quedaron sin hueco.
+     * @throws PacienteNoEncontradoExcepcion Si alguna solicitud hace referencia a un paciente inexistente.
+     */
+    @Override
+    @Transactional
+    public ResultadoPlanificacion planificarCitas(List<SolicitudCita> solicitudes)
+    {
+        log.info("---> planificarCitas");
+        this.validarSolicitudes(solicitudes);
+
+        //Pacientes y salas se leen una sola vez para todo el lote:
+        Set<Long> pacienteIds = solicitudes.stream().map(SolicitudCita::pacienteId).collect(Collectors.toSet());
+        Map<Long, Paciente> pacientes = this.pacienteRepositorio.findAllById(pacienteIds).stream()
+                .collect(Collectors.toMap(Paciente::getId, Function.identity()));
+
+        for (Long id : pacienteIds)
+            if (!pacientes.containsKey(id))
+                throw new PacienteNoEncontradoExcepcion("No existe ningún paciente con el ID " + id + " en el sistema");
+
+        List<PeticionCita> peticiones = new ArrayList<>(solicitudes.size());
+
+        for (int i = 0; i < solicitudes.size(); i++)
+        {
+            Paciente paciente = pacientes.get(solicitudes.get(i).pacienteId());
+            Long medicoId = Objects.isNull(paciente.getMedicoAsignado()) ? null : paciente.getMedicoAsignado().getId();
+            peticiones.add(new PeticionCita(i, solicitudes.get(i), medicoId, paciente.getGravedad(), paciente.getFechaIngreso()));
+        }
+
+        List<Long> salaIds = this.salaRepositorio.findResumenes().stream().map(SalaResumen::getId).toList();
+        List<Asignacion> asignaciones = this.planificador.planificar(peticiones, salaIds);
+
+        Map<Long, Sala> salas = this.salaRepositorio
+                .findAllById(asignaciones.stream().map(Asignacion::salaId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Sala::getId, Function.identity()));
+        List<Cita> citas = new ArrayList<>(asignaciones.size());
+        Set<Integer> asignadas = new HashSet<>();
+
+        for (Asignacion a : asignaciones)
+        {
+            asignadas.add(a.peticion().orden());
+            citas.add(Cita.builder()
+                    .paciente(pacientes.get(a.peticion().solicitud().pacienteId()))
+                    .sala(salas.get(a.salaId()))
+                    .fechaCita(a.fecha())
+                    .horaEntrada(a.inicio())
+                    .horaSalida(a.fin())
+                    .build());
+        }
+
+        List<Cita> guardadas = citas.isEmpty() ? List.of() : this.citaServicio.guardarCitas(citas);
+        List<Integer> sinAsignar = new ArrayList<>();
+
+        for (int i = 0; i < solicitudes.size(); i++)
+            if (!asignadas.contains(i))
+                sinAsignar.add(i);
+
+        log.info("<--- planificarCitas: {} citas guardadas, {} sin hueco", guardadas.size(), sinAsignar.size());
+        return new ResultadoPlanificacion(guardadas, sinAsignar);
+    }
+
+    /**
+     * Método que recorre el horizonte día a día y se detiene en cuanto reúne el número de huecos
+     * pedido, de forma que solo se consultan las agendas de los días necesarios.
+     *
+     * @param desde Primer día del horizonte de búsqueda.
+     * @param dias Número de días del horizonte.
+     * @param duracion Duración mínima de cada hueco.
+     * @param limite Número máximo de huecos a devolver.
+     * @param filtroDelDia Función que, para cada día, devuelve un filtro adicional sobre los intervalos libres de cada sala.
+     * @return Lista con los huecos más tempranos, ordenados por día, hora de inicio y número de sala.
+     */
+    private List<Hueco> buscarHuecos(LocalDate desde,
+                                     int dias,
+                                     Duration duracion,
+                                     int limite,
+                                     Function<LocalDate, UnaryOperator<List<Intervalo>>> filtroDelDia)
+    {
+        List<SalaResumen> salas = this.salaRepositorio.findResumenes();
+        List<Long> salaIds = salas.stream().map(SalaResumen::getId).toList();
+        List<Hueco> huecos = new ArrayList<>(limite);
+
+        for (int d = 0; d < dias && huecos.size() < limite && !salas.isEmpty(); d++)
+        {
+            LocalDate fecha = desde.plusDays(d);
+            UnaryOperator<List<Intervalo>> filtro = filtroDelDia.apply(fecha);
+            Map<Long, List<Intervalo>> libres = this.indiceOcupacion.libresDelDia(
+                    fecha, salaIds, this.apertura, this.cierre, duracion);
+            List<Hueco> delDia = new ArrayList<>();
+
+            for (SalaResumen sala : salas)
+                for (Intervalo i : filtro.apply(libres.getOrDefault(sala.getId(), List.of())))
+                    delDia.add(new Hueco(sala.getId(), sala.getNumero(), fecha, i.inicio(), i.fin()));
+
+            delDia.sort(POR_HORA_Y_SALA);
+            huecos.addAll(delDia.subList(0, Math.min(delDia.size(), limite - huecos.size())));
+        }
+
+        return huecos;
+    }
+
+    private void validarIntervalo(LocalTime desde, LocalTime hasta)
+    {
+        if (!desde.isBefore(hasta))
+            throw new HorarioInvalidoExcepcion("La hora de fin del intervalo debe ser posterior a su hora de inicio");
+    }
+
+    private void validarSolicitudes(List<SolicitudCita> solicitudes)
+    {
+        if (solicitudes.isEmpty() || solicitudes.size() > this.solicitudesMaximas)
+            throw new HorarioInvalidoExcepcion(String.format(
+                    "El número de solicitudes de cita debe estar entre 1 y %d", this.solicitudesMaximas));
+
+        LocalDate hoy = LocalDate.now();
+
+        for (SolicitudCita s : solicitudes)
+        {
+            if (s.desde().isBefore(hoy) || s.hasta().isBefore(s.desde()))
+                throw new HorarioInvalidoExcepcion(String.format(
+                        "El rango de días de la solicitud del paciente %d debe empezar hoy o más tarde " +
+                        "y terminar en su primer día o después", s.pacienteId()));
+
+            this.validarBusqueda((int) ChronoUnit.DAYS.between(s.desde(), s.hasta()) + 1, s.duracionMinutos(), 1);
+        }
+    }
+
+    private void validarBusqueda(int dias, int duracionMinutos, int limite)
+    {
+        long minutosDeApertura = Duration.between(this.apertura, this.cierre).toMinutes();
+
+        if (duracionMinutos <= 0 || duracionMinutos > minutosDeApertura)
+            throw new HorarioInvalidoExcepcion(String.format(
+                    "La duración debe estar entre 1 y %d minutos (horario de %s a %s)",
+                    minutosDeApertura, this.apertura, this.cierre));
+
+        if (dias <= 0 || dias > this.diasMaximos)
+            throw new HorarioInvalidoExcepcion(String.format(
+                    "El número de días de búsqueda debe estar entre 1 y %d", this.diasMaximos));
+
+        if (limite <= 0 || limite > this.limiteMaximo)
+            throw new HorarioInvalidoExcepcion(String.format(
+                    "El número de huecos solicitado debe estar entre 1 y %d", this.limiteMaximo));
+    }
+}
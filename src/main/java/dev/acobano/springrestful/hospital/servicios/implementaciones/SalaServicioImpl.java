@@ -1,13 +1,26 @@
 package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
+import dev.acobano.springrestful.hospital.concurrencia.ReintentosOptimistas;
+import dev.acobano.springrestful.hospital.exportacion.RecorridoPorLotes;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
 import dev.acobano.springrestful.hospital.repositorios.SalaRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ISalaServicio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,9 +38,27 @@ public class SalaServicioImpl implements ISalaServicio
                                             // ***  ATRIBUTOS  ***
                                             // *******************
 
+    //Número máximo de identificadores que se eliminan en cada sentencia DELETE masiva:
+    private static final int TAMANIO_LOTE_BORRADO = 1000;
+
     @Autowired
     private SalaRepositorio repositorio;
 
+    @Autowired
+    private CitaRepositorio citaRepositorio;
+
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @Autowired
+    private ReintentosOptimistas reintentos;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
 
 
                                             // *****************
@@ -44,6 +75,26 @@ public class SalaServicioImpl implements ISalaServicio
         return optSala;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> buscarVersionSala(Long id)
+    {
+        log.info("---> buscarVersionSala");
+        Optional<String> optVersion = this.repositorio.findVersionById(id);
+        log.info("<--- buscarVersionSala");
+        return optVersion;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Sala> buscarSalas(Collection<Long> ids)
+    {
+        log.info("---> buscarSalas");
+        List<Sala> lista = this.repositorio.findAllById(ids);
+        log.info("<--- buscarSalas");
+        return lista;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Sala> leerListaSalas()
@@ -54,6 +105,48 @@ public class SalaServicioImpl implements ISalaServicio
         return listaEntidades;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Sala> leerPaginaSalas(Pageable pageable)
+    {
+        log.info("---> leerPaginaSalas");
+        Page<Sala> pagina = this.repositorio.findAll(pageable);
+        log.info("<--- leerPaginaSalas");
+        return pagina;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Sala> leerSalasDesdeCursor(Long ultimoId, int tamanio)
+    {
+        log.info("---> leerSalasDesdeCursor");
+        //Paginación por clave: el coste no depende de la profundidad de la página solicitada:
+        Slice<Sala> fragmento = this.repositorio
+                .findByIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.ofSize(tamanio));
+        log.info("<--- leerSalasDesdeCursor");
+        return fragmento;
+    }
+
+    /**
+     * Método que recorre todas las salas registradas en lotes de tamaño fijo mediante un cursor
+     * de la BBDD, de forma que el listado completo nunca llegue a materializarse en memoria.
+     *
+     * @param tamanioLote Número máximo de elementos que se entregan en cada lote.
+     * @param consumidor Función que procesa cada lote.
+     * @return Número total de elementos recorridos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long procesarSalasPorLotes(int tamanioLote, Consumer<List<Sala>> consumidor)
+    {
+        log.info("---> procesarSalasPorLotes");
+        //Tras entregar cada lote vaciamos el contexto de persistencia para que la memoria no crezca con el listado:
+        long total = RecorridoPorLotes.recorrer(this.repositorio.streamAllOrderById(),
+                tamanioLote, consumidor, this.entityManager::clear);
+        log.info("<--- procesarSalasPorLotes");
+        return total;
+    }
+
     @Override
     @Transactional
     public void guardarSala(Sala entidad)
@@ -63,21 +156,76 @@ public class SalaServicioImpl implements ISalaServicio
         log.info("<--- guardarSala");
     }
 
+    /**
+     * Método que lee la sala cuyo ID se introduce, le aplica los cambios introducidos y la guarda
+     * en una única transacción. Si otra petición la modifica a la vez, el bloqueo optimista rechaza
+     * la escritura obsoleta y la operación completa se repite sobre los datos ya confirmados.
+     *
+     * @param id Número identificador de la sala a actualizar.
+     * @param cambios Modificaciones a aplicar sobre la entidad leída.
+     * @return Objeto Optional con la entidad actualizada, o vacío si no existe.
+     */
+    @Override
+    public Optional<Sala> actualizarSala(Long id, Consumer<Sala> cambios)
+    {
+        log.info("---> actualizarSala");
+        Optional<Sala> optSala = this.reintentos.ejecutar(() -> {
+            Optional<Sala> leida = this.repositorio.findById(id);
+            leida.ifPresent(sala -> {
+                cambios.accept(sala);
+                this.guardarSala(sala);
+            });
+            return leida;
+        });
+        log.info("<--- actualizarSala");
+        return optSala;
+    }
+
     @Override
     @Transactional
     public void eliminarSala(Long id) 
     {
         log.info("---> eliminarSala");
         this.repositorio.deleteById(id);
+
+        //Las citas de la sala se eliminan en cascada, así que sus agendas y las de sus médicos dejan de ser válidas:
+        this.indiceOcupacion.invalidarSala(id);
+        this.indiceMedicos.invalidarTodo();
         log.info("<--- eliminarSala");
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existenSalas()
+    {
+        log.info("---> existenSalas");
+        boolean existen = this.repositorio.existsByIdNotNull();
+        log.info("<--- existenSalas");
+        return existen;
+    }
+
     @Override
     @Transactional
     public void eliminarTodasSalas()
     {
         log.info("---> eliminarTodasSalas");
-        this.repositorio.deleteAll();
+        List<Long> ids;
+
+        //Por cada lote eliminamos primero las citas asignadas a las salas y después las propias salas:
+        do
+        {
+            ids = this.repositorio.findIds(PageRequest.ofSize(TAMANIO_LOTE_BORRADO));
+
+            if (!ids.isEmpty())
+            {
+                this.citaRepositorio.deleteBySalaIdIn(ids);
+                this.repositorio.deleteAllByIdInBatch(ids);
+            }
+        }
+        while (ids.size() == TAMANIO_LOTE_BORRADO);
+
+        this.indiceOcupacion.invalidarTodo();
+        this.indiceMedicos.invalidarTodo();
         log.info("<--- eliminarTodasSalas");
     }
 }
@@ -0,0 +1,250 @@
+package dev.acobano.springrestful.hospital.servicios.implementaciones;
+
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.MedicoOcupadoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.ExcepcionSerie;
+import dev.acobano.springrestful.hospital.planificacion.ClaveAgenda;
+import dev.acobano.springrestful.hospital.planificacion.ClaveAgendaMedico;
+import dev.acobano.springrestful.hospital.planificacion.FranjaCita;
+import dev.acobano.springrestful.hospital.planificacion.FranjaSerie;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.planificacion.ReglaRecurrencia;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ISerieCitasServicio;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Clase de la capa de servicio encargado de gestionar la sección lógica de la aplicación
+ * relacionada con las series de citas periódicas de clase 'SerieCitas'.
+ * <>
+ * Antes de guardar una serie se comprueba con consultas por rango que ninguna de sus ocurrencias
+ * choca con citas o con otras series de su sala ni del médico de su paciente. Después se descartan
+ * las agendas en memoria de los días afectados que estuvieran cargadas, que se volverán a leer ya
+ * con la serie la próxima vez que se consulten.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Service
+@Slf4j
+public class SerieCitasServicioImpl implements ISerieCitasServicio
+{
+                                            // *******************
+                                            // ***  ATRIBUTOS  ***
+                                            // *******************
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    @Autowired
+    private SerieCitasRepositorio repositorio;
+
+    @Autowired
+    private CitaRepositorio citaRepositorio;
+
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+
+
+                                            // *****************
+                                            // ***  MÉTODOS  ***
+                                            // *****************
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<SerieCitas> buscarSerie(Long id)
+    {
+        log.info("---> buscarSerie");
+        Optional<SerieCitas> optSerie = this.repositorio.findById(id);
+        log.info("<--- buscarSerie");
+        return optSerie;
+    }
+
+    @Override
+    @Transactional
+    public void guardarSerie(SerieCitas entidad)
+    {
+        log.info("---> guardarSerie");
+        ReglaRecurrencia regla = this.validarSerie(entidad);
+        Long medicoId = medicoDe(entidad);
+
+        //Se bloquean los días de la serie antes de comprobarlos, para que ninguna cita ni otra serie
+        //pueda ocuparlos hasta que esta se confirme y sus agendas se descarten:
+        this.bloquearAgendas(entidad, medicoId, regla.fechasEntre(regla.inicio(), regla.fin()));
+        this.comprobarSala(entidad, regla);
+
+        if (Objects.nonNull(medicoId))
+            this.comprobarMedico(entidad, regla, medicoId);
+
+        this.repositorio.save(entidad);
+        this.invalidarAgendas(entidad, medicoId, regla.inicio(), regla.fin());
+        log.info("<--- guardarSerie");
+    }
+
+    @Override
+    @Transactional
+    public void cancelarOcurrencia(SerieCitas entidad, LocalDate fecha)
+    {
+        log.info("---> cancelarOcurrencia");
+
+        if (!this.reglaDe(entidad).incluye(fecha) || entidad.getExcepciones().contains(fecha))
+            throw new HorarioInvalidoExcepcion(String.format(
+                    "La serie de citas no tiene ninguna ocurrencia pendiente el %s", fecha.format(FORMATO_FECHA)));
+
+        entidad.getExcepciones().add(fecha);
+        this.repositorio.save(entidad);
+        this.invalidarAgendas(entidad, medicoDe(entidad), fecha, fecha);
+        log.info("<--- cancelarOcurrencia");
+    }
+
+    @Override
+    @Transactional
+    public void eliminarSerie(SerieCitas entidad)
+    {
+        log.info("---> eliminarSerie");
+        this.repositorio.deleteById(entidad.getId());
+        this.invalidarAgendas(entidad, medicoDe(entidad), entidad.getFechaInicio(), entidad.getFechaFin());
+        log.info("<--- eliminarSerie");
+    }
+
+    private ReglaRecurrencia validarSerie(SerieCitas entidad)
+    {
+        if (Objects.isNull(entidad.getPaciente()) || Objects.isNull(entidad.getSala()))
+            throw new HorarioInvalidoExcepcion("Toda serie de citas debe tener asignados un paciente y una sala existentes");
+
+        if (entidad.getIntervaloDias() <= 0)
+            throw new HorarioInvalidoExcepcion("El intervalo de días entre las citas de la serie debe ser positivo");
+
+        if (entidad.getFechaFin().isBefore(entidad.getFechaInicio()))
+            throw new HorarioInvalidoExcepcion("La fecha de fin de la serie no puede ser anterior a su fecha de inicio");
+
+        if (!entidad.getHoraEntrada().isBefore(entidad.getHoraSalida()))
+            throw new HorarioInvalidoExcepcion("La hora de salida de la cita debe ser posterior a su hora de entrada");
+
+        return this.reglaDe(entidad);
+    }
+
+    //Las citas sueltas que coinciden en horario solo chocan si caen en un día de la serie:
+    private void comprobarSala(SerieCitas entidad, ReglaRecurrencia regla)
+    {
+        Long salaId = entidad.getSala().getId();
+
+        for (FranjaCita c : this.citaRepositorio.findFranjasSolapadasBySala(salaId, regla.inicio(), regla.fin(),
+                entidad.getHoraEntrada(), entidad.getHoraSalida()))
+            if (regla.incluye(c.fecha()))
+                throw new SalaOcupadaExcepcion(String.format(
+                        "La sala ya está ocupada el %s entre las %s y las %s por la %s",
+                        c.fecha().format(FORMATO_FECHA), c.inicio(), c.fin(), c.franja().descripcion()));
+
+        this.primerChoque(regla, this.repositorio.findFranjasSolapadasBySala(salaId, regla.inicio(), regla.fin(),
+                        entidad.getHoraEntrada(), entidad.getHoraSalida()))
+                .ifPresent(choque -> {
+                    throw new SalaOcupadaExcepcion(String.format(
+                            "La sala ya está ocupada el %s entre las %s y las %s por la %s",
+                            choque.fecha().format(FORMATO_FECHA), choque.serie().inicio(), choque.serie().fin(),
+                            choque.serie().franja().descripcion()));
+                });
+    }
+
+    private void comprobarMedico(SerieCitas entidad, ReglaRecurrencia regla, Long medicoId)
+    {
+        for (FranjaCita c : this.citaRepositorio.findFranjasSolapadasByMedico(medicoId, regla.inicio(), regla.fin(),
+                entidad.getHoraEntrada(), entidad.getHoraSalida()))
+            if (regla.incluye(c.fecha()))
+                throw new MedicoOcupadoExcepcion(String.format(
+                        "El médico ya tiene el %s otra cita entre las %s y las %s (%s)",
+                        c.fecha().format(FORMATO_FECHA), c.inicio(), c.fin(), c.franja().descripcion()));
+
+        this.primerChoque(regla, this.repositorio.findFranjasSolapadasByMedico(medicoId, regla.inicio(), regla.fin(),
+                        entidad.getHoraEntrada(), entidad.getHoraSalida()))
+                .ifPresent(choque -> {
+                    throw new MedicoOcupadoExcepcion(String.format(
+                            "El médico ya tiene el %s otra cita entre las %s y las %s (%s)",
+                            choque.fecha().format(FORMATO_FECHA), choque.serie().inicio(), choque.serie().fin(),
+                            choque.serie().franja().descripcion()));
+                });
+    }
+
+    //Primer día común a la nueva serie y a alguna de las series que coinciden con ella en horario:
+    private Optional<Choque> primerChoque(ReglaRecurrencia regla, List<FranjaSerie> candidatas)
+    {
+        if (candidatas.isEmpty())
+            return Optional.empty();
+
+        Map<Long, Set<LocalDate>> canceladas = new HashMap<>();
+
+        for (ExcepcionSerie e : this.repositorio.findExcepcionesEntre(
+                candidatas.stream().map(FranjaSerie::serieId).toList(), regla.inicio(), regla.fin()))
+            canceladas.computeIfAbsent(e.getId(), id -> new HashSet<>()).add(e.getFecha());
+
+        for (FranjaSerie otra : candidatas)
+        {
+            ReglaRecurrencia suya = otra.regla();
+
+            //Se recorren las fechas de la serie con saltos más largos dentro del tramo que comparten:
+            boolean recorrerSuya = suya.intervaloDias() > regla.intervaloDias();
+            ReglaRecurrencia recorrida = recorrerSuya ? suya : regla;
+            ReglaRecurrencia comprobada = recorrerSuya ? regla : suya;
+            LocalDate desde = regla.inicio().isAfter(suya.inicio()) ? regla.inicio() : suya.inicio();
+            LocalDate hasta = regla.fin().isBefore(suya.fin()) ? regla.fin() : suya.fin();
+
+            for (LocalDate fecha : recorrida.fechasEntre(desde, hasta))
+                if (comprobada.incluye(fecha) && !canceladas.getOrDefault(otra.serieId(), Set.of()).contains(fecha))
+                    return Optional.of(new Choque(otra, fecha));
+        }
+
+        return Optional.empty();
+    }
+
+    //Mismo orden que al reservar una cita: primero la sala y después el médico:
+    private void bloquearAgendas(SerieCitas entidad, Long medicoId, List<LocalDate> fechas)
+    {
+        Long salaId = entidad.getSala().getId();
+        this.indiceOcupacion.bloquearHastaTerminar(fechas.stream().map(f -> new ClaveAgenda(salaId, f)).toList());
+
+        if (Objects.nonNull(medicoId))
+            this.indiceMedicos.bloquearHastaTerminar(
+                    fechas.stream().map(f -> new ClaveAgendaMedico(medicoId, f)).toList());
+    }
+
+    private void invalidarAgendas(SerieCitas entidad, Long medicoId, LocalDate desde, LocalDate hasta)
+    {
+        this.indiceOcupacion.invalidarSalaEntre(entidad.getSala().getId(), desde, hasta);
+
+        if (Objects.nonNull(medicoId))
+            this.indiceMedicos.invalidarMedicoEntre(medicoId, desde, hasta);
+    }
+
+    private ReglaRecurrencia reglaDe(SerieCitas entidad)
+    {
+        return new ReglaRecurrencia(entidad.getFechaInicio(), entidad.getFechaFin(), entidad.getIntervaloDias());
+    }
+
+    private static Long medicoDe(SerieCitas entidad)
+    {
+        return Objects.isNull(entidad.getPaciente()) || Objects.isNull(entidad.getPaciente().getMedicoAsignado())
+                ? null
+                : entidad.getPaciente().getMedicoAsignado().getId();
+    }
+
+    private record Choque(FranjaSerie serie, LocalDate fecha) {}
+}
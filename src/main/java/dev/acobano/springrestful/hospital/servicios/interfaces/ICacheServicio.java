@@ -0,0 +1,15 @@
+package dev.acobano.springrestful.hospital.servicios.interfaces;
+
+import dev.acobano.springrestful.hospital.dto.salida.EstadisticasCacheResponseDTO;
+import java.util.List;
+
+/**
+ * Interfaz de la capa de servicio que implementa los métodos de consulta
+ * del estado de la caché de segundo nivel de la aplicación.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface ICacheServicio
+{
+    List<EstadisticasCacheResponseDTO> leerEstadisticasRegiones();
+}
@@ -1,8 +1,17 @@
 package dev.acobano.springrestful.hospital.servicios.interfaces;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.time.LocalDate;
 import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Interfaz de la capa de servicio que implementa los métodos los cuales gestionan
@@ -13,8 +22,25 @@ import java.util.Optional;
 public interface ICitaServicio 
 {
     Optional<Cita> buscarCita(Long id);
+    Optional<CitaResumen> buscarResumenCita(Long id);
+    List<CitaResumen> buscarResumenesCitas(Collection<Long> ids);
+    Optional<String> buscarVersionCita(Long id);
     List<Cita> leerListaCitas();
+    Page<CitaResumen> leerPaginaCitas(Pageable pageable);
+    long procesarCitasPorLotes(int tamanioLote, Consumer<List<Cita>> consumidor);
+    long procesarResumenesCitasPorLotes(int tamanioLote, Consumer<List<CitaResumen>> consumidor);
+    Slice<CitaResumen> leerCitasDesdeCursor(LocalDate fecha, Long ultimoId, int tamanio);
+    Page<CitaResumen> leerCitasPorPaciente(Long pacienteId, Pageable pageable);
+    Page<CitaResumen> leerCitasPorSala(Long salaId, Pageable pageable);
+    Page<CitaResumen> leerCitasPorPacienteEntre(Long pacienteId, LocalDate desde, LocalDate hasta, Pageable pageable);
+    Page<CitaResumen> leerCitasPorSalaEntre(Long salaId, LocalDate desde, LocalDate hasta, Pageable pageable);
+    Map<Long, Long> contarCitasPorPacientes(Collection<Long> pacienteIds);
+    Map<Long, Long> contarCitasPorSalas(Collection<Long> salaIds);
     void guardarCita(Cita entidad);
+    Optional<Cita> actualizarCita(Long id, Consumer<Cita> cambios);
+    List<Cita> guardarCitas(List<Cita> entidades);
+    Map<Integer, String> guardarCitasEnLote(List<Cita> entidades);
     void eliminarCita(Long id);
+    boolean existenCitas();
     void eliminarTodasCitas();
 }
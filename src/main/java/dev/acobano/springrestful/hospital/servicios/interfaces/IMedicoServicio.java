@@ -1,8 +1,16 @@
 package dev.acobano.springrestful.hospital.servicios.interfaces;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Interfaz de la capa de servicio que implementa los métodos los cuales gestionan
@@ -13,11 +21,19 @@ import java.util.Optional;
 public interface IMedicoServicio 
 {
     Optional<Medico> buscarMedico(Long id);
+    Optional<String> buscarVersionMedico(Long id);
+    List<MedicoResumen> buscarResumenesMedicos(Collection<Long> ids);
     List<Medico> leerListaMedicos();
-    List<Medico> filtrarMedicosPorNombre(String nombre);
-    List<Medico> filtrarMedicosPorEspecialidad(String especialidad);
-    List<Medico> filtrarMedicosPorNombreYEspecialidad(String nombre, String especialidad);
+    Page<MedicoResumen> leerPaginaMedicos(Pageable pageable);
+    long procesarResumenesMedicosPorLotes(int tamanioLote, Consumer<List<MedicoResumen>> consumidor);
+    Slice<MedicoResumen> leerMedicosDesdeCursor(Long ultimoId, int tamanio);
+    Page<MedicoResumen> filtrarMedicosPorNombre(String nombre, Pageable pageable);
+    Page<MedicoResumen> filtrarMedicosPorEspecialidad(String especialidad, Pageable pageable);
+    Page<MedicoResumen> filtrarMedicosPorNombreYEspecialidad(String nombre, String especialidad, Pageable pageable);
     void guardarMedico(Medico medico);
+    Map<Integer, String> guardarMedicosEnLote(List<Medico> entidades);
+    Optional<Medico> actualizarMedico(Long id, Consumer<Medico> cambios);
     void eliminarMedico(Long id);
+    boolean existenMedicos();
     void eliminarTodosMedicos();
 }
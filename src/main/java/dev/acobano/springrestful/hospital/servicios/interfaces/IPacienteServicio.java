@@ -1,8 +1,18 @@
 package dev.acobano.springrestful.hospital.servicios.interfaces;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Interfaz de la capa de servicio que implementa los métodos los cuales gestionan
@@ -13,9 +23,25 @@ import java.util.Optional;
 public interface IPacienteServicio 
 {
     Optional<Paciente> buscarPaciente(Long id);
+    Optional<String> buscarVersionPaciente(Long id);
+    List<PacienteResumen> buscarResumenesPacientes(Collection<Long> ids);
     List<Paciente> leerListaPacientes();
-    List<Paciente> filtrarPacientesPorGravedad(String gravedad);
+    Page<PacienteResumen> leerPaginaPacientes(Pageable pageable);
+    long procesarPacientesPorLotes(int tamanioLote, Consumer<List<Paciente>> consumidor);
+    long procesarResumenesPacientesPorLotes(int tamanioLote, Consumer<List<PacienteResumen>> consumidor);
+    Slice<PacienteResumen> leerPacientesDesdeCursor(Long ultimoId, int tamanio);
+    Page<PacienteResumen> filtrarPacientesPorGravedad(String gravedad, Pageable pageable);
+    Page<Paciente> leerPacientesPorMedico(Long medicoId, Pageable pageable);
+    Map<Long, Long> contarPacientesPorMedicos(Collection<Long> medicoIds);
+    List<Paciente> leerPacientesPorTriaje(int limite);
+    Optional<PosicionTriaje> atenderSiguientePaciente();
+    List<PosicionTriaje> consultarColaTriaje(int limite);
+    Optional<PosicionTriaje> consultarPosicionTriaje(Long id);
     void guardarPaciente(Paciente pacienteAGuardar);
+    Optional<Paciente> actualizarPaciente(Long id, Consumer<Paciente> cambios);
+    void guardarPacienteConMedicoAutomatico(Paciente pacienteAGuardar, Especialidad especialidad);
+    Map<Integer, String> guardarPacientesEnLote(List<Paciente> entidades, List<Especialidad> especialidades);
     void eliminarPaciente(Long id);
+    boolean existenPacientes();
     void eliminarTodosPacientes();
 }
@@ -0,0 +1,26 @@
+package dev.acobano.springrestful.hospital.servicios.interfaces;
+
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.planificacion.ResultadoPlanificacion;
+import dev.acobano.springrestful.hospital.planificacion.SolicitudCita;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interfaz de la capa de servicio que implementa los métodos los cuales gestionan la
+ * búsqueda de disponibilidad de las salas y los médicos para programar nuevas citas,
+ * así como la programación automática de lotes de citas.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface IPlanificacionServicio
+{
+    List<Hueco> buscarHuecosSalas(LocalDate desde, int dias, int duracionMinutos, int limite);
+    List<Hueco> buscarHuecosMedico(Long medicoId, LocalDate desde, int dias, int duracionMinutos, int limite);
+    ResultadoPlanificacion planificarCitas(List<SolicitudCita> solicitudes);
+    Optional<Disponibilidad> consultarDisponibilidadSala(Long salaId, LocalDate fecha, LocalTime desde, LocalTime hasta);
+    List<Hueco> buscarSalasLibres(LocalDate fecha, LocalTime desde, LocalTime hasta);
+}
@@ -1,8 +1,14 @@
 package dev.acobano.springrestful.hospital.servicios.interfaces;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Interfaz de la capa de servicio que implementa los métodos los cuales gestionan
@@ -13,8 +19,15 @@ import java.util.Optional;
 public interface ISalaServicio 
 {
     Optional<Sala> buscarSala(Long id);
+    Optional<String> buscarVersionSala(Long id);
+    List<Sala> buscarSalas(Collection<Long> ids);
     List<Sala> leerListaSalas();
+    Page<Sala> leerPaginaSalas(Pageable pageable);
+    long procesarSalasPorLotes(int tamanioLote, Consumer<List<Sala>> consumidor);
+    Slice<Sala> leerSalasDesdeCursor(Long ultimoId, int tamanio);
     void guardarSala(Sala entidad);
+    Optional<Sala> actualizarSala(Long id, Consumer<Sala> cambios);
     void eliminarSala(Long id);
+    boolean existenSalas();
     void eliminarTodasSalas();
 }
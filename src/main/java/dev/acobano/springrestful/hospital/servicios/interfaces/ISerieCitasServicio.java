@@ -0,0 +1,19 @@
+package dev.acobano.springrestful.hospital.servicios.interfaces;
+
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Interfaz de la capa de servicio que implementa los métodos los cuales gestionan la sección
+ * lógica de la aplicación relacionada con las series de citas periódicas de clase 'SerieCitas'.
+ * <>
+ * @author Álvaro Cobano
+ */
+public interface ISerieCitasServicio
+{
+    Optional<SerieCitas> buscarSerie(Long id);
+    void guardarSerie(SerieCitas entidad);
+    void cancelarOcurrencia(SerieCitas entidad, LocalDate fecha);
+    void eliminarSerie(SerieCitas entidad);
+}
@@ -0,0 +1,269 @@
+package dev.acobano.springrestful.hospital.triaje;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cola de urgencias en memoria con los pacientes ordenados por gravedad (de CRITICA a ASINTOMATICA)
+ * y, a igualdad de gravedad, por fecha de ingreso. Se reconstruye desde la BBDD al arrancar la
+ * aplicación y se mantiene con cada alta, modificación o baja de pacientes.
+ * <>
+ * Cada gravedad tiene su propia cola ordenada sin bloqueos (ConcurrentSkipListSet), de modo que
+ * los puestos de enfermería que consultan o extraen pacientes a la vez no compiten por un único
+ * cerrojo ni consultan la tabla de pacientes en cada llamada. Los pacientes extraídos para ser
+ * atendidos solo salen de la cola en memoria: tras reiniciar la aplicación vuelven a ella.
+ * <>
+ * @author Álvaro Cobano
+ */
+@Component
+@Slf4j
+public class ColaTriaje
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final Comparator<EntradaTriaje> POR_INGRESO = Comparator
+            .comparing(EntradaTriaje::fechaIngreso, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(EntradaTriaje::pacienteId);
+
+    //Gravedades de la más urgente a la menos, en el orden en que se atienden sus colas:
+    private static final List<Gravedad> ORDEN_URGENCIA = List.of(
+            Gravedad.CRITICA, Gravedad.GRAVE, Gravedad.MODERADA, Gravedad.LEVE, Gravedad.ASINTOMATICA);
+
+    private final PacienteRepositorio repositorio;
+
+    //Los mapas por gravedad se rellenan en el constructor y después solo se leen:
+    private final Map<Gravedad, ConcurrentSkipListSet<EntradaTriaje>> colas = new EnumMap<>(Gravedad.class);
+    private final Map<Gravedad, AtomicInteger> tamanios = new EnumMap<>(Gravedad.class);
+
+    //Entrada vigente de cada paciente en espera, para reordenarlo o retirarlo conociendo solo su ID:
+    private final Map<Long, EntradaTriaje> entradas = new ConcurrentHashMap<>();
+
+
+
+                                        // *********************
+                                        // ***  CONSTRUCTOR  ***
+                                        // *********************
+
+    @Autowired
+    public ColaTriaje(PacienteRepositorio repositorio)
+    {
+        this.repositorio = repositorio;
+
+        for (Gravedad gravedad : ORDEN_URGENCIA)
+        {
+            this.colas.put(gravedad, new ConcurrentSkipListSet<>(POR_INGRESO));
+            this.tamanios.put(gravedad, new AtomicInteger());
+        }
+    }
+
+
+
+                                        // *****************
+                                        // ***  MÉTODOS  ***
+                                        // *****************
+
+    /**
+     * Método que vuelca en la cola a todos los pacientes registrados leyendo solo las columnas necesarias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir()
+    {
+        log.info("---> reconstruir");
+        this.vaciar();
+
+        List<EntradaTriaje> leidas = this.repositorio.findEntradasTriaje();
+
+        if (Objects.nonNull(leidas))
+            leidas.forEach(this::encolar);
+
+        log.info("<--- reconstruir: {} pacientes en espera", this.entradas.size());
+    }
+
+    /**
+     * Método que añade un paciente a la cola o, si ya estaba en ella, lo recoloca según sus nuevos datos.
+     *
+     * @param entrada Datos de triaje del paciente.
+     */
+    public void encolar(EntradaTriaje entrada)
+    {
+        this.entradas.compute(entrada.pacienteId(), (id, anterior) -> {
+            this.quitarDeSuCola(anterior);
+            this.ponerEnSuCola(entrada);
+            return entrada;
+        });
+    }
+
+    /**
+     * Método que recoloca a un paciente según sus nuevos datos solo si sigue esperando en la cola.
+     *
+     * @param entrada Datos de triaje actualizados del paciente.
+     */
+    public void actualizar(EntradaTriaje entrada)
+    {
+        this.entradas.computeIfPresent(entrada.pacienteId(), (id, anterior) -> {
+            this.quitarDeSuCola(anterior);
+            this.ponerEnSuCola(entrada);
+            return entrada;
+        });
+    }
+
+    /**
+     * Método que retira de la cola al paciente cuyo ID se introduce, si estaba esperando.
+     *
+     * @param pacienteId Número identificador del paciente.
+     */
+    public void retirar(Long pacienteId)
+    {
+        this.entradas.computeIfPresent(pacienteId, (id, anterior) -> {
+            this.quitarDeSuCola(anterior);
+            return null;
+        });
+    }
+
+    /**
+     * Método que extrae de la cola al paciente más urgente. Si dos puestos extraen a la vez,
+     * cada uno obtiene un paciente distinto.
+     *
+     * @return Objeto Optional con el paciente extraído, o vacío si no hay nadie esperando.
+     */
+    public Optional<EntradaTriaje> extraerSiguiente()
+    {
+        for (Gravedad gravedad : ORDEN_URGENCIA)
+        {
+            ConcurrentSkipListSet<EntradaTriaje> cola = this.colas.get(gravedad);
+            EntradaTriaje siguiente;
+
+            while (Objects.nonNull(siguiente = cola.pollFirst()))
+            {
+                this.tamanios.get(gravedad).decrementAndGet();
+
+                //Si el paciente se ha recolocado mientras tanto, su entrada vigente sigue en la cola:
+                if (this.entradas.remove(siguiente.pacienteId(), siguiente))
+                    return Optional.of(siguiente);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Método que devuelve, sin extraerlos, los primeros pacientes de la cola con su posición.
+     *
+     * @param limite Número máximo de pacientes a devolver.
+     * @return Lista de pacientes en orden de atención.
+     */
+    public List<PosicionTriaje> consultar(int limite)
+    {
+        List<PosicionTriaje> primeros = new ArrayList<>();
+
+        for (Gravedad gravedad : ORDEN_URGENCIA)
+        {
+            Iterator<EntradaTriaje> iterador = this.colas.get(gravedad).iterator();
+
+            while (primeros.size() < limite && iterador.hasNext())
+                primeros.add(new PosicionTriaje(iterador.next(), primeros.size() + 1));
+        }
+
+        return primeros;
+    }
+
+    /**
+     * Método que calcula la posición de un paciente en la cola: todos los pacientes de gravedades
+     * más urgentes más los de su misma gravedad que ingresaron antes. Con extracciones simultáneas
+     * el resultado es una aproximación del momento de la consulta.
+     *
+     * @param pacienteId Número identificador del paciente.
+     * @return Objeto Optional con la posición del paciente, o vacío si no está esperando.
+     */
+    public Optional<PosicionTriaje> posicion(Long pacienteId)
+    {
+        EntradaTriaje entrada = this.entradas.get(pacienteId);
+
+        if (Objects.isNull(entrada))
+            return Optional.empty();
+
+        Gravedad gravedad = nivel(entrada);
+        int delante = 0;
+
+        for (Gravedad g : ORDEN_URGENCIA.subList(0, ORDEN_URGENCIA.indexOf(gravedad)))
+            delante += this.tamanios.get(g).get();
+
+        delante += this.colas.get(gravedad).headSet(entrada).size();
+        return Optional.of(new PosicionTriaje(entrada, delante + 1));
+    }
+
+    /**
+     * Método que vacía la cola, p. ej. tras eliminar a todos los pacientes.
+     */
+    public void vaciar()
+    {
+        this.entradas.keySet().forEach(this::retirar);
+    }
+
+    /**
+     * Método que ejecuta una modificación de la cola cuando la transacción en curso se confirme,
+     * de forma que los cambios que se deshagan nunca lleguen a verse en ella.
+     *
+     * @param accion Modificación de la cola a ejecutar.
+     */
+    public void trasConfirmar(Runnable accion)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    accion.run();
+                }
+            });
+        else
+            accion.run();
+    }
+
+    private void ponerEnSuCola(EntradaTriaje entrada)
+    {
+        Gravedad gravedad = nivel(entrada);
+
+        if (this.colas.get(gravedad).add(entrada))
+            this.tamanios.get(gravedad).incrementAndGet();
+    }
+
+    private void quitarDeSuCola(EntradaTriaje entrada)
+    {
+        if (Objects.isNull(entrada))
+            return;
+
+        Gravedad gravedad = nivel(entrada);
+
+        if (this.colas.get(gravedad).remove(entrada))
+            this.tamanios.get(gravedad).decrementAndGet();
+    }
+
+    //Los pacientes sin gravedad registrada se atienden los últimos, igual que en el listado de triaje:
+    private static Gravedad nivel(EntradaTriaje entrada)
+    {
+        return Objects.isNull(entrada.gravedad()) ? Gravedad.ASINTOMATICA : entrada.gravedad();
+    }
+}
@@ -0,0 +1,24 @@
+package dev.acobano.springrestful.hospital.triaje;
+
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import java.time.LocalDateTime;
+
+/**
+ * Datos de un paciente en la cola de triaje: los necesarios para ordenarlo y para
+ * mostrarlo a los puestos de enfermería sin volver a consultar la BBDD.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record EntradaTriaje(Long pacienteId,
+                            String nombre,
+                            String apellidos,
+                            Gravedad gravedad,
+                            LocalDateTime fechaIngreso)
+{
+    public static EntradaTriaje desde(Paciente paciente)
+    {
+        return new EntradaTriaje(paciente.getId(), paciente.getNombre(), paciente.getApellidos(),
+                paciente.getGravedad(), paciente.getFechaIngreso());
+    }
+}
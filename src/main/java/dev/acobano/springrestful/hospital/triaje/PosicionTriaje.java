@@ -0,0 +1,8 @@
+package dev.acobano.springrestful.hospital.triaje;
+
+/**
+ * Paciente de la cola de triaje junto a su posición en ella, empezando por 1.
+ * <>
+ * @author Álvaro Cobano
+ */
+public record PosicionTriaje(EntradaTriaje entrada, int posicion) {}
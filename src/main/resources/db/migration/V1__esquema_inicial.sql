@@ -0,0 +1,62 @@
+-- Esquema inicial de la aplicación, equivalente al que generaba Hibernate con 'ddl-auto: update'.
+-- En bases de datos ya existentes esta versión se toma como línea base y no se ejecuta: sus secuencias las crea V5.
+
+CREATE SEQUENCE medicos_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE pacientes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE salas_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE citas_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE medicos (
+    medico_id           BIGINT NOT NULL,
+    nombre              VARCHAR(255),
+    apellidos           VARCHAR(255),
+    dni                 VARCHAR(255),
+    email               VARCHAR(255),
+    especialidad        VARCHAR(255) CHECK (especialidad IN ('CIRUGIA','PEDIATRIA','ONCOLOGIA','CARDIOLOGIA',
+                                                             'GINECOLOGIA','TRAUMATOLOGIA','DERMATOLOGIA',
+                                                             'PSIQUIATRIA','OFTALMOLOGIA')),
+    fecha_graduacion    DATE,
+    fecha_incorporacion DATE,
+    CONSTRAINT pk_medicos PRIMARY KEY (medico_id)
+);
+
+CREATE TABLE pacientes (
+    paciente_id      BIGINT NOT NULL,
+    nombre           VARCHAR(255),
+    apellidos        VARCHAR(255),
+    dni              VARCHAR(255),
+    genero           VARCHAR(255) CHECK (genero IN ('MASCULINO','FEMENINO','NO_ESPECIFICADO')),
+    gravedad         VARCHAR(255) CHECK (gravedad IN ('ASINTOMATICA','LEVE','MODERADA','GRAVE','CRITICA')),
+    direccion        VARCHAR(255),
+    email            VARCHAR(255),
+    telefono         VARCHAR(255),
+    fecha_nacimiento TIMESTAMP(6),
+    fecha_ingreso    TIMESTAMP(6),
+    medico_id        BIGINT,
+    CONSTRAINT pk_pacientes PRIMARY KEY (paciente_id),
+    CONSTRAINT fk_pacientes_medico FOREIGN KEY (medico_id) REFERENCES medicos (medico_id)
+);
+
+CREATE TABLE salas (
+    sala_id  BIGINT NOT NULL,
+    num_sala INTEGER,
+    CONSTRAINT pk_salas PRIMARY KEY (sala_id)
+);
+
+CREATE TABLE citas (
+    cita_id      BIGINT NOT NULL,
+    paciente_id  BIGINT,
+    sala_id      BIGINT,
+    fecha_cita   DATE,
+    hora_entrada TIME(6),
+    hora_salida  TIME(6),
+    CONSTRAINT pk_citas PRIMARY KEY (cita_id),
+    CONSTRAINT fk_citas_paciente FOREIGN KEY (paciente_id) REFERENCES pacientes (paciente_id),
+    CONSTRAINT fk_citas_sala FOREIGN KEY (sala_id) REFERENCES salas (sala_id)
+);
+
+-- Índices que ya declaraban las entidades:
+CREATE INDEX idx_medicos_especialidad ON medicos (especialidad);
+CREATE INDEX idx_medicos_nombre ON medicos (nombre);
+CREATE INDEX idx_pacientes_gravedad_fecha_ingreso ON pacientes (gravedad, fecha_ingreso);
+CREATE INDEX idx_citas_fecha_cita_id ON citas (fecha_cita, cita_id);
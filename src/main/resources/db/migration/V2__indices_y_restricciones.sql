@@ -0,0 +1,14 @@
+-- Índices sobre las claves foráneas y las columnas de fecha/hora de las citas, y unicidad del DNI.
+
+-- Pacientes de un médico (listado de pacientes asignados, conteos y desasignación masiva):
+CREATE INDEX idx_pacientes_medico_id ON pacientes (medico_id);
+
+-- Agenda de una sala o de un paciente en un día: el prefijo también cubre la clave foránea.
+CREATE INDEX idx_citas_sala_fecha_hora ON citas (sala_id, fecha_cita, hora_entrada);
+CREATE INDEX idx_citas_paciente_fecha_hora ON citas (paciente_id, fecha_cita, hora_entrada);
+
+-- Franjas horarias de todas las salas en un día:
+CREATE INDEX idx_citas_fecha_horas ON citas (fecha_cita, hora_entrada, hora_salida);
+
+ALTER TABLE medicos ADD CONSTRAINT uk_medicos_dni UNIQUE (dni);
+ALTER TABLE pacientes ADD CONSTRAINT uk_pacientes_dni UNIQUE (dni);
@@ -0,0 +1,30 @@
+-- Series de citas periódicas: una fila por serie con su regla de repetición y una fila por
+-- cada ocurrencia cancelada. Las ocurrencias no se guardan; se calculan para el rango consultado.
+
+CREATE SEQUENCE series_citas_seq START WITH 1 INCREMENT BY 50;
+
+-- Al eliminar un paciente o una sala, sus series se eliminan con ellos, igual que sus citas:
+CREATE TABLE series_citas (
+    serie_id       BIGINT NOT NULL,
+    paciente_id    BIGINT,
+    sala_id        BIGINT,
+    fecha_inicio   DATE,
+    fecha_fin      DATE,
+    intervalo_dias INTEGER NOT NULL,
+    hora_entrada   TIME(6),
+    hora_salida    TIME(6),
+    CONSTRAINT pk_series_citas PRIMARY KEY (serie_id),
+    CONSTRAINT fk_series_citas_paciente FOREIGN KEY (paciente_id) REFERENCES pacientes (paciente_id) ON DELETE CASCADE,
+    CONSTRAINT fk_series_citas_sala FOREIGN KEY (sala_id) REFERENCES salas (sala_id) ON DELETE CASCADE
+);
+
+CREATE TABLE series_citas_excepciones (
+    serie_id BIGINT NOT NULL,
+    fecha    DATE NOT NULL,
+    CONSTRAINT pk_series_citas_excepciones PRIMARY KEY (serie_id, fecha),
+    CONSTRAINT fk_series_citas_excepciones_serie FOREIGN KEY (serie_id) REFERENCES series_citas (serie_id) ON DELETE CASCADE
+);
+
+-- Series vigentes de una sala o de un paciente en un rango de días:
+CREATE INDEX idx_series_citas_sala_fechas ON series_citas (sala_id, fecha_inicio, fecha_fin);
+CREATE INDEX idx_series_citas_paciente_fechas ON series_citas (paciente_id, fecha_inicio, fecha_fin);
@@ -0,0 +1,7 @@
+-- Columna de versión para el bloqueo optimista de todas las entidades: las filas existentes parten de la versión 0.
+
+ALTER TABLE medicos ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE pacientes ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE salas ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE citas ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE series_citas ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
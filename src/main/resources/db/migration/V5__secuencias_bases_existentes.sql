@@ -0,0 +1,13 @@
+-- Secuencias de los identificadores en las bases de datos existentes, donde V1 se toma como línea base
+-- y no se ejecuta. En las nuevas ya las ha creado V1 y no se tocan.
+-- Cada una empieza 50 valores (su incremento) por encima del mayor ID, ya que Hibernate reserva de cada
+-- valor leído los 50 IDs anteriores: el primer ID generado es el siguiente al mayor existente.
+
+CREATE SEQUENCE IF NOT EXISTS medicos_seq
+    START WITH (SELECT COALESCE(MAX(medico_id), 0) + 50 FROM medicos) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS pacientes_seq
+    START WITH (SELECT COALESCE(MAX(paciente_id), 0) + 50 FROM pacientes) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS salas_seq
+    START WITH (SELECT COALESCE(MAX(sala_id), 0) + 50 FROM salas) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS citas_seq
+    START WITH (SELECT COALESCE(MAX(cita_id), 0) + 50 FROM citas) INCREMENT BY 50;
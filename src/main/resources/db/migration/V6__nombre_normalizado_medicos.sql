@@ -0,0 +1,8 @@
+-- Búsqueda de médicos por nombre sin distinguir mayúsculas: H2 no admite índices sobre expresiones como
+-- 'lower(nombre)', así que el nombre en minúsculas se guarda en una columna calculada por la propia BBDD
+-- y se indexa esta. Reemplaza al índice sobre 'nombre', que ninguna consulta podía usar.
+
+ALTER TABLE medicos ADD COLUMN nombre_normalizado VARCHAR(255) GENERATED ALWAYS AS (LOWER(nombre));
+
+CREATE INDEX idx_medicos_nombre_normalizado ON medicos (nombre_normalizado);
+DROP INDEX IF EXISTS idx_medicos_nombre;
@@ -0,0 +1,14 @@
+-- Orden de triaje de los pacientes: la gravedad se guarda como texto, así que su posición en el triaje
+-- (de CRITICA = 0 a ASINTOMATICA o sin gravedad = 4) se calcula en una columna de la propia BBDD. Con el
+-- índice sobre ella, la fecha de ingreso y el ID, los más urgentes se leen en orden sin ordenar la tabla.
+
+ALTER TABLE pacientes ADD COLUMN gravedad_orden INTEGER GENERATED ALWAYS AS (
+    CASE gravedad
+        WHEN 'CRITICA' THEN 0
+        WHEN 'GRAVE' THEN 1
+        WHEN 'MODERADA' THEN 2
+        WHEN 'LEVE' THEN 3
+        ELSE 4
+    END);
+
+CREATE INDEX idx_pacientes_triaje ON pacientes (gravedad_orden, fecha_ingreso, paciente_id);
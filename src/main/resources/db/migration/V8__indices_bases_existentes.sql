@@ -0,0 +1,11 @@
+-- Índices de V1 en las bases de datos existentes, donde V1 se toma como línea base y no se ejecuta.
+-- En las nuevas ya los ha creado V1 y no se tocan. ('idx_medicos_nombre' no se incluye: V6 lo reemplaza.)
+
+-- Filtro de médicos por especialidad:
+CREATE INDEX IF NOT EXISTS idx_medicos_especialidad ON medicos (especialidad);
+
+-- Filtro de pacientes por gravedad, ordenados por su fecha de ingreso:
+CREATE INDEX IF NOT EXISTS idx_pacientes_gravedad_fecha_ingreso ON pacientes (gravedad, fecha_ingreso);
+
+-- Paginación por cursor (keyset) de las citas por fecha e ID:
+CREATE INDEX IF NOT EXISTS idx_citas_fecha_cita_id ON citas (fecha_cita, cita_id);
@@ -0,0 +1,137 @@
+package dev.acobano.springrestful.hospital.asignacion;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.repositorios.MedicoRepositorio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para las cargas de trabajo en memoria de los médicos, con las que se
+ * asigna a cada nuevo paciente el médico menos cargado de la especialidad solicitada.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest
+@ContextConfiguration(classes = CargaMedicos.class)
+@Slf4j
+class CargaMedicosTest
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    @Autowired
+    private CargaMedicos cargas;
+
+    @MockBean
+    private MedicoRepositorio repositorio;
+
+
+
+                                        // ***********************
+                                        // ***  OBJETOS DUMMY  ***
+                                        // ***********************
+
+    @BeforeEach
+    public void prepararCargas()
+    {
+        //Cada test parte de dos cardiólogos, el 1 con un paciente crítico (8) y el 2 con dos leves (4),
+        //y de un pediatra 3 sin pacientes:
+        when(repositorio.findCargasPacientes()).thenReturn(List.of(
+                new CargaPacientes(1L, Especialidad.CARDIOLOGIA, Gravedad.CRITICA, 1L),
+                new CargaPacientes(2L, Especialidad.CARDIOLOGIA, Gravedad.LEVE, 2L),
+                new CargaPacientes(3L, Especialidad.PEDIATRIA, null, 0L)));
+        this.cargas.reconstruir();
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void elegirMedicoTestOK()
+    {
+        log.debug("---> elegirMedicoTestOK");
+
+        //Aseveraciones: el cardiólogo 2 recibe pacientes hasta superar la carga del 1:
+        assertAll(
+                () -> assertEquals(Optional.of(2L), this.cargas.elegirMedico(Especialidad.CARDIOLOGIA, Gravedad.GRAVE)),
+                () -> assertEquals(Optional.of(1L), this.cargas.elegirMedico(Especialidad.CARDIOLOGIA, Gravedad.LEVE)),
+                () -> assertEquals(Optional.of(3L), this.cargas.elegirMedico(null, Gravedad.LEVE)),
+                () -> assertEquals(Optional.empty(), this.cargas.elegirMedico(Especialidad.ONCOLOGIA, Gravedad.LEVE)),
+                () -> assertEquals(Optional.of(10L), this.cargas.carga(1L)),
+                () -> assertEquals(Optional.of(9L), this.cargas.carga(2L))
+        );
+
+        log.debug("<--- elegirMedicoTestOK");
+    }
+
+    @Test
+    public void moverYRegistrarTestOK()
+    {
+        log.debug("---> moverYRegistrarTestOK");
+
+        //El paciente crítico del médico 1 pasa al 2 como grave, y el pediatra 3 se hace cardiólogo:
+        this.cargas.mover(new AsignacionPaciente(1L, Gravedad.CRITICA), new AsignacionPaciente(2L, Gravedad.GRAVE));
+        this.cargas.registrarMedico(3L, Especialidad.CARDIOLOGIA);
+        this.cargas.retirarMedico(1L);
+
+        assertAll(
+                () -> assertEquals(Optional.of(9L), this.cargas.carga(2L)),
+                () -> assertEquals(Optional.empty(), this.cargas.carga(1L)),
+                () -> assertEquals(Optional.of(3L), this.cargas.elegirMedico(Especialidad.CARDIOLOGIA, Gravedad.LEVE)),
+                () -> assertEquals(Optional.empty(), this.cargas.elegirMedico(Especialidad.PEDIATRIA, Gravedad.LEVE))
+        );
+
+        log.debug("<--- moverYRegistrarTestOK");
+    }
+
+    @Test
+    public void elegirMedicoConcurrenteTestOK() throws Exception
+    {
+        log.debug("---> elegirMedicoConcurrenteTestOK");
+
+        //Ocho puestos de admisión asignan a la vez 800 pacientes leves a los dos cardiólogos:
+        ExecutorService puestos = Executors.newFixedThreadPool(8);
+        List<Future<?>> resultados = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++)
+            resultados.add(puestos.submit(() -> {
+                for (int j = 0; j < 100; j++)
+                    this.cargas.elegirMedico(Especialidad.CARDIOLOGIA, Gravedad.LEVE);
+            }));
+
+        for (Future<?> f : resultados)
+            f.get();
+
+        puestos.shutdown();
+        long carga1 = this.cargas.carga(1L).orElseThrow();
+        long carga2 = this.cargas.carga(2L).orElseThrow();
+
+        //No se pierde ningún peso y el reparto queda equilibrado salvo por las elecciones simultáneas:
+        assertAll(
+                () -> assertEquals(8 + 4 + 800 * 2, carga1 + carga2),
+                () -> assertTrue(Math.abs(carga1 - carga2) <= 2 * 8 * 2)
+        );
+
+        log.debug("<--- elegirMedicoConcurrenteTestOK");
+    }
+}
@@ -0,0 +1,84 @@
+package dev.acobano.springrestful.hospital.controladores;
+
+import dev.acobano.springrestful.hospital.dto.salida.EstadisticasCacheResponseDTO;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICacheServicio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para los métodos de la capa de controlador relacionados con la
+ * consulta del estado de la caché de segundo nivel de la aplicación.
+ * <>
+ * @author Álvaro Cobano
+ */
+@WebMvcTest(CacheControlador.class)
+@Slf4j
+class CacheControladorTest
+{
+                                            // *******************
+                                            // ***  ATRIBUTOS  ***
+                                            // *******************
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ICacheServicio servicio;
+
+
+
+                                            // ***********************
+                                            // ***  OBJETOS DUMMY  ***
+                                            // ***********************
+
+    private EstadisticasCacheResponseDTO getDummyResponseDTO()
+    {
+        return EstadisticasCacheResponseDTO.builder()
+                .region("medicos")
+                .aciertos(10L)
+                .fallos(2L)
+                .inserciones(2L)
+                .build();
+    }
+
+
+
+                                            // ***************************
+                                            // ***  CLASES de TESTING  ***
+                                            // ***************************
+
+    @Test
+    public void obtenerEstadisticasOK() throws Exception
+    {
+        log.debug("---> obtenerEstadisticasOK");
+        //Declaración de objetos de testing:
+        EstadisticasCacheResponseDTO esperado = this.getDummyResponseDTO();
+
+        //Definición de comportamiento:
+        when(servicio.leerEstadisticasRegiones()).thenReturn(List.of(esperado));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/cache/estadisticas"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].region").value(esperado.getRegion()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].aciertos").value(esperado.getAciertos()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].fallos").value(esperado.getFallos()));
+
+        //Verificaciones:
+        verify(servicio, times(1)).leerEstadisticasRegiones();
+        log.debug("<--- obtenerEstadisticasOK");
+    }
+}
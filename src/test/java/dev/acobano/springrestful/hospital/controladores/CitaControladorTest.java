@@ -1,23 +1,48 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPutRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SerieCitasRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SolicitudCitaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.PlanificacionResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.SerieCitasResponseDTO;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.lotes.ProcesadorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.entidades.SerieCitas;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.paginacion.CabecerasPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.planificacion.ResultadoPlanificacion;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ISerieCitasServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.validation.BindingResult;
@@ -26,7 +51,9 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 
@@ -37,6 +64,7 @@ import static org.mockito.Mockito.*;
  * @author Álvaro Cobano
  */
 @WebMvcTest(CitaControlador.class)
+@Import({ProcesadorLotes.class, SeleccionPorIds.class})
 @Slf4j
 class CitaControladorTest
 {
@@ -47,18 +75,36 @@ class CitaControladorTest
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private ICitaServicio servicio;
 
     @MockBean
     private ICitaMapeador mapeador;
 
+    @MockBean
+    private IPlanificacionServicio planificacionServicio;
+
+    @MockBean
+    private ISerieCitasServicio serieServicio;
+
 
 
                                             // ***********************
                                             // ***  OBJETOS DUMMY  ***
                                             // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private <T> List<T> proyectar(Class<T> tipo, List<?> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(tipo, e))
+                .toList();
+    }
+
     private Cita getDummyEntidad()
     {
         return Cita.builder()
@@ -95,6 +141,35 @@ class CitaControladorTest
                 "}";
     }
 
+    private SerieCitas getDummySerie()
+    {
+        Cita cita = this.getDummyEntidad();
+
+        return SerieCitas.builder()
+                .id(4L)
+                .paciente(cita.getPaciente())
+                .sala(cita.getSala())
+                .fechaInicio(LocalDate.of(2025, 3, 10))
+                .fechaFin(LocalDate.of(2025, 6, 30))
+                .intervaloDias(7)
+                .horaEntrada(LocalTime.of(9, 0))
+                .horaSalida(LocalTime.of(9, 30))
+                .build();
+    }
+
+    private String getDummySerieJsonContent()
+    {
+        return "{\n" +
+                "    \"pacienteId\": 5,\n" +
+                "    \"salaId\": 1,\n" +
+                "    \"fechaInicio\": \"10/03/2025\",\n" +
+                "    \"fechaFin\": \"30/06/2025\",\n" +
+                "    \"intervaloDias\": 7,\n" +
+                "    \"horaEntrada\": \"09:00:00\",\n" +
+                "    \"horaSalida\": \"09:30:00\"\n" +
+                "}";
+    }
+
     private CitaResponseDTO getDummyResponseDTO()
     {
         return CitaResponseDTO.builder()
@@ -122,21 +197,25 @@ class CitaControladorTest
         CitaResponseDTO esperado = this.getDummyResponseDTO();
 
         //Definición de comportamiento:
-        when(servicio.buscarCita(citaId)).thenReturn(Optional.of(this.getDummyEntidad()));
-        when(mapeador.convertirEntidadAResponseDto(any(Cita.class))).thenReturn(esperado);
+        when(servicio.buscarVersionCita(citaId)).thenReturn(Optional.of("1.2.0.1"));
+        when(servicio.buscarResumenCita(citaId))
+                .thenReturn(Optional.of(this.proyectar(CitaResumen.class, List.of(this.getDummyEntidad())).get(0)));
+        when(mapeador.convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas/{id}", citaId)
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1.2.0.1\""))
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(citaId))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.paciente").value(esperado.getPaciente()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.medico").value(esperado.getMedico()));
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarCita(citaId);
-        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Cita.class));
+        verify(servicio, times(1)).buscarVersionCita(citaId);
+        verify(servicio, times(1)).buscarResumenCita(citaId);
+        verify(mapeador, times(1)).convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerCitaTestOK");
     }
 
@@ -147,7 +226,7 @@ class CitaControladorTest
         Long idInexistente = 999L;
 
         //Definición de comportamiento:
-        when(servicio.buscarCita(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.buscarVersionCita(idInexistente)).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas/{id}", idInexistente)
@@ -155,11 +234,35 @@ class CitaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarCita(idInexistente);
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
+        verify(servicio, times(1)).buscarVersionCita(idInexistente);
+        verify(servicio, times(0)).buscarResumenCita(idInexistente);
+        verify(mapeador, times(0)).convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerCitaNoContentKO");
     }
 
+    @Test
+    public void obtenerCitaNotModifiedTestOK() throws Exception
+    {
+        log.debug("---> obtenerCitaNotModifiedTestOK");
+        Long citaId = 11L;
+
+        //Definición de comportamiento: el cliente ya tiene la versión vigente de la cita:
+        when(servicio.buscarVersionCita(citaId)).thenReturn(Optional.of("1.2.0.1"));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas/{id}", citaId)
+                        .header("If-None-Match", "\"1.2.0.1\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1.2.0.1\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        //Verificaciones: ni se carga la cita ni se mapea su DTO de salida:
+        verify(servicio, times(1)).buscarVersionCita(citaId);
+        verify(servicio, times(0)).buscarResumenCita(citaId);
+        verify(mapeador, times(0)).convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class));
+        log.debug("<--- obtenerCitaNotModifiedTestOK");
+    }
+
     @Test
     public void listarCitasTestOK() throws Exception
     {
@@ -168,8 +271,8 @@ class CitaControladorTest
         CitaResponseDTO esperado = this.getDummyResponseDTO();
 
         //Definición del comportamiento:
-        when(servicio.leerListaCitas()).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Cita.class))).thenReturn(esperado);
+        when(servicio.leerPaginaCitas(any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(CitaResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas"))
@@ -187,8 +290,8 @@ class CitaControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].horaSalida").value(esperado.getHoraSalida()));
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaCitas();
-        verify(mapeador, times(listaEntidades.size())).convertirEntidadAResponseDto(any(Cita.class));
+        verify(servicio, times(1)).leerPaginaCitas(any(Pageable.class));
+        verify(mapeador, times(listaEntidades.size())).convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarCitasTestOK");
     }
 
@@ -198,18 +301,157 @@ class CitaControladorTest
         log.debug("---> listarCitasNoContentKO");
 
         //Definición de comportamiento:
-        when(servicio.leerListaCitas()).thenReturn(Collections.emptyList());
+        when(servicio.leerPaginaCitas(any(Pageable.class))).thenReturn(Page.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaCitas();
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
+        verify(servicio, times(1)).leerPaginaCitas(any(Pageable.class));
+        verify(mapeador, times(0)).convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarCitasNoContentKO");
     }
 
+    @Test
+    public void listarCitasNdjsonTestOK() throws Exception
+    {
+        log.debug("---> listarCitasNdjsonTestOK");
+        List<CitaResumen> lote = this.proyectar(CitaResumen.class, List.of(this.getDummyEntidad(), this.getDummyEntidad()));
+        CitaResponseDTO esperado = this.getDummyResponseDTO();
+        String linea = this.objectMapper.writeValueAsString(esperado);
+
+        //Definición de comportamiento:
+        when(servicio.existenCitas()).thenReturn(true);
+        when(servicio.procesarResumenesCitasPorLotes(anyInt(), any())).thenAnswer(invocacion -> {
+            Consumer<List<CitaResumen>> consumidor = invocacion.getArgument(1);
+            consumidor.accept(lote);
+            return (long) lote.size();
+        });
+        when(mapeador.convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock, cuyo body se escribe de forma asíncrona:
+        MvcResult resultado = mockMvc.perform(MockMvcRequestBuilders
+                        .get("http://localhost:8080/hospital/api/citas")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //Aseveraciones: un objeto JSON por línea, sin corchetes ni comas entre elementos:
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string(linea + "\n" + linea + "\n"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).procesarResumenesCitasPorLotes(anyInt(), any());
+        verify(servicio, times(0)).leerPaginaCitas(any(Pageable.class));
+        verify(mapeador, times(2)).convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class));
+        log.debug("<--- listarCitasNdjsonTestOK");
+    }
+
+    @Test
+    public void listarCitasPorCursorTestOK() throws Exception
+    {
+        log.debug("---> listarCitasPorCursorTestOK");
+        //Declaración de objetos de testing:
+        Cita ultima = this.getDummyEntidad();
+        ultima.setFechaCita(LocalDate.of(2024, 3, 10));
+        LocalDate fechaCursor = LocalDate.of(2024, 3, 9);
+        String cursor = CursorPaginacion.codificarFechaId(fechaCursor, 4L);
+        String siguienteCursor = CursorPaginacion.codificarFechaId(ultima.getFechaCita(), ultima.getId());
+
+        //Definición de comportamiento:
+        when(servicio.leerCitasDesdeCursor(fechaCursor, 4L, 1))
+                .thenReturn(new SliceImpl<>(this.proyectar(CitaResumen.class, List.of(ultima)), PageRequest.ofSize(1), true));
+        when(mapeador.convertirResumenAResponseDto(any(CitaResumen.class), any(CamposSolicitados.class))).thenReturn(this.getDummyResponseDTO());
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas")
+                        .param("cursor", cursor)
+                        .param("size", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(ultima.getId()))
+                .andExpect(MockMvcResultMatchers.header().string(CabecerasPaginacion.SIGUIENTE_CURSOR, siguienteCursor))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(CabecerasPaginacion.TOTAL_ELEMENTOS));
+
+        //Verificaciones:
+        verify(servicio, times(1)).leerCitasDesdeCursor(fechaCursor, 4L, 1);
+        verify(servicio, times(0)).leerPaginaCitas(any(Pageable.class));
+        log.debug("<--- listarCitasPorCursorTestOK");
+    }
+
+    @Test
+    public void listarCitasCursorInvalidoKO() throws Exception
+    {
+        log.debug("---> listarCitasCursorInvalidoKO");
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas")
+                        .param("cursor", "cursor-corrupto"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Verificaciones:
+        verify(servicio, times(0)).leerCitasDesdeCursor(any(), any(), anyInt());
+        verify(servicio, times(0)).leerPaginaCitas(any(Pageable.class));
+        log.debug("<--- listarCitasCursorInvalidoKO");
+    }
+
+    @Test
+    public void exportarCitasTestOK() throws Exception
+    {
+        log.debug("---> exportarCitasTestOK");
+        List<Cita> lote = List.of(this.getDummyEntidad());
+        CitaResponseDTO esperado = this.getDummyResponseDTO();
+
+        //Definición del comportamiento:
+        when(servicio.existenCitas()).thenReturn(true);
+        when(servicio.procesarCitasPorLotes(anyInt(), any())).thenAnswer(invocacion -> {
+            Consumer<List<Cita>> consumidor = invocacion.getArgument(1);
+            consumidor.accept(lote);
+            return (long) lote.size();
+        });
+        when(mapeador.convertirEntidadAResponseDto(any(Cita.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock, cuyo body se escribe de forma asíncrona:
+        MvcResult resultado = mockMvc.perform(MockMvcRequestBuilders
+                        .get("http://localhost:8080/hospital/api/citas/exportacion"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", "text/csv"))
+                .andExpect(MockMvcResultMatchers.content().string(
+                        "id,paciente,gravedad,medico,especialidad,numSala,fechaCita,horaEntrada,horaSalida\r\n" +
+                        "11,NombrePaciente Apellidos Paciente,LEVE,NombreMedico Apellidos Medico,TRAUMATOLOGIA," +
+                        "0,Fecha dummy,Hora dummy,Hora dummy\r\n"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).procesarCitasPorLotes(anyInt(), any());
+        verify(servicio, times(0)).leerListaCitas();
+        verify(mapeador, times(lote.size())).convertirEntidadAResponseDto(any(Cita.class));
+        log.debug("<--- exportarCitasTestOK");
+    }
+
+    @Test
+    public void exportarCitasNotFoundKO() throws Exception
+    {
+        log.debug("---> exportarCitasNotFoundKO");
+
+        //Definición de comportamiento:
+        when(servicio.existenCitas()).thenReturn(false);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/citas/exportacion"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        //Verificaciones:
+        verify(servicio, times(1)).existenCitas();
+        verify(servicio, times(0)).procesarCitasPorLotes(anyInt(), any());
+        log.debug("<--- exportarCitasNotFoundKO");
+    }
+
     @Test
     public void guardarCitaTestOK() throws Exception
     {
@@ -246,6 +488,28 @@ class CitaControladorTest
         log.debug("<--- guardarCitaTestOK");
     }
 
+    @Test
+    public void guardarCitaSalaOcupadaKO() throws Exception
+    {
+        log.debug("---> guardarCitaSalaOcupadaKO");
+
+        //Definición de comportamiento:
+        when(mapeador.convertirPostResquestDtoAEntidad(any(CitaPostRequestDTO.class))).thenReturn(this.getDummyEntidad());
+        doThrow(new SalaOcupadaExcepcion("La sala ya está ocupada")).when(servicio).guardarCita(any(Cita.class));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.getDummyRequestJsonContent()))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.mensaje").value("La sala ya está ocupada"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).guardarCita(any(Cita.class));
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
+        log.debug("<--- guardarCitaSalaOcupadaKO");
+    }
+
     @Test
     public void guardarCitaBadRequestKO() throws Exception
     {
@@ -267,6 +531,106 @@ class CitaControladorTest
         log.debug("<--- guardarCitaBadRequestKO");
     }
 
+    @Test
+    public void guardarLoteCitasNdjsonTestOK() throws Exception
+    {
+        log.debug("---> guardarLoteCitasNdjsonTestOK");
+        String cita = this.getDummyRequestJsonContent().replace("\n", "");
+        String citaSinSala = cita.replace("\"salaId\": 1,", "");
+
+        //Definición de comportamiento: la segunda cita válida del tramo choca con la primera:
+        when(mapeador.convertirPostRequestDtoAEntidadDeLote(any(CitaPostRequestDTO.class)))
+                .thenAnswer(invocacion -> new Cita());
+        when(servicio.guardarCitasEnLote(anyList())).thenAnswer(invocacion -> {
+            List<Cita> citas = invocacion.getArgument(0);
+            citas.get(0).setId(20L);
+            return Map.of(1, "La sala ya está ocupada");
+        });
+
+        //Llamada al controlador mock, con una cita por línea:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content(cita + "\n" + citaSinSala + "\n" + cita + "\n"))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.recibidos").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.guardados").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rechazados").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[0].id").value(20L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[1].errores[0]")
+                        .value("salaId: Toda cita debe tener asignada una sala mediante su número identificador."))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[2].indice").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[2].errores[0]").value("La sala ya está ocupada"));
+
+        //Verificaciones: la cita inválida no llega a convertirse y las válidas se guardan en un único tramo:
+        verify(mapeador, times(2)).convertirPostRequestDtoAEntidadDeLote(any(CitaPostRequestDTO.class));
+        verify(mapeador, times(0)).convertirPostResquestDtoAEntidad(any(CitaPostRequestDTO.class));
+        verify(servicio, times(1)).guardarCitasEnLote(anyList());
+        log.debug("<--- guardarLoteCitasNdjsonTestOK");
+    }
+
+    @Test
+    public void guardarLoteCitasVacioKO() throws Exception
+    {
+        log.debug("---> guardarLoteCitasVacioKO");
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas/lote")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("[]"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Verificaciones:
+        verify(servicio, times(0)).guardarCitasEnLote(anyList());
+        log.debug("<--- guardarLoteCitasVacioKO");
+    }
+
+    @Test
+    public void planificarCitasTestOK() throws Exception
+    {
+        log.debug("---> planificarCitasTestOK");
+        CitaResponseDTO asignada = this.getDummyResponseDTO();
+        SolicitudCitaRequestDTO sinHueco = SolicitudCitaRequestDTO.builder()
+                .pacienteId(2L).fechaDesde("11/03/2025").fechaHasta("11/03/2025").duracion(60).build();
+
+        //Definición de comportamiento:
+        when(planificacionServicio.planificarCitas(anyList()))
+                .thenReturn(new ResultadoPlanificacion(List.of(this.getDummyEntidad()), List.of(1)));
+        when(mapeador.convertirResultadoPlanificacionAResponseDto(any(ResultadoPlanificacion.class), anyList()))
+                .thenReturn(new PlanificacionResponseDTO(List.of(asignada), List.of(sinHueco)));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas/planificacion")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"solicitudes\": [" +
+                                "{\"pacienteId\": 1, \"fechaDesde\": \"10/03/2025\", \"fechaHasta\": \"14/03/2025\", \"duracion\": 30}," +
+                                "{\"pacienteId\": 2, \"fechaDesde\": \"11/03/2025\", \"fechaHasta\": \"11/03/2025\", \"duracion\": 60}]}"))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.asignadas[0].id").value(asignada.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.sinAsignar[0].pacienteId").value(2));
+
+        //Verificaciones:
+        verify(mapeador, times(2)).convertirSolicitudRequestDto(any(SolicitudCitaRequestDTO.class));
+        verify(planificacionServicio, times(1)).planificarCitas(anyList());
+        log.debug("<--- planificarCitasTestOK");
+    }
+
+    @Test
+    public void planificarCitasBadRequestKO() throws Exception
+    {
+        log.debug("---> planificarCitasBadRequestKO");
+
+        //Llamada al controlador mock con una solicitud sin duración y con la fecha mal formada:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas/planificacion")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"solicitudes\": [{\"pacienteId\": 1, \"fechaDesde\": \"2025-03-10\", \"fechaHasta\": \"14/03/2025\"}]}"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Verificaciones:
+        verify(planificacionServicio, times(0)).planificarCitas(anyList());
+        log.debug("<--- planificarCitasBadRequestKO");
+    }
+
     @Test
     public void actualizarCitaTestOK() throws Exception
     {
@@ -277,10 +641,14 @@ class CitaControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarCita(citaId)).thenReturn(Optional.of(this.getDummyEntidad()));
+        when(servicio.actualizarCita(eq(citaId), any())).thenAnswer(invocacion -> {
+            Cita leida = this.getDummyEntidad();
+            Consumer<Cita> cambios = invocacion.getArgument(1);
+            cambios.accept(leida);
+            return Optional.of(leida);
+        });
         when(mapeador.convertirPutRequestDtoAEntidad(any(Cita.class), any(CitaPutRequestDTO.class)))
                 .thenReturn(this.getDummyEntidad());
-        doNothing().when(servicio).guardarCita(any(Cita.class));
         when(mapeador.convertirEntidadAResponseDto(any(Cita.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
@@ -300,9 +668,8 @@ class CitaControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$.horaSalida").value(esperado.getHoraSalida()));
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarCita(citaId);
+        verify(servicio, times(1)).actualizarCita(eq(citaId), any());
         verify(mapeador, times(1)).convertirPutRequestDtoAEntidad(any(Cita.class), any(CitaPutRequestDTO.class));
-        verify(servicio, times(1)).guardarCita(any(Cita.class));
         verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Cita.class));
         log.debug("<--- actualizarCitaTestOK");
     }
@@ -316,7 +683,7 @@ class CitaControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarCita(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.actualizarCita(eq(idInexistente), any())).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.put("http://localhost:8080/hospital/api/citas/{id}", idInexistente)
@@ -325,7 +692,7 @@ class CitaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarCita(idInexistente);
+        verify(servicio, times(1)).actualizarCita(eq(idInexistente), any());
         verify(mapeador, times(0)).convertirPutRequestDtoAEntidad(any(Cita.class), any(CitaPutRequestDTO.class));
         verify(servicio, times(0)).guardarCita(any(Cita.class));
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
@@ -348,7 +715,7 @@ class CitaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
         //Verificaciones:
-        verify(servicio, times(0)).buscarCita(idInencontrable);
+        verify(servicio, times(0)).actualizarCita(any(), any());
         verify(mapeador, times(0)).convertirPutRequestDtoAEntidad(any(Cita.class), any(CitaPutRequestDTO.class));
         verify(servicio, times(0)).guardarCita(any(Cita.class));
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
@@ -402,7 +769,7 @@ class CitaControladorTest
         log.debug("---> eliminarListaCitasTestOK");
 
         //Definiciones de comportamiento:
-        when(servicio.leerListaCitas()).thenReturn(List.of(this.getDummyEntidad()));
+        when(servicio.existenCitas()).thenReturn(true);
         doNothing().when(servicio).eliminarTodasCitas();
 
         //Llamada al controlador mock:
@@ -410,7 +777,7 @@ class CitaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isOk());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaCitas();
+        verify(servicio, times(1)).existenCitas();
         verify(servicio, times(1)).eliminarTodasCitas();
         log.debug("<--- eliminarListaCitasTestOK");
     }
@@ -421,15 +788,84 @@ class CitaControladorTest
         log.debug("---> eliminarListaCitasNoContentKO");
 
         //Definición de comportamiento:
-        when(servicio.leerListaCitas()).thenReturn(Collections.emptyList());
+        when(servicio.existenCitas()).thenReturn(false);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.delete("http://localhost:8080/hospital/api/citas"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaCitas();
+        verify(servicio, times(1)).existenCitas();
         verify(servicio, times(0)).eliminarTodasCitas();
         log.debug("<--- eliminarListaCitasNoContentKO");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void guardarSerieTestOK() throws Exception
+    {
+        log.debug("---> guardarSerieTestOK");
+        SerieCitasResponseDTO esperado = SerieCitasResponseDTO.builder()
+                .id(4L)
+                .intervaloDias(7)
+                .excepciones(Collections.emptyList())
+                .build();
+
+        //Definición de comportamiento:
+        when(mapeador.convertirSerieRequestDtoAEntidad(any(SerieCitasRequestDTO.class))).thenReturn(this.getDummySerie());
+        doNothing().when(serieServicio).guardarSerie(any(SerieCitas.class));
+        when(mapeador.convertirSerieAResponseDto(any(SerieCitas.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas/series")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.getDummySerieJsonContent()))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.intervaloDias").value(7));
+
+        //Verificaciones:
+        verify(serieServicio, times(1)).guardarSerie(any(SerieCitas.class));
+        verify(mapeador, times(1)).convertirSerieAResponseDto(any(SerieCitas.class));
+        log.debug("<--- guardarSerieTestOK");
+    }
+
+    @Test
+    public void guardarSerieSalaOcupadaKO() throws Exception
+    {
+        log.debug("---> guardarSerieSalaOcupadaKO");
+
+        //Definición de comportamiento:
+        when(mapeador.convertirSerieRequestDtoAEntidad(any(SerieCitasRequestDTO.class))).thenReturn(this.getDummySerie());
+        doThrow(new SalaOcupadaExcepcion("La sala ya está ocupada")).when(serieServicio).guardarSerie(any(SerieCitas.class));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/citas/series")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.getDummySerieJsonContent()))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.mensaje").value("La sala ya está ocupada"));
+
+        //Verificaciones:
+        verify(mapeador, times(0)).convertirSerieAResponseDto(any(SerieCitas.class));
+        log.debug("<--- guardarSerieSalaOcupadaKO");
+    }
+
+    @Test
+    public void cancelarOcurrenciaNotFoundKO() throws Exception
+    {
+        log.debug("---> cancelarOcurrenciaNotFoundKO");
+        Long idInexistente = 999L;
+
+        //Definición de comportamiento:
+        when(serieServicio.buscarSerie(idInexistente)).thenReturn(Optional.empty());
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.delete("http://localhost:8080/hospital/api/citas/series/{id}/ocurrencias", idInexistente)
+                        .param("fecha", "17/03/2025"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        //Verificaciones:
+        verify(serieServicio, times(0)).cancelarOcurrencia(any(SerieCitas.class), any(LocalDate.class));
+        log.debug("<--- cancelarOcurrenciaNotFoundKO");
+    }
+}
@@ -1,30 +1,55 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
+import dev.acobano.springrestful.hospital.dto.entrada.MedicoPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.MedicoPutRequestDTO;
+import dev.acobano.springrestful.hospital.dto.salida.HuecoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.MedicoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteMedicoDTO;
+import dev.acobano.springrestful.hospital.lotes.ProcesadorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IMedicoMapeador;
+import dev.acobano.springrestful.hospital.mapeadores.interfaces.ISalaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IMedicoServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.validation.BindingResult;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Clase de testing para los métodos de la capa de controlador relacionados con la
@@ -33,6 +58,7 @@ import java.util.Optional;
  * @author Álvaro Cobano
  */
 @WebMvcTest(MedicoControlador.class)
+@Import({ProcesadorLotes.class, SeleccionPorIds.class})
 @Slf4j
 public class MedicoControladorTest
 {
@@ -42,6 +68,9 @@ public class MedicoControladorTest
 
     @Autowired
     private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
     
     @MockBean
     private IMedicoServicio servicio;
@@ -49,12 +78,30 @@ public class MedicoControladorTest
     @MockBean
     private IMedicoMapeador mapeador;
 
+    @MockBean
+    private IPacienteServicio pacienteServicio;
+
+    @MockBean
+    private IPlanificacionServicio planificacionServicio;
+
+    @MockBean
+    private ISalaMapeador salaMapeador;
+
 
 
                                         // ***********************
                                         // ***  OBJETOS DUMMY  ***
                                         // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private <T> List<T> proyectar(Class<T> tipo, List<?> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(tipo, e))
+                .toList();
+    }
+
     private String getDummyPostRequestJsonContent()
     {
         return "{\n" +
@@ -68,6 +115,14 @@ public class MedicoControladorTest
             "}";
     }
 
+    //Médico en una sola línea, para los lotes NDJSON:
+    private String getDummyLoteJsonContent(String dni)
+    {
+        return "{\"nombre\": \"MedicoDummy\", \"apellidos\": \"Lote DTO\", \"dni\": \"" + dni + "\", " +
+                "\"email\": \"medicoprueba@test.com\", \"especialidad\": \"CIRUGIA\", " +
+                "\"fechaGraduacion\": \"01/10/1983\", \"fechaIncorporacion\": \"05/09/1992\"}";
+    }
+
     private String getDummyPutRequestJsonContent()
     {
         return "{\n" +
@@ -115,20 +170,23 @@ public class MedicoControladorTest
         Long medicoId = 3L;
 
         //Definición de comportamiento:
+        when(servicio.buscarVersionMedico(medicoId)).thenReturn(Optional.of("2.1"));
         when(servicio.buscarMedico(medicoId)).thenReturn(Optional.of(this.getDummyEntidad()));
-        when(this.mapeador.convertirEntidadAResponseDto(any(Medico.class))).thenReturn(this.getDummyResponseDTO());
+        when(this.mapeador.convertirEntidadAResponseDto(any(Medico.class), any(CamposSolicitados.class))).thenReturn(this.getDummyResponseDTO());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos/{id}", medicoId)
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"2.1\""))
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(3L))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.apellidos").value("ResponseDTO"));
 
         //Verificaciones:
+        verify(servicio, times(1)).buscarVersionMedico(medicoId);
         verify(servicio, times(1)).buscarMedico(medicoId);
-        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Medico.class));
+        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Medico.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerMedicoOK");
     }
 
@@ -139,7 +197,7 @@ public class MedicoControladorTest
         Long idInexistente = 999L;
 
         //Definición de comportamiento:
-        when(servicio.buscarMedico(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.buscarVersionMedico(idInexistente)).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos/{id}", idInexistente)
@@ -147,11 +205,35 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarMedico(idInexistente);
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Medico.class));
+        verify(servicio, times(1)).buscarVersionMedico(idInexistente);
+        verify(servicio, times(0)).buscarMedico(idInexistente);
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Medico.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerMedicoNoContentKO");
     }
 
+    @Test
+    public void obtenerMedicoNotModifiedTestOK() throws Exception
+    {
+        log.debug("---> obtenerMedicoNotModifiedTestOK");
+        Long medicoId = 3L;
+
+        //Definición de comportamiento: el cliente ya tiene la versión vigente del médico:
+        when(servicio.buscarVersionMedico(medicoId)).thenReturn(Optional.of("2.1"));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos/{id}", medicoId)
+                        .header("If-None-Match", "\"2.1\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"2.1\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        //Verificaciones: ni se carga el médico ni se mapea su DTO de salida:
+        verify(servicio, times(1)).buscarVersionMedico(medicoId);
+        verify(servicio, times(0)).buscarMedico(medicoId);
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Medico.class), any(CamposSolicitados.class));
+        log.debug("<--- obtenerMedicoNotModifiedTestOK");
+    }
+
     @Test
     public void listarMedicosOK() throws Exception
     {
@@ -161,8 +243,8 @@ public class MedicoControladorTest
         List<Medico> listaEntidades = List.of(this.getDummyEntidad());
 
         //Definición de comportamiento:
-        when(servicio.leerListaMedicos()).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Medico.class))).thenReturn(esperado);
+        when(servicio.leerPaginaMedicos(any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(MedicoResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos"))
@@ -174,11 +256,11 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].apellidos").value(esperado.getApellidos()));
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaMedicos();
-        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString());
-        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString());
-        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString());
-        verify(mapeador, times(listaEntidades.size())).convertirEntidadAResponseDto(any(Medico.class));
+        verify(servicio, times(1)).leerPaginaMedicos(any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString(), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString(), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString(), any(Pageable.class));
+        verify(mapeador, times(1)).convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarMedicosOK");
     }
 
@@ -187,21 +269,58 @@ public class MedicoControladorTest
     {
         log.debug("---> listarMedicosNoContentKO");
         //Definición de comportamiento:
-        when(servicio.leerListaMedicos()).thenReturn(Collections.emptyList());
+        when(servicio.leerPaginaMedicos(any(Pageable.class))).thenReturn(Page.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaMedicos();
-        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString());
-        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString());
-        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString());
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Medico.class));
+        verify(servicio, times(1)).leerPaginaMedicos(any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString(), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString(), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString(), any(Pageable.class));
+        verify(mapeador, times(0)).convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarMedicosNoContentKO");
     }
 
+    @Test
+    public void listarMedicosNdjsonOK() throws Exception
+    {
+        log.debug("---> listarMedicosNdjsonOK");
+        List<MedicoResumen> lote = this.proyectar(MedicoResumen.class, List.of(this.getDummyEntidad(), this.getDummyEntidad()));
+        MedicoResponseDTO esperado = this.getDummyResponseDTO();
+        String linea = this.objectMapper.writeValueAsString(esperado);
+
+        //Definición de comportamiento:
+        when(servicio.existenMedicos()).thenReturn(true);
+        when(servicio.procesarResumenesMedicosPorLotes(anyInt(), any())).thenAnswer(invocacion -> {
+            Consumer<List<MedicoResumen>> consumidor = invocacion.getArgument(1);
+            consumidor.accept(lote);
+            return (long) lote.size();
+        });
+        when(mapeador.convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock, cuyo body se escribe de forma asíncrona:
+        MvcResult resultado = mockMvc.perform(MockMvcRequestBuilders
+                        .get("http://localhost:8080/hospital/api/medicos")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //Aseveraciones: un objeto JSON por línea, sin corchetes ni comas entre elementos:
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string(linea + "\n" + linea + "\n"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).procesarResumenesMedicosPorLotes(anyInt(), any());
+        verify(servicio, times(0)).leerPaginaMedicos(any(Pageable.class));
+        verify(mapeador, times(2)).convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class));
+        log.debug("<--- listarMedicosNdjsonOK");
+    }
+
     @Test
     public void listarMedicosPorNombreOK() throws Exception
     {
@@ -213,8 +332,8 @@ public class MedicoControladorTest
         List<Medico> listaEntidades = List.of(this.getDummyEntidad());
 
         //Definición de comportamiento:
-        when(servicio.filtrarMedicosPorNombre(nombre)).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Medico.class))).thenReturn(respuesta);
+        when(servicio.filtrarMedicosPorNombre(eq(nombre), any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(MedicoResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class))).thenReturn(respuesta);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos")
@@ -228,11 +347,11 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].apellidos").value(respuesta.getApellidos()));
 
         //Verificaciones:
-        verify(servicio, times(0)).leerListaMedicos();
-        verify(servicio, times(1)).filtrarMedicosPorNombre(nombre);
-        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString());
-        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString());
-        verify(mapeador, times(listaEntidades.size())).convertirEntidadAResponseDto(any(Medico.class));
+        verify(servicio, times(0)).leerPaginaMedicos(any(Pageable.class));
+        verify(servicio, times(1)).filtrarMedicosPorNombre(eq(nombre), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString(), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString(), any(Pageable.class));
+        verify(mapeador, times(1)).convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarMedicosPorNombreOK");
     }
 
@@ -247,8 +366,8 @@ public class MedicoControladorTest
         List<Medico> listaEntidades = List.of(this.getDummyEntidad());
 
         //Definición de comportamiento:
-        when(servicio.filtrarMedicosPorEspecialidad(especialidad)).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Medico.class))).thenReturn(respuesta);
+        when(servicio.filtrarMedicosPorEspecialidad(eq(especialidad), any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(MedicoResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class))).thenReturn(respuesta);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos")
@@ -263,11 +382,11 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].especialidad").value(respuesta.getEspecialidad()));
 
         //Verificaciones:
-        verify(servicio, times(0)).leerListaMedicos();
-        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString());
-        verify(servicio, times(1)).filtrarMedicosPorEspecialidad(especialidad);
-        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString());
-        verify(mapeador, times(listaEntidades.size())).convertirEntidadAResponseDto(any(Medico.class));
+        verify(servicio, times(0)).leerPaginaMedicos(any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString(), any(Pageable.class));
+        verify(servicio, times(1)).filtrarMedicosPorEspecialidad(eq(especialidad), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombreYEspecialidad(anyString(), anyString(), any(Pageable.class));
+        verify(mapeador, times(1)).convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarMedicosPorEspecialidadOK");
     }
 
@@ -284,8 +403,8 @@ public class MedicoControladorTest
         List<Medico> listaEntidades = List.of(this.getDummyEntidad());
 
         //Definición de comportamiento:
-        when(servicio.filtrarMedicosPorNombreYEspecialidad(nombre, especialidad)).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Medico.class))).thenReturn(respuesta);
+        when(servicio.filtrarMedicosPorNombreYEspecialidad(eq(nombre), eq(especialidad), any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(MedicoResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class))).thenReturn(respuesta);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos")
@@ -301,11 +420,11 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].especialidad").value(respuesta.getEspecialidad()));
 
         //Verificaciones:
-        verify(servicio, times(0)).leerListaMedicos();
-        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString());
-        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString());
-        verify(servicio, times(1)).filtrarMedicosPorNombreYEspecialidad(nombre, especialidad);
-        verify(mapeador, times(listaEntidades.size())).convertirEntidadAResponseDto(any(Medico.class));
+        verify(servicio, times(0)).leerPaginaMedicos(any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorNombre(anyString(), any(Pageable.class));
+        verify(servicio, times(0)).filtrarMedicosPorEspecialidad(anyString(), any(Pageable.class));
+        verify(servicio, times(1)).filtrarMedicosPorNombreYEspecialidad(eq(nombre), eq(especialidad), any(Pageable.class));
+        verify(mapeador, times(1)).convertirResumenAResponseDto(any(MedicoResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarMedicosPorNombreYEspecialidadOK");
     }
 
@@ -320,7 +439,9 @@ public class MedicoControladorTest
 
         //Definición de comportamiento:
         when(servicio.buscarMedico(medicoId)).thenReturn(Optional.of(dummy));
-        when(mapeador.convertirPacientesAsignadosADto(any(Medico.class))).thenReturn(respuesta);
+        when(pacienteServicio.leerPacientesPorMedico(eq(medicoId), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(Paciente.builder().id(8L).build())));
+        when(mapeador.convertirListaPacientesADto(anyList())).thenReturn(respuesta);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos/{id}/pacientes", medicoId)
@@ -333,7 +454,8 @@ public class MedicoControladorTest
 
         //Verificaciones:
         verify(servicio, times(1)).buscarMedico(medicoId);
-        verify(mapeador, times(1)).convertirPacientesAsignadosADto(any(Medico.class));
+        verify(pacienteServicio, times(1)).leerPacientesPorMedico(eq(medicoId), any(Pageable.class));
+        verify(mapeador, times(1)).convertirListaPacientesADto(anyList());
         log.debug("<--- obtenerPacientesPorMedicoOK");
     }
 
@@ -353,10 +475,59 @@ public class MedicoControladorTest
 
         //Verificaciones:
         verify(servicio, times(1)).buscarMedico(idInexistente);
-        verify(mapeador, times(0)).convertirPacientesAsignadosADto(any(Medico.class));
+        verify(pacienteServicio, times(0)).leerPacientesPorMedico(anyLong(), any(Pageable.class));
+        verify(mapeador, times(0)).convertirListaPacientesADto(anyList());
         log.debug("<--- obtenerPacientesPorMedicoNoContentKO");
     }
 
+    @Test
+    public void buscarHuecosMedicoOK() throws Exception
+    {
+        log.debug("---> buscarHuecosMedicoOK");
+        Long medicoId = 1L;
+        LocalDate fecha = LocalDate.of(2025, 3, 10);
+        Hueco hueco = new Hueco(3L, 103, fecha, LocalTime.of(10, 30), LocalTime.of(11, 0));
+        HuecoResponseDTO esperado = new HuecoResponseDTO(3L, 103, "10/03/2025", "10:30:00", "11:00:00");
+
+        //Definición de comportamiento:
+        when(servicio.buscarMedico(medicoId)).thenReturn(Optional.of(this.getDummyEntidad()));
+        when(planificacionServicio.buscarHuecosMedico(medicoId, fecha, 1, 30, 5)).thenReturn(List.of(hueco));
+        when(salaMapeador.convertirHuecoAResponseDto(hueco)).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos/1/huecos")
+                        .param("fecha", "10/03/2025")
+                        .param("duracion", "30")
+                        .param("limite", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].salaId").value(esperado.getSalaId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].horaInicio").value(esperado.getHoraInicio()));
+
+        //Verificaciones:
+        verify(planificacionServicio, times(1)).buscarHuecosMedico(medicoId, fecha, 1, 30, 5);
+        log.debug("<--- buscarHuecosMedicoOK");
+    }
+
+    @Test
+    public void buscarHuecosMedicoNotFoundKO() throws Exception
+    {
+        log.debug("---> buscarHuecosMedicoNotFoundKO");
+
+        //Definición de comportamiento:
+        when(servicio.buscarMedico(anyLong())).thenReturn(Optional.empty());
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/medicos/99/huecos")
+                        .param("fecha", "10/03/2025")
+                        .param("duracion", "30"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        //Verificaciones:
+        verify(planificacionServicio, times(0))
+                .buscarHuecosMedico(anyLong(), any(LocalDate.class), anyInt(), anyInt(), anyInt());
+        log.debug("<--- buscarHuecosMedicoNotFoundKO");
+    }
+
     @Test
     public void guardarMedicoTestOK() throws Exception
     {
@@ -409,6 +580,65 @@ public class MedicoControladorTest
         log.debug("<--- guardarMedicoTestBadRequestKO");
     }
 
+    @Test
+    public void guardarLoteMedicosOK() throws Exception
+    {
+        log.debug("---> guardarLoteMedicosOK");
+
+        //Definición de comportamiento: el segundo médico tiene el DNI de uno ya registrado:
+        when(mapeador.convertirPostRequestDtoAEntidad(any(MedicoPostRequestDTO.class)))
+                .thenAnswer(invocacion -> new Medico());
+        when(servicio.guardarMedicosEnLote(anyList())).thenAnswer(invocacion -> {
+            List<Medico> medicos = invocacion.getArgument(0);
+            medicos.get(0).setId(7L);
+            return Map.of(1, "Ya existe un médico registrado en el sistema con el DNI 12345678L");
+        });
+
+        //Llamada al controlador mock, con un médico por línea:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/medicos/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content(this.getDummyLoteJsonContent("23456789T") + "\n" + this.getDummyLoteJsonContent("12345678L")))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.recibidos").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.guardados").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[0].id").value(7L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[1].errores[0]")
+                        .value("Ya existe un médico registrado en el sistema con el DNI 12345678L"));
+
+        //Verificaciones:
+        verify(mapeador, times(2)).convertirPostRequestDtoAEntidad(any(MedicoPostRequestDTO.class));
+        verify(servicio, times(1)).guardarMedicosEnLote(anyList());
+        verify(servicio, times(0)).guardarMedico(any(Medico.class));
+        log.debug("<--- guardarLoteMedicosOK");
+    }
+
+    @Test
+    public void guardarLoteMedicosTramoDeshechoKO() throws Exception
+    {
+        log.debug("---> guardarLoteMedicosTramoDeshechoKO");
+
+        //Definición de comportamiento: el tramo choca al confirmarse con un DNI registrado a la vez por otra petición:
+        when(mapeador.convertirPostRequestDtoAEntidad(any(MedicoPostRequestDTO.class)))
+                .thenAnswer(invocacion -> new Medico());
+        when(servicio.guardarMedicosEnLote(anyList())).thenThrow(new DataIntegrityViolationException("uk_medicos_dni"));
+
+        //Llamada al controlador mock, como array JSON:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/medicos/lote")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("[" + this.getDummyLoteJsonContent("23456789T") + ", " + this.getDummyLoteJsonContent("12345678L") + "]"))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.guardados").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rechazados").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[0].id").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[1].errores[0]").value(
+                        "No se ha guardado ningún elemento de su tramo: Los datos enviados violan una " +
+                        "restricción de la base de datos (p. ej. un DNI duplicado)"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).guardarMedicosEnLote(anyList());
+        log.debug("<--- guardarLoteMedicosTramoDeshechoKO");
+    }
+
     @Test
     public void actualizarMedicoOK() throws Exception
     {
@@ -420,7 +650,12 @@ public class MedicoControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarMedico(medicoId)).thenReturn(Optional.of(this.getDummyEntidad()));
+        when(servicio.actualizarMedico(eq(medicoId), any())).thenAnswer(invocacion -> {
+            Medico leido = this.getDummyEntidad();
+            Consumer<Medico> cambios = invocacion.getArgument(1);
+            cambios.accept(leido);
+            return Optional.of(leido);
+        });
         when(mapeador.convertirPutRequestDtoAEntidad(any(Medico.class), any(MedicoPutRequestDTO.class)))
                 .thenReturn(this.getDummyEntidad());
         when(mapeador.convertirEntidadAResponseDto(any(Medico.class))).thenReturn(esperado);
@@ -436,7 +671,7 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$.apellidos").value(esperado.getApellidos()));
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarMedico(medicoId);
+        verify(servicio, times(1)).actualizarMedico(eq(medicoId), any());
         verify(mapeador, times(1)).convertirPutRequestDtoAEntidad(any(Medico.class), any(MedicoPutRequestDTO.class));
         verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Medico.class));
         log.debug("<--- actualizarMedicoOK");
@@ -459,7 +694,7 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
         //Verificaciones:
-        verify(servicio, times(0)).buscarMedico(any());
+        verify(servicio, times(0)).actualizarMedico(any(), any());
         verify(mapeador, times(0)).convertirPutRequestDtoAEntidad(any(Medico.class), any(MedicoPutRequestDTO.class));
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Medico.class));
         log.debug("<--- actualizarMedicoBadRequestKO");
@@ -475,7 +710,7 @@ public class MedicoControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarMedico(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.actualizarMedico(eq(idInexistente), any())).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.put("http://localhost:8080/hospital/api/medicos/{id}", idInexistente)
@@ -484,7 +719,7 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarMedico(idInexistente);
+        verify(servicio, times(1)).actualizarMedico(eq(idInexistente), any());
         verify(mapeador, times(0)).convertirPutRequestDtoAEntidad(any(Medico.class), any(MedicoPutRequestDTO.class));
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Medico.class));
         log.debug("<--- actualizarMedicoNoContentKO");
@@ -536,7 +771,7 @@ public class MedicoControladorTest
     {
         log.debug("---> eliminarListaMedicosOK");
         //Definición de comportamiento:
-        when(servicio.leerListaMedicos()).thenReturn(List.of(this.getDummyEntidad()));
+        when(servicio.existenMedicos()).thenReturn(true);
         doNothing().when(servicio).eliminarTodosMedicos();
 
         //Llamada al controlador mock:
@@ -544,7 +779,7 @@ public class MedicoControladorTest
                 .andExpect(MockMvcResultMatchers.status().isOk());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaMedicos();
+        verify(servicio, times(1)).existenMedicos();
         verify(servicio, times(1)).eliminarTodosMedicos();
         log.debug("<--- eliminarListaMedicosOK");
     }
@@ -554,14 +789,14 @@ public class MedicoControladorTest
     {
         log.debug("---> eliminarListaMedicosNoContentKO");
         //Definición de comportamiento:
-        when(servicio.leerListaMedicos()).thenReturn(Collections.emptyList());
+        when(servicio.existenMedicos()).thenReturn(false);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.delete("http://localhost:8080/hospital/api/medicos"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaMedicos();
+        verify(servicio, times(1)).existenMedicos();
         verify(servicio, times(0)).eliminarTodosMedicos();
         log.debug("<--- eliminarListaMedicosNoContentKO");
     }
@@ -1,34 +1,60 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.TriajeResponseDTO;
+import dev.acobano.springrestful.hospital.excepciones.MedicoNoEncontradoExcepcion;
+import dev.acobano.springrestful.hospital.lotes.ProcesadorLotes;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IPacienteMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
+import dev.acobano.springrestful.hospital.triaje.EntradaTriaje;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.validation.BindingResult;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,6 +64,7 @@ import static org.mockito.Mockito.*;
  * @author Álvaro Cobano
  */
 @WebMvcTest(PacienteControlador.class)
+@Import({ProcesadorLotes.class, SeleccionPorIds.class})
 @Slf4j
 class PacienteControladorTest
 {
@@ -47,6 +74,9 @@ class PacienteControladorTest
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private IPacienteServicio servicio;
 
@@ -56,12 +86,24 @@ class PacienteControladorTest
     @MockBean
     private ICitaMapeador citaMapeador;
 
+    @MockBean
+    private ICitaServicio citaServicio;
+
 
 
                                             // ***********************
                                             // ***  OBJETOS DUMMY  ***
                                             // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private <T> List<T> proyectar(Class<T> tipo, List<?> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(tipo, e))
+                .toList();
+    }
+
     private Paciente getDummyEntidad()
     {
         return Paciente.builder()
@@ -127,6 +169,41 @@ class PacienteControladorTest
                 "}";
     }
 
+    private String getDummyPostRequestSinMedicoJsonContent(String especialidad)
+    {
+        return "{\n" +
+                "    \"nombre\": \"NombrePaciente\",\n" +
+                "    \"apellidos\": \"Apellidos paciente\",\n" +
+                "    \"dni\": \"98765432K\",\n" +
+                "    \"email\": \"emailpaciente@test.com\",\n" +
+                "    \"telefono\": \"654777404\",\n" +
+                "    \"genero\": \"MASCULINO\",\n" +
+                "    \"direccion\": \"Avda de la direccion de prueba, 133\",\n" +
+                "    \"gravedad\": \"MODERADA\",\n" +
+                "    \"fechaNacimiento\": \"22/07/1973 13:35:00\",\n" +
+                "    \"fechaIngreso\": \"06/10/2012 20:45:30\",\n" +
+                "    \"especialidad\": \"" + especialidad + "\"\n" +
+                "}";
+    }
+
+    //Paciente con fechas válidas, ya que en los lotes cada elemento se valida antes de llegar al mapeador:
+    private String getDummyLoteJsonContent(String dni, String asignacion)
+    {
+        return "{\n" +
+                "    \"nombre\": \"NombrePaciente\",\n" +
+                "    \"apellidos\": \"Apellidos paciente\",\n" +
+                "    \"dni\": \"" + dni + "\",\n" +
+                "    \"email\": \"emailpaciente@test.com\",\n" +
+                "    \"telefono\": \"654777404\",\n" +
+                "    \"genero\": \"FEMENINO\",\n" +
+                "    \"direccion\": \"Avda de la direccion de prueba, 133\",\n" +
+                "    \"gravedad\": \"MODERADA\",\n" +
+                "    \"fechaNacimiento\": \"05/11/1995 12:15:20\",\n" +
+                "    \"fechaIngreso\": \"01/02/2024 10:00:00\",\n" +
+                "    " + asignacion + "\n" +
+                "}";
+    }
+
     private String getDummyPutRequestJsonContent()
     {
         return "{\n" +
@@ -152,6 +229,24 @@ class PacienteControladorTest
                 .build();
     }
 
+    private PosicionTriaje getDummyPosicionTriaje(int posicion)
+    {
+        return new PosicionTriaje(new EntradaTriaje((long) posicion, "NombrePaciente", "Apellidos paciente",
+                Gravedad.GRAVE, LocalDateTime.of(2024, 2, 1, 10, 0)), posicion);
+    }
+
+    private TriajeResponseDTO getDummyTriajeResponseDTO(int posicion)
+    {
+        return TriajeResponseDTO.builder()
+                .posicion(posicion)
+                .pacienteId((long) posicion)
+                .nombre("NombrePaciente")
+                .apellidos("Apellidos paciente")
+                .gravedad("GRAVE")
+                .fechaIngreso("01/02/2024 10:00:00")
+                .build();
+    }
+
 
 
                                             // ***************************
@@ -166,13 +261,15 @@ class PacienteControladorTest
         PacienteResponseDTO esperado = this.getDummyResponseDTO();
 
         //Definición de comportamiento:
+        when(servicio.buscarVersionPaciente(pacienteId)).thenReturn(Optional.of("0.3.2"));
         when(servicio.buscarPaciente(pacienteId)).thenReturn(Optional.of(this.getDummyEntidad()));
-        when(mapeador.convertirEntidadAResponseDto(any(Paciente.class))).thenReturn(esperado);
+        when(mapeador.convertirEntidadAResponseDto(any(Paciente.class), any(CamposSolicitados.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}", pacienteId)
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"0.3.2\""))
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(esperado.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.nombre").value(esperado.getNombre()))
@@ -185,8 +282,9 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$.gravedad").value(esperado.getGravedad()));
 
         //Verificaciones:
+        verify(servicio, times(1)).buscarVersionPaciente(pacienteId);
         verify(servicio, times(1)).buscarPaciente(pacienteId);
-        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Paciente.class));
+        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Paciente.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerPacienteTestOK");
     }
 
@@ -198,7 +296,7 @@ class PacienteControladorTest
         Long idInexistente = 999L;
 
         //Definición de comportamiento:
-        when(servicio.buscarPaciente(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.buscarVersionPaciente(idInexistente)).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}", idInexistente)
@@ -206,11 +304,109 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarPaciente(idInexistente);
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class));
+        verify(servicio, times(1)).buscarVersionPaciente(idInexistente);
+        verify(servicio, times(0)).buscarPaciente(idInexistente);
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerPacienteNoContentKO");
     }
 
+    @Test
+    public void obtenerPacienteNotModifiedTestOK() throws Exception
+    {
+        log.debug("---> obtenerPacienteNotModifiedTestOK");
+        Long pacienteId = 5L;
+
+        //Definición de comportamiento: el cliente ya tiene la versión vigente del paciente:
+        when(servicio.buscarVersionPaciente(pacienteId)).thenReturn(Optional.of("0.3.2"));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}", pacienteId)
+                        .header("If-None-Match", "\"0.3.2\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"0.3.2\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        //Verificaciones: ni se carga el paciente ni se mapea su DTO de salida:
+        verify(servicio, times(1)).buscarVersionPaciente(pacienteId);
+        verify(servicio, times(0)).buscarPaciente(pacienteId);
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class), any(CamposSolicitados.class));
+        log.debug("<--- obtenerPacienteNotModifiedTestOK");
+    }
+
+    @Test
+    public void obtenerPacienteConCamposOtraETagTestOK() throws Exception
+    {
+        log.debug("---> obtenerPacienteConCamposOtraETagTestOK");
+        Long pacienteId = 5L;
+        PacienteResponseDTO esperado = this.getDummyResponseDTO();
+        String etiqueta = CamposSolicitados.de("gravedad,nombre", PacienteResponseDTO.class).etiqueta("0.3.2");
+
+        //Definición de comportamiento: el cliente tiene la versión vigente, pero completa:
+        when(servicio.buscarVersionPaciente(pacienteId)).thenReturn(Optional.of("0.3.2"));
+        when(servicio.buscarPaciente(pacienteId)).thenReturn(Optional.of(this.getDummyEntidad()));
+        when(mapeador.convertirEntidadAResponseDto(any(Paciente.class), any(CamposSolicitados.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}", pacienteId)
+                        .param("fields", "nombre,gravedad")
+                        .header("If-None-Match", "\"0.3.2\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"" + etiqueta + "\""));
+
+        //Aseveraciones: la etiqueta depende de los campos, no de su orden en 'fields':
+        assertNotEquals("0.3.2", etiqueta);
+        assertEquals(etiqueta, CamposSolicitados.de("nombre,gravedad", PacienteResponseDTO.class).etiqueta("0.3.2"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).buscarPaciente(pacienteId);
+        log.debug("<--- obtenerPacienteConCamposOtraETagTestOK");
+    }
+
+    @Test
+    public void obtenerPacienteConCamposTestOK() throws Exception
+    {
+        log.debug("---> obtenerPacienteConCamposTestOK");
+        Long pacienteId = 5L;
+        PacienteResponseDTO esperado = this.getDummyResponseDTO();
+
+        //Definición de comportamiento:
+        when(servicio.buscarVersionPaciente(pacienteId)).thenReturn(Optional.of("0.3.2"));
+        when(servicio.buscarPaciente(pacienteId)).thenReturn(Optional.of(this.getDummyEntidad()));
+        when(mapeador.convertirEntidadAResponseDto(any(Paciente.class), any(CamposSolicitados.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock: solo se envían el 'id' y los campos solicitados:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}", pacienteId)
+                        .param("fields", "nombre,gravedad"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(esperado.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nombre").value(esperado.getNombre()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.gravedad").value(esperado.getGravedad()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.apellidos").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.citasRegistradas").doesNotExist());
+
+        //Verificaciones: el mapeador recibe los campos solicitados para no rellenar el resto:
+        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Paciente.class),
+                argThat(campos -> campos.incluye("nombre") && !campos.incluye("citasRegistradas")));
+        log.debug("<--- obtenerPacienteConCamposTestOK");
+    }
+
+    @Test
+    public void obtenerPacienteCamposInvalidosKO() throws Exception
+    {
+        log.debug("---> obtenerPacienteCamposInvalidosKO");
+        Long pacienteId = 5L;
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}", pacienteId)
+                        .param("fields", "nombre,inexistente"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Verificaciones: el parámetro se valida antes de consultar la BBDD:
+        verify(servicio, times(0)).buscarVersionPaciente(pacienteId);
+        verify(servicio, times(0)).buscarPaciente(pacienteId);
+        log.debug("<--- obtenerPacienteCamposInvalidosKO");
+    }
+
     @Test
     public void listarPacientesTestOK() throws Exception
     {
@@ -220,8 +416,8 @@ class PacienteControladorTest
         PacienteResponseDTO esperado = this.getDummyResponseDTO();
 
         //Definición de comportamiento:
-        when(servicio.leerListaPacientes()).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Paciente.class))).thenReturn(esperado);
+        when(servicio.leerPaginaPacientes(any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(PacienteResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes"))
@@ -239,9 +435,9 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].gravedad").value(esperado.getGravedad()));
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaPacientes();
-        verify(servicio, times(0)).filtrarPacientesPorGravedad(anyString());
-        verify(mapeador, times(listaEntidades.size())).convertirEntidadAResponseDto(any(Paciente.class));
+        verify(servicio, times(1)).leerPaginaPacientes(any(Pageable.class));
+        verify(servicio, times(0)).filtrarPacientesPorGravedad(anyString(), any(Pageable.class));
+        verify(mapeador, times(listaEntidades.size())).convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarPacientesTestOK");
     }
 
@@ -250,19 +446,102 @@ class PacienteControladorTest
     {
         log.debug("---> listarPacientesNoContextKO");
         //Definición de comportamiento:
-        when(servicio.leerListaPacientes()).thenReturn(Collections.emptyList());
+        when(servicio.leerPaginaPacientes(any(Pageable.class))).thenReturn(Page.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaPacientes();
-        verify(servicio, times(0)).filtrarPacientesPorGravedad(anyString());
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class));
+        verify(servicio, times(1)).leerPaginaPacientes(any(Pageable.class));
+        verify(servicio, times(0)).filtrarPacientesPorGravedad(anyString(), any(Pageable.class));
+        verify(mapeador, times(0)).convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class));
         log.debug("<--- listarPacientesNoContextKO");
     }
 
+    @Test
+    public void listarPacientesPorIdsTestOK() throws Exception
+    {
+        log.debug("---> listarPacientesPorIdsTestOK");
+        //Declaración de objetos de testing:
+        Paciente entidad = this.getDummyEntidad();
+        PacienteResponseDTO esperado = this.getDummyResponseDTO();
+
+        //Definición de comportamiento:
+        when(servicio.buscarResumenesPacientes(List.of(7L, 5L))).thenReturn(this.proyectar(PacienteResumen.class, List.of(entidad)));
+        when(mapeador.convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes")
+                        .param("ids", "7,5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(esperado.getId()))
+                .andExpect(MockMvcResultMatchers.header().string(SeleccionPorIds.IDS_NO_ENCONTRADOS, "7"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).buscarResumenesPacientes(List.of(7L, 5L));
+        verify(servicio, times(0)).leerPaginaPacientes(any(Pageable.class));
+        verify(mapeador, times(1)).convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class));
+        log.debug("<--- listarPacientesPorIdsTestOK");
+    }
+
+    @Test
+    public void listarPacientesPorIdsDemasiadosKO() throws Exception
+    {
+        log.debug("---> listarPacientesPorIdsDemasiadosKO");
+        //Declaración de objetos de testing: un ID más de los permitidos por petición:
+        String ids = LongStream.rangeClosed(1, 201)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes")
+                        .param("ids", ids))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Verificaciones:
+        verify(servicio, times(0)).buscarResumenesPacientes(anyCollection());
+        log.debug("<--- listarPacientesPorIdsDemasiadosKO");
+    }
+
+    @Test
+    public void listarPacientesNdjsonTestOK() throws Exception
+    {
+        log.debug("---> listarPacientesNdjsonTestOK");
+        List<PacienteResumen> lote = this.proyectar(PacienteResumen.class, List.of(this.getDummyEntidad(), this.getDummyEntidad()));
+        PacienteResponseDTO esperado = this.getDummyResponseDTO();
+        String linea = this.objectMapper.writeValueAsString(esperado);
+
+        //Definición de comportamiento:
+        when(servicio.existenPacientes()).thenReturn(true);
+        when(servicio.procesarResumenesPacientesPorLotes(anyInt(), any())).thenAnswer(invocacion -> {
+            Consumer<List<PacienteResumen>> consumidor = invocacion.getArgument(1);
+            consumidor.accept(lote);
+            return (long) lote.size();
+        });
+        when(mapeador.convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
+
+        //Llamada al controlador mock, cuyo body se escribe de forma asíncrona:
+        MvcResult resultado = mockMvc.perform(MockMvcRequestBuilders
+                        .get("http://localhost:8080/hospital/api/pacientes")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //Aseveraciones: un objeto JSON por línea, sin corchetes ni comas entre elementos:
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string(linea + "\n" + linea + "\n"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).procesarResumenesPacientesPorLotes(anyInt(), any());
+        verify(servicio, times(0)).leerPaginaPacientes(any(Pageable.class));
+        verify(mapeador, times(2)).convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class));
+        log.debug("<--- listarPacientesNdjsonTestOK");
+    }
+
     @Test
     public void listarPacientesPorGravedadTestOK() throws Exception
     {
@@ -273,8 +552,8 @@ class PacienteControladorTest
         List<Paciente> listaEntidades = List.of(this.getDummyEntidad());
 
         //Definición de comportamiento:
-        when(servicio.filtrarPacientesPorGravedad(gravedad)).thenReturn(listaEntidades);
-        when(mapeador.convertirEntidadAResponseDto(any(Paciente.class))).thenReturn(esperado);
+        when(servicio.filtrarPacientesPorGravedad(eq(gravedad), any(Pageable.class))).thenReturn(new PageImpl<>(this.proyectar(PacienteResumen.class, listaEntidades)));
+        when(mapeador.convertirResumenAResponseDto(any(PacienteResumen.class), any(CamposSolicitados.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes")
@@ -294,11 +573,139 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].gravedad").value(esperado.getGravedad()));;
 
         //Verificaciones
-        verify(servicio, times(0)).leerListaPacientes();
-        verify(servicio, times(1)).filtrarPacientesPorGravedad(anyString());
+        verify(servicio, times(0)).leerPaginaPacientes(any(Pageable.class));
+        verify(servicio, times(1)).filtrarPacientesPorGravedad(anyString(), any(Pageable.class));
         log.debug("<--- listarPacientesPorGravedadTestOK");
     }
 
+    @Test
+    public void listarPacientesPorTriajeTestOK() throws Exception
+    {
+        log.debug("---> listarPacientesPorTriajeTestOK");
+        //Declaración de objetos de testing:
+        int limite = 3;
+        PacienteResponseDTO esperado = this.getDummyResponseDTO();
+        List<Paciente> listaEntidades = List.of(this.getDummyEntidad());
+
+        //Definición de comportamiento:
+        when(servicio.leerPacientesPorTriaje(limite)).thenReturn(listaEntidades);
+        when(mapeador.convertirListaEntidadesAResponseDto(anyList())).thenReturn(List.of(esperado));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/triaje")
+                        .param("limite", String.valueOf(limite)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(esperado.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].gravedad").value(esperado.getGravedad()));
+
+        //Verificaciones:
+        verify(servicio, times(1)).leerPacientesPorTriaje(limite);
+        verify(servicio, times(0)).leerPaginaPacientes(any(Pageable.class));
+        verify(mapeador, times(1)).convertirListaEntidadesAResponseDto(anyList());
+        log.debug("<--- listarPacientesPorTriajeTestOK");
+    }
+
+    @Test
+    public void atenderSiguientePacienteTestOK() throws Exception
+    {
+        log.debug("---> atenderSiguientePacienteTestOK");
+        //Declaración de objetos de testing:
+        PosicionTriaje siguiente = this.getDummyPosicionTriaje(1);
+        TriajeResponseDTO esperado = this.getDummyTriajeResponseDTO(1);
+
+        //Definición de comportamiento:
+        when(servicio.atenderSiguientePaciente()).thenReturn(Optional.of(siguiente));
+        when(mapeador.convertirPosicionTriajeAResponseDto(siguiente)).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/triaje/siguiente"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pacienteId").value(esperado.getPacienteId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.gravedad").value(esperado.getGravedad()));
+
+        //Verificaciones:
+        verify(servicio, times(1)).atenderSiguientePaciente();
+        verify(servicio, times(0)).buscarPaciente(anyLong());
+        log.debug("<--- atenderSiguientePacienteTestOK");
+    }
+
+    @Test
+    public void atenderSiguientePacienteColaVaciaKO() throws Exception
+    {
+        log.debug("---> atenderSiguientePacienteColaVaciaKO");
+        //Definición de comportamiento:
+        when(servicio.atenderSiguientePaciente()).thenReturn(Optional.empty());
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/triaje/siguiente"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        //Verificaciones:
+        verify(mapeador, times(0)).convertirPosicionTriajeAResponseDto(any(PosicionTriaje.class));
+        log.debug("<--- atenderSiguientePacienteColaVaciaKO");
+    }
+
+    @Test
+    public void consultarColaTriajeTestOK() throws Exception
+    {
+        log.debug("---> consultarColaTriajeTestOK");
+        //Definición de comportamiento:
+        when(servicio.consultarColaTriaje(2)).thenReturn(List.of(this.getDummyPosicionTriaje(1), this.getDummyPosicionTriaje(2)));
+        when(mapeador.convertirPosicionTriajeAResponseDto(any(PosicionTriaje.class)))
+                .thenReturn(this.getDummyTriajeResponseDTO(1), this.getDummyTriajeResponseDTO(2));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/triaje/cola")
+                        .param("limite", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].posicion").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].posicion").value(2));
+
+        //Verificaciones:
+        verify(servicio, times(1)).consultarColaTriaje(2);
+        verify(mapeador, times(2)).convertirPosicionTriajeAResponseDto(any(PosicionTriaje.class));
+        log.debug("<--- consultarColaTriajeTestOK");
+    }
+
+    @Test
+    public void consultarPosicionTriajeTestOK() throws Exception
+    {
+        log.debug("---> consultarPosicionTriajeTestOK");
+        //Declaración de objetos de testing:
+        PosicionTriaje posicion = this.getDummyPosicionTriaje(4);
+
+        //Definición de comportamiento:
+        when(servicio.consultarPosicionTriaje(1L)).thenReturn(Optional.of(posicion));
+        when(mapeador.convertirPosicionTriajeAResponseDto(posicion)).thenReturn(this.getDummyTriajeResponseDTO(4));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}/triaje", 1L))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.posicion").value(4));
+
+        //Verificaciones:
+        verify(servicio, times(1)).consultarPosicionTriaje(1L);
+        log.debug("<--- consultarPosicionTriajeTestOK");
+    }
+
+    @Test
+    public void consultarPosicionTriajeNotFoundKO() throws Exception
+    {
+        log.debug("---> consultarPosicionTriajeNotFoundKO");
+        //Definición de comportamiento:
+        when(servicio.consultarPosicionTriaje(anyLong())).thenReturn(Optional.empty());
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}/triaje", 99L))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        log.debug("<--- consultarPosicionTriajeNotFoundKO");
+    }
+
     @Test
     public void obtenerCitasPorPacienteTestOK() throws Exception
     {
@@ -309,7 +716,9 @@ class PacienteControladorTest
 
         //Definición de comportamiento:
         when(servicio.buscarPaciente(pacienteId)).thenReturn(Optional.of(this.getDummyEntidad()));
-        when(citaMapeador.convertirEntidadAResponseDto(any(Cita.class))).thenReturn(esperado);
+        when(citaServicio.leerCitasPorPaciente(eq(pacienteId), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(this.proyectar(CitaResumen.class, this.getDummyEntidad().getCitasAsignadas())));
+        when(citaMapeador.convertirResumenAResponseDto(any(CitaResumen.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/pacientes/{id}/citas", pacienteId)
@@ -322,7 +731,8 @@ class PacienteControladorTest
 
         //Verificaciones:
         verify(servicio, times(1)).buscarPaciente(pacienteId);
-        verify(citaMapeador, times(1)).convertirEntidadAResponseDto(any(Cita.class));
+        verify(citaServicio, times(1)).leerCitasPorPaciente(eq(pacienteId), any(Pageable.class));
+        verify(citaMapeador, times(1)).convertirResumenAResponseDto(any(CitaResumen.class));
         log.debug("<--- obtenerCitasPorPacienteTestOK");
     }
 
@@ -343,7 +753,7 @@ class PacienteControladorTest
 
         //Verificaciones:
         verify(servicio, times(1)).buscarPaciente(idInexistente);
-        verify(citaMapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
+        verify(citaMapeador, times(0)).convertirResumenAResponseDto(any(CitaResumen.class));
         log.debug("<--- obtenerCitasPorPacienteNoContentKO");
     }
 
@@ -385,6 +795,51 @@ class PacienteControladorTest
         log.debug("<--- guardarPacienteTestOK");
     }
 
+    @Test
+    public void guardarPacienteMedicoAutomaticoTestOK() throws Exception
+    {
+        log.debug("---> guardarPacienteMedicoAutomaticoTestOK");
+        PacienteResponseDTO respuesta = this.getDummyResponseDTO();
+
+        //Definición de comportamiento:
+        when(mapeador.convertirPostRequestDtoAEntidad(any())).thenReturn(this.getDummyEntidad());
+        doNothing().when(servicio).guardarPacienteConMedicoAutomatico(any(Paciente.class), any(Especialidad.class));
+        when(mapeador.convertirEntidadAResponseDto(any())).thenReturn(respuesta);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/pacientes")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.getDummyPostRequestSinMedicoJsonContent("CARDIOLOGIA")))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(respuesta.getId()));
+
+        //Verificaciones: sin 'medicoId' el servicio elige al médico de la especialidad solicitada:
+        verify(servicio, times(1)).guardarPacienteConMedicoAutomatico(any(Paciente.class), eq(Especialidad.CARDIOLOGIA));
+        verify(servicio, times(0)).guardarPaciente(any(Paciente.class));
+        log.debug("<--- guardarPacienteMedicoAutomaticoTestOK");
+    }
+
+    @Test
+    public void guardarPacienteSinMedicoDisponibleKO() throws Exception
+    {
+        log.debug("---> guardarPacienteSinMedicoDisponibleKO");
+
+        //Definición de comportamiento:
+        when(mapeador.convertirPostRequestDtoAEntidad(any())).thenReturn(this.getDummyEntidad());
+        doThrow(new MedicoNoEncontradoExcepcion("No existe ningún médico en el sistema con la especialidad solicitada"))
+                .when(servicio).guardarPacienteConMedicoAutomatico(any(Paciente.class), any(Especialidad.class));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/pacientes")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(this.getDummyPostRequestSinMedicoJsonContent("ONCOLOGIA")))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        //Verificaciones:
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class));
+        log.debug("<--- guardarPacienteSinMedicoDisponibleKO");
+    }
+
     @Test
     public void guardarPacienteBadRequestKO() throws Exception
     {
@@ -406,6 +861,43 @@ class PacienteControladorTest
         log.debug("<--- guardarPacienteBadRequestKO");
     }
 
+    @Test
+    public void guardarLotePacientesTestOK() throws Exception
+    {
+        log.debug("---> guardarLotePacientesTestOK");
+        String lote = "[" + this.getDummyLoteJsonContent("33333333N", "\"medicoId\": 1") + ",\n"
+                + this.getDummyLoteJsonContent("44444444Q", "\"especialidad\": \"PEDIATRIA\"") + "]";
+
+        //Definición de comportamiento:
+        when(mapeador.convertirPostRequestDtoAEntidadDeLote(any(PacientePostRequestDTO.class)))
+                .thenAnswer(invocacion -> new Paciente());
+        when(servicio.guardarPacientesEnLote(anyList(), anyList())).thenAnswer(invocacion -> {
+            List<Paciente> pacientes = invocacion.getArgument(0);
+            pacientes.get(0).setId(3L);
+            pacientes.get(1).setId(4L);
+            return Map.of();
+        });
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.post("http://localhost:8080/hospital/api/pacientes/lote")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(lote))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.recibidos").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.guardados").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.rechazados").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[0].id").value(3L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[1].id").value(4L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.resultados[1].errores").doesNotExist());
+
+        //Verificaciones: solo el paciente sin médico lleva especialidad para la asignación automática:
+        verify(mapeador, times(2)).convertirPostRequestDtoAEntidadDeLote(any(PacientePostRequestDTO.class));
+        verify(servicio, times(1)).guardarPacientesEnLote(anyList(),
+                eq(Arrays.asList(null, Especialidad.PEDIATRIA)));
+        verify(servicio, times(0)).guardarPaciente(any(Paciente.class));
+        log.debug("<--- guardarLotePacientesTestOK");
+    }
+
     @Test
     public void actualizarPacienteTestOK() throws Exception
     {
@@ -419,7 +911,11 @@ class PacienteControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarPaciente(pacienteId)).thenReturn(Optional.of(dummy));
+        when(servicio.actualizarPaciente(eq(pacienteId), any())).thenAnswer(invocacion -> {
+            Consumer<Paciente> cambios = invocacion.getArgument(1);
+            cambios.accept(dummy);
+            return Optional.of(dummy);
+        });
         when(mapeador.convertirPutRequestDtoAEntidad(any(Paciente.class), any(PacientePutRequestDTO.class))).thenReturn(dummy);
         when(mapeador.convertirEntidadAResponseDto(any(Paciente.class))).thenReturn(respuesta);
 
@@ -440,7 +936,7 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$.gravedad").value(respuesta.getGravedad()));
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarPaciente(pacienteId);
+        verify(servicio, times(1)).actualizarPaciente(eq(pacienteId), any());
         verify(mapeador, times(1)).convertirPutRequestDtoAEntidad(any(Paciente.class), any(PacientePutRequestDTO.class));
         verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Paciente.class));
 
@@ -457,7 +953,7 @@ class PacienteControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarPaciente(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.actualizarPaciente(eq(idInexistente), any())).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.put("http://localhost:8080/hospital/api/pacientes/{id}", idInexistente)
@@ -466,7 +962,7 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarPaciente(idInexistente);
+        verify(servicio, times(1)).actualizarPaciente(eq(idInexistente), any());
         verify(mapeador, times(0)).convertirPutRequestDtoAEntidad(any(Paciente.class), any(PacientePutRequestDTO.class));
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class));
         log.debug("<--- actualizarPacienteNoContentKO");
@@ -489,7 +985,7 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
         //Verificaciones:
-        verify(servicio, times(0)).buscarPaciente(idInexistente);
+        verify(servicio, times(0)).actualizarPaciente(any(), any());
         verify(mapeador, times(0)).convertirPutRequestDtoAEntidad(any(Paciente.class), any(PacientePutRequestDTO.class));
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Paciente.class));
 
@@ -544,7 +1040,7 @@ class PacienteControladorTest
     {
         log.debug("---> eliminarListaPacientesTestOK");
         //Definición de comportamiento:
-        when(servicio.leerListaPacientes()).thenReturn(List.of(this.getDummyEntidad()));
+        when(servicio.existenPacientes()).thenReturn(true);
         doNothing().when(servicio).eliminarTodosPacientes();
 
         //Llamada al controlador mock:
@@ -552,7 +1048,7 @@ class PacienteControladorTest
                 .andExpect(MockMvcResultMatchers.status().isOk());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaPacientes();
+        verify(servicio, times(1)).existenPacientes();
         verify(servicio, times(1)).eliminarTodosPacientes();
 
         log.debug("<--- eliminarListaPacientesTestOK");
@@ -563,14 +1059,14 @@ class PacienteControladorTest
     {
         log.debug("---> eliminarListaPacientesNoContentKO");
         //Definición de comportamiento:
-        when(servicio.leerListaPacientes()).thenReturn(Collections.emptyList());
+        when(servicio.existenPacientes()).thenReturn(false);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.delete("http://localhost:8080/hospital/api/pacientes"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaPacientes();
+        verify(servicio, times(1)).existenPacientes();
         verify(servicio, times(0)).eliminarTodosPacientes();
 
         log.debug("<--- eliminarListaPacientesNoContentKO");
@@ -1,27 +1,50 @@
 package dev.acobano.springrestful.hospital.controladores;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.SalaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.HuecoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.SalaResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ICitaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.ISalaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.paginacion.CabecerasPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.CursorPaginacion;
+import dev.acobano.springrestful.hospital.paginacion.SeleccionPorIds;
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ISalaServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.validation.BindingResult;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 
@@ -32,6 +55,7 @@ import static org.mockito.Mockito.*;
  * @author Álvaro Cobano
  */
 @WebMvcTest(SalaControlador.class)
+@Import(SeleccionPorIds.class)
 @Slf4j
 class SalaControladorTest
 {
@@ -42,6 +66,9 @@ class SalaControladorTest
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private ISalaServicio servicio;
 
@@ -51,12 +78,27 @@ class SalaControladorTest
     @MockBean
     private ICitaMapeador citaMapeador;
 
+    @MockBean
+    private ICitaServicio citaServicio;
+
+    @MockBean
+    private IPlanificacionServicio planificacionServicio;
+
 
 
                                             // ***********************
                                             // ***  OBJETOS DUMMY  ***
                                             // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private <T> List<T> proyectar(Class<T> tipo, List<?> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(tipo, e))
+                .toList();
+    }
+
     private Sala getDummyEntidadSinCitas()
     {
         return Sala.builder()
@@ -107,21 +149,25 @@ class SalaControladorTest
         Long salaId = 1L;
 
         //Definición de comportamiento:
+        when(servicio.buscarVersionSala(salaId)).thenReturn(Optional.of("4.0"));
         when(servicio.buscarSala(salaId)).thenReturn(Optional.of(this.getDummyEntidadSinCitas()));
-        when(mapeador.convertirEntidadAResponseDto(any(Sala.class))).thenReturn(this.getDummyResponseDTO());
+        when(citaServicio.leerCitasPorSala(eq(salaId), any(Pageable.class))).thenReturn(Page.empty());
+        when(mapeador.convertirEntidadAResponseDto(any(Sala.class), any(CamposSolicitados.class))).thenReturn(this.getDummyResponseDTO());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/{id}", salaId)
                         .contentType(MediaType.APPLICATION_FORM_URLENCODED_VALUE))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4.0\""))
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(salaId))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.numSala").value(404))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.citasAsignadas").value(0));
 
         //Verificaciones:
+        verify(servicio, times(1)).buscarVersionSala(salaId);
         verify(servicio, times(1)).buscarSala(salaId);
-        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Sala.class));
+        verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Sala.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerSalaTestOK");
     }
 
@@ -133,7 +179,7 @@ class SalaControladorTest
         Long idInexistente = 999L;
 
         //Definición de comportamiento:
-        when(servicio.buscarSala(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.buscarVersionSala(idInexistente)).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/{id}", idInexistente)
@@ -141,11 +187,35 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarSala(idInexistente);
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Sala.class));
+        verify(servicio, times(1)).buscarVersionSala(idInexistente);
+        verify(servicio, times(0)).buscarSala(idInexistente);
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Sala.class), any(CamposSolicitados.class));
         log.debug("<--- obtenerSalaNoContentKO");
     }
 
+    @Test
+    public void obtenerSalaNotModifiedTestOK() throws Exception
+    {
+        log.debug("---> obtenerSalaNotModifiedTestOK");
+        Long salaId = 1L;
+
+        //Definición de comportamiento: el cliente ya tiene la versión vigente de la sala:
+        when(servicio.buscarVersionSala(salaId)).thenReturn(Optional.of("4.0"));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/{id}", salaId)
+                        .header("If-None-Match", "\"4.0\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4.0\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        //Verificaciones: ni se carga la sala ni se mapea su DTO de salida:
+        verify(servicio, times(1)).buscarVersionSala(salaId);
+        verify(servicio, times(0)).buscarSala(salaId);
+        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Sala.class), any(CamposSolicitados.class));
+        log.debug("<--- obtenerSalaNotModifiedTestOK");
+    }
+
     @Test
     public void listarSalasTestOK() throws Exception
     {
@@ -155,8 +225,8 @@ class SalaControladorTest
         List<Sala> listaSalas = List.of(this.getDummyEntidadSinCitas());
 
         //Definición de comportamiento:
-        when(servicio.leerListaSalas()).thenReturn(listaSalas);
-        when(mapeador.convertirEntidadAResponseDto(any(Sala.class))).thenReturn(esperado);
+        when(servicio.leerPaginaSalas(any(Pageable.class))).thenReturn(new PageImpl<>(listaSalas));
+        when(mapeador.convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class))).thenReturn(List.of(esperado));
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas"))
@@ -168,8 +238,8 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].citasAsignadas").value(esperado.getCitasAsignadas()));
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaSalas();
-        verify(mapeador, times(listaSalas.size())).convertirEntidadAResponseDto(any(Sala.class));
+        verify(servicio, times(1)).leerPaginaSalas(any(Pageable.class));
+        verify(mapeador, times(1)).convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class));
         log.debug("<--- listarSalasTestOK");
     }
 
@@ -178,18 +248,110 @@ class SalaControladorTest
     {
         log.debug("---> listarSalasNoContentKO");
         //Definición de comportamiento:
-        when(servicio.leerListaSalas()).thenReturn(Collections.emptyList());
+        when(servicio.leerPaginaSalas(any(Pageable.class))).thenReturn(Page.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas"))
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaSalas();
-        verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Sala.class));
+        verify(servicio, times(1)).leerPaginaSalas(any(Pageable.class));
+        verify(mapeador, times(0)).convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class));
         log.debug("<--- listarSalasNoContentKO");
     }
 
+    @Test
+    public void listarSalasNdjsonTestOK() throws Exception
+    {
+        log.debug("---> listarSalasNdjsonTestOK");
+        List<Sala> lote = List.of(this.getDummyEntidadSinCitas(), this.getDummyEntidadSinCitas());
+        SalaResponseDTO esperado = this.getDummyResponseDTO();
+        String linea = this.objectMapper.writeValueAsString(esperado);
+
+        //Definición de comportamiento:
+        when(servicio.existenSalas()).thenReturn(true);
+        when(servicio.procesarSalasPorLotes(anyInt(), any())).thenAnswer(invocacion -> {
+            Consumer<List<Sala>> consumidor = invocacion.getArgument(1);
+            consumidor.accept(lote);
+            return (long) lote.size();
+        });
+        when(mapeador.convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class))).thenReturn(List.of(esperado, esperado));
+
+        //Llamada al controlador mock, cuyo body se escribe de forma asíncrona:
+        MvcResult resultado = mockMvc.perform(MockMvcRequestBuilders
+                        .get("http://localhost:8080/hospital/api/salas")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        //Aseveraciones: un objeto JSON por línea, sin corchetes ni comas entre elementos:
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(MockMvcResultMatchers.content().string(linea + "\n" + linea + "\n"));
+
+        //Verificaciones:
+        verify(servicio, times(1)).procesarSalasPorLotes(anyInt(), any());
+        verify(servicio, times(0)).leerPaginaSalas(any(Pageable.class));
+        verify(mapeador, times(1)).convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class));
+        log.debug("<--- listarSalasNdjsonTestOK");
+    }
+
+    @Test
+    public void listarSalasPorCursorTestOK() throws Exception
+    {
+        log.debug("---> listarSalasPorCursorTestOK");
+        //Declaración de objetos de testing:
+        Sala entidad = this.getDummyEntidadSinCitas();
+        SalaResponseDTO esperado = this.getDummyResponseDTO();
+
+        //Definición de comportamiento (un cursor vacío comienza desde la primera sala):
+        when(servicio.leerSalasDesdeCursor(0L, 20))
+                .thenReturn(new SliceImpl<>(List.of(entidad), PageRequest.ofSize(20), true));
+        when(mapeador.convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class))).thenReturn(List.of(esperado));
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas")
+                        .param("cursor", ""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(esperado.getId()))
+                .andExpect(MockMvcResultMatchers.header().string(CabecerasPaginacion.SIGUIENTE_CURSOR,
+                        CursorPaginacion.codificarId(entidad.getId())));
+
+        //Verificaciones:
+        verify(servicio, times(1)).leerSalasDesdeCursor(0L, 20);
+        verify(servicio, times(0)).leerPaginaSalas(any(Pageable.class));
+        log.debug("<--- listarSalasPorCursorTestOK");
+    }
+
+    @Test
+    public void listarSalasPorIdsTestOK() throws Exception
+    {
+        log.debug("---> listarSalasPorIdsTestOK");
+        //Declaración de objetos de testing (la consulta 'IN' devuelve las salas en cualquier orden):
+        Sala primera = this.getDummyEntidadSinCitas();
+        Sala segunda = this.getDummyEntidadConCitaAsociada();
+        SalaResponseDTO esperado = this.getDummyResponseDTO();
+
+        //Definición de comportamiento:
+        when(servicio.buscarSalas(List.of(2L, 9L, 1L))).thenReturn(List.of(primera, segunda));
+        when(mapeador.convertirListaEntidadesAResponseDto(anyList(), any(CamposSolicitados.class))).thenReturn(List.of(esperado, esperado));
+
+        //Llamada al controlador mock, con un ID repetido y otro inexistente:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas")
+                        .param("ids", "2,9,1,2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$").isArray())
+                .andExpect(MockMvcResultMatchers.header().string(SeleccionPorIds.IDS_NO_ENCONTRADOS, "9"));
+
+        //Verificaciones: una única búsqueda con los IDs distintos, y las salas mapeadas en el orden solicitado:
+        verify(servicio, times(1)).buscarSalas(List.of(2L, 9L, 1L));
+        verify(servicio, times(0)).leerPaginaSalas(any(Pageable.class));
+        verify(mapeador, times(1)).convertirListaEntidadesAResponseDto(eq(List.of(segunda, primera)), any(CamposSolicitados.class));
+        log.debug("<--- listarSalasPorIdsTestOK");
+    }
+
     @Test
     public void obtenerCitasPorSalaTestOK() throws Exception
     {
@@ -203,7 +365,9 @@ class SalaControladorTest
 
         //Definición de comportamiento:
         when(servicio.buscarSala(salaId)).thenReturn(Optional.of(entidad));
-        when(citaMapeador.convertirEntidadAResponseDto(any(Cita.class))).thenReturn(esperado);
+        when(citaServicio.leerCitasPorSala(eq(salaId), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(this.proyectar(CitaResumen.class, entidad.getCitasAsignadas())));
+        when(citaMapeador.convertirResumenAResponseDto(any(CitaResumen.class))).thenReturn(esperado);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/{id}/citas", salaId)
@@ -215,7 +379,7 @@ class SalaControladorTest
 
         //Verificaciones:
         verify(servicio, times(1)).buscarSala(salaId);
-        verify(citaMapeador, times(entidad.getCitasAsignadas().size())).convertirEntidadAResponseDto(any(Cita.class));
+        verify(citaMapeador, times(entidad.getCitasAsignadas().size())).convertirResumenAResponseDto(any(CitaResumen.class));
         log.debug("<--- obtenerCitasPorSalaTestOK");
     }
 
@@ -228,6 +392,7 @@ class SalaControladorTest
 
         //Definición de comportamiento:
         when(servicio.buscarSala(salaId)).thenReturn(Optional.of(this.getDummyEntidadSinCitas()));
+        when(citaServicio.leerCitasPorSala(eq(salaId), any(Pageable.class))).thenReturn(Page.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/{id}/citas", salaId)
@@ -236,10 +401,102 @@ class SalaControladorTest
 
         //Verificaciones:
         verify(servicio, times(1)).buscarSala(salaId);
-        verify(citaMapeador, times(0)).convertirEntidadAResponseDto(any(Cita.class));
+        verify(citaServicio, times(1)).leerCitasPorSala(eq(salaId), any(Pageable.class));
+        verify(citaMapeador, times(0)).convertirResumenAResponseDto(any(CitaResumen.class));
         log.debug("<--- obtenerCitasPorSalaNoContentKO");
     }
 
+    @Test
+    public void buscarHuecosTestOK() throws Exception
+    {
+        log.debug("---> buscarHuecosTestOK");
+        LocalDate fecha = LocalDate.of(2025, 3, 10);
+        Hueco hueco = new Hueco(1L, 404, fecha, LocalTime.of(8, 0), LocalTime.of(10, 0));
+        HuecoResponseDTO esperado = new HuecoResponseDTO(1L, 404, "10/03/2025", "08:00:00", "10:00:00");
+
+        //Definición de comportamiento:
+        when(planificacionServicio.buscarHuecosSalas(fecha, 7, 30, 10)).thenReturn(List.of(hueco));
+        when(mapeador.convertirHuecoAResponseDto(hueco)).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/huecos")
+                        .param("fecha", "10/03/2025")
+                        .param("duracion", "30")
+                        .param("dias", "7"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].numSala").value(esperado.getNumSala()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].fecha").value(esperado.getFecha()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].horaInicio").value(esperado.getHoraInicio()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].horaFin").value(esperado.getHoraFin()));
+
+        //Verificaciones:
+        verify(planificacionServicio, times(1)).buscarHuecosSalas(fecha, 7, 30, 10);
+        verify(mapeador, times(1)).convertirHuecoAResponseDto(hueco);
+        log.debug("<--- buscarHuecosTestOK");
+    }
+
+    @Test
+    public void buscarHuecosFechaInvalidaKO() throws Exception
+    {
+        log.debug("---> buscarHuecosFechaInvalidaKO");
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/huecos")
+                        .param("fecha", "10-03-2025")
+                        .param("duracion", "30"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        //Verificaciones:
+        verify(planificacionServicio, times(0)).buscarHuecosSalas(any(LocalDate.class), anyInt(), anyInt(), anyInt());
+        log.debug("<--- buscarHuecosFechaInvalidaKO");
+    }
+
+    @Test
+    public void buscarSalasLibresTestOK() throws Exception
+    {
+        log.debug("---> buscarSalasLibresTestOK");
+        LocalDate fecha = LocalDate.of(2025, 3, 10);
+        Hueco libre = new Hueco(2L, 102, fecha, LocalTime.of(16, 0), LocalTime.of(16, 1));
+        HuecoResponseDTO esperado = new HuecoResponseDTO(2L, 102, "10/03/2025", "16:00:00", "16:01:00");
+
+        //Definición de comportamiento: sin hora de fin se consulta solo el minuto de las 16:00:
+        when(planificacionServicio.buscarSalasLibres(fecha, LocalTime.of(16, 0), LocalTime.of(16, 1))).thenReturn(List.of(libre));
+        when(mapeador.convertirHuecoAResponseDto(libre)).thenReturn(esperado);
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/libres")
+                        .param("fecha", "10/03/2025")
+                        .param("desde", "16:00"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].numSala").value(esperado.getNumSala()));
+
+        //Verificaciones:
+        verify(planificacionServicio, times(1)).buscarSalasLibres(fecha, LocalTime.of(16, 0), LocalTime.of(16, 1));
+        log.debug("<--- buscarSalasLibresTestOK");
+    }
+
+    @Test
+    public void consultarDisponibilidadNotFoundKO() throws Exception
+    {
+        log.debug("---> consultarDisponibilidadNotFoundKO");
+
+        //Definición de comportamiento:
+        when(planificacionServicio.consultarDisponibilidadSala(anyLong(), any(LocalDate.class), any(LocalTime.class), any(LocalTime.class)))
+                .thenReturn(Optional.empty());
+
+        //Llamada al controlador mock:
+        mockMvc.perform(MockMvcRequestBuilders.get("http://localhost:8080/hospital/api/salas/9/disponibilidad")
+                        .param("fecha", "10/03/2025")
+                        .param("desde", "10:15")
+                        .param("hasta", "11:00"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+        //Verificaciones:
+        verify(mapeador, times(0)).convertirDisponibilidadAResponseDto(any(Disponibilidad.class));
+        log.debug("<--- consultarDisponibilidadNotFoundKO");
+    }
+
     @Test
     public void guardarSalaTestOK() throws Exception
     {
@@ -303,8 +560,11 @@ class SalaControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarSala(salaId)).thenReturn(Optional.of(dummy));
-        doNothing().when(servicio).guardarSala(dummy);
+        when(servicio.actualizarSala(eq(salaId), any())).thenAnswer(invocacion -> {
+            Consumer<Sala> cambios = invocacion.getArgument(1);
+            cambios.accept(dummy);
+            return Optional.of(dummy);
+        });
         when(mapeador.convertirEntidadAResponseDto(dummy)).thenReturn(esperado);
 
         //Llamada al controlador mock:
@@ -317,8 +577,7 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.jsonPath("$.numSala").value(esperado.getNumSala()));
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarSala(salaId);
-        verify(servicio, times(1)).guardarSala(any(Sala.class));
+        verify(servicio, times(1)).actualizarSala(eq(salaId), any());
         verify(mapeador, times(1)).convertirEntidadAResponseDto(any(Sala.class));
         log.debug("<--- actualizarSalaTestOK");
     }
@@ -333,7 +592,7 @@ class SalaControladorTest
 
         //Definición de comportamiento:
         when(bindingResult.hasErrors()).thenReturn(false);
-        when(servicio.buscarSala(idInexistente)).thenReturn(Optional.empty());
+        when(servicio.actualizarSala(eq(idInexistente), any())).thenReturn(Optional.empty());
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.put("http://localhost:8080/hospital/api/salas/{id}", idInexistente)
@@ -342,8 +601,7 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).buscarSala(idInexistente);
-        verify(servicio, times(0)).guardarSala(any(Sala.class));
+        verify(servicio, times(1)).actualizarSala(eq(idInexistente), any());
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Sala.class));
         log.debug("<--- actualizarSalaNoContentKO");
     }
@@ -365,8 +623,7 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
 
         //Verificaciones:
-        verify(servicio, times(0)).buscarSala(idInexistente);
-        verify(servicio, times(0)).guardarSala(any(Sala.class));
+        verify(servicio, times(0)).actualizarSala(any(), any());
         verify(mapeador, times(0)).convertirEntidadAResponseDto(any(Sala.class));
         log.debug("<--- actualizarSalaBadRequestKO");
     }
@@ -419,7 +676,7 @@ class SalaControladorTest
     {
         log.debug("---> eliminarListaSalasTestOK");
         //Definición de comportamiento:
-        when(servicio.leerListaSalas()).thenReturn(List.of(this.getDummyEntidadSinCitas()));
+        when(servicio.existenSalas()).thenReturn(true);
         doNothing().when(servicio).eliminarTodasSalas();
 
         //Llamada al controlador mock:
@@ -428,7 +685,7 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isOk());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaSalas();
+        verify(servicio, times(1)).existenSalas();
         verify(servicio, times(1)).eliminarTodasSalas();
         log.debug("<--- eliminarListaSalasTestOK");
     }
@@ -438,7 +695,7 @@ class SalaControladorTest
     {
         log.debug("---> eliminarListaSalasNoContentKO");
         //Definición de comportamiento:
-        when(servicio.leerListaSalas()).thenReturn(Collections.emptyList());
+        when(servicio.existenSalas()).thenReturn(false);
 
         //Llamada al controlador mock:
         mockMvc.perform(MockMvcRequestBuilders.delete("http://localhost:8080/hospital/api/salas")
@@ -446,7 +703,7 @@ class SalaControladorTest
                 .andExpect(MockMvcResultMatchers.status().isNoContent());
 
         //Verificaciones:
-        verify(servicio, times(1)).leerListaSalas();
+        verify(servicio, times(1)).existenSalas();
         verify(servicio, times(0)).eliminarTodasSalas();
         log.debug("<--- eliminarListaSalasNoContentKO");
     }
@@ -2,6 +2,7 @@ package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.CitaPutRequestDTO;
+import dev.acobano.springrestful.hospital.dto.entrada.SolicitudCitaRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.CitaResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IFechaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
@@ -10,6 +11,8 @@ import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
+import dev.acobano.springrestful.hospital.planificacion.SolicitudCita;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ISalaServicio;
 import lombok.extern.slf4j.Slf4j;
@@ -17,10 +20,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.context.ContextConfiguration;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -133,6 +139,28 @@ class CitaMapeadorImplTest
                 .build();
     }
 
+    private CitaResumen getDummyResumen(boolean conMedico)
+    {
+        Map<String, Object> columnas = new HashMap<>();
+        columnas.put("id", 9L);
+        columnas.put("nombrePaciente", "NombrePaciente");
+        columnas.put("apellidosPaciente", "ApellidosPaciente");
+        columnas.put("gravedad", Gravedad.MODERADA);
+        columnas.put("numSala", 33);
+        columnas.put("fechaCita", LocalDate.MIN);
+        columnas.put("horaEntrada", LocalTime.NOON);
+        columnas.put("horaSalida", LocalTime.NOON);
+
+        if (conMedico)
+        {
+            columnas.put("nombreMedico", "NombreMedico");
+            columnas.put("apellidosMedico", "ApellidosMedico");
+            columnas.put("especialidad", Especialidad.TRAUMATOLOGIA);
+        }
+
+        return new SpelAwareProxyProjectionFactory().createProjection(CitaResumen.class, columnas);
+    }
+
 
 
                                         // ***************************
@@ -184,6 +212,40 @@ class CitaMapeadorImplTest
         log.debug("<--- convertirPostResquestDtoAEntidadTestNull");
     }
 
+    @Test
+    public void convertirPostRequestDtoAEntidadDeLoteTestOK()
+    {
+        log.debug("---> convertirPostRequestDtoAEntidadDeLoteTestOK");
+
+        //Definición del comportamiento:
+        when(fechaMapeador.convertirStringALocalDate(anyString())).thenReturn(LocalDate.MIN);
+        when(fechaMapeador.convertirStringALocalTime(anyString())).thenReturn(LocalTime.NOON);
+
+        //Declaración de los objetos de testing:
+        CitaPostRequestDTO entrada = this.getDummyPostRequestDTO();
+        Cita esperado = this.getDummyEntidad();
+        Cita resultado = this.mapeador.convertirPostRequestDtoAEntidadDeLote(entrada);
+
+        //Aseveraciones: el paciente y la sala solo llevan su ID, sin leerlos de la BBDD:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertEquals(esperado.getPaciente().getId(), resultado.getPaciente().getId()),
+                () -> assertEquals(esperado.getSala().getId(), resultado.getSala().getId()),
+                () -> assertNull(resultado.getPaciente().getNombre()),
+                () -> assertEquals(esperado.getFechaCita(), resultado.getFechaCita()),
+                () -> assertEquals(esperado.getHoraEntrada(), resultado.getHoraEntrada()),
+                () -> assertEquals(esperado.getHoraSalida(), resultado.getHoraSalida())
+        );
+
+        //Verificaciones:
+        verify(pacienteServicio, times(0)).buscarPaciente(anyLong());
+        verify(salaServicio, times(0)).buscarSala(anyLong());
+        verify(fechaMapeador, times(1)).convertirStringALocalDate(anyString());
+        verify(fechaMapeador, times(2)).convertirStringALocalTime(anyString());
+
+        log.debug("<--- convertirPostRequestDtoAEntidadDeLoteTestOK");
+    }
+
     @Test
     public void convertirPutRequestDtoAEntidadTestOK()
     {
@@ -277,4 +339,92 @@ class CitaMapeadorImplTest
         assertNull(this.mapeador.convertirEntidadAResponseDto(null));
         log.debug("<--- convertirEntidadAResponseDtoTestNull");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void convertirResumenAResponseDtoTestOK()
+    {
+        log.debug("---> convertirResumenAResponseDtoTestOK");
+
+        //Definición de comportamiento:
+        when(fechaMapeador.convertirLocalDateAString(any())).thenReturn("Date prueba");
+        when(fechaMapeador.convertirLocalTimeAString(any())).thenReturn("Time prueba");
+
+        //Declaraciones de objetos de testing:
+        CitaResponseDTO esperado = this.getDummyResponseDTO();
+        CitaResponseDTO resultado = this.mapeador.convertirResumenAResponseDto(this.getDummyResumen(true));
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertEquals(esperado.getId(), resultado.getId()),
+                () -> assertEquals(esperado.getMedico(), resultado.getMedico()),
+                () -> assertEquals(esperado.getPaciente(), resultado.getPaciente()),
+                () -> assertEquals(esperado.getNumSala(), resultado.getNumSala()),
+                () -> assertEquals(esperado.getEspecialidad(), resultado.getEspecialidad()),
+                () -> assertEquals(esperado.getGravedad(), resultado.getGravedad()),
+                () -> assertEquals(esperado.getFechaCita(), resultado.getFechaCita()),
+                () -> assertEquals(esperado.getHoraEntrada(), resultado.getHoraEntrada()),
+                () -> assertEquals(esperado.getHoraSalida(), resultado.getHoraSalida())
+        );
+
+        //Verificaciones:
+        verify(fechaMapeador, times(1)).convertirLocalDateAString(any());
+        verify(fechaMapeador, times(2)).convertirLocalTimeAString(any());
+
+        log.debug("<--- convertirResumenAResponseDtoTestOK");
+    }
+
+    @Test
+    public void convertirResumenAResponseDtoSinMedicoTestOK()
+    {
+        log.debug("---> convertirResumenAResponseDtoSinMedicoTestOK");
+        CitaResponseDTO resultado = this.mapeador.convertirResumenAResponseDto(this.getDummyResumen(false));
+
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertNull(resultado.getMedico()),
+                () -> assertNull(resultado.getEspecialidad()),
+                () -> assertEquals("NombrePaciente ApellidosPaciente", resultado.getPaciente())
+        );
+
+        log.debug("<--- convertirResumenAResponseDtoSinMedicoTestOK");
+    }
+
+    @Test
+    public void convertirResumenAResponseDtoTestNull()
+    {
+        log.debug("---> convertirResumenAResponseDtoTestNull");
+        assertNull(this.mapeador.convertirResumenAResponseDto(null));
+        log.debug("<--- convertirResumenAResponseDtoTestNull");
+    }
+
+    @Test
+    public void convertirSolicitudRequestDtoTestOK()
+    {
+        log.debug("---> convertirSolicitudRequestDtoTestOK");
+
+        //Definición del comportamiento:
+        when(fechaMapeador.convertirStringALocalDate("10/03/2025")).thenReturn(LocalDate.of(2025, 3, 10));
+        when(fechaMapeador.convertirStringALocalDate("14/03/2025")).thenReturn(LocalDate.of(2025, 3, 14));
+
+        //Declaración de los objetos de testing:
+        SolicitudCitaRequestDTO entrada = SolicitudCitaRequestDTO.builder()
+                .pacienteId(5L)
+                .fechaDesde(" 10/03/2025 ")
+                .fechaHasta("14/03/2025")
+                .duracion(30)
+                .build();
+        SolicitudCita resultado = this.mapeador.convertirSolicitudRequestDto(entrada);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(5L, resultado.pacienteId()),
+                () -> assertEquals(LocalDate.of(2025, 3, 10), resultado.desde()),
+                () -> assertEquals(LocalDate.of(2025, 3, 14), resultado.hasta()),
+                () -> assertEquals(30, resultado.duracionMinutos()),
+                () -> assertNull(this.mapeador.convertirSolicitudRequestDto(null))
+        );
+
+        log.debug("<--- convertirSolicitudRequestDtoTestOK");
+    }
+}
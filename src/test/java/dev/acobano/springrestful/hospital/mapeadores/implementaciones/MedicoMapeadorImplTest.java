@@ -10,6 +10,7 @@ import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -46,6 +48,9 @@ class MedicoMapeadorImplTest
     @MockBean
     private IFechaMapeador fechaMapeador;
 
+    @MockBean
+    private IPacienteServicio pacienteServicio;
+
 
 
                                         // ***********************
@@ -244,6 +249,7 @@ class MedicoMapeadorImplTest
 
         //Definiciones de comportamiento:
         when(fechaMapeador.convertirLocalDateAString(any())).thenReturn("Date prueba");
+        when(pacienteServicio.contarPacientesPorMedicos(List.of(777L))).thenReturn(Map.of(777L, 1L));
 
         //Declaración de los objetos de testing:
         Medico entrada = this.getDummyEntidad();
@@ -265,6 +271,7 @@ class MedicoMapeadorImplTest
 
         //Verificaciones:
         verify(fechaMapeador, times(2)).convertirLocalDateAString(any());
+        verify(pacienteServicio, times(1)).contarPacientesPorMedicos(List.of(777L));
 
         log.debug("<--- convertirEntidadAResponseDtoTestOK");
     }
@@ -1,8 +1,10 @@
 package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
+import dev.acobano.springrestful.hospital.campos.CamposSolicitados;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePostRequestDTO;
 import dev.acobano.springrestful.hospital.dto.entrada.PacientePutRequestDTO;
 import dev.acobano.springrestful.hospital.dto.salida.PacienteResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.TriajeResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IFechaMapeador;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IPacienteMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
@@ -12,7 +14,10 @@ import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IMedicoServicio;
+import dev.acobano.springrestful.hospital.triaje.EntradaTriaje;
+import dev.acobano.springrestful.hospital.triaje.PosicionTriaje;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +28,7 @@ import org.springframework.test.context.ContextConfiguration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,6 +59,9 @@ class PacienteMapeadorImplTest
     @MockBean
     private IMedicoServicio medicoServicio;
 
+    @MockBean
+    private ICitaServicio citaServicio;
+
 
 
                                         // ***********************
@@ -231,6 +240,37 @@ class PacienteMapeadorImplTest
         log.debug("<--- convertirPostRequestDtoAEntidadTestNull");
     }
 
+    @Test
+    public void convertirPostRequestDtoAEntidadDeLoteTestOK()
+    {
+        log.debug("---> convertirPostRequestDtoAEntidadDeLoteTestOK");
+
+        //Definiciones de comportamiento:
+        when(fechaMapeador.convertirStringALocalDateTime(anyString())).thenReturn(LocalDateTime.MIN);
+
+        //Declaración de objetos de testing:
+        PacientePostRequestDTO entrada = this.getDummyPostRequestDTO();
+        Paciente esperado = this.getDummyEntidadSinCitas();
+        Paciente resultado = this.mapeador.convertirPostRequestDtoAEntidadDeLote(entrada);
+
+        //Aseveraciones: el médico solo lleva su ID, sin leerlo de la BBDD:
+        assertAll (
+                () -> assertNotNull(resultado),
+                () -> assertEquals(esperado.getNombre(), resultado.getNombre()),
+                () -> assertEquals(esperado.getDni(), resultado.getDni()),
+                () -> assertEquals(esperado.getGenero(), resultado.getGenero()),
+                () -> assertEquals(esperado.getGravedad(), resultado.getGravedad()),
+                () -> assertEquals(entrada.getMedicoId(), resultado.getMedicoAsignado().getId()),
+                () -> assertNull(resultado.getMedicoAsignado().getNombre())
+        );
+
+        //Verificaciones:
+        verify(fechaMapeador, times(2)).convertirStringALocalDateTime(anyString());
+        verify(medicoServicio, times(0)).buscarMedico(anyLong());
+
+        log.debug("<--- convertirPostRequestDtoAEntidadDeLoteTestOK");
+    }
+
     @Test
     public void convertirPutRequestDtoAEntidadTestOK()
     {
@@ -327,6 +367,7 @@ class PacienteMapeadorImplTest
         log.debug("---> convertirEntidadAResponseDtoConCitaAsignadaTestOK");
         //Definiciones de comportamiento:
         when(fechaMapeador.convertirLocalDateTimeAString(any())).thenReturn("DateTime prueba");
+        when(citaServicio.contarCitasPorPacientes(List.of(5L))).thenReturn(Map.of(5L, 1L));
 
         //Declaraciones de objetos de testing:
         Paciente entrada = this.getDummyEntidadConCitaAsignada();
@@ -351,10 +392,37 @@ class PacienteMapeadorImplTest
 
         //Verificaciones:
         verify(fechaMapeador, times(2)).convertirLocalDateTimeAString(any());
+        verify(citaServicio, times(1)).contarCitasPorPacientes(List.of(5L));
 
         log.debug("<--- convertirEntidadAResponseDtoConCitaAsignadaTestOK");
     }
 
+    @Test
+    public void convertirEntidadAResponseDtoConCamposTestOK()
+    {
+        log.debug("---> convertirEntidadAResponseDtoConCamposTestOK");
+        //Declaraciones de objetos de testing:
+        Paciente entrada = this.getDummyEntidadConCitaAsignada();
+        CamposSolicitados campos = CamposSolicitados.de("nombre,gravedad", PacienteResponseDTO.class);
+        PacienteResponseDTO resultado = this.mapeador.convertirEntidadAResponseDto(entrada, campos);
+
+        //Aseveraciones:
+        assertAll (
+                () -> assertNotNull(resultado),
+                () -> assertEquals(entrada.getId(), resultado.getId()),
+                () -> assertEquals(entrada.getNombre(), resultado.getNombre()),
+                () -> assertEquals(entrada.getGravedad().name(), resultado.getGravedad()),
+                () -> assertNull(resultado.getFechaIngreso()),
+                () -> assertEquals(0, resultado.getCitasRegistradas())
+        );
+
+        //Verificaciones: ni se formatean las fechas ni se cuentan las citas, que no se han solicitado:
+        verify(fechaMapeador, times(0)).convertirLocalDateTimeAString(any());
+        verify(citaServicio, times(0)).contarCitasPorPacientes(anyList());
+
+        log.debug("<--- convertirEntidadAResponseDtoConCamposTestOK");
+    }
+
     @Test
     public void convertirEntidadAResponseDtoTestNull()
     {
@@ -393,4 +461,32 @@ class PacienteMapeadorImplTest
         );
         log.debug("<--- convertirGravedadTest");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void convertirPosicionTriajeAResponseDtoTestOK()
+    {
+        log.debug("---> convertirPosicionTriajeAResponseDtoTestOK");
+        //Declaraciones de objetos de testing:
+        LocalDateTime ingreso = LocalDateTime.of(2024, 2, 1, 10, 0);
+        PosicionTriaje posicion = new PosicionTriaje(
+                new EntradaTriaje(7L, "Nombre", "Apellidos", CRITICA, ingreso), 3);
+
+        //Definición de comportamiento:
+        when(fechaMapeador.convertirLocalDateTimeAString(ingreso)).thenReturn("01/02/2024 10:00:00");
+
+        //Llamada al mapeador:
+        TriajeResponseDTO resultado = this.mapeador.convertirPosicionTriajeAResponseDto(posicion);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(3, resultado.getPosicion()),
+                () -> assertEquals(7L, resultado.getPacienteId()),
+                () -> assertEquals("Nombre", resultado.getNombre()),
+                () -> assertEquals("CRITICA", resultado.getGravedad()),
+                () -> assertEquals("01/02/2024 10:00:00", resultado.getFechaIngreso()),
+                () -> assertNull(this.mapeador.convertirPosicionTriajeAResponseDto(null))
+        );
+
+        log.debug("<--- convertirPosicionTriajeAResponseDtoTestOK");
+    }
+}
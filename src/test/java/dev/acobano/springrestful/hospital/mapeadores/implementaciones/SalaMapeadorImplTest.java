@@ -1,10 +1,15 @@
 package dev.acobano.springrestful.hospital.mapeadores.implementaciones;
 
 import dev.acobano.springrestful.hospital.dto.entrada.SalaRequestDTO;
+import dev.acobano.springrestful.hospital.dto.salida.DisponibilidadSalaResponseDTO;
+import dev.acobano.springrestful.hospital.dto.salida.HuecoResponseDTO;
 import dev.acobano.springrestful.hospital.dto.salida.SalaResponseDTO;
 import dev.acobano.springrestful.hospital.mapeadores.interfaces.IFechaMapeador;
 import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.planificacion.Disponibilidad;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +17,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Clase de testing para los métodos de la capa de mapeadores relacionados con la
@@ -38,6 +47,9 @@ class SalaMapeadorImplTest
     @MockBean
     private IFechaMapeador fechaMapeador;
 
+    @MockBean
+    private ICitaServicio citaServicio;
+
 
 
                                         // ***********************
@@ -144,6 +156,9 @@ class SalaMapeadorImplTest
     public void convertirEntidadConCitaAsignadaAResponseDtoTestOK()
     {
         log.debug("---> convertirEntidadConCitaAsignadaAResponseDtoTestOK");
+        //Definiciones de comportamiento:
+        when(citaServicio.contarCitasPorSalas(List.of(9L))).thenReturn(Map.of(9L, 1L));
+
         //Declaraciones de objetos de testing:
         Sala entrada = this.getDummyEntidadConCitaAsignada();
         SalaResponseDTO esperado = this.getDummyResponseDTOConCitaAsignada();
@@ -159,6 +174,33 @@ class SalaMapeadorImplTest
         log.debug("<--- convertirEntidadConCitaAsignadaAResponseDtoTestOK");
     }
 
+    @Test
+    public void convertirListaEntidadesAResponseDtoTestOK()
+    {
+        log.debug("---> convertirListaEntidadesAResponseDtoTestOK");
+        //Definiciones de comportamiento:
+        when(citaServicio.contarCitasPorSalas(List.of(9L, 1L))).thenReturn(Map.of(9L, 1L));
+
+        //Declaraciones de objetos de testing:
+        List<Sala> entrada = List.of(this.getDummyEntidadConCitaAsignada(), this.getDummyEntidadSinCita());
+        List<SalaResponseDTO> resultado = this.mapeador.convertirListaEntidadesAResponseDto(entrada);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertEquals(2, resultado.size()),
+                () -> assertEquals(9L, resultado.get(0).getId()),
+                () -> assertEquals(1, resultado.get(0).getCitasAsignadas()),
+                () -> assertEquals(1L, resultado.get(1).getId()),
+                () -> assertEquals(0, resultado.get(1).getCitasAsignadas())
+        );
+
+        //Verificaciones:
+        verify(citaServicio, times(1)).contarCitasPorSalas(anyCollection());
+
+        log.debug("<--- convertirListaEntidadesAResponseDtoTestOK");
+    }
+
     @Test
     public void convertirEntidadAResponseDtoTestNull()
     {
@@ -166,4 +208,71 @@ class SalaMapeadorImplTest
         assertNull(this.mapeador.convertirEntidadAResponseDto(null));
         log.debug("<--- convertirEntidadAResponseDtoTestNull");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void convertirHuecoAResponseDtoTestOK()
+    {
+        log.debug("---> convertirHuecoAResponseDtoTestOK");
+        //Declaraciones de objetos de testing:
+        LocalDate fecha = LocalDate.of(2025, 3, 10);
+        Hueco hueco = new Hueco(1L, 101, fecha, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        //Definición de comportamiento:
+        when(fechaMapeador.convertirLocalDateAString(fecha)).thenReturn("10/03/2025");
+        when(fechaMapeador.convertirLocalTimeAString(LocalTime.of(10, 0))).thenReturn("10:00");
+        when(fechaMapeador.convertirLocalTimeAString(LocalTime.of(10, 30))).thenReturn("10:30");
+
+        //Llamada al mapeador:
+        HuecoResponseDTO resultado = this.mapeador.convertirHuecoAResponseDto(hueco);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(1L, resultado.getSalaId()),
+                () -> assertEquals(101, resultado.getNumSala()),
+                () -> assertEquals("10/03/2025", resultado.getFecha()),
+                () -> assertEquals("10:00", resultado.getHoraInicio()),
+                () -> assertEquals("10:30", resultado.getHoraFin())
+        );
+
+        log.debug("<--- convertirHuecoAResponseDtoTestOK");
+    }
+
+    @Test
+    public void convertirHuecoAResponseDtoTestNull()
+    {
+        log.debug("---> convertirHuecoAResponseDtoTestNull");
+        assertNull(this.mapeador.convertirHuecoAResponseDto(null));
+        log.debug("<--- convertirHuecoAResponseDtoTestNull");
+    }
+
+    @Test
+    public void convertirDisponibilidadAResponseDtoTestOK()
+    {
+        log.debug("---> convertirDisponibilidadAResponseDtoTestOK");
+        //Declaraciones de objetos de testing:
+        LocalDate fecha = LocalDate.of(2025, 3, 10);
+        Disponibilidad disponibilidad = new Disponibilidad(1L, fecha, LocalTime.of(10, 15), LocalTime.of(11, 0), true, 90);
+
+        //Definición de comportamiento:
+        when(fechaMapeador.convertirLocalDateAString(fecha)).thenReturn("10/03/2025");
+        when(fechaMapeador.convertirLocalTimeAString(LocalTime.of(10, 15))).thenReturn("10:15:00");
+        when(fechaMapeador.convertirLocalTimeAString(LocalTime.of(11, 0))).thenReturn("11:00:00");
+
+        //Llamada al mapeador:
+        DisponibilidadSalaResponseDTO resultado = this.mapeador.convertirDisponibilidadAResponseDto(disponibilidad);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(1L, resultado.getSalaId()),
+                () -> assertEquals("10/03/2025", resultado.getFecha()),
+                () -> assertEquals("10:15:00", resultado.getHoraInicio()),
+                () -> assertEquals("11:00:00", resultado.getHoraFin()),
+                () -> assertTrue(resultado.isLibre()),
+                () -> assertEquals(90, resultado.getMinutosOcupados()),
+                () -> assertNull(this.mapeador.convertirDisponibilidadAResponseDto(null))
+        );
+
+        log.debug("<--- convertirDisponibilidadAResponseDtoTestOK");
+    }
+
+}
@@ -0,0 +1,158 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.excepciones.MedicoOcupadoExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para el índice en memoria de franjas ocupadas por médico y día,
+ * encargado de rechazar las citas de un mismo médico que se solapan aunque sean en salas distintas.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest
+@ContextConfiguration(classes = IndiceAgendaMedicos.class)
+@Slf4j
+class IndiceAgendaMedicosTest
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final LocalDate FECHA = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private IndiceAgendaMedicos indice;
+
+    @MockBean
+    private CitaRepositorio repositorio;
+
+    @MockBean
+    private SerieCitasRepositorio serieRepositorio;
+
+
+
+                                        // ***********************
+                                        // ***  OBJETOS DUMMY  ***
+                                        // ***********************
+
+    private Cita getDummyCita(Long id, Long medicoId, Long salaId, String entrada, String salida)
+    {
+        Medico medico = Objects.isNull(medicoId) ? null : Medico.builder().id(medicoId).build();
+
+        return Cita.builder()
+                .id(id)
+                .paciente(Paciente.builder().id(id).medicoAsignado(medico).build())
+                .sala(Sala.builder().id(salaId).build())
+                .fechaCita(FECHA)
+                .horaEntrada(LocalTime.parse(entrada))
+                .horaSalida(LocalTime.parse(salida))
+                .build();
+    }
+
+    @BeforeEach
+    public void prepararAgenda()
+    {
+        //Cada test parte de un índice vacío y de un médico 7 con una cita de 10:00 a 10:30 en la sala 1:
+        this.indice.invalidarTodo();
+        when(repositorio.findFranjasByMedicoAndFecha(7L, FECHA)).thenReturn(
+                List.of(new FranjaOcupada(1L, LocalTime.of(10, 0), LocalTime.of(10, 30))));
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void reservarFranjaLibreTestOK()
+    {
+        log.debug("---> reservarFranjaLibreTestOK");
+
+        assertAll(
+                () -> assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(2L, 7L, 2L, "10:30:00", "11:00:00"))),
+                () -> assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(3L, 8L, 3L, "10:00:00", "10:30:00")))
+        );
+
+        //Verificaciones: cada agenda se lee una sola vez de la BBDD:
+        verify(repositorio, times(1)).findFranjasByMedicoAndFecha(7L, FECHA);
+        verify(repositorio, times(1)).findFranjasByMedicoAndFecha(8L, FECHA);
+        log.debug("<--- reservarFranjaLibreTestOK");
+    }
+
+    @Test
+    public void reservarMedicoOcupadoTestKO()
+    {
+        log.debug("---> reservarMedicoOcupadoTestKO");
+
+        //Otro paciente del mismo médico, en otra sala y a la misma hora:
+        assertThrows(MedicoOcupadoExcepcion.class,
+                () -> this.indice.reservar(this.getDummyCita(2L, 7L, 2L, "10:15:00", "10:45:00")));
+
+        log.debug("<--- reservarMedicoOcupadoTestKO");
+    }
+
+    @Test
+    public void reservarSinMedicoTestOK()
+    {
+        log.debug("---> reservarSinMedicoTestOK");
+
+        assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(2L, null, 2L, "10:15:00", "10:45:00")));
+
+        //Verificaciones:
+        verify(repositorio, times(0)).findFranjasByMedicoAndFecha(anyLong(), any(LocalDate.class));
+        log.debug("<--- reservarSinMedicoTestOK");
+    }
+
+    @Test
+    public void reasignarPacienteTestOK()
+    {
+        log.debug("---> reasignarPacienteTestOK");
+        this.indice.reservar(this.getDummyCita(2L, 8L, 2L, "11:00:00", "11:30:00"));
+
+        //La cita 2 pasa del médico 8 al 7: su franja queda libre en la agenda del 8 y ocupada en la del 7:
+        this.indice.reasignarPaciente(8L, 7L, List.of(new FranjaCita(2L, 2L, FECHA, LocalTime.of(11, 0), LocalTime.of(11, 30))));
+
+        assertAll(
+                () -> assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(3L, 8L, 3L, "11:00:00", "11:30:00"))),
+                () -> assertThrows(MedicoOcupadoExcepcion.class,
+                        () -> this.indice.reservar(this.getDummyCita(4L, 7L, 3L, "11:15:00", "11:45:00")))
+        );
+
+        log.debug("<--- reasignarPacienteTestOK");
+    }
+
+    @Test
+    public void reasignarPacienteMedicoOcupadoTestKO()
+    {
+        log.debug("---> reasignarPacienteMedicoOcupadoTestKO");
+
+        //La cita 2 del médico 8 coincide con la cita 1 del médico 7:
+        assertThrows(MedicoOcupadoExcepcion.class, () -> this.indice.reasignarPaciente(8L, 7L,
+                List.of(new FranjaCita(2L, 2L, FECHA, LocalTime.of(10, 15), LocalTime.of(10, 45)))));
+
+        log.debug("<--- reasignarPacienteMedicoOcupadoTestKO");
+    }
+}
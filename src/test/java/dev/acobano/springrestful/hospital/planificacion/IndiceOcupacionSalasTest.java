@@ -0,0 +1,235 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para el índice en memoria de franjas ocupadas por sala y día,
+ * encargado de rechazar las citas que se solapan dentro de una misma sala.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest
+@ContextConfiguration(classes = IndiceOcupacionSalas.class)
+@Slf4j
+class IndiceOcupacionSalasTest
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final LocalDate FECHA = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private IndiceOcupacionSalas indice;
+
+    @MockBean
+    private CitaRepositorio repositorio;
+
+    @MockBean
+    private SerieCitasRepositorio serieRepositorio;
+
+
+
+                                        // ***********************
+                                        // ***  OBJETOS DUMMY  ***
+                                        // ***********************
+
+    private Cita getDummyCita(Long id, Long salaId, String entrada, String salida)
+    {
+        return Cita.builder()
+                .id(id)
+                .sala(Sala.builder().id(salaId).build())
+                .fechaCita(FECHA)
+                .horaEntrada(LocalTime.parse(entrada))
+                .horaSalida(LocalTime.parse(salida))
+                .build();
+    }
+
+    @BeforeEach
+    public void prepararAgenda()
+    {
+        //Cada test parte de un índice vacío y de una sala 1 con una cita de 10:00 a 10:30:
+        this.indice.invalidarTodo();
+        when(repositorio.findFranjasBySalaAndFecha(1L, FECHA)).thenReturn(
+                List.of(new FranjaOcupada(1L, LocalTime.of(10, 0), LocalTime.of(10, 30))));
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void reservarFranjaLibreTestOK()
+    {
+        log.debug("---> reservarFranjaLibreTestOK");
+
+        //Las franjas contiguas no se solapan y la agenda solo se lee una vez de la BBDD:
+        assertAll(
+                () -> assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(2L, 1L, "09:30:00", "10:00:00"))),
+                () -> assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(3L, 1L, "10:30:00", "11:00:00")))
+        );
+
+        //Verificaciones:
+        verify(repositorio, times(1)).findFranjasBySalaAndFecha(1L, FECHA);
+        log.debug("<--- reservarFranjaLibreTestOK");
+    }
+
+    @Test
+    public void reservarFranjaSolapadaTestKO()
+    {
+        log.debug("---> reservarFranjaSolapadaTestKO");
+        this.indice.reservar(this.getDummyCita(2L, 1L, "11:00:00", "12:00:00"));
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertThrows(SalaOcupadaExcepcion.class,
+                        () -> this.indice.reservar(this.getDummyCita(3L, 1L, "10:15:00", "10:45:00"))),
+                () -> assertThrows(SalaOcupadaExcepcion.class,
+                        () -> this.indice.reservar(this.getDummyCita(3L, 1L, "09:00:00", "13:00:00"))),
+                () -> assertThrows(SalaOcupadaExcepcion.class,
+                        () -> this.indice.reservar(this.getDummyCita(3L, 1L, "11:15:00", "11:30:00"))),
+                () -> assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(3L, 2L, "10:15:00", "10:45:00")))
+        );
+
+        log.debug("<--- reservarFranjaSolapadaTestKO");
+    }
+
+    @Test
+    public void reservarMismaCitaTestOK()
+    {
+        log.debug("---> reservarMismaCitaTestOK");
+
+        //Mover una cita dentro de su propia franja no es un conflicto, y su franja anterior queda libre:
+        this.indice.reservar(this.getDummyCita(1L, 1L, "10:15:00", "10:45:00"));
+
+        assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(2L, 1L, "10:00:00", "10:15:00")));
+        log.debug("<--- reservarMismaCitaTestOK");
+    }
+
+    @Test
+    public void liberarTestOK()
+    {
+        log.debug("---> liberarTestOK");
+        this.indice.reservar(this.getDummyCita(2L, 1L, "11:00:00", "12:00:00"));
+        this.indice.liberar(2L);
+
+        assertDoesNotThrow(() -> this.indice.reservar(this.getDummyCita(3L, 1L, "11:00:00", "12:00:00")));
+        log.debug("<--- liberarTestOK");
+    }
+
+    @Test
+    public void reservarHorarioInvalidoTestKO()
+    {
+        log.debug("---> reservarHorarioInvalidoTestKO");
+
+        assertThrows(HorarioInvalidoExcepcion.class,
+                () -> this.indice.reservar(this.getDummyCita(2L, 1L, "12:00:00", "11:00:00")));
+
+        //Verificaciones:
+        verify(repositorio, times(0)).findFranjasBySalaAndFecha(anyLong(), any(LocalDate.class));
+        log.debug("<--- reservarHorarioInvalidoTestKO");
+    }
+
+    @Test
+    public void consultarDisponibilidadTestOK()
+    {
+        log.debug("---> consultarDisponibilidadTestOK");
+
+        //Dos citas que comparten el minuto 10:45 por segundos; al liberar la primera, ese minuto sigue ocupado:
+        this.indice.reservar(this.getDummyCita(2L, 1L, "10:30:00", "10:45:30"));
+        this.indice.reservar(this.getDummyCita(3L, 1L, "10:45:30", "11:00:00"));
+        this.indice.liberar(2L);
+
+        assertAll(
+                () -> assertFalse(this.indice.consultarDisponibilidad(1L, FECHA, LocalTime.of(10, 15), LocalTime.of(10, 31)).libre()),
+                () -> assertTrue(this.indice.consultarDisponibilidad(1L, FECHA, LocalTime.of(10, 30), LocalTime.of(10, 45)).libre()),
+                () -> assertFalse(this.indice.consultarDisponibilidad(1L, FECHA, LocalTime.of(10, 45), LocalTime.of(10, 46)).libre()),
+                () -> assertEquals(45, this.indice.consultarDisponibilidad(1L, FECHA, LocalTime.NOON, LocalTime.MAX).minutosOcupados())
+        );
+
+        //Verificaciones: la agenda se carga una sola vez:
+        verify(repositorio, times(1)).findFranjasBySalaAndFecha(1L, FECHA);
+        log.debug("<--- consultarDisponibilidadTestOK");
+    }
+
+    @Test
+    public void reservarOcurrenciaSerieTestKO()
+    {
+        log.debug("---> reservarOcurrenciaSerieTestKO");
+
+        //Serie semanal en la sala 1 de 12:00 a 13:00 que empieza justo en FECHA:
+        FranjaSerie serie = new FranjaSerie(9L, 1L, 7L, FECHA, FECHA.plusWeeks(4), 7, LocalTime.NOON, LocalTime.of(13, 0));
+        when(serieRepositorio.findFranjasBySalaAndFecha(eq(1L), any(LocalDate.class))).thenReturn(List.of(serie));
+
+        Cita otroDia = this.getDummyCita(3L, 1L, "12:30:00", "13:30:00");
+        otroDia.setFechaCita(FECHA.plusDays(1));
+
+        //Aseveraciones: la ocurrencia bloquea su franja, pero el día siguiente no hay ocurrencia:
+        SalaOcupadaExcepcion excepcion = assertThrows(SalaOcupadaExcepcion.class,
+                () -> this.indice.reservar(this.getDummyCita(2L, 1L, "12:30:00", "13:30:00")));
+
+        assertAll(
+                () -> assertTrue(excepcion.getMessage().contains("serie de citas con ID 9")),
+                () -> assertDoesNotThrow(() -> this.indice.reservar(otroDia))
+        );
+
+        log.debug("<--- reservarOcurrenciaSerieTestKO");
+    }
+
+    @Test
+    public void reservarAgendaDesalojadaEnTransaccionTestKO()
+    {
+        log.debug("---> reservarAgendaDesalojadaEnTransaccionTestKO");
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            //La caché desaloja la agenda antes de que se confirme la reserva de la cita 2:
+            this.indice.reservar(this.getDummyCita(2L, 1L, "11:00:00", "12:00:00"));
+            this.indice.invalidarTodo();
+
+            //Aseveraciones: la agenda se recupera con la reserva aún sin confirmar, no de la BBDD:
+            assertThrows(SalaOcupadaExcepcion.class,
+                    () -> this.indice.reservar(this.getDummyCita(3L, 1L, "11:30:00", "12:30:00")));
+
+            //Verificaciones:
+            verify(repositorio, times(1)).findFranjasBySalaAndFecha(1L, FECHA);
+        }
+        finally
+        {
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        log.debug("<--- reservarAgendaDesalojadaEnTransaccionTestKO");
+    }
+
+}
@@ -0,0 +1,187 @@
+package dev.acobano.springrestful.hospital.planificacion;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para el planificador que reparte lotes de peticiones de cita entre las
+ * salas y franjas libres, por gravedad y resolviendo en paralelo los días independientes.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest(properties = {
+        "hospital.planificacion.horario.apertura=08:00",
+        "hospital.planificacion.horario.cierre=10:00",
+        "hospital.planificacion.automatica.paralelismo=4"
+})
+@ContextConfiguration(classes = { PlanificadorCitas.class, IndiceOcupacionSalas.class, IndiceAgendaMedicos.class })
+@Slf4j
+class PlanificadorCitasTest
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final LocalDate LUNES = LocalDate.of(2025, 3, 10);
+    private static final LocalDateTime INGRESO = LocalDateTime.of(2025, 3, 1, 9, 0);
+
+    @Autowired
+    private PlanificadorCitas planificador;
+
+    @Autowired
+    private IndiceOcupacionSalas indiceSalas;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @MockBean
+    private CitaRepositorio repositorio;
+
+    @MockBean
+    private SerieCitasRepositorio serieRepositorio;
+
+
+
+                                        // ***********************
+                                        // ***  OBJETOS DUMMY  ***
+                                        // ***********************
+
+    private PeticionCita getDummyPeticion(int orden, Long medicoId, Gravedad gravedad, LocalDate desde, LocalDate hasta, int minutos)
+    {
+        return new PeticionCita(orden, new SolicitudCita((long) orden, desde, hasta, minutos), medicoId, gravedad, INGRESO);
+    }
+
+    @BeforeEach
+    public void prepararAgendas()
+    {
+        //Cada test parte de índices vacíos y de agendas sin citas, salvo la sala 1, ocupada el lunes de 08:00 a 09:00:
+        this.indiceSalas.invalidarTodo();
+        this.indiceMedicos.invalidarTodo();
+        when(repositorio.findFranjasByFecha(any(LocalDate.class))).thenReturn(List.of());
+        when(repositorio.findFranjasByFecha(LUNES)).thenReturn(List.of(
+                new FranjaCita(100L, 1L, LUNES, LocalTime.of(8, 0), LocalTime.of(9, 0))));
+        when(repositorio.findFranjasByMedicosAndFecha(anyCollection(), any(LocalDate.class))).thenReturn(List.of());
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void planificarPorGravedadTestOK()
+    {
+        log.debug("---> planificarPorGravedadTestOK");
+
+        //Al lunes solo le queda una hora libre en la sala 1: se la lleva el paciente crítico aunque llegue después:
+        List<Asignacion> resultado = this.planificador.planificar(List.of(
+                this.getDummyPeticion(0, null, Gravedad.LEVE, LUNES, LUNES, 60),
+                this.getDummyPeticion(1, null, Gravedad.CRITICA, LUNES, LUNES, 60)), List.of(1L));
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(1, resultado.size()),
+                () -> assertEquals(1, resultado.get(0).peticion().orden()),
+                () -> assertEquals(LocalTime.of(9, 0), resultado.get(0).inicio()),
+                () -> assertEquals(LocalTime.of(10, 0), resultado.get(0).fin())
+        );
+
+        log.debug("<--- planificarPorGravedadTestOK");
+    }
+
+    @Test
+    public void planificarSinSolaparMedicoTestOK()
+    {
+        log.debug("---> planificarSinSolaparMedicoTestOK");
+
+        //Dos pacientes del mismo médico el martes, con las dos salas libres: no pueden coincidir a la misma hora:
+        LocalDate martes = LUNES.plusDays(1);
+        List<Asignacion> resultado = new ArrayList<>(this.planificador.planificar(List.of(
+                this.getDummyPeticion(0, 7L, Gravedad.GRAVE, martes, martes, 60),
+                this.getDummyPeticion(1, 7L, Gravedad.GRAVE, martes, martes, 60)), List.of(1L, 2L)));
+        resultado.sort(Comparator.comparing(Asignacion::inicio));
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(2, resultado.size()),
+                () -> assertEquals(LocalTime.of(8, 0), resultado.get(0).inicio()),
+                () -> assertEquals(LocalTime.of(9, 0), resultado.get(1).inicio()),
+                () -> assertEquals(1L, resultado.get(0).salaId()),
+                () -> assertEquals(0, resultado.get(0).peticion().orden())
+        );
+
+        //Verificaciones: la agenda del médico se carga una sola vez para todo el día:
+        verify(repositorio, times(1)).findFranjasByMedicosAndFecha(anyCollection(), any(LocalDate.class));
+        log.debug("<--- planificarSinSolaparMedicoTestOK");
+    }
+
+    @Test
+    public void planificarSinSolaparPacienteTestOK()
+    {
+        log.debug("---> planificarSinSolaparPacienteTestOK");
+
+        //Dos solicitudes del mismo paciente sin médico el martes, con las dos salas libres: no pueden coincidir:
+        LocalDate martes = LUNES.plusDays(1);
+        SolicitudCita solicitud = new SolicitudCita(5L, martes, martes, 60);
+        List<Asignacion> resultado = new ArrayList<>(this.planificador.planificar(List.of(
+                new PeticionCita(0, solicitud, null, Gravedad.GRAVE, INGRESO),
+                new PeticionCita(1, solicitud, null, Gravedad.GRAVE, INGRESO)), List.of(1L, 2L)));
+        resultado.sort(Comparator.comparing(Asignacion::inicio));
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(2, resultado.size()),
+                () -> assertEquals(LocalTime.of(8, 0), resultado.get(0).inicio()),
+                () -> assertEquals(LocalTime.of(9, 0), resultado.get(1).inicio()),
+                () -> assertEquals(1L, resultado.get(1).salaId())
+        );
+
+        log.debug("<--- planificarSinSolaparPacienteTestOK");
+    }
+
+    @Test
+    public void planificarVariosDiasTestOK()
+    {
+        log.debug("---> planificarVariosDiasTestOK");
+        List<PeticionCita> peticiones = new ArrayList<>();
+
+        //Cinco días con dos horas libres cada uno (salvo el lunes, con una): 12 peticiones de una hora
+        //que pueden acudir cualquier día de la semana. Caben 9; las 3 menos prioritarias se quedan fuera:
+        for (int i = 0; i < 12; i++)
+            peticiones.add(this.getDummyPeticion(i, null, i < 9 ? Gravedad.MODERADA : Gravedad.ASINTOMATICA,
+                    LUNES, LUNES.plusDays(4), 60));
+
+        List<Asignacion> resultado = this.planificador.planificar(peticiones, List.of(1L));
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertEquals(9, resultado.size()),
+                () -> assertTrue(resultado.stream().allMatch(a -> a.peticion().gravedad() == Gravedad.MODERADA)),
+                () -> assertEquals(9, resultado.stream().map(a -> a.fecha().atTime(a.inicio())).distinct().count()),
+                () -> assertEquals(1, resultado.stream().filter(a -> a.fecha().equals(LUNES)).count())
+        );
+
+        log.debug("<--- planificarVariosDiasTestOK");
+    }
+}
@@ -0,0 +1,420 @@
+package dev.acobano.springrestful.hospital.servicios.implementaciones;
+
+import dev.acobano.springrestful.hospital.excepciones.MedicoOcupadoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
+import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.MedicoRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SalaRepositorio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de testing de las escrituras concurrentes de citas contra la BBDD H2 real, sin repositorios
+ * simulados: cientos de reservas simultáneas sobre las mismas salas, actualizaciones simultáneas
+ * de una misma cita y citas que cambian de sala, día o médico mientras otras peticiones intentan
+ * ocupar la franja que dejan, comprobando después en la BBDD que no hay solapamientos ni cambios perdidos.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest
+@Slf4j
+class CitaServicioImplConcurrenciaTest
+{
+                                            // *******************
+                                            // ***  ATRIBUTOS  ***
+                                            // *******************
+
+    //Fecha lejana para no coincidir con los datos que pueda haber en la BBDD:
+    private static final LocalDate FECHA = LocalDate.of(2099, 3, 2);
+    private static final int ESCRITORES = 16;
+
+    @Autowired
+    private ICitaServicio servicio;
+
+    @Autowired
+    private CitaRepositorio citaRepositorio;
+
+    @Autowired
+    private PacienteRepositorio pacienteRepositorio;
+
+    @Autowired
+    private SalaRepositorio salaRepositorio;
+
+    @Autowired
+    private MedicoRepositorio medicoRepositorio;
+
+    @Autowired
+    private PlatformTransactionManager gestorTransacciones;
+
+    private final List<Sala> salas = new ArrayList<>();
+    private final List<Paciente> pacientes = new ArrayList<>();
+    private final List<Paciente> pacientesConMedico = new ArrayList<>();
+    private Medico medico;
+
+
+
+                                            // ***********************
+                                            // ***  OBJETOS DUMMY  ***
+                                            // ***********************
+
+    @BeforeEach
+    public void prepararDatos()
+    {
+        //Pacientes sin médico asignado, para que solo compitan por las salas:
+        for (int i = 1; i <= 3; i++)
+            this.salas.add(this.salaRepositorio.save(Sala.builder().numero(9000 + i).build()));
+
+        for (int i = 1; i <= 20; i++)
+            this.pacientes.add(this.pacienteRepositorio.save(Paciente.builder()
+                    .nombre("Concurrente" + i)
+                    .apellidos("Apellidos Concurrente")
+                    .build()));
+
+        //Y otros que comparten médico, cuyas citas compiten además por su agenda:
+        this.medico = this.medicoRepositorio.save(Medico.builder().nombre("Concurrente").build());
+
+        for (int i = 1; i <= 4; i++)
+            this.pacientesConMedico.add(this.pacienteRepositorio.save(Paciente.builder()
+                    .nombre("ConMedico" + i)
+                    .apellidos("Apellidos Concurrente")
+                    .medicoAsignado(this.medico)
+                    .build()));
+    }
+
+    @AfterEach
+    public void limpiarDatos()
+    {
+        for (Sala sala : this.salas)
+            this.citaRepositorio.findAll().stream()
+                    .filter(c -> c.getSala().getId().equals(sala.getId()))
+                    .forEach(c -> this.servicio.eliminarCita(c.getId()));
+
+        this.pacienteRepositorio.deleteAll(this.pacientes);
+        this.pacienteRepositorio.deleteAll(this.pacientesConMedico);
+        this.medicoRepositorio.delete(this.medico);
+        this.salaRepositorio.deleteAll(this.salas);
+    }
+
+    private Cita getDummyCita(Sala sala, Paciente paciente, LocalTime entrada, int minutos)
+    {
+        return Cita.builder()
+                .sala(sala)
+                .paciente(paciente)
+                .fechaCita(FECHA)
+                .horaEntrada(entrada)
+                .horaSalida(entrada.plusMinutes(minutos))
+                .build();
+    }
+
+    //Guarda la cita y devuelve si se ha aceptado, o false si su sala, su médico o su agenda no estaban disponibles:
+    private boolean reservar(Cita cita)
+    {
+        try
+        {
+            this.servicio.guardarCita(cita);
+            return true;
+        }
+        catch (SalaOcupadaExcepcion | MedicoOcupadoExcepcion | ConcurrencyFailureException e)
+        {
+            return false;
+        }
+    }
+
+    //Comprueba en la BBDD que las citas de cada agenda (sala o médico, y día) no se solapan entre sí:
+    private void comprobarSinSolapamientos()
+    {
+        List<Cita> citas = this.citaRepositorio.findAll().stream()
+                .filter(c -> this.salas.stream().anyMatch(s -> s.getId().equals(c.getSala().getId())))
+                .toList();
+
+        Map<String, List<Cita>> porSala = citas.stream()
+                .collect(Collectors.groupingBy(c -> "sala " + c.getSala().getId() + " el " + c.getFechaCita()));
+        //El paciente de cada cita no se carga fuera de la transacción: su médico se deduce de su ID:
+        List<Long> conMedico = this.pacientesConMedico.stream().map(Paciente::getId).toList();
+        Map<String, List<Cita>> porMedico = citas.stream()
+                .filter(c -> conMedico.contains(c.getPaciente().getId()))
+                .collect(Collectors.groupingBy(c -> "médico " + this.medico.getId() + " el " + c.getFechaCita()));
+
+        for (Map<String, List<Cita>> agendas : List.of(porSala, porMedico))
+            agendas.forEach((agenda, suyas) -> {
+                List<Cita> ordenadas = suyas.stream().sorted(Comparator.comparing(Cita::getHoraEntrada)).toList();
+
+                for (int i = 1; i < ordenadas.size(); i++)
+                    assertFalse(ordenadas.get(i).getHoraEntrada().isBefore(ordenadas.get(i - 1).getHoraSalida()),
+                            "Citas solapadas en la " + agenda + ": "
+                                    + ordenadas.get(i - 1).getId() + " y " + ordenadas.get(i).getId());
+            });
+    }
+
+    //Lanza todas las tareas a la vez desde el mismo punto de partida y devuelve sus resultados:
+    private <T> List<T> ejecutarALaVez(List<Callable<T>> tareas) throws Exception
+    {
+        ExecutorService escritores = Executors.newFixedThreadPool(ESCRITORES);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<T>> futuros = new ArrayList<>();
+
+        for (Callable<T> tarea : tareas)
+            futuros.add(escritores.submit(() -> {
+                salida.await();
+                return tarea.call();
+            }));
+
+        salida.countDown();
+        List<T> resultados = new ArrayList<>();
+
+        for (Future<T> f : futuros)
+            resultados.add(f.get());
+
+        escritores.shutdown();
+        return resultados;
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void guardarCitaConcurrenteSinSolapamientosTestOK() throws Exception
+    {
+        log.debug("---> guardarCitaConcurrenteSinSolapamientosTestOK");
+        Random aleatorio = new Random(20);
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Callable<Boolean>> reservas = new ArrayList<>();
+
+        //300 reservas de 30 minutos que empiezan en minutos al azar entre las 08:00 y las 12:00 en tres salas:
+        for (int i = 0; i < 300; i++)
+        {
+            Cita cita = this.getDummyCita(this.salas.get(i % 3), this.pacientes.get(i % 20),
+                    LocalTime.of(8, 0).plusMinutes(aleatorio.nextInt(240)), 30);
+
+            reservas.add(() -> {
+                try
+                {
+                    this.servicio.guardarCita(cita);
+                    return true;
+                }
+                catch (SalaOcupadaExcepcion | ConcurrencyFailureException e)
+                {
+                    rechazadas.incrementAndGet();
+                    return false;
+                }
+            });
+        }
+
+        long guardadas = this.ejecutarALaVez(reservas).stream().filter(Boolean::booleanValue).count();
+
+        //Aseveraciones: en la BBDD, cada cita de una sala empieza cuando ya ha terminado la anterior:
+        for (Sala sala : this.salas)
+        {
+            List<Cita> suyas = this.citaRepositorio.findAll().stream()
+                    .filter(c -> c.getSala().getId().equals(sala.getId()))
+                    .sorted(Comparator.comparing(Cita::getHoraEntrada))
+                    .toList();
+
+            assertFalse(suyas.isEmpty());
+
+            for (int i = 1; i < suyas.size(); i++)
+                assertFalse(suyas.get(i).getHoraEntrada().isBefore(suyas.get(i - 1).getHoraSalida()),
+                        "Citas solapadas en la sala " + sala.getNumero() + ": "
+                                + suyas.get(i - 1).getId() + " y " + suyas.get(i).getId());
+        }
+
+        long enBbdd = this.citaRepositorio.findAll().stream()
+                .filter(c -> this.salas.stream().anyMatch(s -> s.getId().equals(c.getSala().getId())))
+                .count();
+
+        assertAll(
+                () -> assertEquals(300, guardadas + rechazadas.get()),
+                () -> assertEquals(guardadas, enBbdd)
+        );
+
+        log.debug("<--- guardarCitaConcurrenteSinSolapamientosTestOK");
+    }
+
+    @Test
+    public void actualizarCitaConcurrenteSinCambiosPerdidosTestOK() throws Exception
+    {
+        log.debug("---> actualizarCitaConcurrenteSinCambiosPerdidosTestOK");
+        Cita cita = this.getDummyCita(this.salas.get(0), this.pacientes.get(0), LocalTime.of(8, 0), 1);
+        this.servicio.guardarCita(cita);
+        Long citaId = cita.getId();
+        List<Callable<Boolean>> actualizaciones = new ArrayList<>();
+
+        //Cada actualización alarga un minuto la cita partiendo de la hora de salida que lee:
+        for (int i = 0; i < 40; i++)
+            actualizaciones.add(() -> {
+                try
+                {
+                    return this.servicio.actualizarCita(citaId,
+                            c -> c.setHoraSalida(c.getHoraSalida().plusMinutes(1))).isPresent();
+                }
+                catch (ConcurrencyFailureException e)
+                {
+                    return false;
+                }
+            });
+
+        long aplicadas = this.ejecutarALaVez(actualizaciones).stream().filter(Boolean::booleanValue).count();
+        Cita leida = this.citaRepositorio.findById(citaId).orElseThrow();
+
+        //Aseveraciones: cada actualización confirmada se ve en el resultado final, ninguna se pisa con otra:
+        assertAll(
+                () -> assertTrue(aplicadas > 0),
+                () -> assertEquals(LocalTime.of(8, 1).plusMinutes(aplicadas), leida.getHoraSalida()),
+                () -> assertEquals(aplicadas, leida.getVersion())
+        );
+
+        log.debug("<--- actualizarCitaConcurrenteSinCambiosPerdidosTestOK");
+    }
+
+    @Test
+    public void moverCitasConcurrenteSinSolapamientosTestOK() throws Exception
+    {
+        log.debug("---> moverCitasConcurrenteSinSolapamientosTestOK");
+        Random aleatorio = new Random(31);
+        List<Long> citaIds = new ArrayList<>();
+        List<Callable<Boolean>> tareas = new ArrayList<>();
+
+        //12 citas seguidas en la primera sala; las de los pacientes con médico comparten además su agenda:
+        for (int i = 0; i < 12; i++)
+        {
+            Paciente paciente = i % 2 == 0 ? this.pacientesConMedico.get(i % 4) : this.pacientes.get(i);
+            Cita cita = this.getDummyCita(this.salas.get(0), paciente, LocalTime.of(8, 0).plusMinutes(30L * i), 30);
+            this.servicio.guardarCita(cita);
+            citaIds.add(cita.getId());
+        }
+
+        //Cada cita intenta moverse tres veces a otra sala, día u hora, muchas veces a franjas ya ocupadas,
+        //mientras nuevas citas intentan ocupar tanto las franjas que dejan como a las que se mueven:
+        for (int i = 0; i < 36; i++)
+        {
+            Long citaId = citaIds.get(i % citaIds.size());
+            Sala sala = this.salas.get(aleatorio.nextInt(3));
+            LocalDate fecha = FECHA.plusDays(aleatorio.nextInt(2));
+            LocalTime entrada = LocalTime.of(8, 0).plusMinutes(aleatorio.nextInt(360));
+
+            tareas.add(() -> {
+                try
+                {
+                    return this.servicio.actualizarCita(citaId, c -> {
+                        c.setSala(sala);
+                        c.setFechaCita(fecha);
+                        c.setHoraEntrada(entrada);
+                        c.setHoraSalida(entrada.plusMinutes(30));
+                    }).isPresent();
+                }
+                catch (SalaOcupadaExcepcion | MedicoOcupadoExcepcion | ConcurrencyFailureException e)
+                {
+                    return false;
+                }
+            });
+        }
+
+        for (int i = 0; i < 120; i++)
+        {
+            Paciente paciente = i % 3 == 0 ? this.pacientesConMedico.get(i % 4) : this.pacientes.get(i % 20);
+            Cita cita = this.getDummyCita(this.salas.get(aleatorio.nextInt(3)), paciente,
+                    LocalTime.of(8, 0).plusMinutes(aleatorio.nextInt(360)), 30);
+            cita.setFechaCita(FECHA.plusDays(aleatorio.nextInt(2)));
+            tareas.add(() -> this.reservar(cita));
+        }
+
+        List<Boolean> resultados = this.ejecutarALaVez(tareas);
+
+        //Aseveraciones: algún movimiento se ha aplicado y ninguna agenda ha quedado con citas solapadas:
+        assertTrue(resultados.subList(0, 36).contains(true));
+        this.comprobarSinSolapamientos();
+        log.debug("<--- moverCitasConcurrenteSinSolapamientosTestOK");
+    }
+
+    @Test
+    public void actualizarCitaDeshechaNoCedeSuFranjaTestOK() throws Exception
+    {
+        log.debug("---> actualizarCitaDeshechaNoCedeSuFranjaTestOK");
+        Cita cita = this.getDummyCita(this.salas.get(0), this.pacientesConMedico.get(0), LocalTime.of(8, 0), 30);
+        this.servicio.guardarCita(cita);
+
+        //Una quiere la misma sala a la misma hora; la otra, al mismo médico en otra sala:
+        Cita mismaSala = this.getDummyCita(this.salas.get(0), this.pacientes.get(0), LocalTime.of(8, 0), 30);
+        Cita mismoMedico = this.getDummyCita(this.salas.get(2), this.pacientesConMedico.get(1), LocalTime.of(8, 0), 30);
+        ExecutorService competidoras = Executors.newFixedThreadPool(2);
+        List<Future<Boolean>> reservas = new ArrayList<>();
+
+        //La cita se mueve a otra sala y día, y la transacción falla después, con el cambio ya anotado en las agendas:
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(this.gestorTransacciones)
+                .executeWithoutResult(estado -> {
+                    Cita movida = this.citaRepositorio.findById(cita.getId()).orElseThrow();
+                    movida.setSala(this.salas.get(1));
+                    movida.setFechaCita(FECHA.plusDays(1));
+                    movida.setHoraEntrada(LocalTime.of(10, 0));
+                    movida.setHoraSalida(LocalTime.of(10, 30));
+                    this.servicio.guardarCita(movida);
+
+                    //Mientras sigue abierta, otras peticiones intentan ocupar la franja que la cita ha dejado:
+                    reservas.add(competidoras.submit(() -> this.reservar(mismaSala)));
+                    reservas.add(competidoras.submit(() -> this.reservar(mismoMedico)));
+
+                    try
+                    {
+                        Thread.sleep(300);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    throw new IllegalStateException("Fallo posterior a la actualización de la cita");
+                }));
+
+        List<Boolean> resultados = new ArrayList<>();
+
+        for (Future<Boolean> f : reservas)
+            resultados.add(f.get());
+
+        competidoras.shutdown();
+        Cita leida = this.citaRepositorio.findById(cita.getId()).orElseThrow();
+
+        //Aseveraciones: la cita recupera su franja y ninguna de las otras ha podido ocuparla entretanto:
+        assertAll(
+                () -> assertEquals(List.of(false, false), resultados),
+                () -> assertEquals(this.salas.get(0).getId(), leida.getSala().getId()),
+                () -> assertEquals(FECHA, leida.getFechaCita()),
+                () -> assertEquals(LocalTime.of(8, 0), leida.getHoraEntrada())
+        );
+
+        this.comprobarSinSolapamientos();
+        log.debug("<--- actualizarCitaDeshechaNoCedeSuFranjaTestOK");
+    }
+}
@@ -4,6 +4,7 @@ import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.CitaResumen;
 import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ICitaServicio;
 import lombok.extern.slf4j.Slf4j;
@@ -11,9 +12,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +56,15 @@ class CitaServicioImplTest
                                             // ***  OBJETOS DUMMY  ***
                                             // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private List<CitaResumen> proyectar(List<Cita> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(CitaResumen.class, e))
+                .toList();
+    }
+
     private Cita getDummyEntidad()
     {
         return Cita.builder()
@@ -156,6 +176,52 @@ class CitaServicioImplTest
         log.debug("<--- leerListaCitasTestKO");
     }
 
+    @Test
+    public void leerCitasDesdeCursorTestOK()
+    {
+        log.debug("---> leerCitasDesdeCursorTestOK");
+        //Definición de comportamiento:
+        LocalDate fecha = LocalDate.of(2024, 3, 10);
+        List<Cita> esperado = List.of(this.getDummyEntidad());
+        when(repositorio.findSiguientesPorFecha(fecha, 4L, PageRequest.ofSize(10)))
+                .thenReturn(new SliceImpl<>(this.proyectar(esperado), PageRequest.ofSize(10), false));
+        Slice<CitaResumen> resultado = this.servicio.leerCitasDesdeCursor(fecha, 4L, 10);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertFalse(resultado.hasNext()),
+                () -> assertEquals(esperado.size(), resultado.getNumberOfElements()),
+                () -> assertEquals(esperado.get(0).getId(), resultado.getContent().get(0).getId())
+        );
+
+        //Verificaciones:
+        verify(repositorio, times(1)).findSiguientesPorFecha(fecha, 4L, PageRequest.ofSize(10));
+        verify(repositorio, never()).findPrimerasPorFecha(any());
+        log.debug("<--- leerCitasDesdeCursorTestOK");
+    }
+
+    @Test
+    public void leerCitasDesdeCursorVacioTestOK()
+    {
+        log.debug("---> leerCitasDesdeCursorVacioTestOK");
+        //Definición de comportamiento:
+        when(repositorio.findPrimerasPorFecha(PageRequest.ofSize(10)))
+                .thenReturn(new SliceImpl<>(this.proyectar(List.of(this.getDummyEntidad()))));
+        Slice<CitaResumen> resultado = this.servicio.leerCitasDesdeCursor(null, null, 10);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertEquals(1, resultado.getNumberOfElements())
+        );
+
+        //Verificaciones:
+        verify(repositorio, times(1)).findPrimerasPorFecha(PageRequest.ofSize(10));
+        verify(repositorio, never()).findSiguientesPorFecha(any(), any(), any());
+        log.debug("<--- leerCitasDesdeCursorVacioTestOK");
+    }
+
     @Test
     public void guardarCitaTestOK()
     {
@@ -167,6 +233,47 @@ class CitaServicioImplTest
         log.debug("<--- guardarCitaTestOK");
     }
 
+    @Test
+    public void guardarCitasTestOK()
+    {
+        log.debug("---> guardarCitasTestOK");
+        List<Cita> esperadas = List.of(this.getDummyEntidad(), this.getDummyEntidad());
+        when(repositorio.saveAll(esperadas)).thenReturn(esperadas);
+        List<Cita> resultado = this.servicio.guardarCitas(esperadas);
+        assertEquals(esperadas.size(), resultado.size());
+        verify(repositorio, times(1)).saveAll(esperadas);
+        verify(repositorio, times(0)).save(any(Cita.class));
+        log.debug("<--- guardarCitasTestOK");
+    }
+
+    @Test
+    public void procesarCitasPorLotesTestOK()
+    {
+        log.debug("---> procesarCitasPorLotesTestOK");
+        List<Cita> citas = List.of(this.getDummyEntidad(), this.getDummyEntidad(), this.getDummyEntidad());
+        List<Integer> tamaniosLote = new ArrayList<>();
+        when(repositorio.streamAllOrderById()).thenReturn(citas.stream());
+        long total = this.servicio.procesarCitasPorLotes(2, lote -> tamaniosLote.add(lote.size()));
+        assertEquals(citas.size(), total);
+        assertEquals(List.of(2, 1), tamaniosLote);
+        verify(repositorio, times(1)).streamAllOrderById();
+        verify(repositorio, times(0)).findAll();
+        log.debug("<--- procesarCitasPorLotesTestOK");
+    }
+
+    @Test
+    public void procesarCitasPorLotesTestKO()
+    {
+        log.debug("---> procesarCitasPorLotesTestKO");
+        List<Integer> tamaniosLote = new ArrayList<>();
+        when(repositorio.streamAllOrderById()).thenReturn(Stream.empty());
+        long total = this.servicio.procesarCitasPorLotes(2, lote -> tamaniosLote.add(lote.size()));
+        assertEquals(0, total);
+        assertTrue(tamaniosLote.isEmpty());
+        verify(repositorio, times(1)).streamAllOrderById();
+        log.debug("<--- procesarCitasPorLotesTestKO");
+    }
+
     @Test
     public void eliminarCitaTestOK()
     {
@@ -182,9 +289,13 @@ class CitaServicioImplTest
     public void eliminarTodasCitasTestOK()
     {
         log.debug("---> eliminarTodasCitasTestOK");
-        doNothing().when(repositorio).deleteAll();
+        List<Long> primerLote = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(repositorio.findIds(any(Pageable.class))).thenReturn(primerLote, List.of(1001L));
         this.servicio.eliminarTodasCitas();
-        verify(repositorio, times(1)).deleteAll();
+        verify(repositorio, times(2)).findIds(any(Pageable.class));
+        verify(repositorio, times(1)).deleteAllByIdInBatch(primerLote);
+        verify(repositorio, times(1)).deleteAllByIdInBatch(List.of(1001L));
+        verify(repositorio, times(0)).deleteAll();
         log.debug("<--- eliminarTodasCitasTestOK");
     }
 }
\ No newline at end of file
@@ -2,13 +2,21 @@ package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Especialidad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.MedicoResumen;
 import dev.acobano.springrestful.hospital.repositorios.MedicoRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IMedicoServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.Collections;
 import java.util.List;
@@ -37,12 +45,26 @@ class MedicoServicioImplTest
     @MockBean
     private MedicoRepositorio repositorio;
 
+    @MockBean
+    private PacienteRepositorio pacienteRepositorio;
+
+    private static final Pageable PAGINA = PageRequest.of(0, 20);
+
 
 
                                             // ***********************
                                             // ***  OBJETOS DUMMY  ***
                                             // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private List<MedicoResumen> proyectar(List<Medico> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(MedicoResumen.class, e))
+                .toList();
+    }
+
     private Medico getDummyEntidad()
     {
         return Medico.builder()
@@ -193,8 +215,8 @@ class MedicoServicioImplTest
                         .especialidad(Especialidad.PSIQUIATRIA)
                         .build());
 
-        when(repositorio.findAll()).thenReturn(this.getDummyListaEntidades());
-        List<Medico> resultado = this.servicio.filtrarMedicosPorNombre(entrada);
+        when(repositorio.findResumenesByNombre(entrada, PAGINA)).thenReturn(new PageImpl<>(this.proyectar(esperado)));
+        List<MedicoResumen> resultado = this.servicio.filtrarMedicosPorNombre(entrada, PAGINA).getContent();
 
         //Aseveraciones:
         assertAll(
@@ -211,7 +233,8 @@ class MedicoServicioImplTest
         );
 
         //Verificaciones:
-        verify(repositorio, times(1)).findAll();
+        verify(repositorio, times(1)).findResumenesByNombre(entrada, PAGINA);
+        verify(repositorio, never()).findAll();
         log.debug("<--- leerMedicosPorNombreTestOK");
     }
 
@@ -232,8 +255,9 @@ class MedicoServicioImplTest
                         .especialidad(Especialidad.PEDIATRIA)
                         .build());
 
-        when(repositorio.findAll()).thenReturn(this.getDummyListaEntidades());
-        List<Medico> resultado = this.servicio.filtrarMedicosPorEspecialidad(entrada);
+        when(repositorio.findResumenesByEspecialidad(Especialidad.PEDIATRIA, PAGINA))
+                .thenReturn(new PageImpl<>(this.proyectar(esperado)));
+        List<MedicoResumen> resultado = this.servicio.filtrarMedicosPorEspecialidad(entrada, PAGINA).getContent();
 
         //Aseveraciones:
         assertAll(
@@ -250,7 +274,8 @@ class MedicoServicioImplTest
         );
 
         //Verificaciones:
-        verify(repositorio, times(1)).findAll();
+        verify(repositorio, times(1)).findResumenesByEspecialidad(Especialidad.PEDIATRIA, PAGINA);
+        verify(repositorio, never()).findAll();
         log.debug("<--- leerMedicosPorEspecialidadTestOK");
     }
 
@@ -262,8 +287,10 @@ class MedicoServicioImplTest
         String nombreEntrada = "Medico dummy";
         String especialidadEntrada = "PEDIATRIA";
         List<Medico> esperado = List.of(this.getDummyEntidad());
-        when(repositorio.findAll()).thenReturn(this.getDummyListaEntidades());
-        List<Medico> resultado = this.servicio.filtrarMedicosPorNombreYEspecialidad(nombreEntrada, especialidadEntrada);
+        when(repositorio.findResumenesByNombreAndEspecialidad(nombreEntrada, Especialidad.PEDIATRIA, PAGINA))
+                .thenReturn(new PageImpl<>(this.proyectar(esperado)));
+        List<MedicoResumen> resultado = this.servicio
+                .filtrarMedicosPorNombreYEspecialidad(nombreEntrada, especialidadEntrada, PAGINA).getContent();
 
         //Aseveraciones:
         assertAll(
@@ -277,10 +304,30 @@ class MedicoServicioImplTest
         );
 
         //Verifiaciones:
-        verify(repositorio, times(1)).findAll();
+        verify(repositorio, times(1)).findResumenesByNombreAndEspecialidad(nombreEntrada, Especialidad.PEDIATRIA, PAGINA);
+        verify(repositorio, never()).findAll();
         log.debug("<--- leerMedicosPorNombreYEspecialidadTestOK");
     }
 
+    @Test
+    public void leerMedicosPorEspecialidadInexistenteTestKO()
+    {
+        log.debug("---> leerMedicosPorEspecialidadInexistenteTestKO");
+        List<MedicoResumen> resultado = this.servicio
+                .filtrarMedicosPorEspecialidad("ESPECIALIDAD_INEXISTENTE", PAGINA).getContent();
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertTrue(resultado.isEmpty())
+        );
+
+        //Verificaciones:
+        verify(repositorio, never()).findResumenesByEspecialidad(any(), any());
+        verify(repositorio, never()).findAll();
+        log.debug("<--- leerMedicosPorEspecialidadInexistenteTestKO");
+    }
+
     @Test
     public void guardarMedicoTestOK()
     {
@@ -307,9 +354,15 @@ class MedicoServicioImplTest
     public void eliminarTodosMedicosTestOK()
     {
         log.debug("---> eliminarTodosMedicosTestOK");
-        doNothing().when(repositorio).deleteAll();
+        List<Long> ids = List.of(1L, 2L);
+        when(repositorio.findIds(any(Pageable.class))).thenReturn(ids);
         servicio.eliminarTodosMedicos();
-        verify(repositorio, times(1)).deleteAll();
+
+        //Verificaciones: las filas dependientes se tratan antes que las propias entidades:
+        InOrder orden = inOrder(pacienteRepositorio, repositorio);
+        orden.verify(pacienteRepositorio, times(1)).desasignarMedicos(ids);
+        orden.verify(repositorio, times(1)).deleteAllByIdInBatch(ids);
+        verify(repositorio, times(0)).deleteAll();
         log.debug("<--- eliminarTodosMedicosTestOK");
     }
 }
\ No newline at end of file
@@ -1,16 +1,37 @@
 package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
+import dev.acobano.springrestful.hospital.excepciones.MedicoOcupadoExcepcion;
+import dev.acobano.springrestful.hospital.excepciones.SalaOcupadaExcepcion;
+import dev.acobano.springrestful.hospital.modelo.entidades.Cita;
+import dev.acobano.springrestful.hospital.modelo.entidades.Medico;
 import dev.acobano.springrestful.hospital.modelo.entidades.Paciente;
+import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Genero;
 import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.PacienteResumen;
+import dev.acobano.springrestful.hospital.planificacion.FranjaSerie;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
 import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.IPacienteServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -38,12 +59,33 @@ class PacienteServicioImplTest
     @MockBean
     private PacienteRepositorio repositorio;
 
+    @MockBean
+    private CitaRepositorio citaRepositorio;
+
+    @MockBean
+    private SerieCitasRepositorio serieRepositorio;
+
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
 
 
                                         // ***********************
                                         // ***  OBJETOS DUMMY  ***
                                         // ***********************
 
+    private final ProjectionFactory factoriaProyecciones = new SpelAwareProxyProjectionFactory();
+
+    private List<PacienteResumen> proyectar(List<Paciente> entidades)
+    {
+        return entidades.stream()
+                .map(e -> this.factoriaProyecciones.createProjection(PacienteResumen.class, e))
+                .toList();
+    }
+
 
     private Paciente getDummyEntidad()
     {
@@ -206,8 +248,10 @@ class PacienteServicioImplTest
         log.debug("---> filtrarPacientesPorGravedadTestOK");
         String entrada = "ASINTOMATICA";
         List<Paciente> esperado = List.of(this.getDummyEntidad());
-        when(repositorio.findAll()).thenReturn(this.getDummyListaEntidades());
-        List<Paciente> resultado = this.servicio.filtrarPacientesPorGravedad(entrada);
+        Pageable pagina = PageRequest.of(0, 20);
+        when(repositorio.findResumenesByGravedad(Gravedad.ASINTOMATICA, pagina))
+                .thenReturn(new PageImpl<>(this.proyectar(esperado)));
+        List<PacienteResumen> resultado = this.servicio.filtrarPacientesPorGravedad(entrada, pagina).getContent();
 
         //Aseveraciones:
         assertAll(
@@ -227,7 +271,8 @@ class PacienteServicioImplTest
         );
 
         //Verificaciones:
-        verify(repositorio, times(1)).findAll();
+        verify(repositorio, times(1)).findResumenesByGravedad(Gravedad.ASINTOMATICA, pagina);
+        verify(repositorio, never()).findAll();
         log.debug("<--- filtrarPacientesPorGravedadTestOK");
     }
 
@@ -236,8 +281,7 @@ class PacienteServicioImplTest
     {
         log.debug("---> filtrarPacientesPorGravedadTestKO");
         String entrada = "String test";
-        when(repositorio.findAll()).thenReturn(Collections.emptyList());
-        List<Paciente> resultado = this.servicio.filtrarPacientesPorGravedad(entrada);
+        List<PacienteResumen> resultado = this.servicio.filtrarPacientesPorGravedad(entrada, PageRequest.of(0, 20)).getContent();
 
         //Aseveraciones:
         assertAll(
@@ -246,10 +290,55 @@ class PacienteServicioImplTest
         );
 
         //Verificaciones:
-        verify(repositorio, times(1)).findAll();
+        verify(repositorio, never()).findResumenesByGravedad(any(), any());
+        verify(repositorio, never()).findAll();
         log.debug("<--- filtrarPacientesPorGravedadTestKO");
     }
 
+    @Test
+    public void leerPacientesPorTriajeTestOK()
+    {
+        log.debug("---> leerPacientesPorTriajeTestOK");
+        List<Paciente> esperado = this.getDummyListaEntidades();
+        when(repositorio.findAllOrdenadosPorTriaje(any(Pageable.class))).thenReturn(esperado);
+        List<Paciente> resultado = this.servicio.leerPacientesPorTriaje(5);
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertEquals(esperado.size(), resultado.size()),
+                () -> assertEquals(esperado.get(0).getId(), resultado.get(0).getId())
+        );
+
+        //Verificaciones:
+        verify(repositorio, times(1)).findAllOrdenadosPorTriaje(PageRequest.of(0, 5));
+        verify(repositorio, never()).findAll();
+        log.debug("<--- leerPacientesPorTriajeTestOK");
+    }
+
+    @Test
+    public void leerPacientesDesdeCursorTestOK()
+    {
+        log.debug("---> leerPacientesDesdeCursorTestOK");
+        List<Paciente> esperado = this.getDummyListaEntidades();
+        when(repositorio.findResumenesDesdeId(eq(4L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(this.proyectar(esperado), PageRequest.ofSize(esperado.size()), true));
+        Slice<PacienteResumen> resultado = this.servicio.leerPacientesDesdeCursor(4L, esperado.size());
+
+        //Aseveraciones:
+        assertAll(
+                () -> assertNotNull(resultado),
+                () -> assertTrue(resultado.hasNext()),
+                () -> assertEquals(esperado.size(), resultado.getNumberOfElements()),
+                () -> assertEquals(esperado.get(0).getId(), resultado.getContent().get(0).getId())
+        );
+
+        //Verificaciones:
+        verify(repositorio, times(1)).findResumenesDesdeId(4L, PageRequest.ofSize(esperado.size()));
+        verify(repositorio, never()).findAll(any(Pageable.class));
+        log.debug("<--- leerPacientesDesdeCursorTestOK");
+    }
+
     @Test
     public void guardarPacienteTestOK()
     {
@@ -272,13 +361,84 @@ class PacienteServicioImplTest
         log.debug("<--- eliminarPacienteTestOK");
     }
 
+    @Test
+    public void eliminarPacienteInvalidaSoloSusAgendasTestOK()
+    {
+        log.debug("---> eliminarPacienteInvalidaSoloSusAgendasTestOK");
+        LocalDate fecha = LocalDate.of(2025, 3, 10);
+        Paciente paciente = this.getDummyEntidad();
+        Cita cita = Cita.builder().id(8L).paciente(paciente).sala(Sala.builder().id(1L).build()).fechaCita(fecha)
+                .horaEntrada(LocalTime.of(10, 0)).horaSalida(LocalTime.of(10, 30)).build();
+        paciente.setCitasAsignadas(List.of(cita));
+
+        //Definición de comportamiento: las agendas de las salas 1 y 2 ya están cargadas:
+        this.indiceOcupacion.invalidarTodo();
+        when(repositorio.findById(paciente.getId())).thenReturn(Optional.of(paciente));
+        this.indiceOcupacion.consultarDisponibilidad(1L, fecha, LocalTime.NOON, LocalTime.of(13, 0));
+        this.indiceOcupacion.consultarDisponibilidad(2L, fecha, LocalTime.NOON, LocalTime.of(13, 0));
+
+        this.servicio.eliminarPaciente(paciente.getId());
+        this.indiceOcupacion.consultarDisponibilidad(1L, fecha, LocalTime.NOON, LocalTime.of(13, 0));
+        this.indiceOcupacion.consultarDisponibilidad(2L, fecha, LocalTime.NOON, LocalTime.of(13, 0));
+
+        //Verificaciones: solo se vuelve a leer la agenda de la sala de su cita:
+        verify(repositorio, times(1)).deleteById(paciente.getId());
+        verify(citaRepositorio, times(2)).findFranjasBySalaAndFecha(1L, fecha);
+        verify(citaRepositorio, times(1)).findFranjasBySalaAndFecha(2L, fecha);
+        log.debug("<--- eliminarPacienteInvalidaSoloSusAgendasTestOK");
+    }
+
+    @Test
+    public void eliminarPacienteConSerieLiberaSusFranjasTestOK()
+    {
+        log.debug("---> eliminarPacienteConSerieLiberaSusFranjasTestOK");
+        LocalDate fecha = LocalDate.of(2025, 3, 12);
+        Paciente paciente = this.getDummyEntidad();
+        Medico medico = Medico.builder().id(7L).build();
+        FranjaSerie serie = new FranjaSerie(5L, 1L, medico.getId(), fecha.minusDays(2), fecha.plusDays(5), 1,
+                LocalTime.of(10, 0), LocalTime.of(11, 0));
+        //Cita de otro paciente del mismo médico en la sala de la serie, dentro de su horario:
+        Cita nueva = Cita.builder().id(9L)
+                .paciente(Paciente.builder().id(4L).medicoAsignado(medico).build())
+                .sala(Sala.builder().id(1L).build()).fechaCita(fecha)
+                .horaEntrada(LocalTime.of(10, 15)).horaSalida(LocalTime.of(10, 45)).build();
+
+        //Definición de comportamiento: la serie ocupa la franja hasta que se elimina en cascada con el paciente:
+        this.indiceOcupacion.invalidarTodo();
+        this.indiceMedicos.invalidarTodo();
+        when(repositorio.findById(paciente.getId())).thenReturn(Optional.of(paciente));
+        when(serieRepositorio.findFranjasByPacienteId(paciente.getId())).thenReturn(List.of(serie));
+        when(serieRepositorio.findFranjasBySalaAndFecha(1L, fecha)).thenReturn(List.of(serie), List.of());
+        when(serieRepositorio.findFranjasByMedicosAndFecha(List.of(medico.getId()), fecha))
+                .thenReturn(List.of(serie), List.of());
+
+        assertThrows(SalaOcupadaExcepcion.class, () -> this.indiceOcupacion.reservar(nueva));
+        assertThrows(MedicoOcupadoExcepcion.class, () -> this.indiceMedicos.reservar(nueva));
+        this.servicio.eliminarPaciente(paciente.getId());
+
+        //Verificaciones: ambas agendas se recargan sin la serie y la franja liberada se puede reservar:
+        assertAll(
+                () -> assertDoesNotThrow(() -> this.indiceOcupacion.reservar(nueva)),
+                () -> assertDoesNotThrow(() -> this.indiceMedicos.reservar(nueva))
+        );
+        verify(serieRepositorio, times(2)).findFranjasBySalaAndFecha(1L, fecha);
+        verify(serieRepositorio, times(2)).findFranjasByMedicosAndFecha(List.of(medico.getId()), fecha);
+        log.debug("<--- eliminarPacienteConSerieLiberaSusFranjasTestOK");
+    }
+
     @Test
     public void eliminarTodosPacientesTestOK()
     {
         log.debug("---> eliminarTodosPacientesTestOK");
-        doNothing().when(repositorio).deleteAll();
+        List<Long> ids = List.of(1L, 2L);
+        when(repositorio.findIds(any(Pageable.class))).thenReturn(ids);
         this.servicio.eliminarTodosPacientes();
-        verify(repositorio, times(1)).deleteAll();
+
+        //Verificaciones: las filas dependientes se tratan antes que las propias entidades:
+        InOrder orden = inOrder(citaRepositorio, repositorio);
+        orden.verify(citaRepositorio, times(1)).deleteByPacienteIdIn(ids);
+        orden.verify(repositorio, times(1)).deleteAllByIdInBatch(ids);
+        verify(repositorio, times(0)).deleteAll();
         log.debug("<--- eliminarTodosPacientesTestOK");
     }
 }
\ No newline at end of file
@@ -0,0 +1,224 @@
+package dev.acobano.springrestful.hospital.servicios.implementaciones;
+
+import dev.acobano.springrestful.hospital.excepciones.HorarioInvalidoExcepcion;
+import dev.acobano.springrestful.hospital.modelo.proyecciones.SalaResumen;
+import dev.acobano.springrestful.hospital.planificacion.FranjaCita;
+import dev.acobano.springrestful.hospital.planificacion.FranjaMedico;
+import dev.acobano.springrestful.hospital.planificacion.FranjaSerie;
+import dev.acobano.springrestful.hospital.planificacion.Hueco;
+import dev.acobano.springrestful.hospital.planificacion.IndiceAgendaMedicos;
+import dev.acobano.springrestful.hospital.planificacion.IndiceOcupacionSalas;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SalaRepositorio;
+import dev.acobano.springrestful.hospital.repositorios.SerieCitasRepositorio;
+import dev.acobano.springrestful.hospital.servicios.interfaces.IPlanificacionServicio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para los métodos de la capa de servicio encargados de
+ * buscar huecos libres en las agendas de las salas y de los médicos.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest(properties = {
+        "hospital.planificacion.horario.apertura=08:00",
+        "hospital.planificacion.horario.cierre=12:00"
+})
+@Slf4j
+class PlanificacionServicioImplTest
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final LocalDate LUNES = LocalDate.of(2025, 3, 10);
+    private static final LocalDate MARTES = LUNES.plusDays(1);
+
+    @Autowired
+    private IPlanificacionServicio servicio;
+
+    @Autowired
+    private IndiceOcupacionSalas indiceOcupacion;
+
+    @Autowired
+    private IndiceAgendaMedicos indiceMedicos;
+
+    @MockBean
+    private SalaRepositorio salaRepositorio;
+
+    @MockBean
+    private CitaRepositorio citaRepositorio;
+
+    @MockBean
+    private SerieCitasRepositorio serieRepositorio;
+
+
+
+                                        // ***********************
+                                        // ***  OBJETOS DUMMY  ***
+                                        // ***********************
+
+    private SalaResumen getDummySala(Long id, Integer numero)
+    {
+        return new SpelAwareProxyProjectionFactory()
+                .createProjection(SalaResumen.class, Map.of("id", id, "numero", numero));
+    }
+
+    private FranjaCita getDummyFranja(Long citaId, Long salaId, LocalDate fecha, String entrada, String salida)
+    {
+        return new FranjaCita(citaId, salaId, fecha, LocalTime.parse(entrada), LocalTime.parse(salida));
+    }
+
+    @BeforeEach
+    public void prepararAgendas()
+    {
+        //Salas 101 y 102, abiertas de 08:00 a 12:00. El lunes la 101 está ocupada toda la mañana
+        //salvo de 10:00 a 10:30, y la 102 de 08:00 a 11:00:
+        this.indiceOcupacion.invalidarTodo();
+        this.indiceMedicos.invalidarTodo();
+        when(salaRepositorio.findResumenes()).thenReturn(List.of(this.getDummySala(1L, 101), this.getDummySala(2L, 102)));
+        when(citaRepositorio.findFranjasByFecha(LUNES)).thenReturn(List.of(
+                this.getDummyFranja(1L, 1L, LUNES, "08:00:00", "10:00:00"),
+                this.getDummyFranja(2L, 2L, LUNES, "08:00:00", "11:00:00"),
+                this.getDummyFranja(3L, 1L, LUNES, "10:30:00", "12:00:00")));
+        when(citaRepositorio.findFranjasByFecha(MARTES)).thenReturn(List.of());
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void buscarHuecosSalasTestOK()
+    {
+        log.debug("---> buscarHuecosSalasTestOK");
+        List<Hueco> resultado = this.servicio.buscarHuecosSalas(LUNES, 7, 30, 3);
+
+        //Aseveraciones: los huecos salen por día y hora, y el límite corta la búsqueda en el martes:
+        assertAll(
+                () -> assertEquals(3, resultado.size()),
+                () -> assertEquals(new Hueco(1L, 101, LUNES, LocalTime.of(10, 0), LocalTime.of(10, 30)), resultado.get(0)),
+                () -> assertEquals(new Hueco(2L, 102, LUNES, LocalTime.of(11, 0), LocalTime.of(12, 0)), resultado.get(1)),
+                () -> assertEquals(new Hueco(1L, 101, MARTES, LocalTime.of(8, 0), LocalTime.of(12, 0)), resultado.get(2))
+        );
+
+        //Verificaciones: una consulta por día recorrido, y ninguna para los días que no hizo falta mirar:
+        verify(citaRepositorio, times(1)).findFranjasByFecha(LUNES);
+        verify(citaRepositorio, times(1)).findFranjasByFecha(MARTES);
+        verify(citaRepositorio, times(2)).findFranjasByFecha(any(LocalDate.class));
+        log.debug("<--- buscarHuecosSalasTestOK");
+    }
+
+    @Test
+    public void buscarHuecosSalasDuracionTestOK()
+    {
+        log.debug("---> buscarHuecosSalasDuracionTestOK");
+        List<Hueco> resultado = this.servicio.buscarHuecosSalas(LUNES, 1, 45, 10);
+
+        //El hueco de 30 minutos de la sala 101 no cabe:
+        assertAll(
+                () -> assertEquals(1, resultado.size()),
+                () -> assertEquals(2L, resultado.get(0).salaId())
+        );
+
+        log.debug("<--- buscarHuecosSalasDuracionTestOK");
+    }
+
+    @Test
+    public void buscarHuecosMedicoTestOK()
+    {
+        log.debug("---> buscarHuecosMedicoTestOK");
+
+        //El médico pasa consulta el lunes de 09:45 a 10:15 y de 11:30 a 12:00 en otras salas:
+        when(citaRepositorio.findFranjasByMedicosAndFecha(List.of(7L), LUNES)).thenReturn(List.of(
+                new FranjaMedico(7L, 9L, LocalTime.of(9, 45), LocalTime.of(10, 15)),
+                new FranjaMedico(7L, 10L, LocalTime.of(11, 30), LocalTime.of(12, 0))));
+
+        List<Hueco> resultado = this.servicio.buscarHuecosMedico(7L, LUNES, 1, 15, 10);
+
+        assertAll(
+                () -> assertEquals(2, resultado.size()),
+                () -> assertEquals(new Hueco(1L, 101, LUNES, LocalTime.of(10, 15), LocalTime.of(10, 30)), resultado.get(0)),
+                () -> assertEquals(new Hueco(2L, 102, LUNES, LocalTime.of(11, 0), LocalTime.of(11, 30)), resultado.get(1))
+        );
+
+        verify(citaRepositorio, times(1)).findFranjasByMedicosAndFecha(List.of(7L), LUNES);
+        log.debug("<--- buscarHuecosMedicoTestOK");
+    }
+
+    @Test
+    public void buscarHuecosMedicoConSerieTestOK()
+    {
+        log.debug("---> buscarHuecosMedicoConSerieTestOK");
+
+        //Un paciente del médico tiene una serie semanal los lunes de 11:00 a 11:30 en otra sala:
+        when(serieRepositorio.findFranjasByMedicosAndFecha(List.of(7L), LUNES)).thenReturn(List.of(
+                new FranjaSerie(4L, 3L, 7L, LUNES.minusWeeks(1), LUNES.plusWeeks(4), 7,
+                        LocalTime.of(11, 0), LocalTime.of(11, 30))));
+
+        List<Hueco> resultado = this.servicio.buscarHuecosMedico(7L, LUNES, 1, 15, 10);
+
+        //La ocurrencia de la serie recorta el hueco de la sala 102, que ya solo empieza a las 11:30:
+        assertAll(
+                () -> assertEquals(2, resultado.size()),
+                () -> assertEquals(new Hueco(1L, 101, LUNES, LocalTime.of(10, 0), LocalTime.of(10, 30)), resultado.get(0)),
+                () -> assertEquals(new Hueco(2L, 102, LUNES, LocalTime.of(11, 30), LocalTime.of(12, 0)), resultado.get(1))
+        );
+
+        log.debug("<--- buscarHuecosMedicoConSerieTestOK");
+    }
+
+    @Test
+    public void buscarHuecosParametrosTestKO()
+    {
+        log.debug("---> buscarHuecosParametrosTestKO");
+
+        assertAll(
+                () -> assertThrows(HorarioInvalidoExcepcion.class, () -> this.servicio.buscarHuecosSalas(LUNES, 1, 0, 10)),
+                () -> assertThrows(HorarioInvalidoExcepcion.class, () -> this.servicio.buscarHuecosSalas(LUNES, 1, 241, 10)),
+                () -> assertThrows(HorarioInvalidoExcepcion.class, () -> this.servicio.buscarHuecosSalas(LUNES, 0, 30, 10)),
+                () -> assertThrows(HorarioInvalidoExcepcion.class, () -> this.servicio.buscarHuecosSalas(LUNES, 1, 30, 0))
+        );
+
+        verify(salaRepositorio, times(0)).findResumenes();
+        log.debug("<--- buscarHuecosParametrosTestKO");
+    }
+
+    @Test
+    public void buscarSalasLibresTestOK()
+    {
+        log.debug("---> buscarSalasLibresTestOK");
+
+        //A las 10:15 solo está libre la 101; a las 11:00, solo la 102:
+        List<Hueco> a1015 = this.servicio.buscarSalasLibres(LUNES, LocalTime.of(10, 15), LocalTime.of(10, 16));
+        List<Hueco> a1100 = this.servicio.buscarSalasLibres(LUNES, LocalTime.of(11, 0), LocalTime.of(11, 30));
+
+        assertAll(
+                () -> assertEquals(List.of(new Hueco(1L, 101, LUNES, LocalTime.of(10, 15), LocalTime.of(10, 16))), a1015),
+                () -> assertEquals(List.of(2L), a1100.stream().map(Hueco::salaId).toList()),
+                () -> assertThrows(HorarioInvalidoExcepcion.class,
+                        () -> this.servicio.buscarSalasLibres(LUNES, LocalTime.of(11, 0), LocalTime.of(11, 0)))
+        );
+
+        //Verificaciones: las dos consultas del mismo día se responden con una única carga de sus agendas:
+        verify(citaRepositorio, times(1)).findFranjasByFecha(LUNES);
+        log.debug("<--- buscarSalasLibresTestOK");
+    }
+
+}
@@ -1,13 +1,16 @@
 package dev.acobano.springrestful.hospital.servicios.implementaciones;
 
 import dev.acobano.springrestful.hospital.modelo.entidades.Sala;
+import dev.acobano.springrestful.hospital.repositorios.CitaRepositorio;
 import dev.acobano.springrestful.hospital.repositorios.SalaRepositorio;
 import dev.acobano.springrestful.hospital.servicios.interfaces.ISalaServicio;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Collections;
 import java.util.List;
@@ -36,6 +39,9 @@ class SalaServicioImplTest
     @MockBean
     private SalaRepositorio repositorio;
 
+    @MockBean
+    private CitaRepositorio citaRepositorio;
+
 
 
                                         // ***********************
@@ -165,9 +171,15 @@ class SalaServicioImplTest
     public void eliminarTodasSalasTestOK()
     {
         log.debug("---> eliminarTodasSalasTestOK");
-        doNothing().when(repositorio).deleteAll();
+        List<Long> ids = List.of(1L, 2L);
+        when(repositorio.findIds(any(Pageable.class))).thenReturn(ids);
         this.servicio.eliminarTodasSalas();
-        verify(repositorio, times(1)).deleteAll();
+
+        //Verificaciones: las filas dependientes se tratan antes que las propias entidades:
+        InOrder orden = inOrder(citaRepositorio, repositorio);
+        orden.verify(citaRepositorio, times(1)).deleteBySalaIdIn(ids);
+        orden.verify(repositorio, times(1)).deleteAllByIdInBatch(ids);
+        verify(repositorio, times(0)).deleteAll();
         log.debug("<--- eliminarTodasSalasTestOK");
     }
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package dev.acobano.springrestful.hospital.triaje;
+
+import dev.acobano.springrestful.hospital.modelo.enumerados.Gravedad;
+import dev.acobano.springrestful.hospital.repositorios.PacienteRepositorio;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de testing para la cola de triaje en memoria, encargada de ordenar a los pacientes
+ * por gravedad y fecha de ingreso y de repartirlos entre los puestos de enfermería.
+ * <>
+ * @author Álvaro Cobano
+ */
+@SpringBootTest
+@ContextConfiguration(classes = ColaTriaje.class)
+@Slf4j
+class ColaTriajeTest
+{
+                                        // *******************
+                                        // ***  ATRIBUTOS  ***
+                                        // *******************
+
+    private static final LocalDateTime INGRESO = LocalDateTime.of(2024, 2, 1, 10, 0);
+
+    @Autowired
+    private ColaTriaje cola;
+
+    @MockBean
+    private PacienteRepositorio repositorio;
+
+
+
+                                        // ***********************
+                                        // ***  OBJETOS DUMMY  ***
+                                        // ***********************
+
+    private EntradaTriaje getDummyEntrada(Long id, Gravedad gravedad, int minutosTrasIngreso)
+    {
+        return new EntradaTriaje(id, "Paciente" + id, "Apellidos", gravedad, INGRESO.plusMinutes(minutosTrasIngreso));
+    }
+
+    @BeforeEach
+    public void prepararCola()
+    {
+        //Cada test parte de la cola reconstruida con dos pacientes leves, uno grave y uno crítico:
+        when(repositorio.findEntradasTriaje()).thenReturn(List.of(
+                this.getDummyEntrada(1L, Gravedad.LEVE, 0),
+                this.getDummyEntrada(2L, Gravedad.GRAVE, 30),
+                this.getDummyEntrada(3L, Gravedad.LEVE, -30),
+                this.getDummyEntrada(4L, Gravedad.CRITICA, 60)));
+        this.cola.reconstruir();
+    }
+
+
+
+                                    // ****************************
+                                    // ***  MÉTODOS de TESTING  ***
+                                    // ****************************
+
+    @Test
+    public void extraerSiguienteTestOK()
+    {
+        log.debug("---> extraerSiguienteTestOK");
+
+        //Aseveraciones: primero por gravedad y, dentro de la misma gravedad, por fecha de ingreso:
+        assertAll(
+                () -> assertEquals(4L, this.cola.extraerSiguiente().orElseThrow().pacienteId()),
+                () -> assertEquals(2L, this.cola.extraerSiguiente().orElseThrow().pacienteId()),
+                () -> assertEquals(3L, this.cola.extraerSiguiente().orElseThrow().pacienteId()),
+                () -> assertEquals(1L, this.cola.extraerSiguiente().orElseThrow().pacienteId()),
+                () -> assertEquals(Optional.empty(), this.cola.extraerSiguiente())
+        );
+
+        log.debug("<--- extraerSiguienteTestOK");
+    }
+
+    @Test
+    public void consultarYPosicionTestOK()
+    {
+        log.debug("---> consultarYPosicionTestOK");
+        List<PosicionTriaje> primeros = this.cola.consultar(3);
+
+        //Consultar no extrae a nadie de la cola:
+        assertAll(
+                () -> assertEquals(3, primeros.size()),
+                () -> assertEquals(4L, primeros.get(0).entrada().pacienteId()),
+                () -> assertEquals(3, primeros.get(2).posicion()),
+                () -> assertEquals(4, this.cola.posicion(1L).orElseThrow().posicion()),
+                () -> assertEquals(1, this.cola.posicion(4L).orElseThrow().posicion()),
+                () -> assertTrue(this.cola.posicion(99L).isEmpty())
+        );
+
+        log.debug("<--- consultarYPosicionTestOK");
+    }
+
+    @Test
+    public void actualizarYRetirarTestOK()
+    {
+        log.debug("---> actualizarYRetirarTestOK");
+
+        //El paciente 1 empeora y pasa a ser crítico, pero ingresó después que el 4; el 2 abandona la cola:
+        this.cola.actualizar(this.getDummyEntrada(1L, Gravedad.CRITICA, 90));
+        this.cola.retirar(2L);
+
+        //Un paciente que no está en la cola no vuelve a ella al actualizarse:
+        this.cola.actualizar(this.getDummyEntrada(99L, Gravedad.CRITICA, 0));
+
+        assertAll(
+                () -> assertEquals(2, this.cola.posicion(1L).orElseThrow().posicion()),
+                () -> assertEquals(3, this.cola.posicion(3L).orElseThrow().posicion()),
+                () -> assertTrue(this.cola.posicion(2L).isEmpty()),
+                () -> assertTrue(this.cola.posicion(99L).isEmpty())
+        );
+
+        log.debug("<--- actualizarYRetirarTestOK");
+    }
+
+    @Test
+    public void extraerSiguienteConcurrenteTestOK() throws Exception
+    {
+        log.debug("---> extraerSiguienteConcurrenteTestOK");
+        List<EntradaTriaje> muchas = new ArrayList<>();
+
+        for (long id = 1; id <= 2000; id++)
+            muchas.add(this.getDummyEntrada(id, Gravedad.values()[(int) (id % 5)], (int) (id % 97)));
+
+        Collections.shuffle(muchas);
+        when(repositorio.findEntradasTriaje()).thenReturn(muchas);
+        this.cola.reconstruir();
+
+        //Ocho puestos extraen a la vez hasta vaciar la cola:
+        ExecutorService puestos = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> resultados = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++)
+            resultados.add(puestos.submit(() -> {
+                List<Long> atendidos = new ArrayList<>();
+                Optional<EntradaTriaje> siguiente;
+
+                while ((siguiente = this.cola.extraerSiguiente()).isPresent())
+                    atendidos.add(siguiente.get().pacienteId());
+
+                return atendidos;
+            }));
+
+        Set<Long> atendidos = new HashSet<>();
+        int total = 0;
+
+        for (Future<List<Long>> f : resultados)
+        {
+            List<Long> deUnPuesto = f.get();
+            total += deUnPuesto.size();
+            atendidos.addAll(deUnPuesto);
+        }
+
+        puestos.shutdown();
+        int totalExtraidos = total;
+
+        //Cada paciente se extrae exactamente una vez:
+        assertAll(
+                () -> assertEquals(2000, totalExtraidos),
+                () -> assertEquals(2000, atendidos.size()),
+                () -> assertTrue(this.cola.consultar(1).isEmpty())
+        );
+
+        log.debug("<--- extraerSiguienteConcurrenteTestOK");
+    }
+}